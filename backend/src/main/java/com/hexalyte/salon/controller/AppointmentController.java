@@ -2,6 +2,7 @@ package com.hexalyte.salon.controller;
 
 import com.hexalyte.salon.dto.*;
 import com.hexalyte.salon.service.AppointmentService;
+import com.hexalyte.salon.service.AppointmentSlotSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -21,6 +22,9 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private AppointmentSlotSearchService appointmentSlotSearchService;
+
     // Basic CRUD Operations
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('BRANCH_MANAGER') or hasRole('RECEPTIONIST') or hasRole('BEAUTICIAN')")
@@ -167,6 +171,15 @@ public class AppointmentController {
         return ResponseEntity.ok(availability);
     }
 
+    @GetMapping("/availability/branch/{branchId}/matrix")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('BRANCH_MANAGER') or hasRole('RECEPTIONIST')")
+    public ResponseEntity<BranchAvailabilityDTO> getBranchAvailabilityMatrix(
+            @PathVariable Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        BranchAvailabilityDTO availability = appointmentService.getBranchAvailabilityMatrix(branchId, date);
+        return ResponseEntity.ok(availability);
+    }
+
     // Recurrence Management
     @PostMapping("/recurring")
     @PreAuthorize("hasRole('ADMIN') or hasRole('BRANCH_MANAGER') or hasRole('RECEPTIONIST')")
@@ -175,6 +188,13 @@ public class AppointmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdAppointments);
     }
 
+    @PostMapping("/recurring/series")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('BRANCH_MANAGER') or hasRole('RECEPTIONIST')")
+    public ResponseEntity<RecurringSeriesResultDTO> createRecurringSeries(@Valid @RequestBody AppointmentDTO appointmentDTO) {
+        RecurringSeriesResultDTO result = appointmentService.createRecurringSeries(appointmentDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
     @GetMapping("/recurring/{parentAppointmentId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('BRANCH_MANAGER') or hasRole('RECEPTIONIST') or hasRole('BEAUTICIAN')")
     public ResponseEntity<List<AppointmentDTO>> getRecurringAppointments(@PathVariable Long parentAppointmentId) {
@@ -208,6 +228,11 @@ public class AppointmentController {
         List<TimeSlotDTO> suggestedSlots = appointmentService.getSuggestedTimeSlots(staffId, date, durationMinutes);
         return ResponseEntity.ok(suggestedSlots);
     }
-}
-
 
+    @PostMapping("/slot-search")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('BRANCH_MANAGER') or hasRole('RECEPTIONIST')")
+    public ResponseEntity<List<SlotSuggestionDTO>> searchAvailableSlots(@Valid @RequestBody SlotSearchRequestDTO request) {
+        List<SlotSuggestionDTO> slots = appointmentSlotSearchService.searchAvailableSlots(request);
+        return ResponseEntity.ok(slots);
+    }
+}
@@ -1,6 +1,9 @@
 package com.hexalyte.salon.controller;
 
 import com.hexalyte.salon.dto.*;
+import com.hexalyte.salon.service.BillNumberAllocator;
+import com.hexalyte.salon.service.BillingReportService;
+import com.hexalyte.salon.service.BillingRollupService;
 import com.hexalyte.salon.service.BillingService;
 import com.hexalyte.salon.service.InvoiceService;
 import com.hexalyte.salon.security.RequireBranchAccess;
@@ -13,10 +16,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -29,6 +37,15 @@ public class BillingController {
     
     @Autowired
     private InvoiceService invoiceService;
+
+    @Autowired
+    private BillNumberAllocator billNumberAllocator;
+
+    @Autowired
+    private BillingReportService billingReportService;
+
+    @Autowired
+    private BillingRollupService billingRollupService;
     
     @PostMapping("/generate/{appointmentId}")
     @Operation(summary = "Generate bill from completed appointment", 
@@ -129,6 +146,23 @@ public class BillingController {
         }
     }
     
+    @GetMapping(value = "/report/branch/{branchId}/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream billing report",
+               description = "Same report as /report/branch/{branchId}, written progressively for long date ranges")
+    @RequireBranchAccess
+    public ResponseEntity<StreamingResponseBody> streamBillingReport(
+            @Parameter(description = "Branch ID") @PathVariable Long branchId,
+            @Parameter(description = "Start date (yyyy-MM-dd)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date (yyyy-MM-dd)") 
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> billingReportService.writeBillingReport(branchId, startDate, endDate, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
     @PostMapping("/{billId}/refund")
     @Operation(summary = "Refund a bill", description = "Process refund for a paid bill")
     @RequireBranchAccess
@@ -156,6 +190,17 @@ public class BillingController {
         }
     }
     
+    @PostMapping("/bill-numbers/reconcile")
+    @Operation(summary = "Reconcile bill number sequences",
+               description = "Moves each branch's bill number sequence for the month past the highest bill number already issued")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> reconcileBillNumbers(
+            @Parameter(description = "Month (yyyy-MM), defaults to the current month")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        YearMonth month = period != null ? period : YearMonth.now();
+        return ResponseEntity.ok(billNumberAllocator.reconcile(month.toString()));
+    }
+
     @GetMapping("/search")
     @Operation(summary = "Search bills", description = "Search bills with various filters")
     @RequireBranchAccess
@@ -170,8 +215,39 @@ public class BillingController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             Pageable pageable) {
         try {
-            // This would need to be implemented in the service
-            return ResponseEntity.ok(Page.empty());
+            Page<BillingDTO> bills = billingService.searchBills(branchId, customerId, status, paymentMethod,
+                                                                startDate, endDate, pageable);
+            return ResponseEntity.ok(bills);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/search/keyset")
+    @Operation(summary = "Search bills with keyset paging", 
+               description = "Newest-first bill search that continues after the cursor of the previous page; " +
+                             "the total count is only computed when includeTotal is true")
+    @RequireBranchAccess
+    public ResponseEntity<BillingKeysetPageDTO> searchBillsKeyset(
+            @Parameter(description = "Branch ID") @RequestParam(required = false) Long branchId,
+            @Parameter(description = "Customer ID") @RequestParam(required = false) Long customerId,
+            @Parameter(description = "Status") @RequestParam(required = false) String status,
+            @Parameter(description = "Payment method") @RequestParam(required = false) String paymentMethod,
+            @Parameter(description = "Start date (yyyy-MM-dd)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date (yyyy-MM-dd)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Bill date of the last row of the previous page") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @Parameter(description = "Bill ID of the last row of the previous page") 
+            @RequestParam(required = false) Long cursorId,
+            @Parameter(description = "Page size (1-100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Also return the total number of matching bills") 
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            BillingKeysetPageDTO page = billingService.searchBillsKeyset(branchId, customerId, status, paymentMethod,
+                                                                         startDate, endDate, cursorDate, cursorId, size, includeTotal);
+            return ResponseEntity.ok(page);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -183,13 +259,22 @@ public class BillingController {
     public ResponseEntity<BillingDashboardDTO> getBillingDashboard(
             @Parameter(description = "Branch ID") @PathVariable Long branchId) {
         try {
-            // This would need to be implemented
-            return ResponseEntity.ok(new BillingDashboardDTO());
+            return ResponseEntity.ok(billingService.getBillingDashboard(branchId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    @PostMapping("/dashboard/branch/{branchId}/rebuild")
+    @Operation(summary = "Rebuild billing dashboard rollups",
+               description = "Recomputes the branch's materialized dashboard counters from its bills and refunds")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> rebuildBillingDashboard(
+            @Parameter(description = "Branch ID") @PathVariable Long branchId) {
+        billingRollupService.rebuildRollups(branchId);
+        return ResponseEntity.ok().build();
+    }
+    
     @GetMapping("/{billId}/invoice/pdf")
     @Operation(summary = "Generate PDF invoice", description = "Generate and download PDF invoice for a bill")
     @RequireBranchAccess
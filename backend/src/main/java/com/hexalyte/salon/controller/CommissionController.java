@@ -3,17 +3,23 @@ package com.hexalyte.salon.controller;
 import com.hexalyte.salon.dto.*;
 import com.hexalyte.salon.model.Commission;
 import com.hexalyte.salon.model.CommissionAdjustmentLog;
+import com.hexalyte.salon.model.CommissionEvent;
+import com.hexalyte.salon.model.CommissionRule;
 import com.hexalyte.salon.model.CommissionSummary;
+import com.hexalyte.salon.model.MonthPeriod;
 import com.hexalyte.salon.service.*;
 import com.hexalyte.salon.security.AuthUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -35,6 +41,18 @@ public class CommissionController {
     
     @Autowired
     private CommissionReportService commissionReportService;
+
+    @Autowired
+    private CommissionRuleService commissionRuleService;
+
+    @Autowired
+    private CommissionExportService commissionExportService;
+
+    @Autowired
+    private CommissionEventStore commissionEventStore;
+
+    @Autowired
+    private CommissionSimulationService commissionSimulationService;
     
     @Autowired
     private AuthUtils authUtils;
@@ -154,6 +172,51 @@ public class CommissionController {
         }
     }
 
+    /**
+     * Approve all pending commissions matching the filters; returns the number approved
+     */
+    @PostMapping("/approve-bulk")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<Integer> approveCommissions(
+            @RequestParam(required = false) Long staffId,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(required = false) String month,
+            HttpServletRequest request) {
+        try {
+            Long approverId = authUtils.getCurrentUserId(request);
+            return ResponseEntity.ok(commissionService.approveCommissions(staffId, branchId, month, approverId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Lock the approved commissions of a month; returns the number locked
+     */
+    @PostMapping("/lock-month")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('ACCOUNTANT')")
+    public ResponseEntity<Integer> lockCommissionsForMonth(@RequestParam String month,
+                                                           @RequestParam(required = false) Long branchId) {
+        try {
+            return ResponseEntity.ok(commissionService.lockCommissionsForMonth(month, branchId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Reverse all unlocked commissions of an appointment; returns the number reversed
+     */
+    @PostMapping("/appointment/{appointmentId}/reverse")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<Integer> reverseCommissionsForAppointment(@PathVariable Long appointmentId) {
+        try {
+            return ResponseEntity.ok(commissionService.reverseCommissionsForAppointment(appointmentId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Adjust commission amount
      */
@@ -180,6 +243,71 @@ public class CommissionController {
         return ResponseEntity.ok(adjustments);
     }
 
+    /**
+     * Stream commissions for payroll as CSV (default) or XLSX; months are "yyyy-MM", toMonth defaults to fromMonth
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('ACCOUNTANT')")
+    public ResponseEntity<StreamingResponseBody> exportCommissions(
+            @RequestParam String fromMonth,
+            @RequestParam(required = false) String toMonth,
+            @RequestParam(required = false) Long staffId,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format) {
+        Commission.CommissionStatus commissionStatus;
+        try {
+            commissionStatus = status != null ? Commission.CommissionStatus.valueOf(status.toUpperCase()) : null;
+            MonthPeriod.of(fromMonth);
+            if (toMonth != null) {
+                MonthPeriod.of(toMonth);
+            }
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String fileName = "commissions-" + fromMonth + (toMonth != null && !toMonth.equals(fromMonth) ? "-to-" + toMonth : "");
+        if ("xlsx".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> commissionExportService.writeXlsx(
+                staffId, branchId, commissionStatus, fromMonth, toMonth, out);
+            return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + ".xlsx\"")
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
+        }
+        if (!"csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> commissionExportService.writeCsv(
+            staffId, branchId, commissionStatus, fromMonth, toMonth, out);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + ".csv\"")
+            .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+            .body(body);
+    }
+
+    /**
+     * Get a commission's event stream
+     */
+    @GetMapping("/{id}/events")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('ACCOUNTANT')")
+    public ResponseEntity<List<CommissionEvent>> getCommissionEvents(@PathVariable Long id) {
+        return ResponseEntity.ok(commissionService.getCommissionEvents(id));
+    }
+
+    /**
+     * Rebuild a month's commission and summary projections from the event streams
+     */
+    @PostMapping("/events/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> rebuildCommissionProjections(@RequestParam String month) {
+        try {
+            return ResponseEntity.ok(commissionEventStore.rebuildProjections(month));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Commission Summary Endpoints
 
     /**
@@ -295,11 +423,10 @@ public class CommissionController {
      */
     @PostMapping("/summaries/approve-month")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
-    public ResponseEntity<Void> approveAllSummariesForMonth(@RequestParam String month, HttpServletRequest request) {
+    public ResponseEntity<Integer> approveAllSummariesForMonth(@RequestParam String month, HttpServletRequest request) {
         try {
             Long approverId = authUtils.getCurrentUserId(request);
-            commissionSummaryService.approveAllSummariesForMonth(month, approverId);
-            return ResponseEntity.ok().build();
+            return ResponseEntity.ok(commissionSummaryService.approveAllSummariesForMonth(month, approverId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -310,10 +437,9 @@ public class CommissionController {
      */
     @PostMapping("/summaries/lock-month")
     @PreAuthorize("hasRole('ADMIN') or hasRole('ACCOUNTANT')")
-    public ResponseEntity<Void> lockAllSummariesForMonth(@RequestParam String month) {
+    public ResponseEntity<Integer> lockAllSummariesForMonth(@RequestParam String month) {
         try {
-            commissionSummaryService.lockAllSummariesForMonth(month);
-            return ResponseEntity.ok().build();
+            return ResponseEntity.ok(commissionSummaryService.lockAllSummariesForMonth(month));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -347,6 +473,100 @@ public class CommissionController {
         }
     }
 
+    /**
+     * Reconcile commission summaries of a month against their commissions
+     */
+    @PostMapping("/summaries/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> reconcileCommissionSummaries(@RequestParam String month) {
+        try {
+            return ResponseEntity.ok(commissionSummaryService.reconcileMonth(month));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Commission Rule Endpoints
+
+    /**
+     * Get all commission rules
+     */
+    @GetMapping("/rules")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<List<CommissionRule>> getCommissionRules() {
+        return ResponseEntity.ok(commissionRuleService.getAllRules());
+    }
+
+    /**
+     * Create a commission rule
+     */
+    @PostMapping("/rules")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommissionRule> createCommissionRule(@Valid @RequestBody CommissionRule rule) {
+        try {
+            return ResponseEntity.ok(commissionRuleService.createRule(rule));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Update a commission rule
+     */
+    @PutMapping("/rules/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommissionRule> updateCommissionRule(@PathVariable Long id, @Valid @RequestBody CommissionRule rule) {
+        try {
+            return ResponseEntity.ok(commissionRuleService.updateRule(id, rule));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Delete a commission rule
+     */
+    @DeleteMapping("/rules/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<Void> deleteCommissionRule(@PathVariable Long id) {
+        try {
+            commissionRuleService.deleteRule(id);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Recalculate a month's open commissions under the current rules; without apply this is a dry run
+     */
+    @PostMapping("/recalculate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CommissionRecalculationReportDTO> recalculateCommissions(
+            @RequestParam String month,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(defaultValue = "false") boolean apply) {
+        try {
+            return ResponseEntity.ok(commissionRuleService.recalculatePeriod(month, branchId, apply));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Price candidate rules against past billing without touching commissions or the live rules
+     */
+    @PostMapping("/simulate")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommissionSimulationResultDTO> simulateCommissionRules(
+            @Valid @RequestBody CommissionSimulationRequestDTO request) {
+        try {
+            return ResponseEntity.ok(commissionSimulationService.simulate(request));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Commission Report Endpoints
 
     /**
@@ -2,7 +2,10 @@ package com.hexalyte.salon.controller;
 
 import com.hexalyte.salon.dto.InventoryTransactionDTO;
 import com.hexalyte.salon.dto.PurchaseEntryDTO;
+import com.hexalyte.salon.dto.StockTransferOrderDTO;
 import com.hexalyte.salon.service.InventoryTransactionService;
+import com.hexalyte.salon.service.StockTransferService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -23,6 +26,9 @@ public class InventoryTransactionController {
     @Autowired
     private InventoryTransactionService inventoryTransactionService;
     
+    @Autowired
+    private StockTransferService stockTransferService;
+    
     @PostMapping("/purchase")
     public ResponseEntity<InventoryTransactionDTO> createPurchaseTransaction(
             @RequestParam Long branchId,
@@ -103,6 +109,18 @@ public class InventoryTransactionController {
         }
     }
     
+    // Lines are reported one by one; the order is rejected as a whole only when no line could be applied
+    @PostMapping("/transfer-order")
+    public ResponseEntity<StockTransferOrderDTO> processTransferOrder(@Valid @RequestBody StockTransferOrderDTO transferOrder) {
+        try {
+            StockTransferOrderDTO processedOrder = stockTransferService.processTransferOrder(transferOrder);
+            HttpStatus status = processedOrder.getLinesApplied() > 0 ? HttpStatus.CREATED : HttpStatus.UNPROCESSABLE_ENTITY;
+            return new ResponseEntity<>(processedOrder, status);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+    
     @GetMapping("/search")
     public ResponseEntity<Page<InventoryTransactionDTO>> getTransactionsByFilters(
             @RequestParam(required = false) Long branchId,
@@ -0,0 +1,30 @@
+package com.hexalyte.salon.controller;
+
+import com.hexalyte.salon.dto.NotificationChannelMetricsDTO;
+import com.hexalyte.salon.service.NotificationDispatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/notifications")
+@CrossOrigin(origins = "*")
+public class NotificationController {
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @GetMapping("/metrics")
+    public ResponseEntity<List<NotificationChannelMetricsDTO>> getDispatchMetrics() {
+        return new ResponseEntity<>(notificationDispatcher.getMetrics(), HttpStatus.OK);
+    }
+
+    @PostMapping("/dispatch")
+    public ResponseEntity<Void> triggerDispatch() {
+        notificationDispatcher.wakeUp();
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
+}
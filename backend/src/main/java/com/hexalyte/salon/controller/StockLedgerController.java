@@ -0,0 +1,81 @@
+package com.hexalyte.salon.controller;
+
+import com.hexalyte.salon.dto.HistoricalStockDTO;
+import com.hexalyte.salon.dto.StockHistoryDTO;
+import com.hexalyte.salon.model.MonthPeriod;
+import com.hexalyte.salon.service.StockLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/inventory/ledger")
+@CrossOrigin(origins = "*")
+public class StockLedgerController {
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
+    /**
+     * Stock of a branch at the end of a day (date) or a month (month, "yyyy-MM")
+     */
+    @GetMapping("/branch/{branchId}/stock")
+    public ResponseEntity<HistoricalStockDTO> getHistoricalStock(
+            @PathVariable Long branchId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String month) {
+        try {
+            LocalDateTime asOf;
+            if (month != null) {
+                asOf = MonthPeriod.of(month).getEnd();
+            } else if (date != null) {
+                asOf = date.plusDays(1).atStartOfDay();
+            } else {
+                asOf = LocalDateTime.now();
+            }
+            return new ResponseEntity<>(stockLedgerService.getStockAsOf(branchId, asOf), HttpStatus.OK);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /**
+     * Daily closing stock of a product, for stock-over-time charts
+     */
+    @GetMapping("/branch/{branchId}/product/{productId}/history")
+    public ResponseEntity<StockHistoryDTO> getStockHistory(
+            @PathVariable Long branchId,
+            @PathVariable Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        try {
+            return new ResponseEntity<>(stockLedgerService.getStockHistory(branchId, productId, fromDate, toDate), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /**
+     * Products whose inventory quantity disagrees with the ledger
+     */
+    @GetMapping("/branch/{branchId}/reconcile")
+    public ResponseEntity<HistoricalStockDTO> reconcileStock(@PathVariable Long branchId) {
+        return new ResponseEntity<>(stockLedgerService.reconcile(branchId), HttpStatus.OK);
+    }
+    
+    /**
+     * Take the snapshots that are due now instead of waiting for the hourly run
+     */
+    @PostMapping("/snapshots")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> takeDueSnapshots() {
+        return new ResponseEntity<>(stockLedgerService.takeDueSnapshots(), HttpStatus.OK);
+    }
+}
@@ -14,12 +14,15 @@ public class BillingDashboardDTO {
     private Integer todayBills;
     private BigDecimal todayTax;
     private BigDecimal todayDiscount;
+    private Integer todayRefunds;
+    private BigDecimal todayRefundAmount;
     
     // This month's summary
     private BigDecimal monthRevenue;
     private Integer monthBills;
     private BigDecimal monthTax;
     private BigDecimal monthDiscount;
+    private BigDecimal monthRefundAmount;
     
     // Payment status counts
     private Integer paidBills;
@@ -185,4 +188,28 @@ public class BillingDashboardDTO {
     public void setStaffPerformanceToday(List<StaffRevenueDTO> staffPerformanceToday) {
         this.staffPerformanceToday = staffPerformanceToday;
     }
+
+    public Integer getTodayRefunds() {
+        return todayRefunds;
+    }
+
+    public void setTodayRefunds(Integer todayRefunds) {
+        this.todayRefunds = todayRefunds;
+    }
+
+    public BigDecimal getTodayRefundAmount() {
+        return todayRefundAmount;
+    }
+
+    public void setTodayRefundAmount(BigDecimal todayRefundAmount) {
+        this.todayRefundAmount = todayRefundAmount;
+    }
+
+    public BigDecimal getMonthRefundAmount() {
+        return monthRefundAmount;
+    }
+
+    public void setMonthRefundAmount(BigDecimal monthRefundAmount) {
+        this.monthRefundAmount = monthRefundAmount;
+    }
 }
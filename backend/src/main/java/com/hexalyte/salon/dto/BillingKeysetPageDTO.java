@@ -0,0 +1,76 @@
+package com.hexalyte.salon.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of a keyset bill search. Pass nextCursorDate and nextCursorId back to fetch the
+ * following page; totalElements is only filled when the caller asks for a count.
+ */
+public class BillingKeysetPageDTO {
+
+    private List<BillingDTO> content;
+    private Integer size;
+    private Boolean hasNext;
+    private LocalDateTime nextCursorDate;
+    private Long nextCursorId;
+    private Long totalElements;
+
+    // Constructors
+    public BillingKeysetPageDTO() {}
+
+    public BillingKeysetPageDTO(List<BillingDTO> content, Integer size, Boolean hasNext) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+    }
+
+    // Getters and Setters
+    public List<BillingDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<BillingDTO> content) {
+        this.content = content;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public LocalDateTime getNextCursorDate() {
+        return nextCursorDate;
+    }
+
+    public void setNextCursorDate(LocalDateTime nextCursorDate) {
+        this.nextCursorDate = nextCursorDate;
+    }
+
+    public Long getNextCursorId() {
+        return nextCursorId;
+    }
+
+    public void setNextCursorId(Long nextCursorId) {
+        this.nextCursorId = nextCursorId;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+}
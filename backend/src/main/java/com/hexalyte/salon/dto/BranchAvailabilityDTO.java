@@ -0,0 +1,205 @@
+package com.hexalyte.salon.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Compact branch-wide availability grid for one day.
+ * Each staff row carries one character per slot in {@link #slotStartTimes}: '1' free, '0' booked.
+ * Details of the booked ranges are listed once in {@link #bookings}.
+ */
+public class BranchAvailabilityDTO {
+
+    private Long branchId;
+    private String branchName;
+    private LocalDate date;
+    private Integer slotMinutes;
+    private List<LocalTime> slotStartTimes;
+    private List<StaffAvailabilityRow> staff;
+    private List<BookedSlot> bookings;
+
+    // Constructors
+    public BranchAvailabilityDTO() {}
+
+    public BranchAvailabilityDTO(Long branchId, String branchName, LocalDate date, Integer slotMinutes) {
+        this.branchId = branchId;
+        this.branchName = branchName;
+        this.date = date;
+        this.slotMinutes = slotMinutes;
+    }
+
+    // Getters and Setters
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public String getBranchName() {
+        return branchName;
+    }
+
+    public void setBranchName(String branchName) {
+        this.branchName = branchName;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Integer getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(Integer slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    public List<LocalTime> getSlotStartTimes() {
+        return slotStartTimes;
+    }
+
+    public void setSlotStartTimes(List<LocalTime> slotStartTimes) {
+        this.slotStartTimes = slotStartTimes;
+    }
+
+    public List<StaffAvailabilityRow> getStaff() {
+        return staff;
+    }
+
+    public void setStaff(List<StaffAvailabilityRow> staff) {
+        this.staff = staff;
+    }
+
+    public List<BookedSlot> getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(List<BookedSlot> bookings) {
+        this.bookings = bookings;
+    }
+
+    public static class StaffAvailabilityRow {
+        private Long staffId;
+        private String staffName;
+        private String availability;
+        private Integer freeSlots;
+
+        public StaffAvailabilityRow() {}
+
+        public StaffAvailabilityRow(Long staffId, String staffName, String availability, Integer freeSlots) {
+            this.staffId = staffId;
+            this.staffName = staffName;
+            this.availability = availability;
+            this.freeSlots = freeSlots;
+        }
+
+        public Long getStaffId() {
+            return staffId;
+        }
+
+        public void setStaffId(Long staffId) {
+            this.staffId = staffId;
+        }
+
+        public String getStaffName() {
+            return staffName;
+        }
+
+        public void setStaffName(String staffName) {
+            this.staffName = staffName;
+        }
+
+        public String getAvailability() {
+            return availability;
+        }
+
+        public void setAvailability(String availability) {
+            this.availability = availability;
+        }
+
+        public Integer getFreeSlots() {
+            return freeSlots;
+        }
+
+        public void setFreeSlots(Integer freeSlots) {
+            this.freeSlots = freeSlots;
+        }
+    }
+
+    public static class BookedSlot {
+        private Long staffId;
+        private Long appointmentId;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private String customerName;
+        private String serviceName;
+
+        public BookedSlot() {}
+
+        public BookedSlot(Long staffId, Long appointmentId, LocalTime startTime, LocalTime endTime,
+                          String customerName, String serviceName) {
+            this.staffId = staffId;
+            this.appointmentId = appointmentId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.customerName = customerName;
+            this.serviceName = serviceName;
+        }
+
+        public Long getStaffId() {
+            return staffId;
+        }
+
+        public void setStaffId(Long staffId) {
+            this.staffId = staffId;
+        }
+
+        public Long getAppointmentId() {
+            return appointmentId;
+        }
+
+        public void setAppointmentId(Long appointmentId) {
+            this.appointmentId = appointmentId;
+        }
+
+        public LocalTime getStartTime() {
+            return startTime;
+        }
+
+        public void setStartTime(LocalTime startTime) {
+            this.startTime = startTime;
+        }
+
+        public LocalTime getEndTime() {
+            return endTime;
+        }
+
+        public void setEndTime(LocalTime endTime) {
+            this.endTime = endTime;
+        }
+
+        public String getCustomerName() {
+            return customerName;
+        }
+
+        public void setCustomerName(String customerName) {
+            this.customerName = customerName;
+        }
+
+        public String getServiceName() {
+            return serviceName;
+        }
+
+        public void setServiceName(String serviceName) {
+            this.serviceName = serviceName;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.hexalyte.salon.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serialized content of a locked month: overall totals, per-branch totals and per-staff totals.
+ * Staff totals are ordered by commission, highest first, so their head is the month's top earners.
+ */
+public class CommissionPeriodSnapshotDTO {
+    private String month;
+    private Long totalServices;
+    private BigDecimal totalCommission;
+    private List<CommissionPeriodTotalsDTO> branchTotals = new ArrayList<>();
+    private List<CommissionPeriodTotalsDTO> staffTotals = new ArrayList<>();
+
+    // Constructors
+    public CommissionPeriodSnapshotDTO() {}
+
+    public CommissionPeriodSnapshotDTO(String month, List<CommissionPeriodTotalsDTO> branchTotals,
+                                       List<CommissionPeriodTotalsDTO> staffTotals) {
+        this.month = month;
+        this.branchTotals = branchTotals;
+        this.staffTotals = staffTotals;
+        this.totalServices = branchTotals.stream().mapToLong(CommissionPeriodTotalsDTO::getTotalServices).sum();
+        this.totalCommission = branchTotals.stream()
+            .map(CommissionPeriodTotalsDTO::getTotalCommission)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // Getters and Setters
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public Long getTotalServices() {
+        return totalServices;
+    }
+
+    public void setTotalServices(Long totalServices) {
+        this.totalServices = totalServices;
+    }
+
+    public BigDecimal getTotalCommission() {
+        return totalCommission;
+    }
+
+    public void setTotalCommission(BigDecimal totalCommission) {
+        this.totalCommission = totalCommission;
+    }
+
+    public List<CommissionPeriodTotalsDTO> getBranchTotals() {
+        return branchTotals;
+    }
+
+    public void setBranchTotals(List<CommissionPeriodTotalsDTO> branchTotals) {
+        this.branchTotals = branchTotals;
+    }
+
+    public List<CommissionPeriodTotalsDTO> getStaffTotals() {
+        return staffTotals;
+    }
+
+    public void setStaffTotals(List<CommissionPeriodTotalsDTO> staffTotals) {
+        this.staffTotals = staffTotals;
+    }
+}
@@ -0,0 +1,117 @@
+package com.hexalyte.salon.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Scalar commission totals for one group of a report query (month, branch, staff or month x staff);
+ * the fields outside the group stay null
+ */
+public class CommissionPeriodTotalsDTO {
+    private String month;
+    private Long staffId;
+    private String staffName;
+    private String staffEmployeeCode;
+    private Long branchId;
+    private String branchName;
+    private Long totalServices;
+    private BigDecimal totalCommission;
+
+    // Constructors
+    public CommissionPeriodTotalsDTO() {}
+
+    // Grouped by month
+    public CommissionPeriodTotalsDTO(String month, Long totalServices, BigDecimal totalCommission) {
+        this.month = month;
+        this.totalServices = totalServices;
+        this.totalCommission = totalCommission;
+    }
+
+    // Grouped by branch
+    public CommissionPeriodTotalsDTO(Long branchId, String branchName, Long totalServices, BigDecimal totalCommission) {
+        this.branchId = branchId;
+        this.branchName = branchName;
+        this.totalServices = totalServices;
+        this.totalCommission = totalCommission;
+    }
+
+    // Grouped by staff and branch
+    public CommissionPeriodTotalsDTO(Long staffId, String firstName, String lastName, String staffEmployeeCode,
+                                     Long branchId, String branchName, Long totalServices, BigDecimal totalCommission) {
+        this(branchId, branchName, totalServices, totalCommission);
+        this.staffId = staffId;
+        this.staffName = firstName + " " + lastName;
+        this.staffEmployeeCode = staffEmployeeCode;
+    }
+
+    // Grouped by month, staff and branch
+    public CommissionPeriodTotalsDTO(String month, Long staffId, String firstName, String lastName, String staffEmployeeCode,
+                                     Long branchId, String branchName, Long totalServices, BigDecimal totalCommission) {
+        this(staffId, firstName, lastName, staffEmployeeCode, branchId, branchName, totalServices, totalCommission);
+        this.month = month;
+    }
+
+    // Getters and Setters
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public Long getStaffId() {
+        return staffId;
+    }
+
+    public void setStaffId(Long staffId) {
+        this.staffId = staffId;
+    }
+
+    public String getStaffName() {
+        return staffName;
+    }
+
+    public void setStaffName(String staffName) {
+        this.staffName = staffName;
+    }
+
+    public String getStaffEmployeeCode() {
+        return staffEmployeeCode;
+    }
+
+    public void setStaffEmployeeCode(String staffEmployeeCode) {
+        this.staffEmployeeCode = staffEmployeeCode;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public String getBranchName() {
+        return branchName;
+    }
+
+    public void setBranchName(String branchName) {
+        this.branchName = branchName;
+    }
+
+    public Long getTotalServices() {
+        return totalServices;
+    }
+
+    public void setTotalServices(Long totalServices) {
+        this.totalServices = totalServices;
+    }
+
+    public BigDecimal getTotalCommission() {
+        return totalCommission;
+    }
+
+    public void setTotalCommission(BigDecimal totalCommission) {
+        this.totalCommission = totalCommission;
+    }
+}
@@ -0,0 +1,263 @@
+package com.hexalyte.salon.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of re-running the commission rules over a month: before/after totals and one line per
+ * commission whose rate or amount would change (or did, when applied)
+ */
+public class CommissionRecalculationReportDTO {
+    private String month;
+    private Long branchId;
+    private boolean applied;
+    private int commissionsChecked;
+    private int commissionsChanged;
+    private int commissionsSkipped; // No stored service price to recalculate from
+    private BigDecimal totalBefore = BigDecimal.ZERO;
+    private BigDecimal totalAfter = BigDecimal.ZERO;
+    private List<Line> lines = new ArrayList<>();
+
+    // Constructors
+    public CommissionRecalculationReportDTO() {}
+
+    public CommissionRecalculationReportDTO(String month, Long branchId, boolean applied) {
+        this.month = month;
+        this.branchId = branchId;
+        this.applied = applied;
+    }
+
+    // Getters and Setters
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public void setApplied(boolean applied) {
+        this.applied = applied;
+    }
+
+    public int getCommissionsChecked() {
+        return commissionsChecked;
+    }
+
+    public void setCommissionsChecked(int commissionsChecked) {
+        this.commissionsChecked = commissionsChecked;
+    }
+
+    public int getCommissionsChanged() {
+        return commissionsChanged;
+    }
+
+    public void setCommissionsChanged(int commissionsChanged) {
+        this.commissionsChanged = commissionsChanged;
+    }
+
+    public int getCommissionsSkipped() {
+        return commissionsSkipped;
+    }
+
+    public void setCommissionsSkipped(int commissionsSkipped) {
+        this.commissionsSkipped = commissionsSkipped;
+    }
+
+    public BigDecimal getTotalBefore() {
+        return totalBefore;
+    }
+
+    public void setTotalBefore(BigDecimal totalBefore) {
+        this.totalBefore = totalBefore;
+    }
+
+    public BigDecimal getTotalAfter() {
+        return totalAfter;
+    }
+
+    public void setTotalAfter(BigDecimal totalAfter) {
+        this.totalAfter = totalAfter;
+    }
+
+    public BigDecimal getTotalDelta() {
+        return totalAfter.subtract(totalBefore);
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<Line> lines) {
+        this.lines = lines;
+    }
+
+    // Helper methods
+    public void addChecked(BigDecimal before, BigDecimal after) {
+        commissionsChecked++;
+        totalBefore = totalBefore.add(before);
+        totalAfter = totalAfter.add(after);
+    }
+
+    public void addLine(Line line) {
+        commissionsChanged++;
+        lines.add(line);
+    }
+
+    public void addSkipped() {
+        commissionsSkipped++;
+    }
+
+    /**
+     * One commission whose calculation differs under the current rules
+     */
+    public static class Line {
+        private Long commissionId;
+        private Long staffId;
+        private String staffName;
+        private Long branchId;
+        private Long serviceId;
+        private String serviceName;
+        private String oldType;
+        private BigDecimal oldRate;
+        private BigDecimal oldAmount;
+        private String oldRule;
+        private String newType;
+        private BigDecimal newRate;
+        private BigDecimal newAmount;
+        private String newRule;
+
+        // Constructors
+        public Line() {}
+
+        // Getters and Setters
+        public Long getCommissionId() {
+            return commissionId;
+        }
+
+        public void setCommissionId(Long commissionId) {
+            this.commissionId = commissionId;
+        }
+
+        public Long getStaffId() {
+            return staffId;
+        }
+
+        public void setStaffId(Long staffId) {
+            this.staffId = staffId;
+        }
+
+        public String getStaffName() {
+            return staffName;
+        }
+
+        public void setStaffName(String staffName) {
+            this.staffName = staffName;
+        }
+
+        public Long getBranchId() {
+            return branchId;
+        }
+
+        public void setBranchId(Long branchId) {
+            this.branchId = branchId;
+        }
+
+        public Long getServiceId() {
+            return serviceId;
+        }
+
+        public void setServiceId(Long serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        public String getServiceName() {
+            return serviceName;
+        }
+
+        public void setServiceName(String serviceName) {
+            this.serviceName = serviceName;
+        }
+
+        public String getOldType() {
+            return oldType;
+        }
+
+        public void setOldType(String oldType) {
+            this.oldType = oldType;
+        }
+
+        public BigDecimal getOldRate() {
+            return oldRate;
+        }
+
+        public void setOldRate(BigDecimal oldRate) {
+            this.oldRate = oldRate;
+        }
+
+        public BigDecimal getOldAmount() {
+            return oldAmount;
+        }
+
+        public void setOldAmount(BigDecimal oldAmount) {
+            this.oldAmount = oldAmount;
+        }
+
+        public String getOldRule() {
+            return oldRule;
+        }
+
+        public void setOldRule(String oldRule) {
+            this.oldRule = oldRule;
+        }
+
+        public String getNewType() {
+            return newType;
+        }
+
+        public void setNewType(String newType) {
+            this.newType = newType;
+        }
+
+        public BigDecimal getNewRate() {
+            return newRate;
+        }
+
+        public void setNewRate(BigDecimal newRate) {
+            this.newRate = newRate;
+        }
+
+        public BigDecimal getNewAmount() {
+            return newAmount;
+        }
+
+        public void setNewAmount(BigDecimal newAmount) {
+            this.newAmount = newAmount;
+        }
+
+        public String getNewRule() {
+            return newRule;
+        }
+
+        public void setNewRule(String newRule) {
+            this.newRule = newRule;
+        }
+
+        public BigDecimal getDelta() {
+            return newAmount.subtract(oldAmount);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.hexalyte.salon.dto;
+
+import com.hexalyte.salon.model.CommissionRule;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Candidate commission rules to price against past billing; rules carrying the id of an existing
+ * rule replace it for the simulation
+ */
+public class CommissionSimulationRequestDTO {
+
+    @NotNull
+    private LocalDate startDate;
+
+    @NotNull
+    private LocalDate endDate; // Inclusive
+
+    private Long branchId; // Null for all branches
+
+    @Valid
+    @NotEmpty
+    private List<CommissionRule> rules = new ArrayList<>();
+
+    // Constructors
+    public CommissionSimulationRequestDTO() {}
+
+    // Getters and Setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public List<CommissionRule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<CommissionRule> rules) {
+        this.rules = rules;
+    }
+}
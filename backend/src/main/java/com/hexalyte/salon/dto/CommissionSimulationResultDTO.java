@@ -0,0 +1,163 @@
+package com.hexalyte.salon.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Commission under the current rules versus the candidate rules over a past period, per staff member
+ */
+public class CommissionSimulationResultDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long branchId;
+    private long itemsEvaluated;
+    private BigDecimal currentTotal = BigDecimal.ZERO;
+    private BigDecimal simulatedTotal = BigDecimal.ZERO;
+    private List<StaffDelta> staff = new ArrayList<>();
+
+    // Constructors
+    public CommissionSimulationResultDTO() {}
+
+    public CommissionSimulationResultDTO(LocalDate startDate, LocalDate endDate, Long branchId) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.branchId = branchId;
+    }
+
+    // Getters and Setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public long getItemsEvaluated() {
+        return itemsEvaluated;
+    }
+
+    public void setItemsEvaluated(long itemsEvaluated) {
+        this.itemsEvaluated = itemsEvaluated;
+    }
+
+    public BigDecimal getCurrentTotal() {
+        return currentTotal;
+    }
+
+    public void setCurrentTotal(BigDecimal currentTotal) {
+        this.currentTotal = currentTotal;
+    }
+
+    public BigDecimal getSimulatedTotal() {
+        return simulatedTotal;
+    }
+
+    public void setSimulatedTotal(BigDecimal simulatedTotal) {
+        this.simulatedTotal = simulatedTotal;
+    }
+
+    public BigDecimal getTotalDelta() {
+        return simulatedTotal.subtract(currentTotal);
+    }
+
+    public List<StaffDelta> getStaff() {
+        return staff;
+    }
+
+    public void setStaff(List<StaffDelta> staff) {
+        this.staff = staff;
+    }
+
+    /**
+     * One staff member's commission under both rule sets
+     */
+    public static class StaffDelta {
+        private Long staffId;
+        private String staffName;
+        private String employeeCode;
+        private long items;
+        private BigDecimal currentAmount = BigDecimal.ZERO;
+        private BigDecimal simulatedAmount = BigDecimal.ZERO;
+
+        // Constructors
+        public StaffDelta() {}
+
+        public StaffDelta(Long staffId, String staffName, String employeeCode) {
+            this.staffId = staffId;
+            this.staffName = staffName;
+            this.employeeCode = employeeCode;
+        }
+
+        // Getters and Setters
+        public Long getStaffId() {
+            return staffId;
+        }
+
+        public void setStaffId(Long staffId) {
+            this.staffId = staffId;
+        }
+
+        public String getStaffName() {
+            return staffName;
+        }
+
+        public void setStaffName(String staffName) {
+            this.staffName = staffName;
+        }
+
+        public String getEmployeeCode() {
+            return employeeCode;
+        }
+
+        public void setEmployeeCode(String employeeCode) {
+            this.employeeCode = employeeCode;
+        }
+
+        public long getItems() {
+            return items;
+        }
+
+        public void setItems(long items) {
+            this.items = items;
+        }
+
+        public BigDecimal getCurrentAmount() {
+            return currentAmount;
+        }
+
+        public void setCurrentAmount(BigDecimal currentAmount) {
+            this.currentAmount = currentAmount;
+        }
+
+        public BigDecimal getSimulatedAmount() {
+            return simulatedAmount;
+        }
+
+        public void setSimulatedAmount(BigDecimal simulatedAmount) {
+            this.simulatedAmount = simulatedAmount;
+        }
+
+        public BigDecimal getDelta() {
+            return simulatedAmount.subtract(currentAmount);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.hexalyte.salon.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A branch's stock per product as of an instant, from the stock ledger
+ */
+public class HistoricalStockDTO {
+    private Long branchId;
+    private LocalDateTime asOf; // Exclusive: movements at or after this instant are not counted
+    private LocalDateTime snapshotAt; // Snapshot the figures were replayed from, null when replayed from the start
+    private List<Line> lines = new ArrayList<>();
+
+    // Constructors
+    public HistoricalStockDTO() {}
+
+    public HistoricalStockDTO(Long branchId, LocalDateTime asOf, LocalDateTime snapshotAt) {
+        this.branchId = branchId;
+        this.asOf = asOf;
+        this.snapshotAt = snapshotAt;
+    }
+
+    // Getters and Setters
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(LocalDateTime asOf) {
+        this.asOf = asOf;
+    }
+
+    public LocalDateTime getSnapshotAt() {
+        return snapshotAt;
+    }
+
+    public void setSnapshotAt(LocalDateTime snapshotAt) {
+        this.snapshotAt = snapshotAt;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<Line> lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * One product's stock, with its current inventory quantity when reconciling
+     */
+    public static class Line {
+        private Long productId;
+        private String productName;
+        private String productCode;
+        private String productUom;
+        private BigDecimal quantity;
+        private BigDecimal inventoryQuantity;
+
+        // Constructors
+        public Line() {}
+
+        // Getters and Setters
+        public Long getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public void setProductName(String productName) {
+            this.productName = productName;
+        }
+
+        public String getProductCode() {
+            return productCode;
+        }
+
+        public void setProductCode(String productCode) {
+            this.productCode = productCode;
+        }
+
+        public String getProductUom() {
+            return productUom;
+        }
+
+        public void setProductUom(String productUom) {
+            this.productUom = productUom;
+        }
+
+        public BigDecimal getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(BigDecimal quantity) {
+            this.quantity = quantity;
+        }
+
+        public BigDecimal getInventoryQuantity() {
+            return inventoryQuantity;
+        }
+
+        public void setInventoryQuantity(BigDecimal inventoryQuantity) {
+            this.inventoryQuantity = inventoryQuantity;
+        }
+
+        public BigDecimal getDifference() {
+            return inventoryQuantity != null ? inventoryQuantity.subtract(quantity) : null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.hexalyte.salon.dto;
+
+/**
+ * Dispatch metrics of one notification channel. Queue depth, in-flight and dead-lettered counts come
+ * from the outbox table; the counters and latencies cover messages sent by this node since startup.
+ */
+public class NotificationChannelMetricsDTO {
+
+    private String channel;
+    private long queueDepth;
+    private long inFlight;
+    private long deadLettered;
+    private long sent;
+    private long retried;
+    private long failed;
+    private long averageSendMillis;
+    private long averageQueueLatencyMillis;
+    private long maxQueueLatencyMillis;
+    private double rateLimitPerSecond;
+
+    // Constructors
+    public NotificationChannelMetricsDTO() {}
+
+    // Getters and Setters
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(long queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(long inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public long getDeadLettered() {
+        return deadLettered;
+    }
+
+    public void setDeadLettered(long deadLettered) {
+        this.deadLettered = deadLettered;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public void setSent(long sent) {
+        this.sent = sent;
+    }
+
+    public long getRetried() {
+        return retried;
+    }
+
+    public void setRetried(long retried) {
+        this.retried = retried;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getAverageSendMillis() {
+        return averageSendMillis;
+    }
+
+    public void setAverageSendMillis(long averageSendMillis) {
+        this.averageSendMillis = averageSendMillis;
+    }
+
+    public long getAverageQueueLatencyMillis() {
+        return averageQueueLatencyMillis;
+    }
+
+    public void setAverageQueueLatencyMillis(long averageQueueLatencyMillis) {
+        this.averageQueueLatencyMillis = averageQueueLatencyMillis;
+    }
+
+    public long getMaxQueueLatencyMillis() {
+        return maxQueueLatencyMillis;
+    }
+
+    public void setMaxQueueLatencyMillis(long maxQueueLatencyMillis) {
+        this.maxQueueLatencyMillis = maxQueueLatencyMillis;
+    }
+
+    public double getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    public void setRateLimitPerSecond(double rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+    }
+}
@@ -0,0 +1,98 @@
+package com.hexalyte.salon.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecurringSeriesResultDTO {
+
+    private Long parentAppointmentId;
+    private Integer requestedOccurrences;
+    private List<AppointmentDTO> created = new ArrayList<>();
+    private List<OccurrenceConflict> conflicts = new ArrayList<>();
+
+    // Constructors
+    public RecurringSeriesResultDTO() {}
+
+    // Getters and Setters
+    public Long getParentAppointmentId() {
+        return parentAppointmentId;
+    }
+
+    public void setParentAppointmentId(Long parentAppointmentId) {
+        this.parentAppointmentId = parentAppointmentId;
+    }
+
+    public Integer getRequestedOccurrences() {
+        return requestedOccurrences;
+    }
+
+    public void setRequestedOccurrences(Integer requestedOccurrences) {
+        this.requestedOccurrences = requestedOccurrences;
+    }
+
+    public List<AppointmentDTO> getCreated() {
+        return created;
+    }
+
+    public void setCreated(List<AppointmentDTO> created) {
+        this.created = created;
+    }
+
+    public List<OccurrenceConflict> getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(List<OccurrenceConflict> conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public static class OccurrenceConflict {
+        private LocalDate date;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private String reason;
+
+        public OccurrenceConflict() {}
+
+        public OccurrenceConflict(LocalDate date, LocalTime startTime, LocalTime endTime, String reason) {
+            this.date = date;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.reason = reason;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        public LocalTime getStartTime() {
+            return startTime;
+        }
+
+        public void setStartTime(LocalTime startTime) {
+            this.startTime = startTime;
+        }
+
+        public LocalTime getEndTime() {
+            return endTime;
+        }
+
+        public void setEndTime(LocalTime endTime) {
+            this.endTime = endTime;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.hexalyte.salon.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class SlotSearchRequestDTO {
+
+    @NotNull(message = "Branch is required")
+    private Long branchId;
+
+    @NotEmpty(message = "At least one service is required")
+    private List<Long> serviceIds;
+
+    private Long preferredStaffId;
+    private String requiredSkill;
+
+    @NotNull(message = "Start date is required")
+    private LocalDate fromDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate toDate;
+
+    @Min(value = 1, message = "At least one result must be requested")
+    @Max(value = 100, message = "At most 100 results can be requested")
+    private Integer maxResults = 10;
+
+    @Min(value = 5, message = "Step must be at least 5 minutes")
+    private Integer stepMinutes = 15;
+
+    // Constructors
+    public SlotSearchRequestDTO() {}
+
+    // Getters and Setters
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public List<Long> getServiceIds() {
+        return serviceIds;
+    }
+
+    public void setServiceIds(List<Long> serviceIds) {
+        this.serviceIds = serviceIds;
+    }
+
+    public Long getPreferredStaffId() {
+        return preferredStaffId;
+    }
+
+    public void setPreferredStaffId(Long preferredStaffId) {
+        this.preferredStaffId = preferredStaffId;
+    }
+
+    public String getRequiredSkill() {
+        return requiredSkill;
+    }
+
+    public void setRequiredSkill(String requiredSkill) {
+        this.requiredSkill = requiredSkill;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    public Integer getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(Integer maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    public Integer getStepMinutes() {
+        return stepMinutes;
+    }
+
+    public void setStepMinutes(Integer stepMinutes) {
+        this.stepMinutes = stepMinutes;
+    }
+}
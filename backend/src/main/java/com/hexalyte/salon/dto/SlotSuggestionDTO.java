@@ -0,0 +1,76 @@
+package com.hexalyte.salon.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class SlotSuggestionDTO {
+
+    private Long staffId;
+    private String staffName;
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private boolean preferredStaff;
+
+    // Constructors
+    public SlotSuggestionDTO() {}
+
+    public SlotSuggestionDTO(Long staffId, String staffName, LocalDate date, LocalTime startTime, LocalTime endTime,
+                             boolean preferredStaff) {
+        this.staffId = staffId;
+        this.staffName = staffName;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.preferredStaff = preferredStaff;
+    }
+
+    // Getters and Setters
+    public Long getStaffId() {
+        return staffId;
+    }
+
+    public void setStaffId(Long staffId) {
+        this.staffId = staffId;
+    }
+
+    public String getStaffName() {
+        return staffName;
+    }
+
+    public void setStaffName(String staffName) {
+        this.staffName = staffName;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public boolean isPreferredStaff() {
+        return preferredStaff;
+    }
+
+    public void setPreferredStaff(boolean preferredStaff) {
+        this.preferredStaff = preferredStaff;
+    }
+}
@@ -0,0 +1,120 @@
+package com.hexalyte.salon.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Closing stock of one product at a branch for each day of a range, for stock-over-time charts
+ */
+public class StockHistoryDTO {
+    private Long branchId;
+    private Long productId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private BigDecimal openingQuantity; // Stock at the start of fromDate
+    private List<Point> points = new ArrayList<>();
+
+    // Constructors
+    public StockHistoryDTO() {}
+
+    public StockHistoryDTO(Long branchId, Long productId, LocalDate fromDate, LocalDate toDate) {
+        this.branchId = branchId;
+        this.productId = productId;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+    // Getters and Setters
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    public BigDecimal getOpeningQuantity() {
+        return openingQuantity;
+    }
+
+    public void setOpeningQuantity(BigDecimal openingQuantity) {
+        this.openingQuantity = openingQuantity;
+    }
+
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    public void setPoints(List<Point> points) {
+        this.points = points;
+    }
+
+    /**
+     * Stock at the end of a day and the day's net movement
+     */
+    public static class Point {
+        private LocalDate date;
+        private BigDecimal change;
+        private BigDecimal closingQuantity;
+
+        // Constructors
+        public Point() {}
+
+        public Point(LocalDate date, BigDecimal change, BigDecimal closingQuantity) {
+            this.date = date;
+            this.change = change;
+            this.closingQuantity = closingQuantity;
+        }
+
+        // Getters and Setters
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        public BigDecimal getChange() {
+            return change;
+        }
+
+        public void setChange(BigDecimal change) {
+            this.change = change;
+        }
+
+        public BigDecimal getClosingQuantity() {
+            return closingQuantity;
+        }
+
+        public void setClosingQuantity(BigDecimal closingQuantity) {
+            this.closingQuantity = closingQuantity;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.hexalyte.salon.dto;
+
+import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A transfer order moving stock of many products between branches. Lines are validated individually and
+ * come back with their outcome; with allOrNothing a single failed line cancels the whole order.
+ */
+public class StockTransferOrderDTO {
+    
+    @Size(max = 100, message = "Reference number must not exceed 100 characters")
+    private String referenceNumber;
+    
+    private String remarks;
+    
+    @NotNull(message = "Created by is required")
+    private Long createdBy;
+    
+    private boolean allOrNothing;
+    
+    @NotEmpty(message = "Transfer lines are required")
+    private List<TransferLineDTO> lines;
+    
+    // Outcome
+    private int linesApplied;
+    private int linesFailed;
+    
+    // Constructors
+    public StockTransferOrderDTO() {}
+    
+    // Getters and Setters
+    public String getReferenceNumber() {
+        return referenceNumber;
+    }
+    
+    public void setReferenceNumber(String referenceNumber) {
+        this.referenceNumber = referenceNumber;
+    }
+    
+    public String getRemarks() {
+        return remarks;
+    }
+    
+    public void setRemarks(String remarks) {
+        this.remarks = remarks;
+    }
+    
+    public Long getCreatedBy() {
+        return createdBy;
+    }
+    
+    public void setCreatedBy(Long createdBy) {
+        this.createdBy = createdBy;
+    }
+    
+    public boolean isAllOrNothing() {
+        return allOrNothing;
+    }
+    
+    public void setAllOrNothing(boolean allOrNothing) {
+        this.allOrNothing = allOrNothing;
+    }
+    
+    public List<TransferLineDTO> getLines() {
+        return lines;
+    }
+    
+    public void setLines(List<TransferLineDTO> lines) {
+        this.lines = lines;
+    }
+    
+    public int getLinesApplied() {
+        return linesApplied;
+    }
+    
+    public void setLinesApplied(int linesApplied) {
+        this.linesApplied = linesApplied;
+    }
+    
+    public int getLinesFailed() {
+        return linesFailed;
+    }
+    
+    public void setLinesFailed(int linesFailed) {
+        this.linesFailed = linesFailed;
+    }
+    
+    // Inner class for transfer lines
+    public static class TransferLineDTO {
+        
+        private Long productId;
+        private Long fromBranchId;
+        private Long toBranchId;
+        private BigDecimal quantity;
+        
+        // Outcome
+        private LineStatus status;
+        private String message;
+        
+        public enum LineStatus {
+            APPLIED, FAILED, CANCELLED
+        }
+        
+        // Constructors
+        public TransferLineDTO() {}
+        
+        public TransferLineDTO(Long productId, Long fromBranchId, Long toBranchId, BigDecimal quantity) {
+            this.productId = productId;
+            this.fromBranchId = fromBranchId;
+            this.toBranchId = toBranchId;
+            this.quantity = quantity;
+        }
+        
+        // Getters and Setters
+        public Long getProductId() {
+            return productId;
+        }
+        
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+        
+        public Long getFromBranchId() {
+            return fromBranchId;
+        }
+        
+        public void setFromBranchId(Long fromBranchId) {
+            this.fromBranchId = fromBranchId;
+        }
+        
+        public Long getToBranchId() {
+            return toBranchId;
+        }
+        
+        public void setToBranchId(Long toBranchId) {
+            this.toBranchId = toBranchId;
+        }
+        
+        public BigDecimal getQuantity() {
+            return quantity;
+        }
+        
+        public void setQuantity(BigDecimal quantity) {
+            this.quantity = quantity;
+        }
+        
+        public LineStatus getStatus() {
+            return status;
+        }
+        
+        public void setStatus(LineStatus status) {
+            this.status = status;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+        
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
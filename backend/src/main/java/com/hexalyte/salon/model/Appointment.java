@@ -18,8 +18,11 @@ import java.util.List;
 @EntityListeners(AuditingEntityListener.class)
 public class Appointment {
     
+    // Pooled table ids (instead of IDENTITY) so series inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "appointment_id_generator")
+    @TableGenerator(name = "appointment_id_generator", table = "id_generator", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "appointments", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,147 @@
+package com.hexalyte.salon.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "appointment_reminder")
+public class AppointmentReminder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "appointment_reminder_id_generator")
+    @TableGenerator(name = "appointment_reminder_id_generator", table = "id_generator", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "appointment_reminder", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull(message = "Appointment ID is required")
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    @NotNull(message = "Reminder type is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reminder_type", nullable = false)
+    private ReminderType reminderType;
+
+    @NotNull(message = "Due time is required")
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ReminderStatus status = ReminderStatus.PENDING;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Relationships
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "appointment_id", insertable = false, updatable = false)
+    private Appointment appointment;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public AppointmentReminder() {}
+
+    public AppointmentReminder(Long appointmentId, ReminderType reminderType, LocalDateTime dueAt) {
+        this.appointmentId = appointmentId;
+        this.reminderType = reminderType;
+        this.dueAt = dueAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public ReminderType getReminderType() {
+        return reminderType;
+    }
+
+    public void setReminderType(ReminderType reminderType) {
+        this.reminderType = reminderType;
+    }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public ReminderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReminderStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Appointment getAppointment() {
+        return appointment;
+    }
+
+    public void setAppointment(Appointment appointment) {
+        this.appointment = appointment;
+    }
+
+    // Enums
+    public enum ReminderType {
+        DAY_BEFORE(Duration.ofHours(24)),
+        TWO_HOURS(Duration.ofHours(2)),
+        THIRTY_MINUTES(Duration.ofMinutes(30));
+
+        private final Duration leadTime;
+
+        ReminderType(Duration leadTime) {
+            this.leadTime = leadTime;
+        }
+
+        public Duration getLeadTime() {
+            return leadTime;
+        }
+    }
+
+    public enum ReminderStatus {
+        PENDING, SENT, CANCELLED, EXPIRED
+    }
+}
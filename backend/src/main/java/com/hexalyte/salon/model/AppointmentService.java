@@ -13,8 +13,11 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class AppointmentService {
     
+    // Pooled table ids (instead of IDENTITY) so series inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "appointment_service_id_generator")
+    @TableGenerator(name = "appointment_service_id_generator", table = "id_generator", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "appointment_service", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
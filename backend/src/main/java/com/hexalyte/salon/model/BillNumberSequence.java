@@ -0,0 +1,92 @@
+package com.hexalyte.salon.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Next bill number of one branch for one month (period "yyyy-MM").
+ * Rows are locked while a number is taken, so allocation is a single-row read and increment.
+ */
+@Entity
+@Table(name = "bill_number_sequence",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"branch_id", "period"}))
+public class BillNumberSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+
+    @NotNull
+    @Column(name = "period", nullable = false, length = 7)
+    private String period;
+
+    @NotNull
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue = 1L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public BillNumberSequence() {}
+
+    public BillNumberSequence(Long branchId, String period, Long nextValue) {
+        this.branchId = branchId;
+        this.period = period;
+        this.nextValue = nextValue;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
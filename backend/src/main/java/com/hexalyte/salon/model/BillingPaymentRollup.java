@@ -0,0 +1,115 @@
+package com.hexalyte.salon.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized PAID-bill totals of one branch, day and payment method
+ */
+@Entity
+@Table(name = "billing_payment_rollup",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"branch_id", "rollup_date", "payment_method"}))
+public class BillingPaymentRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+
+    @NotNull
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @NotNull
+    @Column(name = "payment_method", nullable = false, length = 50)
+    private String paymentMethod;
+
+    @Column(name = "bill_count", nullable = false)
+    private Integer billCount = 0;
+
+    @Column(name = "amount", precision = 14, scale = 2, nullable = false)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public BillingPaymentRollup() {}
+
+    public BillingPaymentRollup(Long branchId, LocalDate rollupDate, String paymentMethod) {
+        this.branchId = branchId;
+        this.rollupDate = rollupDate;
+        this.paymentMethod = paymentMethod;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public LocalDate getRollupDate() {
+        return rollupDate;
+    }
+
+    public void setRollupDate(LocalDate rollupDate) {
+        this.rollupDate = rollupDate;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public Integer getBillCount() {
+        return billCount;
+    }
+
+    public void setBillCount(Integer billCount) {
+        this.billCount = billCount;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,235 @@
+package com.hexalyte.salon.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized billing counters of one branch for one day, one month or all time.
+ * Bill counts and amounts are attributed to the bill date and revenue, tax and discount cover
+ * PAID bills only (as in the billing report); refunds are attributed to the day they were made.
+ */
+@Entity
+@Table(name = "billing_rollup",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"branch_id", "granularity", "period_start"}))
+public class BillingRollup {
+
+    public static final LocalDate ALL_TIME = LocalDate.of(1970, 1, 1);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "branch_id", nullable = false)
+    private Long branchId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false)
+    private Granularity granularity;
+
+    // First day of the period; ALL rows use ALL_TIME
+    @NotNull
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "bill_count", nullable = false)
+    private Integer billCount = 0;
+
+    @Column(name = "paid_bills", nullable = false)
+    private Integer paidBills = 0;
+
+    @Column(name = "partial_bills", nullable = false)
+    private Integer partialBills = 0;
+
+    @Column(name = "unpaid_bills", nullable = false)
+    private Integer unpaidBills = 0;
+
+    @Column(name = "refunded_bills", nullable = false)
+    private Integer refundedBills = 0;
+
+    @Column(name = "cancelled_bills", nullable = false)
+    private Integer cancelledBills = 0;
+
+    @Column(name = "revenue", precision = 14, scale = 2, nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "tax_amount", precision = 14, scale = 2, nullable = false)
+    private BigDecimal taxAmount = BigDecimal.ZERO;
+
+    @Column(name = "discount_amount", precision = 14, scale = 2, nullable = false)
+    private BigDecimal discountAmount = BigDecimal.ZERO;
+
+    @Column(name = "refund_count", nullable = false)
+    private Integer refundCount = 0;
+
+    @Column(name = "refund_amount", precision = 14, scale = 2, nullable = false)
+    private BigDecimal refundAmount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public BillingRollup() {}
+
+    public BillingRollup(Long branchId, Granularity granularity, LocalDate periodStart) {
+        this.branchId = branchId;
+        this.granularity = granularity;
+        this.periodStart = periodStart;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public Integer getBillCount() {
+        return billCount;
+    }
+
+    public void setBillCount(Integer billCount) {
+        this.billCount = billCount;
+    }
+
+    public Integer getPaidBills() {
+        return paidBills;
+    }
+
+    public void setPaidBills(Integer paidBills) {
+        this.paidBills = paidBills;
+    }
+
+    public Integer getPartialBills() {
+        return partialBills;
+    }
+
+    public void setPartialBills(Integer partialBills) {
+        this.partialBills = partialBills;
+    }
+
+    public Integer getUnpaidBills() {
+        return unpaidBills;
+    }
+
+    public void setUnpaidBills(Integer unpaidBills) {
+        this.unpaidBills = unpaidBills;
+    }
+
+    public Integer getRefundedBills() {
+        return refundedBills;
+    }
+
+    public void setRefundedBills(Integer refundedBills) {
+        this.refundedBills = refundedBills;
+    }
+
+    public Integer getCancelledBills() {
+        return cancelledBills;
+    }
+
+    public void setCancelledBills(Integer cancelledBills) {
+        this.cancelledBills = cancelledBills;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public BigDecimal getTaxAmount() {
+        return taxAmount;
+    }
+
+    public void setTaxAmount(BigDecimal taxAmount) {
+        this.taxAmount = taxAmount;
+    }
+
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public void setDiscountAmount(BigDecimal discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
+    public Integer getRefundCount() {
+        return refundCount;
+    }
+
+    public void setRefundCount(Integer refundCount) {
+        this.refundCount = refundCount;
+    }
+
+    public BigDecimal getRefundAmount() {
+        return refundAmount;
+    }
+
+    public void setRefundAmount(BigDecimal refundAmount) {
+        this.refundAmount = refundAmount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public enum Granularity {
+        DAY, MONTH, ALL;
+
+        public LocalDate periodStart(LocalDate date) {
+            switch (this) {
+                case DAY:
+                    return date;
+                case MONTH:
+                    return date.withDayOfMonth(1);
+                default:
+                    return ALL_TIME;
+            }
+        }
+    }
+}
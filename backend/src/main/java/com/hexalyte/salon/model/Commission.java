@@ -41,7 +41,7 @@ public class Commission {
     private CommissionType commissionType = CommissionType.PERCENT;
 
     @DecimalMin(value = "0.0", inclusive = true)
-    @Column(name = "rate", precision = 5, scale = 2)
+    @Column(name = "rate", precision = 10, scale = 2)
     private BigDecimal rate;
 
     @DecimalMin(value = "0.0", inclusive = true)
@@ -51,6 +51,10 @@ public class Commission {
     @Column(name = "calculated_on")
     private LocalDateTime calculatedOn;
 
+    // "yyyy-MM" of calculatedOn, stored so month filters hit the (staff_id, branch_id, period_month, status) index
+    @Column(name = "period_month", length = 7, nullable = false)
+    private String periodMonth;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "approved_by")
     private User approvedBy;
@@ -68,6 +72,13 @@ public class Commission {
     @Column(name = "calculation_rule", columnDefinition = "TEXT")
     private String calculationRule; // Stores which rule was used (service/branch/staff level)
 
+    // Sequence number of the latest entry in this commission's event stream
+    @Column(name = "event_sequence", nullable = false)
+    private Integer eventSequence = 0;
+
+    @Column(name = "commission_rule_id")
+    private Long ruleId; // CommissionRule applied, null for legacy service/staff rates and manual entries
+
     @Column(name = "service_price", precision = 10, scale = 2)
     private BigDecimal servicePrice; // Store the service price at time of calculation
 
@@ -176,6 +187,10 @@ public class Commission {
         this.calculatedOn = calculatedOn;
     }
 
+    public String getPeriodMonth() {
+        return periodMonth;
+    }
+
     public User getApprovedBy() {
         return approvedBy;
     }
@@ -240,6 +255,31 @@ public class Commission {
         this.updatedAt = updatedAt;
     }
 
+    public Integer getEventSequence() {
+        return eventSequence;
+    }
+
+    public void setEventSequence(Integer eventSequence) {
+        this.eventSequence = eventSequence;
+    }
+
+    public Long getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(Long ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void syncPeriodMonth() {
+        if (calculatedOn == null) {
+            calculatedOn = LocalDateTime.now();
+        }
+        periodMonth = MonthPeriod.of(calculatedOn).getKey();
+    }
+
     // Helper methods
     public boolean isApproved() {
         return status == CommissionStatus.APPROVED;
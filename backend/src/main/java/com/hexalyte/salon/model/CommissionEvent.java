@@ -0,0 +1,128 @@
+package com.hexalyte.salon.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a commission's append-only event stream. Events are numbered per commission and carry
+ * the commission's amount and status after the change, so replaying a stream up to its last event gives
+ * the current state. Never updated or deleted.
+ */
+@Entity
+@Table(name = "commission_event",
+       uniqueConstraints = @UniqueConstraint(name = "uk_commission_event_sequence", columnNames = {"commission_id", "sequence_no"}))
+public class CommissionEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "commission_id", nullable = false, updatable = false)
+    private Long commissionId;
+
+    @Column(name = "sequence_no", nullable = false, updatable = false)
+    private Integer sequenceNo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, updatable = false)
+    private EventType eventType;
+
+    @Column(name = "staff_id", nullable = false, updatable = false)
+    private Long staffId;
+
+    @Column(name = "branch_id", nullable = false, updatable = false)
+    private Long branchId;
+
+    @Column(name = "period_month", length = 7, nullable = false, updatable = false)
+    private String periodMonth;
+
+    @Column(name = "amount", precision = 10, scale = 2, updatable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, updatable = false)
+    private Commission.CommissionStatus status;
+
+    @Column(name = "user_id", updatable = false)
+    private Long userId;
+
+    @Column(name = "reason", columnDefinition = "TEXT", updatable = false)
+    private String reason;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    // Enums
+    public enum EventType {
+        CALCULATED, RECALCULATED, ADJUSTED, APPROVED, LOCKED, REVERSED
+    }
+
+    // Constructors
+    public CommissionEvent() {}
+
+    public CommissionEvent(Commission commission, EventType eventType, Long userId, String reason) {
+        this.commissionId = commission.getId();
+        this.sequenceNo = commission.getEventSequence();
+        this.eventType = eventType;
+        this.staffId = commission.getStaff().getId();
+        this.branchId = commission.getBranch().getId();
+        this.periodMonth = MonthPeriod.of(commission.getCalculatedOn()).getKey();
+        this.amount = commission.getAmount();
+        this.status = commission.getStatus();
+        this.userId = userId;
+        this.reason = reason;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCommissionId() {
+        return commissionId;
+    }
+
+    public Integer getSequenceNo() {
+        return sequenceNo;
+    }
+
+    public EventType getEventType() {
+        return eventType;
+    }
+
+    public Long getStaffId() {
+        return staffId;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public String getPeriodMonth() {
+        return periodMonth;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Commission.CommissionStatus getStatus() {
+        return status;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,103 @@
+package com.hexalyte.salon.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Frozen commission figures of a fully locked month ("yyyy-MM"), stored as a serialized
+ * CommissionPeriodSnapshotDTO so reports over locked periods never go back to the summary rows.
+ */
+@Entity
+@Table(name = "commission_period_snapshot",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"month"}))
+public class CommissionPeriodSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Column(name = "month", nullable = false, length = 7)
+    private String month;
+
+    @Column(name = "total_services", nullable = false)
+    private Long totalServices = 0L;
+
+    @Column(name = "total_commission", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalCommission = BigDecimal.ZERO;
+
+    @Lob
+    @Column(name = "payload", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public CommissionPeriodSnapshot() {}
+
+    public CommissionPeriodSnapshot(String month, Long totalServices, BigDecimal totalCommission, String payload) {
+        this.month = month;
+        this.totalServices = totalServices;
+        this.totalCommission = totalCommission;
+        this.payload = payload;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public Long getTotalServices() {
+        return totalServices;
+    }
+
+    public void setTotalServices(Long totalServices) {
+        this.totalServices = totalServices;
+    }
+
+    public BigDecimal getTotalCommission() {
+        return totalCommission;
+    }
+
+    public void setTotalCommission(BigDecimal totalCommission) {
+        this.totalCommission = totalCommission;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
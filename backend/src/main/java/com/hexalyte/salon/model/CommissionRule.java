@@ -0,0 +1,203 @@
+package com.hexalyte.salon.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A commission rate that applies wherever all of its non-null criteria match: service, branch, staff
+ * member, staff tier (designation) and an optional inclusive date range. More specific rules win;
+ * see CommissionRuleEngine for the precedence.
+ */
+@Entity
+@Table(name = "commission_rule")
+public class CommissionRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotBlank(message = "Rule name is required")
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "service_id")
+    private Long serviceId;
+
+    @Column(name = "branch_id")
+    private Long branchId;
+
+    @Column(name = "staff_id")
+    private Long staffId;
+
+    // Matches Staff.designation, case-insensitively
+    @Column(name = "staff_tier", length = 100)
+    private String staffTier;
+
+    @Column(name = "valid_from")
+    private LocalDate validFrom;
+
+    @Column(name = "valid_to")
+    private LocalDate validTo;
+
+    @NotNull(message = "Commission type is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "commission_type", nullable = false)
+    private Commission.CommissionType commissionType = Commission.CommissionType.PERCENT;
+
+    @NotNull(message = "Rate is required")
+    @DecimalMin(value = "0.0", inclusive = true)
+    @Column(name = "rate", nullable = false, precision = 10, scale = 2)
+    private BigDecimal rate;
+
+    // Breaks ties between rules of equal specificity; higher wins
+    @Column(name = "priority", nullable = false)
+    private Integer priority = 0;
+
+    @Column(name = "active", nullable = false)
+    private Boolean active = true;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public CommissionRule() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(Long serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public void setBranchId(Long branchId) {
+        this.branchId = branchId;
+    }
+
+    public Long getStaffId() {
+        return staffId;
+    }
+
+    public void setStaffId(Long staffId) {
+        this.staffId = staffId;
+    }
+
+    public String getStaffTier() {
+        return staffTier;
+    }
+
+    public void setStaffTier(String staffTier) {
+        this.staffTier = staffTier;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public Commission.CommissionType getCommissionType() {
+        return commissionType;
+    }
+
+    public void setCommissionType(Commission.CommissionType commissionType) {
+        this.commissionType = commissionType;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // Helper methods
+    public boolean isValidOn(LocalDate date) {
+        return (validFrom == null || !date.isBefore(validFrom)) && (validTo == null || !date.isAfter(validTo));
+    }
+}
@@ -11,7 +11,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "commission_summary")
+@Table(name = "commission_summary",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"staff_id", "branch_id", "month"}))
 @EntityListeners(AuditingEntityListener.class)
 public class CommissionSummary {
     
@@ -55,6 +56,11 @@ public class CommissionSummary {
     @Column(name = "locked_at")
     private LocalDateTime lockedAt;
 
+    // Bumped by every total delta, so approving or locking a summary fails if its totals moved underneath it
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -163,6 +169,14 @@ public class CommissionSummary {
         this.lockedAt = lockedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
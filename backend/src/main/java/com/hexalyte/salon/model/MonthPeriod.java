@@ -0,0 +1,70 @@
+package com.hexalyte.salon.model;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * A calendar month as a half-open range [start, end), so month filters compare the raw column
+ * (calculatedOn >= start AND calculatedOn < end) and can use an index instead of YEAR()/MONTH().
+ */
+public final class MonthPeriod {
+
+    private final YearMonth month;
+
+    private MonthPeriod(YearMonth month) {
+        this.month = month;
+    }
+
+    public static MonthPeriod of(int year, int month) {
+        return new MonthPeriod(YearMonth.of(year, month));
+    }
+
+    /**
+     * Parse a "yyyy-MM" month key
+     */
+    public static MonthPeriod of(String key) {
+        return new MonthPeriod(YearMonth.parse(key));
+    }
+
+    public static MonthPeriod of(LocalDateTime dateTime) {
+        return new MonthPeriod(YearMonth.from(dateTime));
+    }
+
+    public static MonthPeriod current() {
+        return new MonthPeriod(YearMonth.now());
+    }
+
+    // Inclusive start of the month
+    public LocalDateTime getStart() {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    // Exclusive end: the first instant of the following month
+    public LocalDateTime getEnd() {
+        return month.plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    // "yyyy-MM", the format of the stored period_month and summary month columns
+    public String getKey() {
+        return month.toString();
+    }
+
+    public MonthPeriod previous() {
+        return new MonthPeriod(month.minusMonths(1));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof MonthPeriod && month.equals(((MonthPeriod) o).month);
+    }
+
+    @Override
+    public int hashCode() {
+        return month.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getKey();
+    }
+}
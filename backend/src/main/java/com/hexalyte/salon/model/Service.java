@@ -9,6 +9,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -305,7 +306,8 @@ public class Service {
         if (commissionType == CommissionType.FIXED_AMOUNT) {
             return fixedCommissionAmount != null ? fixedCommissionAmount : BigDecimal.ZERO;
         } else {
-            return servicePrice.multiply(commissionRate != null ? commissionRate : BigDecimal.ZERO);
+            return servicePrice.multiply(commissionRate != null ? commissionRate : BigDecimal.ZERO)
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
         }
     }
 }
@@ -0,0 +1,94 @@
+package com.hexalyte.salon.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One change of a branch's stock of a product. Entries are only ever appended; the stock at any instant
+ * is the sum of the changes that occurred before it.
+ */
+@Entity
+@Table(name = "stock_ledger_entry")
+public class StockLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "branch_id", nullable = false, updatable = false)
+    private Long branchId;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, updatable = false)
+    private MovementType movementType;
+
+    @Column(name = "quantity_change", nullable = false, precision = 10, scale = 2, updatable = false)
+    private BigDecimal quantityChange;
+
+    @Column(name = "reference", updatable = false)
+    private String reference;
+
+    @Column(name = "user_id", updatable = false)
+    private Long userId;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    // Enums
+    public enum MovementType {
+        OPENING, STOCK_IN, STOCK_OUT, COUNT, USAGE, TRANSFER
+    }
+
+    // Constructors
+    public StockLedgerEntry() {}
+
+    public StockLedgerEntry(Long branchId, Long productId, MovementType movementType, BigDecimal quantityChange,
+                            String reference, Long userId, LocalDateTime occurredAt) {
+        this.branchId = branchId;
+        this.productId = productId;
+        this.movementType = movementType;
+        this.quantityChange = quantityChange;
+        this.reference = reference != null && reference.length() > 255 ? reference.substring(0, 255) : reference;
+        this.userId = userId;
+        this.occurredAt = occurredAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public MovementType getMovementType() {
+        return movementType;
+    }
+
+    public BigDecimal getQuantityChange() {
+        return quantityChange;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,64 @@
+package com.hexalyte.salon.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A branch's stock of a product at a snapshot instant: every ledger entry before snapshotAt, summed.
+ * Point-in-time queries start from the nearest snapshot and add only the entries after it.
+ */
+@Entity
+@Table(name = "stock_snapshot",
+       uniqueConstraints = @UniqueConstraint(name = "uk_stock_snapshot", columnNames = {"branch_id", "snapshot_at", "product_id"}))
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "branch_id", nullable = false, updatable = false)
+    private Long branchId;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    @Column(name = "snapshot_at", nullable = false, updatable = false)
+    private LocalDateTime snapshotAt;
+
+    @Column(name = "quantity", nullable = false, precision = 12, scale = 2, updatable = false)
+    private BigDecimal quantity;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public StockSnapshot() {}
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBranchId() {
+        return branchId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public LocalDateTime getSnapshotAt() {
+        return snapshotAt;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,41 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.AppointmentReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AppointmentReminderRepository extends JpaRepository<AppointmentReminder, Long> {
+
+    // Pending reminders due up to the given time (wheel rebuild and refill)
+    @Query("SELECT r FROM AppointmentReminder r WHERE r.status = 'PENDING' AND r.dueAt <= :until ORDER BY r.dueAt")
+    List<AppointmentReminder> findPendingDueBefore(@Param("until") LocalDateTime until);
+
+    // Pending reminders of the given appointments
+    @Query("SELECT r FROM AppointmentReminder r WHERE r.appointmentId IN :appointmentIds AND r.status = 'PENDING'")
+    List<AppointmentReminder> findPendingByAppointmentIds(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+    // Cancel every pending reminder of the given appointments
+    @Modifying
+    @Query("UPDATE AppointmentReminder r SET r.status = 'CANCELLED' " +
+           "WHERE r.appointmentId IN :appointmentIds AND r.status = 'PENDING'")
+    int cancelPendingByAppointmentIds(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+    // Claim a due reminder; only one caller (on any node) sees an update count of 1
+    @Modifying
+    @Query("UPDATE AppointmentReminder r SET r.status = 'SENT', r.sentAt = :sentAt " +
+           "WHERE r.id = :id AND r.status = 'PENDING'")
+    int claimForSending(@Param("id") Long id, @Param("sentAt") LocalDateTime sentAt);
+
+    // Expire reminders that can no longer be sent before the appointment starts
+    @Modifying
+    @Query("UPDATE AppointmentReminder r SET r.status = 'EXPIRED' WHERE r.id IN :ids AND r.status = 'PENDING'")
+    int expire(@Param("ids") Collection<Long> ids);
+}
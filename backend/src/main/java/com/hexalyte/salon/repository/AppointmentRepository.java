@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -77,6 +78,29 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            "ORDER BY a.startTime")
     List<Appointment> findStaffAppointmentsForDate(@Param("staffId") Long staffId, @Param("date") LocalDate date);
     
+    // Load a staff member's bookings for a day with customer and services fetched (schedule index warm-up)
+    @Query("SELECT DISTINCT a FROM Appointment a JOIN FETCH a.customer " +
+           "LEFT JOIN FETCH a.appointmentServices aps LEFT JOIN FETCH aps.service " +
+           "WHERE a.staff.id = :staffId AND a.appointmentDate = :date " +
+           "AND a.status != 'CANCELLED' AND a.status != 'NO_SHOW'")
+    List<Appointment> findStaffBookingsForScheduleIndex(@Param("staffId") Long staffId, @Param("date") LocalDate date);
+    
+    // Same as above for many staff members at once (branch-wide availability)
+    @Query("SELECT DISTINCT a FROM Appointment a JOIN FETCH a.customer " +
+           "LEFT JOIN FETCH a.appointmentServices aps LEFT JOIN FETCH aps.service " +
+           "WHERE a.staff.id IN :staffIds AND a.appointmentDate = :date " +
+           "AND a.status != 'CANCELLED' AND a.status != 'NO_SHOW'")
+    List<Appointment> findStaffBookingsForScheduleIndex(@Param("staffIds") Collection<Long> staffIds, @Param("date") LocalDate date);
+    
+    // Same as above over a date range (multi-day slot search)
+    @Query("SELECT DISTINCT a FROM Appointment a JOIN FETCH a.customer " +
+           "LEFT JOIN FETCH a.appointmentServices aps LEFT JOIN FETCH aps.service " +
+           "WHERE a.staff.id IN :staffIds AND a.appointmentDate BETWEEN :startDate AND :endDate " +
+           "AND a.status != 'CANCELLED' AND a.status != 'NO_SHOW'")
+    List<Appointment> findStaffBookingsForScheduleIndex(@Param("staffIds") Collection<Long> staffIds,
+                                                        @Param("startDate") LocalDate startDate,
+                                                        @Param("endDate") LocalDate endDate);
+    
     // Find today's appointments
     @Query("SELECT a FROM Appointment a WHERE a.appointmentDate = CURRENT_DATE " +
            "AND a.status IN ('BOOKED', 'IN_PROGRESS') ORDER BY a.startTime")
@@ -0,0 +1,22 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.BillNumberSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BillNumberSequenceRepository extends JpaRepository<BillNumberSequence, Long> {
+
+    // Row lock held until the allocating transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BillNumberSequence s WHERE s.branchId = :branchId AND s.period = :period")
+    Optional<BillNumberSequence> findForUpdate(@Param("branchId") Long branchId, @Param("period") String period);
+
+    boolean existsByBranchIdAndPeriod(Long branchId, String period);
+}
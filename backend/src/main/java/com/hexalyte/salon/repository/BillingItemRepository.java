@@ -1,14 +1,18 @@
 package com.hexalyte.salon.repository;
 
 import com.hexalyte.salon.model.BillingItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BillingItemRepository extends JpaRepository<BillingItem, Long> {
@@ -66,6 +70,18 @@ public interface BillingItemRepository extends JpaRepository<BillingItem, Long>
                                                         @Param("startDate") LocalDateTime startDate, 
                                                         @Param("endDate") LocalDateTime endDate);
     
+    // Revenue per service and staff pair in one scan; reports fold it into service and staff totals
+    @Query("SELECT s.id, s.name, s.category, st.id, st.firstName, st.lastName, st.employeeCode, st.designation, " +
+           "COALESCE(SUM(bi.total), 0), COUNT(bi), " +
+           "COALESCE(SUM(CASE WHEN s.commissionType = 'PERCENTAGE' THEN bi.total * s.commissionRate / 100 " +
+           "ELSE s.fixedCommissionAmount END), 0) " +
+           "FROM BillingItem bi JOIN bi.billing b JOIN bi.service s LEFT JOIN bi.staff st " +
+           "WHERE b.branch.id = :branchId AND b.status = 'PAID' AND b.billDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY s.id, s.name, s.category, st.id, st.firstName, st.lastName, st.employeeCode, st.designation")
+    List<Object[]> getServiceStaffRevenueByBranchAndDateRange(@Param("branchId") Long branchId,
+                                                             @Param("startDate") LocalDateTime startDate,
+                                                             @Param("endDate") LocalDateTime endDate);
+    
     // Revenue by staff
     @Query("SELECT bi.staff.id, bi.staff.firstName, bi.staff.lastName, bi.staff.employeeCode, bi.staff.designation, " +
            "COALESCE(SUM(bi.total), 0) as totalRevenue, COUNT(bi) as serviceCount, " +
@@ -110,4 +126,14 @@ public interface BillingItemRepository extends JpaRepository<BillingItem, Long>
                                                            @Param("staffId") Long staffId, 
                                                            @Param("startDate") LocalDateTime startDate, 
                                                            @Param("endDate") LocalDateTime endDate);
+    
+    // Commission-bearing items of a branch's bills in [start, end) as scalars, streamed from the driver:
+    // service id, staff id, bill date, line total
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT bi.service.id, bi.staff.id, b.billDate, bi.total FROM BillingItem bi JOIN bi.billing b " +
+           "WHERE b.branch.id = :branchId AND b.billDate >= :start AND b.billDate < :end " +
+           "AND b.status NOT IN ('REFUNDED', 'CANCELLED') AND bi.staff IS NOT NULL AND bi.total IS NOT NULL")
+    Stream<Object[]> streamCommissionBasisForBranch(@Param("branchId") Long branchId,
+                                                    @Param("start") LocalDateTime start,
+                                                    @Param("end") LocalDateTime end);
 }
@@ -0,0 +1,33 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.BillingPaymentRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BillingPaymentRollupRepository extends JpaRepository<BillingPaymentRollup, Long> {
+
+    @Query("SELECT r FROM BillingPaymentRollup r WHERE r.branchId = :branchId AND r.rollupDate = :rollupDate " +
+           "AND r.billCount > 0 ORDER BY r.amount DESC")
+    List<BillingPaymentRollup> findActiveByBranchAndDate(@Param("branchId") Long branchId, @Param("rollupDate") LocalDate rollupDate);
+
+    boolean existsByBranchIdAndRollupDateAndPaymentMethod(Long branchId, LocalDate rollupDate, String paymentMethod);
+
+    @Modifying
+    @Query("UPDATE BillingPaymentRollup r SET r.billCount = r.billCount + :bills, r.amount = r.amount + :amount, " +
+           "r.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE r.branchId = :branchId AND r.rollupDate = :rollupDate AND r.paymentMethod = :paymentMethod")
+    int increment(@Param("branchId") Long branchId, @Param("rollupDate") LocalDate rollupDate,
+                  @Param("paymentMethod") String paymentMethod, @Param("bills") int bills, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("DELETE FROM BillingPaymentRollup r WHERE r.branchId = :branchId")
+    int deleteByBranch(@Param("branchId") Long branchId);
+}
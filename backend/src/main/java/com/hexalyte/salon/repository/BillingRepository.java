@@ -1,10 +1,14 @@
 package com.hexalyte.salon.repository;
 
 import com.hexalyte.salon.model.Billing;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,9 +17,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BillingRepository extends JpaRepository<Billing, Long> {
+public interface BillingRepository extends JpaRepository<Billing, Long>, JpaSpecificationExecutor<Billing> {
     
     // Find by bill number
     Optional<Billing> findByBillNumber(String billNumber);
@@ -117,6 +122,30 @@ public interface BillingRepository extends JpaRepository<Billing, Long> {
                                                                @Param("startDate") LocalDateTime startDate, 
                                                                @Param("endDate") LocalDateTime endDate);
     
+    // Billing-header aggregates for reports in one grouped scan: one row per day and payment method,
+    // with status counts and PAID amounts split out by conditional aggregation. Streamed from the driver.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT DATE(b.billDate), b.paymentMethod, COUNT(b), " +
+           "SUM(CASE WHEN b.status = 'PAID' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'PARTIAL' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN b.status = 'UNPAID' THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(CASE WHEN b.status = 'PAID' THEN b.totalAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN b.status = 'PAID' THEN b.taxAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN b.status = 'PAID' THEN b.discountAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN b.status = 'PAID' THEN b.loyaltyRedeemed ELSE 0 END), 0) " +
+           "FROM Billing b WHERE b.branch.id = :branchId AND b.billDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY DATE(b.billDate), b.paymentMethod ORDER BY DATE(b.billDate)")
+    Stream<Object[]> streamReportAggregatesByBranchAndDateRange(@Param("branchId") Long branchId,
+                                                                @Param("startDate") LocalDateTime startDate,
+                                                                @Param("endDate") LocalDateTime endDate);
+    
+    // Per day, status and payment method totals, used to rebuild the billing rollups
+    @Query("SELECT DATE(b.billDate), b.status, b.paymentMethod, COUNT(b), COALESCE(SUM(b.totalAmount), 0), " +
+           "COALESCE(SUM(b.taxAmount), 0), COALESCE(SUM(b.discountAmount), 0) " +
+           "FROM Billing b WHERE b.branch.id = :branchId AND b.billDate IS NOT NULL " +
+           "GROUP BY DATE(b.billDate), b.status, b.paymentMethod")
+    List<Object[]> getRollupTotalsByBranch(@Param("branchId") Long branchId);
+    
     // Check if appointment already has a bill
     boolean existsByAppointmentId(Long appointmentId);
     
@@ -128,6 +157,7 @@ public interface BillingRepository extends JpaRepository<Billing, Long> {
     @Query("SELECT b FROM Billing b WHERE b.createdBy.id = :createdById AND b.branch.id = :branchId ORDER BY b.billDate DESC")
     List<Billing> findByCreatedByIdAndBranchIdOrderByBillDateDesc(@Param("createdById") Long createdById, @Param("branchId") Long branchId);
     
-    // Count by branch and bill number prefix
-    Long countByBranchIdAndBillNumberStartingWith(Long branchId, String prefix);
+    // Highest bill number with the given prefix; numbers are zero-padded so the string maximum is the numeric one
+    @Query("SELECT MAX(b.billNumber) FROM Billing b WHERE b.branch.id = :branchId AND b.billNumber LIKE CONCAT(:prefix, '%')")
+    Optional<String> findMaxBillNumberByBranchIdAndPrefix(@Param("branchId") Long branchId, @Param("prefix") String prefix);
 }
@@ -0,0 +1,42 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.BillingRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface BillingRollupRepository extends JpaRepository<BillingRollup, Long> {
+
+    Optional<BillingRollup> findByBranchIdAndGranularityAndPeriodStart(Long branchId, BillingRollup.Granularity granularity,
+                                                                       LocalDate periodStart);
+
+    boolean existsByBranchIdAndGranularityAndPeriodStart(Long branchId, BillingRollup.Granularity granularity,
+                                                         LocalDate periodStart);
+
+    // Atomic in-place increment, so concurrent bill changes never lose an update
+    @Modifying
+    @Query("UPDATE BillingRollup r SET r.billCount = r.billCount + :bills, r.paidBills = r.paidBills + :paid, " +
+           "r.partialBills = r.partialBills + :partial, r.unpaidBills = r.unpaidBills + :unpaid, " +
+           "r.refundedBills = r.refundedBills + :refunded, r.cancelledBills = r.cancelledBills + :cancelled, " +
+           "r.revenue = r.revenue + :revenue, r.taxAmount = r.taxAmount + :tax, r.discountAmount = r.discountAmount + :discount, " +
+           "r.refundCount = r.refundCount + :refundCount, r.refundAmount = r.refundAmount + :refundAmount, " +
+           "r.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE r.branchId = :branchId AND r.granularity = :granularity AND r.periodStart = :periodStart")
+    int increment(@Param("branchId") Long branchId, @Param("granularity") BillingRollup.Granularity granularity,
+                  @Param("periodStart") LocalDate periodStart,
+                  @Param("bills") int bills, @Param("paid") int paid, @Param("partial") int partial,
+                  @Param("unpaid") int unpaid, @Param("refunded") int refunded, @Param("cancelled") int cancelled,
+                  @Param("revenue") BigDecimal revenue, @Param("tax") BigDecimal tax, @Param("discount") BigDecimal discount,
+                  @Param("refundCount") int refundCount, @Param("refundAmount") BigDecimal refundAmount);
+
+    @Modifying
+    @Query("DELETE FROM BillingRollup r WHERE r.branchId = :branchId")
+    int deleteByBranch(@Param("branchId") Long branchId);
+}
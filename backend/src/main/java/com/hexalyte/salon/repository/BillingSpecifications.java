@@ -0,0 +1,68 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.Billing;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Composable predicates for bill search. Each factory returns null when its filter is not
+ * supplied, and {@link Specification#where} / {@code and} skip nulls, so a search only adds
+ * the predicates that were actually requested.
+ */
+public final class BillingSpecifications {
+
+    private BillingSpecifications() {}
+
+    public static Specification<Billing> hasBranch(Long branchId) {
+        return branchId == null ? null : (root, query, cb) -> cb.equal(root.get("branch").get("id"), branchId);
+    }
+
+    public static Specification<Billing> hasCustomer(Long customerId) {
+        return customerId == null ? null : (root, query, cb) -> cb.equal(root.get("customer").get("id"), customerId);
+    }
+
+    public static Specification<Billing> hasStatus(Billing.BillingStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Billing> hasPaymentMethod(String paymentMethod) {
+        return paymentMethod == null || paymentMethod.isBlank()
+                ? null
+                : (root, query, cb) -> cb.equal(root.get("paymentMethod"), paymentMethod);
+    }
+
+    public static Specification<Billing> billedFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("billDate"), from);
+    }
+
+    public static Specification<Billing> billedBefore(LocalDateTime before) {
+        return before == null ? null : (root, query, cb) -> cb.lessThan(root.get("billDate"), before);
+    }
+
+    /**
+     * Keyset (seek) predicate for results ordered by bill date and id, newest first:
+     * rows strictly after the cursor (bill_date, bill_id), so deep pages cost the same as the first.
+     */
+    public static Specification<Billing> after(LocalDateTime cursorDate, Long cursorId) {
+        if (cursorDate == null || cursorId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("billDate"), cursorDate),
+                cb.and(cb.equal(root.get("billDate"), cursorDate), cb.lessThan(root.get("billId"), cursorId)));
+    }
+
+    // Fetch what BillingDTO reads in the same query; skipped for count queries
+    public static Specification<Billing> fetchSummaryRelations() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("branch", JoinType.INNER);
+                root.fetch("customer", JoinType.INNER);
+                root.fetch("createdBy", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+}
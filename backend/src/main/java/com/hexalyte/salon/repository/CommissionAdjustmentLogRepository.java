@@ -100,11 +100,11 @@ public interface CommissionAdjustmentLogRepository extends JpaRepository<Commiss
     @Query("SELECT cal FROM CommissionAdjustmentLog cal WHERE cal.changedAt >= :weekStart ORDER BY cal.changedAt DESC")
     List<CommissionAdjustmentLog> findThisWeekAdjustments(@Param("weekStart") LocalDateTime weekStart);
     
-    // Find adjustments made this month
+    // Find adjustments made in a month, as the half-open range [start, end)
     @Query("SELECT cal FROM CommissionAdjustmentLog cal WHERE " +
-           "YEAR(cal.changedAt) = :year AND MONTH(cal.changedAt) = :month " +
+           "cal.changedAt >= :start AND cal.changedAt < :end " +
            "ORDER BY cal.changedAt DESC")
-    List<CommissionAdjustmentLog> findThisMonthAdjustments(@Param("year") int year, @Param("month") int month);
+    List<CommissionAdjustmentLog> findThisMonthAdjustments(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
     // Find most active users making adjustments
     @Query("SELECT cal.changedBy, COUNT(cal) as adjustmentCount " +
@@ -0,0 +1,60 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.CommissionEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CommissionEventRepository extends JpaRepository<CommissionEvent, Long> {
+
+    // A commission's stream in order
+    List<CommissionEvent> findByCommissionIdOrderBySequenceNoAsc(Long commissionId);
+
+    // Staff members with events in a month ("yyyy-MM"); a projection rebuild replays each one separately
+    @Query("SELECT DISTINCT e.staffId FROM CommissionEvent e WHERE e.periodMonth = :month")
+    List<Long> findStaffIdsWithEventsInMonth(@Param("month") String month);
+
+    // One staff member's streams for a month, grouped by commission and in sequence order
+    @Query("SELECT e FROM CommissionEvent e WHERE e.staffId = :staffId AND e.periodMonth = :month " +
+           "ORDER BY e.commissionId, e.sequenceNo")
+    List<CommissionEvent> findStaffEventsInMonth(@Param("staffId") Long staffId, @Param("month") String month);
+
+    // Append the current state of each commission as an event numbered with its event_sequence, for bulk
+    // transitions that already bumped the sequence. A commission the transition skipped still has its
+    // latest event under that number, so the duplicate key turns it into a no-op.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO commission_event (commission_id, sequence_no, event_type, staff_id, branch_id, " +
+           "period_month, amount, status, user_id, reason, occurred_at) " +
+           "SELECT c.commission_id, c.event_sequence, :eventType, c.staff_id, c.branch_id, c.period_month, " +
+           "c.amount, c.status, :userId, :reason, :now FROM commission c WHERE c.commission_id IN :ids " +
+           "ON DUPLICATE KEY UPDATE commission_id = commission_event.commission_id",
+           nativeQuery = true)
+    int appendCurrentState(@Param("ids") List<Long> ids,
+                           @Param("eventType") String eventType,
+                           @Param("userId") Long userId,
+                           @Param("reason") String reason,
+                           @Param("now") LocalDateTime now);
+
+    // Commissions of a month recorded before the event store existed: give them sequence 1 ...
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE commission SET event_sequence = 1 WHERE period_month = :month AND event_sequence = 0",
+           nativeQuery = true)
+    int startUntrackedStreams(@Param("month") String month);
+
+    // ... and a first event holding their current state
+    @Modifying
+    @Query(value = "INSERT INTO commission_event (commission_id, sequence_no, event_type, staff_id, branch_id, " +
+           "period_month, amount, status, user_id, reason, occurred_at) " +
+           "SELECT c.commission_id, c.event_sequence, 'CALCULATED', c.staff_id, c.branch_id, c.period_month, " +
+           "c.amount, c.status, NULL, 'Backfilled from commission state', :now FROM commission c " +
+           "WHERE c.period_month = :month AND NOT EXISTS " +
+           "(SELECT 1 FROM commission_event e WHERE e.commission_id = c.commission_id)",
+           nativeQuery = true)
+    int backfillStreams(@Param("month") String month, @Param("now") LocalDateTime now);
+}
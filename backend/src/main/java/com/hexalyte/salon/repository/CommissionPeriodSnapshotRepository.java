@@ -0,0 +1,29 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.CommissionPeriodSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CommissionPeriodSnapshotRepository extends JpaRepository<CommissionPeriodSnapshot, Long> {
+
+    Optional<CommissionPeriodSnapshot> findByMonth(String month);
+
+    List<CommissionPeriodSnapshot> findByMonthIn(Collection<String> months);
+
+    // Month and id of the stored snapshots, without the payload; rows are never updated, so the id
+    // identifies the version a cached payload was decoded from
+    @Query("SELECT s.month, s.id FROM CommissionPeriodSnapshot s WHERE s.month IN :months")
+    List<Object[]> findIdsByMonthIn(@Param("months") Collection<String> months);
+
+    @Modifying
+    @Query("DELETE FROM CommissionPeriodSnapshot s WHERE s.month = :month")
+    int deleteByMonth(@Param("month") String month);
+}
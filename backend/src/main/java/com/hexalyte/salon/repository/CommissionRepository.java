@@ -1,10 +1,15 @@
 package com.hexalyte.salon.repository;
 
 import com.hexalyte.salon.model.Commission;
+import com.hexalyte.salon.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,6 +17,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommissionRepository extends JpaRepository<Commission, Long> {
@@ -74,60 +80,58 @@ public interface CommissionRepository extends JpaRepository<Commission, Long> {
                                            @Param("endDate") LocalDateTime endDate,
                                            Pageable pageable);
     
-    // Calculate total commission amount for staff in a month
+    // Calculate total commission amount for staff in a month ("yyyy-MM")
     @Query("SELECT COALESCE(SUM(c.amount), 0) FROM Commission c WHERE " +
            "c.staff.id = :staffId AND " +
            "c.branch.id = :branchId AND " +
-           "YEAR(c.calculatedOn) = :year AND " +
-           "MONTH(c.calculatedOn) = :month AND " +
+           "c.periodMonth = :month AND " +
            "c.status != 'REVERSED'")
     BigDecimal calculateTotalCommissionForStaffInMonth(@Param("staffId") Long staffId,
                                                       @Param("branchId") Long branchId,
-                                                      @Param("year") int year,
-                                                      @Param("month") int month);
+                                                      @Param("month") String month);
     
-    // Count total services for staff in a month
+    // Count total services for staff in a month ("yyyy-MM")
     @Query("SELECT COUNT(c) FROM Commission c WHERE " +
            "c.staff.id = :staffId AND " +
            "c.branch.id = :branchId AND " +
-           "YEAR(c.calculatedOn) = :year AND " +
-           "MONTH(c.calculatedOn) = :month AND " +
+           "c.periodMonth = :month AND " +
            "c.status != 'REVERSED'")
     Long countServicesForStaffInMonth(@Param("staffId") Long staffId,
                                      @Param("branchId") Long branchId,
-                                     @Param("year") int year,
-                                     @Param("month") int month);
+                                     @Param("month") String month);
     
-    // Calculate total commission amount for branch in a month
+    // Calculate total commission amount for branch in [start, end)
     @Query("SELECT COALESCE(SUM(c.amount), 0) FROM Commission c WHERE " +
            "c.branch.id = :branchId AND " +
-           "YEAR(c.calculatedOn) = :year AND " +
-           "MONTH(c.calculatedOn) = :month AND " +
+           "c.calculatedOn >= :start AND " +
+           "c.calculatedOn < :end AND " +
            "c.status != 'REVERSED'")
     BigDecimal calculateTotalCommissionForBranchInMonth(@Param("branchId") Long branchId,
-                                                       @Param("year") int year,
-                                                       @Param("month") int month);
+                                                       @Param("start") LocalDateTime start,
+                                                       @Param("end") LocalDateTime end);
     
-    // Count total services for branch in a month
+    // Count total services for branch (or all branches when null) in [start, end)
     @Query("SELECT COUNT(c) FROM Commission c WHERE " +
-           "c.branch.id = :branchId AND " +
-           "YEAR(c.calculatedOn) = :year AND " +
-           "MONTH(c.calculatedOn) = :month AND " +
+           "(:branchId IS NULL OR c.branch.id = :branchId) AND " +
+           "c.calculatedOn >= :start AND " +
+           "c.calculatedOn < :end AND " +
            "c.status != 'REVERSED'")
     Long countServicesForBranchInMonth(@Param("branchId") Long branchId,
-                                      @Param("year") int year,
-                                      @Param("month") int month);
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
     
-    // Find top earning staff in a month
+    // Find top earning staff in [start, end)
     @Query("SELECT c.staff.id, c.staff.firstName, c.staff.lastName, c.branch.branchName, " +
            "SUM(c.amount) as totalEarnings, COUNT(c) as totalServices " +
            "FROM Commission c WHERE " +
-           "YEAR(c.calculatedOn) = :year AND " +
-           "MONTH(c.calculatedOn) = :month AND " +
+           "c.calculatedOn >= :start AND " +
+           "c.calculatedOn < :end AND " +
            "c.status != 'REVERSED' " +
            "GROUP BY c.staff.id, c.staff.firstName, c.staff.lastName, c.branch.branchName " +
            "ORDER BY totalEarnings DESC")
-    List<Object[]> findTopEarningStaffInMonth(@Param("year") int year, @Param("month") int month, Pageable pageable);
+    List<Object[]> findTopEarningStaffInMonth(@Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end,
+                                              Pageable pageable);
     
     // Find commissions pending approval
     @Query("SELECT c FROM Commission c WHERE c.status = 'PENDING' ORDER BY c.calculatedOn ASC")
@@ -149,21 +153,104 @@ public interface CommissionRepository extends JpaRepository<Commission, Long> {
     @Query("SELECT COALESCE(SUM(c.amount), 0) FROM Commission c WHERE c.status = 'PENDING'")
     BigDecimal calculateTotalPendingCommission();
     
-    // Calculate total approved commission amount for a month
+    // Calculate total approved commission amount in [start, end)
     @Query("SELECT COALESCE(SUM(c.amount), 0) FROM Commission c WHERE " +
            "c.status = 'APPROVED' AND " +
-           "YEAR(c.calculatedOn) = :year AND " +
-           "MONTH(c.calculatedOn) = :month")
-    BigDecimal calculateTotalApprovedCommissionInMonth(@Param("year") int year, @Param("month") int month);
+           "c.calculatedOn >= :start AND " +
+           "c.calculatedOn < :end")
+    BigDecimal calculateTotalApprovedCommissionInMonth(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
     // Find commissions by appointment, service, and staff
     @Query("SELECT c FROM Commission c WHERE c.appointment.id = :appointmentId AND c.service.id = :serviceId AND c.staff.id = :staffId")
     List<Commission> findByAppointmentIdAndServiceIdAndStaffId(@Param("appointmentId") Long appointmentId, @Param("serviceId") Long serviceId, @Param("staffId") Long staffId);
     
-    // Find staff-branch combinations for a specific month
+    // Find staff-branch combinations in [start, end)
     @Query("SELECT DISTINCT c.staff.id, c.branch.id FROM Commission c WHERE " +
-           "YEAR(c.calculatedOn) = :year AND " +
-           "MONTH(c.calculatedOn) = :month AND " +
+           "c.calculatedOn >= :start AND " +
+           "c.calculatedOn < :end AND " +
            "c.status != 'REVERSED'")
-    List<Object[]> findStaffBranchCombinationsForMonth(@Param("year") int year, @Param("month") int month);
-}
\ No newline at end of file
+    List<Object[]> findStaffBranchCombinationsForMonth(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    // Commission totals per staff-branch over a half-open date range, for summary reconciliation
+    @Query("SELECT c.staff.id, c.branch.id, COALESCE(SUM(c.amount), 0), COUNT(c) FROM Commission c WHERE " +
+           "c.calculatedOn >= :start AND " +
+           "c.calculatedOn < :end AND " +
+           "c.status != 'REVERSED' " +
+           "GROUP BY c.staff.id, c.branch.id")
+    List<Object[]> sumByStaffAndBranchInRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    // Branches with commissions in a month ("yyyy-MM")
+    @Query("SELECT DISTINCT c.branch.id FROM Commission c WHERE c.periodMonth = :month")
+    List<Long> findBranchIdsWithCommissionsInMonth(@Param("month") String month);
+    
+    // Keyset page of rule-calculated commissions still open in a month, with the entities the rule engine matches on
+    @Query("SELECT c FROM Commission c JOIN FETCH c.service JOIN FETCH c.staff JOIN FETCH c.branch WHERE " +
+           "c.periodMonth = :month AND " +
+           "(:branchId IS NULL OR c.branch.id = :branchId) AND " +
+           "c.status IN ('PENDING', 'APPROVED') AND " +
+           "c.isManual = false AND " +
+           "c.id > :afterId " +
+           "ORDER BY c.id")
+    List<Commission> findRecalculationPage(@Param("month") String month,
+                                           @Param("branchId") Long branchId,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+    
+    // Pending commissions matching an approval filter; null filters match everything
+    @Query("SELECT c.id FROM Commission c WHERE c.status = 'PENDING' AND " +
+           "(:staffId IS NULL OR c.staff.id = :staffId) AND " +
+           "(:branchId IS NULL OR c.branch.id = :branchId) AND " +
+           "(:month IS NULL OR c.periodMonth = :month)")
+    List<Long> findPendingIdsForApproval(@Param("staffId") Long staffId,
+                                         @Param("branchId") Long branchId,
+                                         @Param("month") String month);
+    
+    // Approved commissions of a month, in one branch or (null) all branches
+    @Query("SELECT c.id FROM Commission c WHERE c.status = 'APPROVED' AND c.periodMonth = :month AND " +
+           "(:branchId IS NULL OR c.branch.id = :branchId)")
+    List<Long> findApprovedIdsInMonth(@Param("month") String month, @Param("branchId") Long branchId);
+    
+    // Reversible commissions of an appointment: id, staff id, branch id, period month, amount
+    @Query("SELECT c.id, c.staff.id, c.branch.id, c.periodMonth, c.amount FROM Commission c " +
+           "WHERE c.appointment.id = :appointmentId AND c.status IN ('PENDING', 'APPROVED')")
+    List<Object[]> findReversibleByAppointmentId(@Param("appointmentId") Long appointmentId);
+    
+    // Bulk transitions; the status guard skips rows that moved on since their ids were read
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Commission c SET c.status = 'APPROVED', c.approvedBy = :approver, c.approvedAt = :now, c.updatedAt = :now, " +
+           "c.eventSequence = c.eventSequence + 1 " +
+           "WHERE c.id IN :ids AND c.status = 'PENDING'")
+    int approveByIds(@Param("ids") List<Long> ids, @Param("approver") User approver, @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Commission c SET c.status = 'LOCKED', c.updatedAt = :now, " +
+           "c.eventSequence = c.eventSequence + 1 " +
+           "WHERE c.id IN :ids AND c.status = 'APPROVED'")
+    int lockByIds(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Commission c SET c.status = 'REVERSED', c.updatedAt = :now, " +
+           "c.eventSequence = c.eventSequence + 1 " +
+           "WHERE c.id IN :ids AND c.status IN ('PENDING', 'APPROVED')")
+    int reverseByIds(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
+    // Flat export rows in [start, end), streamed from the driver as scalars so nothing accumulates in the
+    // persistence context: id, period month, calculated on, staff id, employee code, first name, last name,
+    // branch id, branch name, service name, appointment id, type, rate, service price, amount, status,
+    // manual flag, approved at
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT c.id, c.periodMonth, c.calculatedOn, s.id, s.employeeCode, s.firstName, s.lastName, " +
+           "b.id, b.branchName, sv.name, c.appointment.id, c.commissionType, c.rate, c.servicePrice, c.amount, " +
+           "c.status, c.isManual, c.approvedAt " +
+           "FROM Commission c JOIN c.staff s JOIN c.branch b JOIN c.service sv WHERE " +
+           "c.calculatedOn >= :start AND c.calculatedOn < :end AND " +
+           "(:staffId IS NULL OR s.id = :staffId) AND " +
+           "(:branchId IS NULL OR b.id = :branchId) AND " +
+           "(:status IS NULL OR c.status = :status) " +
+           "ORDER BY c.calculatedOn")
+    Stream<Object[]> streamForExport(@Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end,
+                                     @Param("staffId") Long staffId,
+                                     @Param("branchId") Long branchId,
+                                     @Param("status") Commission.CommissionStatus status);
+}
@@ -0,0 +1,18 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.CommissionRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CommissionRuleRepository extends JpaRepository<CommissionRule, Long> {
+
+    List<CommissionRule> findByActiveTrue();
+
+    // Row count and latest change; differs from the loaded table whenever a rule was added, edited or deleted
+    @Query("SELECT COUNT(r), MAX(r.updatedAt) FROM CommissionRule r")
+    List<Object[]> getRuleFingerprint();
+}
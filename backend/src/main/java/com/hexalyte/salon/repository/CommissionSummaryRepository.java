@@ -1,14 +1,17 @@
 package com.hexalyte.salon.repository;
 
+import com.hexalyte.salon.dto.CommissionPeriodTotalsDTO;
 import com.hexalyte.salon.model.CommissionSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +22,10 @@ public interface CommissionSummaryRepository extends JpaRepository<CommissionSum
     @Query("SELECT cs FROM CommissionSummary cs WHERE cs.staff.id = :staffId AND cs.month = :month")
     Optional<CommissionSummary> findByStaffIdAndMonth(@Param("staffId") Long staffId, @Param("month") String month);
     
+    // All summaries of a staff member in a month, one per branch worked
+    @Query("SELECT cs FROM CommissionSummary cs WHERE cs.staff.id = :staffId AND cs.month = :month")
+    List<CommissionSummary> findAllByStaffIdAndMonth(@Param("staffId") Long staffId, @Param("month") String month);
+    
     // Find summary by branch and month
     @Query("SELECT cs FROM CommissionSummary cs WHERE cs.branch.id = :branchId AND cs.month = :month")
     List<CommissionSummary> findByBranchIdAndMonth(@Param("branchId") Long branchId, @Param("month") String month);
@@ -128,11 +135,11 @@ public interface CommissionSummaryRepository extends JpaRepository<CommissionSum
     
     // Find summaries that need to be generated for a month
     @Query("SELECT DISTINCT c.staff.id, c.branch.id FROM Commission c WHERE " +
-           "YEAR(c.calculatedOn) = :year AND MONTH(c.calculatedOn) = :month AND c.status != 'REVERSED' " +
+           "c.calculatedOn >= :start AND c.calculatedOn < :end AND c.status != 'REVERSED' " +
            "AND NOT EXISTS (SELECT cs FROM CommissionSummary cs WHERE " +
            "cs.staff.id = c.staff.id AND cs.branch.id = c.branch.id AND cs.month = :monthString)")
-    List<Object[]> findStaffBranchCombinationsForMonth(@Param("year") int year, 
-                                                      @Param("month") int month, 
+    List<Object[]> findStaffBranchCombinationsForMonth(@Param("start") LocalDateTime start, 
+                                                      @Param("end") LocalDateTime end, 
                                                       @Param("monthString") String monthString);
     
     // Check if summary exists for staff, branch and month
@@ -141,4 +148,116 @@ public interface CommissionSummaryRepository extends JpaRepository<CommissionSum
     boolean existsByStaffIdAndBranchIdAndMonth(@Param("staffId") Long staffId, 
                                               @Param("branchId") Long branchId, 
                                               @Param("month") String month);
+    
+    // Apply a signed delta in place; returns 0 when the staff-branch-month row does not exist yet
+    @Modifying
+    @Query("UPDATE CommissionSummary cs SET cs.totalCommission = cs.totalCommission + :amount, " +
+           "cs.totalServices = cs.totalServices + :services, cs.version = cs.version + 1 " +
+           "WHERE cs.staff.id = :staffId AND cs.branch.id = :branchId AND cs.month = :month")
+    int applyDelta(@Param("staffId") Long staffId,
+                   @Param("branchId") Long branchId,
+                   @Param("month") String month,
+                   @Param("amount") BigDecimal amount,
+                   @Param("services") int services);
+    
+    // Lock every summary of the month, and the gaps between them, before the month's snapshot is built
+    @Query(value = "SELECT id FROM commission_summary WHERE month = :month FOR UPDATE", nativeQuery = true)
+    List<Long> lockMonth(@Param("month") String month);
+    
+    @Query("SELECT cs.id FROM CommissionSummary cs WHERE cs.month = :month")
+    List<Long> findIdsByMonth(@Param("month") String month);
+    
+    // Record locks only, in id order: summaries created later in the same transaction are not blocked
+    @Query(value = "SELECT id FROM commission_summary WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIds(@Param("ids") List<Long> ids);
+    
+    // Overwrite drifted totals, but only if no delta has landed since the row was read
+    @Modifying
+    @Query("UPDATE CommissionSummary cs SET cs.totalCommission = :totalCommission, " +
+           "cs.totalServices = :totalServices, cs.version = cs.version + 1 " +
+           "WHERE cs.id = :id AND cs.version = :version")
+    int correctTotals(@Param("id") Long id,
+                      @Param("version") Long version,
+                      @Param("totalCommission") BigDecimal totalCommission,
+                      @Param("totalServices") int totalServices);
+    
+    // Upsert every summary of one branch and month from a single grouped scan of its commissions.
+    // Locked summaries keep their totals; a rerun rewrites the others with the same values, and the
+    // version only moves when the totals actually change (it is assigned first, against the old values).
+    @Modifying
+    @Query(value = "INSERT INTO commission_summary (staff_id, branch_id, month, total_services, total_commission, " +
+           "status, generated_at, version, created_at) " +
+           "SELECT agg_staff_id, agg_branch_id, :month, agg_services, agg_commission, 'PENDING', NOW(), 0, NOW() " +
+           "FROM (SELECT c.staff_id AS agg_staff_id, c.branch_id AS agg_branch_id, COUNT(*) AS agg_services, " +
+           "COALESCE(SUM(c.amount), 0) AS agg_commission FROM commission c " +
+           "WHERE c.branch_id = :branchId AND c.period_month = :month AND c.status <> 'REVERSED' " +
+           "GROUP BY c.staff_id, c.branch_id) AS agg " +
+           "ON DUPLICATE KEY UPDATE " +
+           "version = IF(status = 'LOCKED' OR (total_services = agg_services AND total_commission = agg_commission), version, version + 1), " +
+           "total_services = IF(status = 'LOCKED', total_services, agg_services), " +
+           "total_commission = IF(status = 'LOCKED', total_commission, agg_commission)",
+           nativeQuery = true)
+    int upsertSummariesForBranchInMonth(@Param("branchId") Long branchId, @Param("month") String month);
+    
+    // Report projections over an inclusive "yyyy-MM" month range; grouping happens in SQL and only scalars are returned.
+    // With excludePending, summaries that are still PENDING are left out (as in the monthly reports)
+    @Query("SELECT new com.hexalyte.salon.dto.CommissionPeriodTotalsDTO(cs.month, SUM(cs.totalServices), SUM(cs.totalCommission)) " +
+           "FROM CommissionSummary cs WHERE cs.month >= :fromMonth AND cs.month <= :toMonth " +
+           "AND (:excludePending = false OR cs.status <> 'PENDING') " +
+           "GROUP BY cs.month ORDER BY cs.month")
+    List<CommissionPeriodTotalsDTO> sumByMonth(@Param("fromMonth") String fromMonth,
+                                               @Param("toMonth") String toMonth,
+                                               @Param("excludePending") boolean excludePending);
+    
+    @Query("SELECT new com.hexalyte.salon.dto.CommissionPeriodTotalsDTO(b.id, b.branchName, " +
+           "SUM(cs.totalServices), SUM(cs.totalCommission)) " +
+           "FROM CommissionSummary cs JOIN cs.branch b WHERE cs.month >= :fromMonth AND cs.month <= :toMonth " +
+           "AND (:excludePending = false OR cs.status <> 'PENDING') " +
+           "GROUP BY b.id, b.branchName ORDER BY SUM(cs.totalCommission) DESC")
+    List<CommissionPeriodTotalsDTO> sumByBranch(@Param("fromMonth") String fromMonth,
+                                                @Param("toMonth") String toMonth,
+                                                @Param("excludePending") boolean excludePending);
+    
+    @Query("SELECT new com.hexalyte.salon.dto.CommissionPeriodTotalsDTO(s.id, s.firstName, s.lastName, s.employeeCode, " +
+           "b.id, b.branchName, SUM(cs.totalServices), SUM(cs.totalCommission)) " +
+           "FROM CommissionSummary cs JOIN cs.staff s JOIN cs.branch b WHERE cs.month >= :fromMonth AND cs.month <= :toMonth " +
+           "AND (:excludePending = false OR cs.status <> 'PENDING') " +
+           "GROUP BY s.id, s.firstName, s.lastName, s.employeeCode, b.id, b.branchName " +
+           "ORDER BY SUM(cs.totalCommission) DESC")
+    List<CommissionPeriodTotalsDTO> sumByStaffAndBranch(@Param("fromMonth") String fromMonth,
+                                                        @Param("toMonth") String toMonth,
+                                                        @Param("excludePending") boolean excludePending);
+    
+    @Query("SELECT new com.hexalyte.salon.dto.CommissionPeriodTotalsDTO(cs.month, s.id, s.firstName, s.lastName, s.employeeCode, " +
+           "b.id, b.branchName, SUM(cs.totalServices), SUM(cs.totalCommission)) " +
+           "FROM CommissionSummary cs JOIN cs.staff s JOIN cs.branch b WHERE cs.month >= :fromMonth AND cs.month <= :toMonth " +
+           "AND (:excludePending = false OR cs.status <> 'PENDING') " +
+           "GROUP BY cs.month, s.id, s.firstName, s.lastName, s.employeeCode, b.id, b.branchName " +
+           "ORDER BY cs.month, SUM(cs.totalCommission) DESC")
+    List<CommissionPeriodTotalsDTO> sumByMonthStaffAndBranch(@Param("fromMonth") String fromMonth,
+                                                             @Param("toMonth") String toMonth,
+                                                             @Param("excludePending") boolean excludePending);
+    
+    // Summaries in the month range that are not yet locked; zero (with at least one summary) means the period is closed
+    @Query("SELECT COUNT(cs) FROM CommissionSummary cs WHERE cs.month >= :fromMonth AND cs.month <= :toMonth AND cs.status <> 'LOCKED'")
+    long countUnlockedInMonthRange(@Param("fromMonth") String fromMonth, @Param("toMonth") String toMonth);
+    
+    @Query("SELECT COUNT(cs) FROM CommissionSummary cs WHERE cs.month >= :fromMonth AND cs.month <= :toMonth")
+    long countInMonthRange(@Param("fromMonth") String fromMonth, @Param("toMonth") String toMonth);
+    
+    // Locked summaries of a month, in one branch or (null) all branches
+    @Query("SELECT COUNT(cs) FROM CommissionSummary cs WHERE cs.month = :month AND cs.status = 'LOCKED' " +
+           "AND (:branchId IS NULL OR cs.branch.id = :branchId)")
+    long countLockedInMonth(@Param("month") String month, @Param("branchId") Long branchId);
+    
+    // Month-end transitions as single statements; the status guard makes reruns no-ops
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CommissionSummary cs SET cs.status = 'APPROVED', cs.approvedBy = :approverId, cs.approvedAt = :now, " +
+           "cs.version = cs.version + 1 WHERE cs.month = :month AND cs.status = 'PENDING'")
+    int approvePendingInMonth(@Param("month") String month, @Param("approverId") Long approverId, @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CommissionSummary cs SET cs.status = 'LOCKED', cs.lockedAt = :now, " +
+           "cs.version = cs.version + 1 WHERE cs.month = :month AND cs.status = 'APPROVED'")
+    int lockApprovedInMonth(@Param("month") String month, @Param("now") LocalDateTime now);
 }
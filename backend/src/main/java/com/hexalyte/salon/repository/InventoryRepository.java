@@ -4,11 +4,13 @@ import com.hexalyte.salon.model.Inventory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -74,4 +76,48 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     
     @Query("SELECT COUNT(i) FROM Inventory i WHERE i.branch.id = :branchId AND i.quantity = 0")
     Long countOutOfStockByBranchId(@Param("branchId") Long branchId);
+    
+    // Stock mutations as single conditional UPDATEs: concurrent callers queue on the row instead of
+    // overwriting each other's read-modify-write. Callers check the affected-row count.
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :quantity, i.lastUpdated = :now " +
+           "WHERE i.branchId = :branchId AND i.productId = :productId AND i.quantity >= :quantity")
+    int deductIfAvailable(@Param("branchId") Long branchId, @Param("productId") Long productId,
+                          @Param("quantity") BigDecimal quantity, @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity + :quantity, i.lastUpdated = :now " +
+           "WHERE i.branchId = :branchId AND i.productId = :productId")
+    int addQuantity(@Param("branchId") Long branchId, @Param("productId") Long productId,
+                    @Param("quantity") BigDecimal quantity, @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = :quantity, i.lastUpdated = :now " +
+           "WHERE i.branchId = :branchId AND i.productId = :productId")
+    int setQuantity(@Param("branchId") Long branchId, @Param("productId") Long productId,
+                    @Param("quantity") BigDecimal quantity, @Param("now") LocalDateTime now);
+    
+    // Current quantity from the database; after a mutation in this transaction it is the row's new value
+    @Query("SELECT i.quantity FROM Inventory i WHERE i.branchId = :branchId AND i.productId = :productId")
+    Optional<BigDecimal> findQuantity(@Param("branchId") Long branchId, @Param("productId") Long productId);
+    
+    @Query("SELECT i.productId, i.quantity FROM Inventory i WHERE i.branchId = :branchId AND i.productId IN :productIds")
+    List<Object[]> findQuantities(@Param("branchId") Long branchId, @Param("productIds") List<Long> productIds);
+    
+    // Latest committed quantity, holding the row until the transaction ends (stock counts only)
+    @Query(value = "SELECT quantity FROM inventory WHERE branch_id = :branchId AND product_id = :productId FOR UPDATE",
+           nativeQuery = true)
+    Optional<BigDecimal> lockQuantity(@Param("branchId") Long branchId, @Param("productId") Long productId);
+    
+    // Same for several products of a branch, locked in product order
+    @Query(value = "SELECT product_id, quantity FROM inventory WHERE branch_id = :branchId AND product_id IN :productIds " +
+                   "ORDER BY product_id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockQuantities(@Param("branchId") Long branchId, @Param("productIds") List<Long> productIds);
+    
+    // Stock at or below its product's alert level with no open alert, i.e. a crossing the mutation path missed
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product p JOIN FETCH i.branch WHERE p.status = 'ACTIVE' AND " +
+           "p.alertQuantity > 0 AND i.quantity <= p.alertQuantity AND NOT EXISTS (SELECT a FROM LowStockAlert a " +
+           "WHERE a.branchId = i.branchId AND a.productId = i.productId AND a.isResolved = false)")
+    List<Inventory> findLowStockWithoutOpenAlert();
 }
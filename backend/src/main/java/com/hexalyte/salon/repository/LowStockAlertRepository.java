@@ -4,10 +4,12 @@ import com.hexalyte.salon.model.LowStockAlert;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -55,4 +57,11 @@ public interface LowStockAlertRepository extends JpaRepository<LowStockAlert, Lo
     
     @Query("SELECT lsa FROM LowStockAlert lsa WHERE lsa.branch.id = :branchId AND lsa.product.id = :productId AND lsa.isResolved = false")
     Optional<LowStockAlert> findUnresolvedAlertByBranchAndProduct(@Param("branchId") Long branchId, @Param("productId") Long productId);
+    
+    // Close open alerts whose stock is back above the product's alert level
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LowStockAlert lsa SET lsa.isResolved = true, lsa.resolvedAt = :now WHERE lsa.isResolved = false AND " +
+           "EXISTS (SELECT i FROM Inventory i JOIN i.product p WHERE i.branchId = lsa.branchId AND " +
+           "i.productId = lsa.productId AND i.quantity > p.alertQuantity)")
+    int resolveRecoveredAlerts(@Param("now") LocalDateTime now);
 }
@@ -0,0 +1,64 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Lock the next batch of due messages of a channel; rows locked by another node are skipped
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.channel = :channel AND n.status = 'PENDING' " +
+           "AND n.nextAttemptAt <= :now ORDER BY n.nextAttemptAt, n.id")
+    List<NotificationOutbox> findDueForDispatch(@Param("channel") NotificationOutbox.Channel channel,
+                                                @Param("now") LocalDateTime now,
+                                                Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = 'SENDING', n.claimedAt = :claimedAt WHERE n.id IN :ids")
+    int markSending(@Param("ids") Collection<Long> ids, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = 'SENT', n.sentAt = :sentAt, n.attempts = n.attempts + 1, " +
+           "n.lastError = NULL WHERE n.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = 'PENDING', n.attempts = :attempts, n.nextAttemptAt = :nextAttemptAt, " +
+           "n.lastError = :error, n.claimedAt = NULL WHERE n.id = :id")
+    int scheduleRetry(@Param("id") Long id, @Param("attempts") Integer attempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = 'FAILED', n.attempts = :attempts, n.lastError = :error, " +
+           "n.claimedAt = NULL WHERE n.id = :id")
+    int markFailed(@Param("id") Long id, @Param("attempts") Integer attempts, @Param("error") String error);
+
+    // Hand back messages claimed by a worker that never reported a result (e.g. node crash)
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = 'PENDING', n.claimedAt = NULL " +
+           "WHERE n.status = 'SENDING' AND n.claimedAt < :claimedBefore")
+    int releaseStaleClaims(@Param("claimedBefore") LocalDateTime claimedBefore);
+
+    @Query("SELECT COUNT(n) FROM NotificationOutbox n WHERE n.channel = :channel AND n.status = :status")
+    long countByChannelAndStatus(@Param("channel") NotificationOutbox.Channel channel,
+                                 @Param("status") NotificationOutbox.OutboxStatus status);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox n WHERE n.status = 'SENT' AND n.sentAt < :sentBefore")
+    int deleteSentBefore(@Param("sentBefore") LocalDateTime sentBefore);
+}
@@ -142,4 +142,9 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     
     // Check if gateway transaction ID exists
     boolean existsByGatewayTransactionId(String gatewayTransactionId);
+    
+    // Refunds per day (amounts are negative), used to rebuild the billing rollups
+    @Query("SELECT DATE(pt.createdAt), COUNT(pt), COALESCE(SUM(pt.amount), 0) FROM PaymentTransaction pt " +
+           "WHERE pt.billing.branch.id = :branchId AND pt.status = 'REFUNDED' GROUP BY DATE(pt.createdAt)")
+    List<Object[]> getRefundTotalsByBranch(@Param("branchId") Long branchId);
 }
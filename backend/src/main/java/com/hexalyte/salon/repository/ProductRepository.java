@@ -49,4 +49,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     boolean existsByCode(String code);
     
     boolean existsByCodeAndProductIdNot(String code, Long productId);
+    
+    // Alert levels of active products that have one: product id, alert quantity
+    @Query("SELECT p.productId, p.alertQuantity FROM Product p WHERE p.status = 'ACTIVE' AND p.alertQuantity > 0")
+    List<Object[]> findAlertThresholds();
+    
+    // Row count and latest change; differs from the loaded thresholds whenever a product was added or edited
+    @Query("SELECT COUNT(p), MAX(p.updatedAt) FROM Product p")
+    List<Object[]> getThresholdFingerprint();
 }
@@ -27,7 +27,8 @@ public interface ServiceProductMappingRepository extends JpaRepository<ServicePr
     @Query("SELECT spm FROM ServiceProductMapping spm JOIN FETCH spm.service s WHERE spm.product.id = :productId")
     List<ServiceProductMapping> findByProductIdWithService(@Param("productId") Long productId);
     
-    @Query("SELECT spm FROM ServiceProductMapping spm WHERE spm.service.id IN :serviceIds")
+    @Query("SELECT spm FROM ServiceProductMapping spm JOIN FETCH spm.service s JOIN FETCH spm.product p " +
+           "WHERE s.id IN :serviceIds")
     List<ServiceProductMapping> findByServiceIdIn(@Param("serviceIds") List<Long> serviceIds);
     
     @Query("DELETE FROM ServiceProductMapping spm WHERE spm.service.id = :serviceId")
@@ -1,18 +1,26 @@
 package com.hexalyte.salon.repository;
 
 import com.hexalyte.salon.model.Staff;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StaffRepository extends JpaRepository<Staff, Long> {
     @Query("SELECT s FROM Staff s WHERE s.branch.id = :branchId")
     List<Staff> findByBranchId(@Param("branchId") Long branchId);
     List<Staff> findByStatus(Staff.StaffStatus status);
+    
+    // Row lock that serializes bookings of one staff member; held until the booking transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Staff s WHERE s.id = :id")
+    Optional<Staff> findByIdForUpdate(@Param("id") Long id);
     @Query("SELECT s FROM Staff s WHERE s.branch.id = :branchId AND s.status = :status")
     List<Staff> findByBranchIdAndStatus(@Param("branchId") Long branchId, @Param("status") Staff.StaffStatus status);
     
@@ -0,0 +1,47 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.StockLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockLedgerRepository extends JpaRepository<StockLedgerEntry, Long> {
+
+    // Net change per product in [from, to); a null from means since the first entry
+    @Query("SELECT e.productId, SUM(e.quantityChange) FROM StockLedgerEntry e WHERE e.branchId = :branchId AND " +
+           "(:from IS NULL OR e.occurredAt >= :from) AND e.occurredAt < :to GROUP BY e.productId")
+    List<Object[]> sumChangesByProduct(@Param("branchId") Long branchId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    // Net change per day for one product in [from, to): day, change
+    @Query(value = "SELECT DATE(occurred_at), SUM(quantity_change) FROM stock_ledger_entry " +
+                   "WHERE branch_id = :branchId AND product_id = :productId AND occurred_at >= :from AND occurred_at < :to " +
+                   "GROUP BY DATE(occurred_at) ORDER BY DATE(occurred_at)", nativeQuery = true)
+    List<Object[]> sumDailyChanges(@Param("branchId") Long branchId,
+                                   @Param("productId") Long productId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    @Query("SELECT COUNT(e) FROM StockLedgerEntry e WHERE e.branchId = :branchId AND e.occurredAt >= :since")
+    long countSince(@Param("branchId") Long branchId, @Param("since") LocalDateTime since);
+
+    // Open the ledger of stock that predates it: one OPENING entry per non-zero inventory row without entries,
+    // dated when the row last changed (the quantity has held since then), but never before the branch's latest
+    // snapshot, which replays would otherwise skip past, nor after now
+    @Modifying
+    @Query(value = "INSERT INTO stock_ledger_entry (branch_id, product_id, movement_type, quantity_change, reference, occurred_at) " +
+                   "SELECT i.branch_id, i.product_id, 'OPENING', i.quantity, 'Opening balance', " +
+                   "LEAST(:now, GREATEST(COALESCE(i.last_updated, :now), " +
+                   "COALESCE((SELECT MAX(s.snapshot_at) FROM stock_snapshot s WHERE s.branch_id = i.branch_id), i.last_updated, :now))) " +
+                   "FROM inventory i " +
+                   "WHERE i.quantity <> 0 AND NOT EXISTS (SELECT 1 FROM stock_ledger_entry e " +
+                   "WHERE e.branch_id = i.branch_id AND e.product_id = i.product_id)", nativeQuery = true)
+    int openUntrackedStock(@Param("now") LocalDateTime now);
+}
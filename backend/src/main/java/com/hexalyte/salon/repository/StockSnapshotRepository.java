@@ -0,0 +1,21 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    // Instant of the branch's latest snapshot at or before the given instant, null when there is none
+    @Query("SELECT MAX(s.snapshotAt) FROM StockSnapshot s WHERE s.branchId = :branchId AND s.snapshotAt <= :at")
+    LocalDateTime findLatestSnapshotAt(@Param("branchId") Long branchId, @Param("at") LocalDateTime at);
+
+    @Query("SELECT s.productId, s.quantity FROM StockSnapshot s WHERE s.branchId = :branchId AND s.snapshotAt = :snapshotAt")
+    List<Object[]> findQuantities(@Param("branchId") Long branchId, @Param("snapshotAt") LocalDateTime snapshotAt);
+}
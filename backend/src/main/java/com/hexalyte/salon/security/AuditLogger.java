@@ -295,6 +295,18 @@ public class AuditLogger {
                    timestamp);
     }
     
+    /**
+     * Log set-based generation of a branch's commission summaries
+     */
+    public void logCommissionSummaryBatchGeneration(Long branchId, String month, int affectedRows) {
+        String timestamp = LocalDateTime.now().format(formatter);
+        logger.info("COMMISSION_SUMMARIES_GENERATED: Branch {} - Month: {} - Rows affected: {} at {}", 
+                   branchId, 
+                   month,
+                   affectedRows, 
+                   timestamp);
+    }
+    
     /**
      * Log commission summary approval
      */
@@ -321,4 +333,29 @@ public class AuditLogger {
                    summary.getTotalCommission(), 
                    timestamp);
     }
+
+    /**
+     * Log a bulk commission status change as one entry with the filter it ran under and the rows it changed
+     */
+    public void logCommissionBulkTransition(String status, String scope, int affectedRows) {
+        String timestamp = LocalDateTime.now().format(formatter);
+        logger.info("COMMISSIONS_{}: {} commission(s) for {} at {}", 
+                   status, 
+                   affectedRows,
+                   scope,
+                   timestamp);
+    }
+    
+    /**
+     * Log a month-wide commission summary status change
+     */
+    public void logCommissionSummaryBulkTransition(String status, String month, int affectedRows, Long userId) {
+        String timestamp = LocalDateTime.now().format(formatter);
+        logger.info("COMMISSION_SUMMARIES_{}: {} summary(ies) for Month {} by User {} at {}", 
+                   status, 
+                   affectedRows,
+                   month,
+                   userId, 
+                   timestamp);
+    }
 }
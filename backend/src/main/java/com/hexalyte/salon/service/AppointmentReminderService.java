@@ -1,82 +1,206 @@
 package com.hexalyte.salon.service;
 
 import com.hexalyte.salon.model.Appointment;
+import com.hexalyte.salon.model.AppointmentReminder;
+import com.hexalyte.salon.repository.AppointmentReminderRepository;
 import com.hexalyte.salon.repository.AppointmentRepository;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
+/**
+ * Appointment reminders backed by a persistent queue (appointment_reminder) and an in-memory
+ * hashed timing wheel. Reminder rows are written when an appointment is booked or moved and
+ * cancelled with it; the wheel fires each one at its due time and a conditional claim in the
+ * database guarantees it is sent only once. On startup the wheel is rebuilt from the queue.
+ */
 @Service
 public class AppointmentReminderService {
 
+    private static final long WHEEL_TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 1024;
+    // Reminders due further out stay in the database until the refill job loads them
+    private static final Duration WHEEL_HORIZON = Duration.ofHours(2);
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private AppointmentReminderRepository appointmentReminderRepository;
+
     @Autowired
     private NotificationService notificationService;
 
-    // Send 24-hour reminders (runs every hour)
-    @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
-    public void send24HourReminders() {
-        LocalDate tomorrow = LocalDate.now().plusDays(1);
-        List<Appointment> tomorrowAppointments = appointmentRepository.findByAppointmentDate(tomorrow);
-        
-        for (Appointment appointment : tomorrowAppointments) {
-            if (appointment.getStatus() == Appointment.Status.BOOKED) {
-                notificationService.sendAppointmentReminder(appointment);
-            }
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private volatile HashedTimingWheel wheel;
+
+    // Rebuild the wheel from the reminder queue once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void startReminderWheel() {
+        HashedTimingWheel timingWheel = new HashedTimingWheel("reminder-wheel", WHEEL_TICK_MS, WHEEL_SIZE, 2, this::deliverReminder);
+        timingWheel.start();
+        wheel = timingWheel;
+        loadDueReminders();
+    }
+
+    @PreDestroy
+    public void stopReminderWheel() {
+        if (wheel != null) {
+            wheel.stop();
         }
     }
 
-    // Send 2-hour reminders (runs every 15 minutes)
-    @Scheduled(fixedRate = 900000) // 15 minutes in milliseconds
-    public void send2HourReminders() {
+    /**
+     * Plan reminders for a booked (or moved) appointment, replacing any pending ones
+     */
+    public void scheduleReminders(Appointment appointment) {
+        scheduleReminders(List.of(appointment));
+    }
+
+    /**
+     * Plan reminders for several appointments at once; must run inside the booking transaction
+     */
+    public void scheduleReminders(List<Appointment> appointments) {
+        cancelReminders(appointments.stream().map(Appointment::getId).collect(Collectors.toList()));
+
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime twoHoursFromNow = now.plusHours(2);
-        
-        // Find appointments starting in approximately 2 hours
-        List<Appointment> upcomingAppointments = appointmentRepository.findUpcomingAppointments(
-                LocalDate.now().plusDays(1));
-        
-        for (Appointment appointment : upcomingAppointments) {
-            if (appointment.getStatus() == Appointment.Status.BOOKED) {
-                LocalDateTime appointmentDateTime = LocalDateTime.of(
-                        appointment.getAppointmentDate(), appointment.getStartTime());
-                
-                // Check if appointment is within 2-3 hours from now
-                if (appointmentDateTime.isAfter(now.plusHours(2)) && 
-                    appointmentDateTime.isBefore(now.plusHours(3))) {
-                    send2HourReminder(appointment);
+        List<AppointmentReminder> reminders = new ArrayList<>();
+        for (Appointment appointment : appointments) {
+            if (appointment.getStatus() != Appointment.Status.BOOKED
+                    || Boolean.FALSE.equals(appointment.getCustomer().getReceiveReminders())) {
+                continue;
+            }
+            LocalDateTime startsAt = LocalDateTime.of(appointment.getAppointmentDate(), appointment.getStartTime());
+            for (AppointmentReminder.ReminderType type : AppointmentReminder.ReminderType.values()) {
+                LocalDateTime dueAt = startsAt.minus(type.getLeadTime());
+                if (dueAt.isAfter(now)) {
+                    reminders.add(new AppointmentReminder(appointment.getId(), type, dueAt));
                 }
             }
         }
+        if (reminders.isEmpty()) {
+            return;
+        }
+
+        List<AppointmentReminder> saved = appointmentReminderRepository.saveAll(reminders);
+        afterCommit(() -> saved.forEach(this::addToWheelIfWithinHorizon));
     }
 
-    // Send 30-minute reminders (runs every 5 minutes)
-    @Scheduled(fixedRate = 300000) // 5 minutes in milliseconds
-    public void send30MinuteReminders() {
+    /**
+     * Cancel pending reminders of a cancelled, finished or deleted appointment
+     */
+    public void cancelReminders(Long appointmentId) {
+        cancelReminders(List.of(appointmentId));
+    }
+
+    public void cancelReminders(Collection<Long> appointmentIds) {
+        if (appointmentIds.isEmpty()) {
+            return;
+        }
+        List<AppointmentReminder> pending = appointmentReminderRepository.findPendingByAppointmentIds(appointmentIds);
+        if (pending.isEmpty()) {
+            return;
+        }
+        appointmentReminderRepository.cancelPendingByAppointmentIds(appointmentIds);
+        if (wheel != null) {
+            pending.forEach(reminder -> wheel.cancel(reminder.getId()));
+        }
+    }
+
+    // Move reminders that come within the horizon from the queue into the wheel (runs every 10 minutes).
+    // Also picks up reminders whose cancellation rolled back or whose delivery failed.
+    @Scheduled(fixedRate = 600000) // 10 minutes in milliseconds
+    public void loadDueReminders() {
+        if (wheel == null) {
+            return;
+        }
         LocalDateTime now = LocalDateTime.now();
-        
-        // Find today's appointments
-        List<Appointment> todaysAppointments = appointmentRepository.findTodaysAppointments();
-        
-        for (Appointment appointment : todaysAppointments) {
-            if (appointment.getStatus() == Appointment.Status.BOOKED) {
-                LocalDateTime appointmentDateTime = LocalDateTime.of(
-                        appointment.getAppointmentDate(), appointment.getStartTime());
-                
-                // Check if appointment is within 30-45 minutes from now
-                if (appointmentDateTime.isAfter(now.plusMinutes(30)) && 
-                    appointmentDateTime.isBefore(now.plusMinutes(45))) {
-                    send30MinuteReminder(appointment);
-                }
+        List<AppointmentReminder> due = appointmentReminderRepository.findPendingDueBefore(now.plus(WHEEL_HORIZON));
+
+        List<Long> expiredIds = new ArrayList<>();
+        for (AppointmentReminder reminder : due) {
+            // Missed while the application was down: still worth sending only if the appointment has not started
+            if (reminder.getDueAt().plus(reminder.getReminderType().getLeadTime()).isBefore(now)) {
+                expiredIds.add(reminder.getId());
+            } else if (!wheel.contains(reminder.getId())) {
+                addToWheel(reminder);
             }
         }
+        if (!expiredIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> appointmentReminderRepository.expire(expiredIds));
+        }
+    }
+
+    // Fired by the wheel on a dispatcher thread
+    private void deliverReminder(Long reminderId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (appointmentReminderRepository.claimForSending(reminderId, LocalDateTime.now()) == 0) {
+                    return; // Already sent, cancelled or claimed by another node
+                }
+                AppointmentReminder reminder = appointmentReminderRepository.findById(reminderId).orElse(null);
+                Appointment appointment = reminder != null
+                        ? appointmentRepository.findById(reminder.getAppointmentId()).orElse(null) : null;
+                if (appointment == null || appointment.getStatus() != Appointment.Status.BOOKED) {
+                    return;
+                }
+
+                switch (reminder.getReminderType()) {
+                    case DAY_BEFORE:
+                        notificationService.sendAppointmentReminder(appointment);
+                        break;
+                    case TWO_HOURS:
+                        send2HourReminder(appointment);
+                        break;
+                    case THIRTY_MINUTES:
+                        send30MinuteReminder(appointment);
+                        break;
+                }
+            });
+        } catch (Exception e) {
+            // The claim rolls back with the failed send, so the refill job retries it
+            System.err.println("Failed to deliver reminder " + reminderId + ": " + e.getMessage());
+        }
+    }
+
+    private void addToWheelIfWithinHorizon(AppointmentReminder reminder) {
+        if (wheel != null && reminder.getDueAt().isBefore(LocalDateTime.now().plus(WHEEL_HORIZON))) {
+            addToWheel(reminder);
+        }
+    }
+
+    private void addToWheel(AppointmentReminder reminder) {
+        wheel.schedule(reminder.getId(), reminder.getDueAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
     // Send no-show follow-ups (runs daily at 6 PM)
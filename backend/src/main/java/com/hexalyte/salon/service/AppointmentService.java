@@ -12,7 +12,9 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service
@@ -37,9 +39,6 @@ public class AppointmentService {
     @Autowired
     private CommissionService commissionService;
 
-    @Autowired
-    private CommissionRepository commissionRepository;
-
     @Autowired
     private NotificationService notificationService;
 
@@ -49,8 +48,19 @@ public class AppointmentService {
     @Autowired
     private InventoryUsageService inventoryUsageService;
 
+    @Autowired
+    private StaffScheduleIndex staffScheduleIndex;
+
+    @Autowired
+    private AppointmentReminderService appointmentReminderService;
+
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    private static final LocalTime OPENING_TIME = LocalTime.of(9, 0); // Salon opens at 9 AM
+    private static final LocalTime CLOSING_TIME = LocalTime.of(18, 0); // Salon closes at 6 PM
+    private static final int SLOT_MINUTES = 30;
+    private static final int MAX_SERIES_OCCURRENCES = 366;
+
     // Basic CRUD Operations
     public List<AppointmentDTO> getAllAppointments() {
         return appointmentRepository.findAll().stream()
@@ -164,6 +174,8 @@ public class AppointmentService {
         
         appointment.setTotalAmount(totalAmount);
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        staffScheduleIndex.reindex(savedAppointment, null, null);
+        appointmentReminderService.scheduleReminders(savedAppointment);
 
         // Send confirmation notification
         notificationService.sendAppointmentConfirmation(savedAppointment);
@@ -175,6 +187,8 @@ public class AppointmentService {
     public AppointmentDTO updateAppointment(Long id, AppointmentDTO appointmentDTO) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+        Long previousStaffId = appointment.getStaff().getId();
+        LocalDate previousDate = appointment.getAppointmentDate();
 
         // Validate time conflicts (excluding current appointment)
         validateTimeSlotForUpdate(id, appointmentDTO.getStaffId(), appointmentDTO.getAppointmentDate(), 
@@ -230,6 +244,8 @@ public class AppointmentService {
         appointment.setTotalAmount(totalAmount);
 
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        staffScheduleIndex.reindex(savedAppointment, previousStaffId, previousDate);
+        appointmentReminderService.scheduleReminders(savedAppointment);
         return convertToDTO(savedAppointment);
     }
 
@@ -251,19 +267,21 @@ public class AppointmentService {
                 // Log error but don't fail the appointment completion
                 System.err.println("Failed to generate bill for appointment " + id + ": " + e.getMessage());
             }
-            // Track inventory usage for completed appointment
-            try {
-                inventoryUsageService.trackInventoryUsageForAppointment(id);
-            } catch (Exception e) {
-                // Log error but don't fail the appointment completion
-                System.err.println("Failed to track inventory usage for appointment " + id + ": " + e.getMessage());
-            }
+            // Track inventory usage in this transaction; a stock shortfall is logged and skipped without
+            // failing the completion, any other error rolls back the completion with it
+            inventoryUsageService.trackInventoryUsageForAppointment(id);
         }
 
         // Send status update notification
         notificationService.sendAppointmentStatusUpdate(appointment);
 
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        staffScheduleIndex.reindex(savedAppointment, null, null);
+        if (newStatus == Appointment.Status.BOOKED) {
+            appointmentReminderService.scheduleReminders(savedAppointment);
+        } else {
+            appointmentReminderService.cancelReminders(id);
+        }
         return convertToDTO(savedAppointment);
     }
 
@@ -272,25 +290,24 @@ public class AppointmentService {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
 
+        boolean wasCompleted = appointment.getStatus() == Appointment.Status.COMPLETED;
         appointment.setStatus(Appointment.Status.CANCELLED);
         if (reason != null && !reason.isEmpty()) {
             appointment.setNotes((appointment.getNotes() != null ? appointment.getNotes() + "\n" : "") + 
                                "Cancellation reason: " + reason);
         }
 
-        // If appointment was completed, reverse any commissions
-        if (appointment.getStatus() == Appointment.Status.COMPLETED) {
-            // Find and reverse commissions for this appointment
-            List<Commission> commissions = commissionRepository.findByAppointmentId(id);
-            for (Commission commission : commissions) {
-                commissionService.reverseCommission(commission.getId());
-            }
+        // If appointment was completed, reverse its commissions in one update
+        if (wasCompleted) {
+            commissionService.reverseCommissionsForAppointment(id);
         }
 
         // Send cancellation notification
         notificationService.sendAppointmentCancellation(appointment);
 
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        staffScheduleIndex.reindex(savedAppointment, null, null);
+        appointmentReminderService.cancelReminders(id);
         return convertToDTO(savedAppointment);
     }
 
@@ -301,6 +318,7 @@ public class AppointmentService {
 
         // Validate new time slot
         validateTimeSlotForUpdate(id, appointment.getStaff().getId(), newDate, newStartTime, newEndTime);
+        LocalDate previousDate = appointment.getAppointmentDate();
 
         appointment.setAppointmentDate(newDate);
         appointment.setStartTime(newStartTime);
@@ -310,6 +328,8 @@ public class AppointmentService {
         notificationService.sendAppointmentReschedule(appointment);
 
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        staffScheduleIndex.reindex(savedAppointment, savedAppointment.getStaff().getId(), previousDate);
+        appointmentReminderService.scheduleReminders(savedAppointment);
         return convertToDTO(savedAppointment);
     }
 
@@ -322,7 +342,9 @@ public class AppointmentService {
             throw new RuntimeException("Cannot delete completed appointment");
         }
 
+        appointmentReminderService.cancelReminders(id);
         appointmentRepository.delete(appointment);
+        staffScheduleIndex.remove(id, appointment.getStaff().getId(), appointment.getAppointmentDate());
     }
 
     // Availability Management
@@ -330,31 +352,80 @@ public class AppointmentService {
         Staff staff = staffRepository.findById(staffId)
                 .orElseThrow(() -> new RuntimeException("Staff not found with id: " + staffId));
 
-        List<Appointment> existingAppointments = appointmentRepository.findStaffAppointmentsForDate(staffId, date);
-        List<TimeSlotDTO> availableSlots = generateAvailableTimeSlots(existingAppointments, date);
-        List<TimeSlotDTO> bookedSlots = convertAppointmentsToTimeSlots(existingAppointments);
+        return buildAvailability(staff, date, staffScheduleIndex.getSchedule(staffId, date));
+    }
+
+    public List<AvailabilityDTO> getBranchAvailability(Long branchId, LocalDate date) {
+        List<Staff> staffList = staffRepository.findByBranchIdAndStatus(branchId, Staff.StaffStatus.ACTIVE);
+        Map<Long, StaffScheduleIndex.StaffDaySchedule> schedules = staffScheduleIndex.getSchedules(
+                staffList.stream().map(Staff::getId).collect(Collectors.toList()), date);
+        return staffList.stream()
+                .map(staff -> buildAvailability(staff, date, schedules.get(staff.getId())))
+                .collect(Collectors.toList());
+    }
+
+    // Branch-wide availability as a staff x slot grid, built from one bookings query for the whole branch
+    public BranchAvailabilityDTO getBranchAvailabilityMatrix(Long branchId, LocalDate date) {
+        Branch branch = branchRepository.findById(branchId)
+                .orElseThrow(() -> new RuntimeException("Branch not found with id: " + branchId));
+        List<Staff> staffList = staffRepository.findByBranchIdAndStatus(branchId, Staff.StaffStatus.ACTIVE);
+        Map<Long, StaffScheduleIndex.StaffDaySchedule> schedules = staffScheduleIndex.getSchedules(
+                staffList.stream().map(Staff::getId).collect(Collectors.toList()), date);
+
+        List<LocalTime> slotStartTimes = new ArrayList<>();
+        for (LocalTime slot = OPENING_TIME; !slot.plusMinutes(SLOT_MINUTES).isAfter(CLOSING_TIME); slot = slot.plusMinutes(SLOT_MINUTES)) {
+            slotStartTimes.add(slot);
+        }
+
+        List<BranchAvailabilityDTO.StaffAvailabilityRow> rows = new ArrayList<>();
+        List<BranchAvailabilityDTO.BookedSlot> bookings = new ArrayList<>();
+        for (Staff staff : staffList) {
+            StaffScheduleIndex.StaffDaySchedule schedule = schedules.get(staff.getId());
+            BitSet free = new BitSet(slotStartTimes.size());
+            for (int i = 0; i < slotStartTimes.size(); i++) {
+                int slotStart = StaffScheduleIndex.toMinute(slotStartTimes.get(i));
+                if (schedule.isFree(slotStart, slotStart + SLOT_MINUTES, null)) {
+                    free.set(i);
+                }
+            }
+
+            StringBuilder availability = new StringBuilder(slotStartTimes.size());
+            for (int i = 0; i < slotStartTimes.size(); i++) {
+                availability.append(free.get(i) ? '1' : '0');
+            }
+            rows.add(new BranchAvailabilityDTO.StaffAvailabilityRow(
+                    staff.getId(), staff.getFullName(), availability.toString(), free.cardinality()));
+
+            for (StaffScheduleIndex.BookedInterval booking : schedule.getBookings()) {
+                bookings.add(new BranchAvailabilityDTO.BookedSlot(staff.getId(), booking.getAppointmentId(),
+                        booking.getStartTime(), booking.getEndTime(), booking.getCustomerName(), booking.getServiceNames()));
+            }
+        }
+
+        BranchAvailabilityDTO matrix = new BranchAvailabilityDTO(branch.getId(), branch.getName(), date, SLOT_MINUTES);
+        matrix.setSlotStartTimes(slotStartTimes);
+        matrix.setStaff(rows);
+        matrix.setBookings(bookings);
+        return matrix;
+    }
 
+    private AvailabilityDTO buildAvailability(Staff staff, LocalDate date, StaffScheduleIndex.StaffDaySchedule schedule) {
         AvailabilityDTO availability = new AvailabilityDTO();
-        availability.setStaffId(staffId);
+        availability.setStaffId(staff.getId());
         availability.setStaffName(staff.getFullName());
         availability.setBranchId(staff.getBranch().getId());
         availability.setBranchName(staff.getBranch().getName());
         availability.setDate(date);
-        availability.setAvailableSlots(availableSlots);
-        availability.setBookedSlots(bookedSlots);
-
+        availability.setAvailableSlots(generateAvailableTimeSlots(schedule));
+        availability.setBookedSlots(convertBookingsToTimeSlots(schedule.getBookings()));
         return availability;
     }
 
-    public List<AvailabilityDTO> getBranchAvailability(Long branchId, LocalDate date) {
-        List<Staff> staffList = staffRepository.findByBranchIdAndStatus(branchId, Staff.StaffStatus.ACTIVE);
-        return staffList.stream()
-                .map(staff -> getStaffAvailability(staff.getId(), date))
-                .collect(Collectors.toList());
-    }
-
     // Validation Methods
+    // Conflicts are checked against the database while holding the staff row lock, so concurrent
+    // bookings of the same staff member (on any instance) are serialized until this transaction ends
     private void validateTimeSlot(Long staffId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        lockStaffBookings(staffId);
         List<Appointment> conflicts = appointmentRepository.findConflictingAppointments(staffId, date, startTime, endTime);
         if (!conflicts.isEmpty()) {
             throw new RuntimeException("Time slot conflicts with existing appointment");
@@ -362,34 +433,33 @@ public class AppointmentService {
     }
 
     private void validateTimeSlotForUpdate(Long appointmentId, Long staffId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        lockStaffBookings(staffId);
         List<Appointment> conflicts = appointmentRepository.findConflictingAppointments(staffId, date, startTime, endTime);
         conflicts = conflicts.stream()
                 .filter(appointment -> !appointment.getId().equals(appointmentId))
                 .collect(Collectors.toList());
-        
+
         if (!conflicts.isEmpty()) {
             throw new RuntimeException("Time slot conflicts with existing appointment");
         }
     }
 
+    private void lockStaffBookings(Long staffId) {
+        staffRepository.findByIdForUpdate(staffId)
+                .orElseThrow(() -> new RuntimeException("Staff not found"));
+    }
+
     // Helper Methods
-    private List<TimeSlotDTO> generateAvailableTimeSlots(List<Appointment> existingAppointments, LocalDate date) {
+    private List<TimeSlotDTO> generateAvailableTimeSlots(StaffScheduleIndex.StaffDaySchedule schedule) {
         List<TimeSlotDTO> slots = new ArrayList<>();
-        LocalTime startTime = LocalTime.of(9, 0); // Salon opens at 9 AM
-        LocalTime endTime = LocalTime.of(18, 0);  // Salon closes at 6 PM
-        LocalTime currentTime = startTime;
+        LocalTime currentTime = OPENING_TIME;
 
-        while (currentTime.isBefore(endTime)) {
-            LocalTime slotEnd = currentTime.plusMinutes(30); // 30-minute slots
-            if (slotEnd.isAfter(endTime)) break;
+        while (currentTime.isBefore(CLOSING_TIME)) {
+            LocalTime slotEnd = currentTime.plusMinutes(SLOT_MINUTES);
+            if (slotEnd.isAfter(CLOSING_TIME)) break;
 
-            boolean isAvailable = true;
-            for (Appointment appointment : existingAppointments) {
-                if (isTimeSlotConflicting(currentTime, slotEnd, appointment.getStartTime(), appointment.getEndTime())) {
-                    isAvailable = false;
-                    break;
-                }
-            }
+            boolean isAvailable = schedule.isFree(StaffScheduleIndex.toMinute(currentTime),
+                    StaffScheduleIndex.toMinute(slotEnd), null);
 
             TimeSlotDTO slot = new TimeSlotDTO(currentTime, slotEnd, isAvailable);
             slots.add(slot);
@@ -399,24 +469,18 @@ public class AppointmentService {
         return slots;
     }
 
-    private List<TimeSlotDTO> convertAppointmentsToTimeSlots(List<Appointment> appointments) {
-        return appointments.stream()
-                .map(appointment -> {
-                    TimeSlotDTO slot = new TimeSlotDTO(appointment.getStartTime(), appointment.getEndTime(), false);
-                    slot.setAppointmentId(appointment.getId());
-                    slot.setCustomerName(appointment.getCustomer().getFullName());
-                    slot.setServiceName(appointment.getAppointmentServices().stream()
-                            .map(appService -> appService.getService().getName())
-                            .collect(Collectors.joining(", ")));
+    private List<TimeSlotDTO> convertBookingsToTimeSlots(List<StaffScheduleIndex.BookedInterval> bookings) {
+        return bookings.stream()
+                .map(booking -> {
+                    TimeSlotDTO slot = new TimeSlotDTO(booking.getStartTime(), booking.getEndTime(), false);
+                    slot.setAppointmentId(booking.getAppointmentId());
+                    slot.setCustomerName(booking.getCustomerName());
+                    slot.setServiceName(booking.getServiceNames());
                     return slot;
                 })
                 .collect(Collectors.toList());
     }
 
-    private boolean isTimeSlotConflicting(LocalTime start1, LocalTime end1, LocalTime start2, LocalTime end2) {
-        return start1.isBefore(end2) && end1.isAfter(start2);
-    }
-
     private boolean isDurationMatching(LocalTime startTime, LocalTime endTime, int expectedDurationMinutes) {
         LocalTime calculatedEndTime = startTime.plusMinutes(expectedDurationMinutes);
         return calculatedEndTime.equals(endTime);
@@ -477,64 +541,126 @@ public class AppointmentService {
 
     // Recurrence Management Methods
     public List<AppointmentDTO> createRecurringAppointments(AppointmentDTO appointmentDTO) {
-        List<AppointmentDTO> createdAppointments = new ArrayList<>();
-        
-        if (!appointmentDTO.getIsRecurring() || appointmentDTO.getRecurrencePattern() == null) {
+        if (!Boolean.TRUE.equals(appointmentDTO.getIsRecurring()) || appointmentDTO.getRecurrencePattern() == null) {
             // Create single appointment
+            List<AppointmentDTO> createdAppointments = new ArrayList<>();
             createdAppointments.add(createAppointment(appointmentDTO));
             return createdAppointments;
         }
+        return createRecurringSeries(appointmentDTO).getCreated();
+    }
 
-        // Create the first appointment
-        AppointmentDTO firstAppointment = createAppointment(appointmentDTO);
-        firstAppointment.setIsRecurring(true);
-        firstAppointment.setParentAppointmentId(firstAppointment.getId());
-        firstAppointment.setRecurrenceSequence(0);
-        createdAppointments.add(firstAppointment);
+    /**
+     * Create a whole recurring series in one transaction. Customer, staff, branch and services are
+     * resolved once, conflicts for the full date range come from a single locked range query of the staff
+     * schedule, and all occurrences are persisted together so Hibernate batches the inserts.
+     * The first occurrence must be free; later conflicting dates are skipped and reported.
+     */
+    public RecurringSeriesResultDTO createRecurringSeries(AppointmentDTO appointmentDTO) {
+        if (appointmentDTO.getRecurrencePattern() == null || appointmentDTO.getRecurrenceEndDate() == null) {
+            throw new IllegalArgumentException("Recurrence pattern and end date are required");
+        }
+        Appointment.RecurrencePattern pattern = Appointment.RecurrencePattern.valueOf(
+                appointmentDTO.getRecurrencePattern().toUpperCase());
+        int interval = appointmentDTO.getRecurrenceInterval() != null && appointmentDTO.getRecurrenceInterval() > 0
+                ? appointmentDTO.getRecurrenceInterval() : 1;
 
-        // Generate recurring appointments
+        // Expand the occurrence dates
+        List<LocalDate> dates = new ArrayList<>();
         LocalDate currentDate = appointmentDTO.getAppointmentDate();
         LocalDate endDate = appointmentDTO.getRecurrenceEndDate();
-        int sequence = 1;
-
+        dates.add(currentDate);
         while (currentDate.isBefore(endDate)) {
-            currentDate = calculateNextRecurrenceDate(currentDate, appointmentDTO.getRecurrencePattern(), 
-                                                   appointmentDTO.getRecurrenceInterval());
-            
+            currentDate = calculateNextRecurrenceDate(currentDate, pattern.name(), interval);
             if (currentDate.isAfter(endDate)) break;
+            dates.add(currentDate);
+            if (dates.size() > MAX_SERIES_OCCURRENCES) {
+                throw new IllegalArgumentException("A recurring series cannot have more than " + MAX_SERIES_OCCURRENCES + " occurrences");
+            }
+        }
 
-            // Create recurring appointment
-            AppointmentDTO recurringAppointment = new AppointmentDTO();
-            recurringAppointment.setCustomerId(appointmentDTO.getCustomerId());
-            recurringAppointment.setStaffId(appointmentDTO.getStaffId());
-            recurringAppointment.setBranchId(appointmentDTO.getBranchId());
-            recurringAppointment.setAppointmentDate(currentDate);
-            recurringAppointment.setStartTime(appointmentDTO.getStartTime());
-            recurringAppointment.setEndTime(appointmentDTO.getEndTime());
-            recurringAppointment.setNotes(appointmentDTO.getNotes());
-            recurringAppointment.setServices(appointmentDTO.getServices());
-            recurringAppointment.setIsRecurring(true);
-            recurringAppointment.setRecurrencePattern(appointmentDTO.getRecurrencePattern());
-            recurringAppointment.setRecurrenceInterval(appointmentDTO.getRecurrenceInterval());
-            recurringAppointment.setRecurrenceEndDate(appointmentDTO.getRecurrenceEndDate());
-            recurringAppointment.setParentAppointmentId(firstAppointment.getId());
-            recurringAppointment.setRecurrenceSequence(sequence);
-
-            // Validate time slot for recurring appointment
-            try {
-                validateTimeSlot(recurringAppointment.getStaffId(), recurringAppointment.getAppointmentDate(),
-                               recurringAppointment.getStartTime(), recurringAppointment.getEndTime());
-                
-                AppointmentDTO created = createAppointment(recurringAppointment);
-                createdAppointments.add(created);
-                sequence++;
-            } catch (RuntimeException e) {
-                // Skip conflicting appointments but continue with the series
-                System.err.println("Skipping conflicting appointment on " + currentDate + ": " + e.getMessage());
+        // Resolve reference entities once for the whole series
+        Customer customer = customerRepository.findById(appointmentDTO.getCustomerId())
+                .orElseThrow(() -> new RuntimeException("Customer not found"));
+        Staff staff = staffRepository.findById(appointmentDTO.getStaffId())
+                .orElseThrow(() -> new RuntimeException("Staff not found"));
+        Branch branch = branchRepository.findById(appointmentDTO.getBranchId())
+                .orElseThrow(() -> new RuntimeException("Branch not found"));
+        Map<Long, com.hexalyte.salon.model.Service> services = serviceRepository.findAllById(
+                        appointmentDTO.getServices().stream().map(AppointmentServiceDTO::getServiceId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(com.hexalyte.salon.model.Service::getId, service -> service));
+
+        int totalDurationMinutes = 0;
+        for (AppointmentServiceDTO serviceDTO : appointmentDTO.getServices()) {
+            com.hexalyte.salon.model.Service service = services.get(serviceDTO.getServiceId());
+            if (service == null) {
+                throw new RuntimeException("Service not found: " + serviceDTO.getServiceId());
             }
+            totalDurationMinutes += service.getDurationMinutes();
         }
+        LocalTime startTime = appointmentDTO.getStartTime();
+        LocalTime endTime = appointmentDTO.getEndTime() == null ||
+                !isDurationMatching(startTime, appointmentDTO.getEndTime(), totalDurationMinutes)
+                ? startTime.plusMinutes(totalDurationMinutes) : appointmentDTO.getEndTime();
+
+        // One locked range read from the database covers conflict checks for every occurrence
+        lockStaffBookings(staff.getId());
+        Map<LocalDate, StaffScheduleIndex.StaffDaySchedule> schedules = staffScheduleIndex.loadSchedules(
+                staff.getId(), dates.get(0), dates.get(dates.size() - 1));
+
+        RecurringSeriesResultDTO result = new RecurringSeriesResultDTO();
+        result.setRequestedOccurrences(dates.size());
+        List<Appointment> occurrences = new ArrayList<>();
+        for (LocalDate date : dates) {
+            boolean isFree = schedules.get(date).isFree(
+                    StaffScheduleIndex.toMinute(startTime), StaffScheduleIndex.toMinute(endTime), null);
+            if (!isFree) {
+                if (date.equals(dates.get(0))) {
+                    throw new RuntimeException("Time slot conflicts with existing appointment");
+                }
+                result.getConflicts().add(new RecurringSeriesResultDTO.OccurrenceConflict(
+                        date, startTime, endTime, "Time slot conflicts with existing appointment"));
+                continue;
+            }
 
-        return createdAppointments;
+            Appointment occurrence = new Appointment(customer, staff, branch, date, startTime, endTime);
+            occurrence.setStatus(Appointment.Status.BOOKED);
+            occurrence.setNotes(appointmentDTO.getNotes());
+            occurrence.setIsRecurring(true);
+            occurrence.setRecurrencePattern(pattern);
+            occurrence.setRecurrenceInterval(interval);
+            occurrence.setRecurrenceEndDate(endDate);
+            occurrence.setRecurrenceSequence(occurrences.size());
+
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            for (AppointmentServiceDTO serviceDTO : appointmentDTO.getServices()) {
+                occurrence.getAppointmentServices().add(new com.hexalyte.salon.model.AppointmentService(
+                        occurrence, services.get(serviceDTO.getServiceId()), serviceDTO.getPrice(), serviceDTO.getCommissionRate()));
+                totalAmount = totalAmount.add(serviceDTO.getPrice());
+            }
+            occurrence.setTotalAmount(totalAmount);
+            occurrences.add(occurrence);
+        }
+
+        // The first occurrence heads the series; with pooled ids its id is known as soon as it is persisted
+        Appointment first = appointmentRepository.save(occurrences.get(0));
+        for (Appointment occurrence : occurrences) {
+            occurrence.setParentAppointmentId(first.getId());
+        }
+        appointmentRepository.saveAll(occurrences.subList(1, occurrences.size()));
+
+        for (Appointment occurrence : occurrences) {
+            staffScheduleIndex.reindex(occurrence, null, null);
+        }
+        appointmentReminderService.scheduleReminders(occurrences);
+
+        // One confirmation for the series rather than one per occurrence
+        notificationService.sendAppointmentConfirmation(first);
+
+        result.setParentAppointmentId(first.getId());
+        result.setCreated(occurrences.stream().map(this::convertToDTO).collect(Collectors.toList()));
+        return result;
     }
 
     private LocalDate calculateNextRecurrenceDate(LocalDate currentDate, String pattern, Integer interval) {
@@ -558,6 +684,7 @@ public class AppointmentService {
 
     public void cancelRecurringSeries(Long parentAppointmentId, String reason) {
         List<Appointment> recurringAppointments = appointmentRepository.findByParentAppointmentId(parentAppointmentId);
+        List<Long> cancelledIds = new ArrayList<>();
         
         for (Appointment appointment : recurringAppointments) {
             if (appointment.getStatus() == Appointment.Status.BOOKED) {
@@ -567,8 +694,11 @@ public class AppointmentService {
                                        "Series cancellation reason: " + reason);
                 }
                 appointmentRepository.save(appointment);
+                staffScheduleIndex.reindex(appointment, null, null);
+                cancelledIds.add(appointment.getId());
             }
         }
+        appointmentReminderService.cancelReminders(cancelledIds);
     }
 
     // Calculate total duration for a list of services
@@ -584,7 +714,7 @@ public class AppointmentService {
 
     // Get suggested time slots based on service duration
     public List<TimeSlotDTO> getSuggestedTimeSlots(Long staffId, LocalDate date, int durationMinutes) {
-        List<Appointment> existingAppointments = appointmentRepository.findStaffAppointmentsForDate(staffId, date);
+        StaffScheduleIndex.StaffDaySchedule schedule = staffScheduleIndex.getSchedule(staffId, date);
         List<TimeSlotDTO> suggestedSlots = new ArrayList<>();
         
         LocalTime startTime = LocalTime.of(9, 0); // Salon opens at 9 AM
@@ -595,13 +725,8 @@ public class AppointmentService {
             LocalTime slotEnd = currentTime.plusMinutes(durationMinutes);
             if (slotEnd.isAfter(endTime)) break;
 
-            boolean isAvailable = true;
-            for (Appointment appointment : existingAppointments) {
-                if (isTimeSlotConflicting(currentTime, slotEnd, appointment.getStartTime(), appointment.getEndTime())) {
-                    isAvailable = false;
-                    break;
-                }
-            }
+            boolean isAvailable = schedule.isFree(StaffScheduleIndex.toMinute(currentTime),
+                    StaffScheduleIndex.toMinute(slotEnd), null);
 
             if (isAvailable) {
                 TimeSlotDTO slot = new TimeSlotDTO(currentTime, slotEnd, true);
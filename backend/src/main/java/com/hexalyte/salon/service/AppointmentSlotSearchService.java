@@ -0,0 +1,204 @@
+package com.hexalyte.salon.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hexalyte.salon.dto.SlotSearchRequestDTO;
+import com.hexalyte.salon.dto.SlotSuggestionDTO;
+import com.hexalyte.salon.model.Branch;
+import com.hexalyte.salon.model.Staff;
+import com.hexalyte.salon.repository.BranchRepository;
+import com.hexalyte.salon.repository.ServiceRepository;
+import com.hexalyte.salon.repository.StaffRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the earliest bookable slots for a set of services across all qualified staff of a branch.
+ * Free time is read from the precomputed gaps of {@link StaffScheduleIndex}, loaded for the whole
+ * window at once, so a search does not query appointments day by day.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AppointmentSlotSearchService {
+
+    private static final int MAX_WINDOW_DAYS = 31;
+    private static final LocalTime DEFAULT_OPENING_TIME = LocalTime.of(9, 0);
+    private static final LocalTime DEFAULT_CLOSING_TIME = LocalTime.of(18, 0);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private StaffScheduleIndex staffScheduleIndex;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Return the first feasible slots in the date window, ranked by earliest start.
+     * Ties at the same start time go to the preferred staff member, then by name.
+     */
+    public List<SlotSuggestionDTO> searchAvailableSlots(SlotSearchRequestDTO request) {
+        if (request.getToDate().isBefore(request.getFromDate())) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(request.getFromDate(), request.getToDate()) >= MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("Search window cannot exceed " + MAX_WINDOW_DAYS + " days");
+        }
+
+        Branch branch = branchRepository.findById(request.getBranchId())
+                .orElseThrow(() -> new RuntimeException("Branch not found with id: " + request.getBranchId()));
+
+        List<com.hexalyte.salon.model.Service> services = serviceRepository.findAllById(request.getServiceIds());
+        int durationMinutes = appointmentService.calculateServiceDuration(request.getServiceIds());
+        int preparationMinutes = services.stream()
+                .mapToInt(service -> service.getPreparationBufferMinutes() != null ? service.getPreparationBufferMinutes() : 0)
+                .max().orElse(0);
+        int cleanupMinutes = services.stream()
+                .mapToInt(service -> service.getCleanupBufferMinutes() != null ? service.getCleanupBufferMinutes() : 0)
+                .max().orElse(0);
+
+        List<Staff> candidates = staffRepository.findByBranchIdAndStatus(branch.getId(), Staff.StaffStatus.ACTIVE).stream()
+                .filter(staff -> isQualified(staff, request.getRequiredSkill(), services))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        WorkingHours hours = parseWorkingHours(branch.getWorkingHours());
+        int openMinute = StaffScheduleIndex.toMinute(hours.open);
+        int closeMinute = StaffScheduleIndex.toMinute(hours.close);
+        int step = request.getStepMinutes() != null ? request.getStepMinutes() : 15;
+        int maxResults = request.getMaxResults() != null ? request.getMaxResults() : 10;
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<LocalDate, Map<Long, StaffScheduleIndex.StaffDaySchedule>> schedules = staffScheduleIndex.getSchedules(
+                candidates.stream().map(Staff::getId).collect(Collectors.toList()),
+                request.getFromDate(), request.getToDate());
+
+        List<SlotSuggestionDTO> results = new ArrayList<>();
+        for (Map.Entry<LocalDate, Map<Long, StaffScheduleIndex.StaffDaySchedule>> day : schedules.entrySet()) {
+            LocalDate date = day.getKey();
+            if (date.isBefore(now.toLocalDate()) || !hours.days.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            int earliestStart = date.equals(now.toLocalDate())
+                    ? Math.max(openMinute, StaffScheduleIndex.toMinute(now.toLocalTime()))
+                    : openMinute;
+            int remaining = maxResults - results.size();
+
+            List<SlotSuggestionDTO> daySlots = new ArrayList<>();
+            for (Staff staff : candidates) {
+                boolean preferred = staff.getId().equals(request.getPreferredStaffId());
+                int found = 0;
+                for (int[] gap : day.getValue().get(staff.getId()).getFreeIntervals(openMinute, closeMinute)) {
+                    int start = alignToStep(Math.max(gap[0] + preparationMinutes, earliestStart), openMinute, step);
+                    while (found < remaining && start + durationMinutes + cleanupMinutes <= gap[1]) {
+                        daySlots.add(new SlotSuggestionDTO(staff.getId(), staff.getFullName(), date,
+                                LocalTime.ofSecondOfDay(start * 60L),
+                                LocalTime.ofSecondOfDay((start + durationMinutes) * 60L),
+                                preferred));
+                        found++;
+                        start += step;
+                    }
+                }
+            }
+
+            daySlots.sort(Comparator.comparing(SlotSuggestionDTO::getStartTime)
+                    .thenComparing(slot -> !slot.isPreferredStaff())
+                    .thenComparing(SlotSuggestionDTO::getStaffName));
+            results.addAll(daySlots.subList(0, Math.min(remaining, daySlots.size())));
+            if (results.size() >= maxResults) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    // Staff must match the requested skill and every skill the services require
+    private boolean isQualified(Staff staff, String requiredSkill, List<com.hexalyte.salon.model.Service> services) {
+        String skillSet = staff.getSkillSet() != null ? staff.getSkillSet().toLowerCase() : "";
+        if (requiredSkill != null && !requiredSkill.isBlank() && !skillSet.contains(requiredSkill.trim().toLowerCase())) {
+            return false;
+        }
+        for (com.hexalyte.salon.model.Service service : services) {
+            if (service.getRequiredSkills() == null || service.getRequiredSkills().isBlank()) {
+                continue;
+            }
+            for (String skill : service.getRequiredSkills().split(",")) {
+                if (!skill.isBlank() && !skillSet.contains(skill.trim().toLowerCase())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int alignToStep(int minute, int openMinute, int step) {
+        int offset = minute - openMinute;
+        return openMinute + ((offset + step - 1) / step) * step;
+    }
+
+    // Branch working hours are stored as {"open":"09:00","close":"19:00","days":["MON",...]}
+    private WorkingHours parseWorkingHours(String workingHours) {
+        WorkingHours hours = new WorkingHours();
+        if (workingHours == null || workingHours.isBlank()) {
+            return hours;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(workingHours);
+            if (node.hasNonNull("open")) {
+                hours.open = LocalTime.parse(node.get("open").asText());
+            }
+            if (node.hasNonNull("close")) {
+                hours.close = LocalTime.parse(node.get("close").asText());
+            }
+            if (node.has("days") && node.get("days").isArray()) {
+                Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+                for (JsonNode day : node.get("days")) {
+                    String key = day.asText().trim().toUpperCase();
+                    if (key.isEmpty()) {
+                        continue; // A blank key would prefix-match MONDAY
+                    }
+                    Arrays.stream(DayOfWeek.values())
+                            .filter(dayOfWeek -> dayOfWeek.name().startsWith(key))
+                            .findFirst()
+                            .ifPresent(days::add);
+                }
+                hours.days = days;
+            }
+        } catch (Exception e) {
+            System.err.println("Invalid branch working hours, using defaults: " + e.getMessage());
+        }
+        return hours;
+    }
+
+    private static class WorkingHours {
+        LocalTime open = DEFAULT_OPENING_TIME;
+        LocalTime close = DEFAULT_CLOSING_TIME;
+        Set<DayOfWeek> days = EnumSet.allOf(DayOfWeek.class);
+    }
+}
@@ -0,0 +1,164 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.model.BillNumberSequence;
+import com.hexalyte.salon.model.Branch;
+import com.hexalyte.salon.repository.BillNumberSequenceRepository;
+import com.hexalyte.salon.repository.BillingRepository;
+import com.hexalyte.salon.repository.BranchRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allocates bill numbers (BRANCHCODE-yyyy-MM-000001) from a per-branch, per-month counter row.
+ *
+ * With the default block size of 1 the number is taken under a row lock inside the billing
+ * transaction, so a rolled-back checkout returns its number and the sequence stays gap-free.
+ * A larger block size lets each node reserve a range in a short transaction of its own and hand
+ * numbers out from memory; numbers stay unique across nodes but unused ones are lost on restart.
+ */
+@Service
+public class BillNumberAllocator {
+
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    @Value("${billing.bill-number.block-size:1}")
+    private int blockSize;
+
+    @Autowired
+    private BillNumberSequenceRepository billNumberSequenceRepository;
+
+    @Autowired
+    private BillingRepository billingRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate newTransaction;
+    private final ConcurrentHashMap<String, NumberBlock> blocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Recover from bills numbered outside the allocator (imports, older releases) before taking traffic
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileCurrentPeriod() {
+        try {
+            newTransaction.executeWithoutResult(status -> reconcile(LocalDate.now().format(PERIOD_FORMAT)));
+        } catch (Exception e) {
+            System.err.println("Bill number reconciliation failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Next bill number for the branch in the current month; must be called inside the billing transaction
+     */
+    @Transactional
+    public String nextBillNumber(Branch branch) {
+        String period = LocalDate.now().format(PERIOD_FORMAT);
+        long value = blockSize > 1 ? nextFromBlock(branch.getId(), period) : takeNumbers(branch.getId(), period, 1);
+        return prefix(branch.getBranchCode(), period) + String.format("%06d", value);
+    }
+
+    /**
+     * Move every branch's sequence for the period past the highest bill number already issued.
+     * Sequences are never moved backwards. Returns the number of sequences adjusted.
+     */
+    @Transactional
+    public int reconcile(String period) {
+        int adjusted = 0;
+        for (Branch branch : branchRepository.findAll()) {
+            long highest = highestIssued(branch.getId(), branch.getBranchCode(), period);
+            Optional<BillNumberSequence> sequence = billNumberSequenceRepository.findForUpdate(branch.getId(), period);
+            if (sequence.isPresent()) {
+                if (sequence.get().getNextValue() <= highest) {
+                    sequence.get().setNextValue(highest + 1);
+                    adjusted++;
+                }
+            } else if (highest > 0) {
+                billNumberSequenceRepository.save(new BillNumberSequence(branch.getId(), period, highest + 1));
+                adjusted++;
+            }
+        }
+        return adjusted;
+    }
+
+    private long nextFromBlock(Long branchId, String period) {
+        NumberBlock block = blocks.computeIfAbsent(branchId + ":" + period, key -> new NumberBlock());
+        synchronized (block) {
+            if (block.next >= block.end) {
+                long first = newTransaction.execute(status -> takeNumbers(branchId, period, blockSize));
+                block.next = first;
+                block.end = first + blockSize;
+                blocks.keySet().removeIf(key -> !key.endsWith(":" + period));
+            }
+            return block.next++;
+        }
+    }
+
+    // Reserve count consecutive numbers; the row lock is held until the surrounding transaction ends
+    private long takeNumbers(Long branchId, String period, int count) {
+        // Plain read first: a locking read of a missing row would take a gap lock that blocks the insert below
+        if (!billNumberSequenceRepository.existsByBranchIdAndPeriod(branchId, period)) {
+            createSequence(branchId, period);
+        }
+        BillNumberSequence sequence = billNumberSequenceRepository.findForUpdate(branchId, period)
+                .orElseThrow(() -> new RuntimeException("Bill number sequence not found for branch " + branchId + " and period " + period));
+        long first = sequence.getNextValue();
+        sequence.setNextValue(first + count);
+        return first;
+    }
+
+    // The first bill of a month creates the row, seeded from bills already issued; a concurrent creator loses on the unique key
+    private void createSequence(Long branchId, String period) {
+        Branch branch = branchRepository.findById(branchId)
+                .orElseThrow(() -> new RuntimeException("Branch not found with id: " + branchId));
+        try {
+            newTransaction.executeWithoutResult(status -> billNumberSequenceRepository.saveAndFlush(
+                    new BillNumberSequence(branchId, period, highestIssued(branchId, branch.getBranchCode(), period) + 1)));
+        } catch (DataIntegrityViolationException e) {
+            // Created by another request in the meantime
+        }
+    }
+
+    private long highestIssued(Long branchId, String branchCode, String period) {
+        String prefix = prefix(branchCode, period);
+        return billingRepository.findMaxBillNumberByBranchIdAndPrefix(branchId, prefix)
+                .map(billNumber -> {
+                    try {
+                        return Long.parseLong(billNumber.substring(prefix.length()));
+                    } catch (NumberFormatException e) {
+                        return 0L;
+                    }
+                })
+                .orElse(0L);
+    }
+
+    private String prefix(String branchCode, String period) {
+        return branchCode + "-" + period + "-";
+    }
+
+    private static class NumberBlock {
+        private long next;
+        private long end;
+    }
+}
@@ -0,0 +1,300 @@
+package com.hexalyte.salon.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hexalyte.salon.dto.BillingReportDTO;
+import com.hexalyte.salon.dto.DailyRevenueDTO;
+import com.hexalyte.salon.dto.PaymentMethodSummaryDTO;
+import com.hexalyte.salon.dto.ServiceRevenueDTO;
+import com.hexalyte.salon.dto.StaffRevenueDTO;
+import com.hexalyte.salon.model.Branch;
+import com.hexalyte.salon.repository.BillingItemRepository;
+import com.hexalyte.salon.repository.BillingRepository;
+import com.hexalyte.salon.repository.BranchRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Builds billing reports from two queries: one grouped scan over the billing headers (totals,
+ * status counts, payment methods and daily revenue) and one over the billing items (service and
+ * staff revenue). The header rows are folded as they stream from the database, which also lets
+ * {@link #writeBillingReport} emit the daily series before the range has been read completely.
+ */
+@Service
+public class BillingReportService {
+
+    @Autowired
+    private BillingRepository billingRepository;
+
+    @Autowired
+    private BillingItemRepository billingItemRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Transactional(readOnly = true)
+    public BillingReportDTO getBillingReport(Long branchId, LocalDate startDate, LocalDate endDate) {
+        BillingReportDTO report = newReport(branchId);
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
+
+        List<DailyRevenueDTO> dailyRevenue = new ArrayList<>();
+        HeaderTotals totals = foldHeaderAggregates(branchId, startDateTime, endDateTime, dailyRevenue::add);
+        report.setDailyRevenue(dailyRevenue);
+        totals.applyTo(report);
+
+        ItemTotals items = foldItemAggregates(branchId, startDateTime, endDateTime);
+        report.setTopServices(items.services());
+        report.setStaffPerformance(items.staff());
+        return report;
+    }
+
+    /**
+     * Streaming variant for long ranges: writes the same JSON document as {@link BillingReportDTO},
+     * emitting each day of the daily series as soon as its rows have been read.
+     */
+    public void writeBillingReport(Long branchId, LocalDate startDate, LocalDate endDate, OutputStream out) {
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                BillingReportDTO header = newReport(branchId);
+                generator.writeStartObject();
+                generator.writeObjectField("branchId", header.getBranchId());
+                generator.writeObjectField("branchName", header.getBranchName());
+                generator.writeObjectField("reportDate", header.getReportDate());
+                generator.writeObjectField("generatedAt", header.getGeneratedAt());
+
+                generator.writeArrayFieldStart("dailyRevenue");
+                HeaderTotals totals = foldHeaderAggregates(branchId, startDateTime, endDateTime, day -> {
+                    try {
+                        generator.writeObject(day);
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+
+                generator.writeObjectField("totalRevenue", totals.revenue);
+                generator.writeObjectField("totalTax", totals.tax);
+                generator.writeObjectField("totalDiscount", totals.discount);
+                generator.writeObjectField("totalLoyaltyRedeemed", totals.loyaltyRedeemed);
+                generator.writeObjectField("totalBills", (int) totals.totalBills);
+                generator.writeObjectField("paidBills", (int) totals.paidBills);
+                generator.writeObjectField("partialBills", (int) totals.partialBills);
+                generator.writeObjectField("unpaidBills", (int) totals.unpaidBills);
+                generator.writeObjectField("paymentMethodBreakdown", totals.paymentMethods());
+
+                ItemTotals items = foldItemAggregates(branchId, startDateTime, endDateTime);
+                generator.writeObjectField("topServices", items.services());
+                generator.writeObjectField("staffPerformance", items.staff());
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private BillingReportDTO newReport(Long branchId) {
+        Branch branch = branchRepository.findById(branchId)
+                .orElseThrow(() -> new RuntimeException("Branch not found with id: " + branchId));
+        BillingReportDTO report = new BillingReportDTO();
+        report.setBranchId(branchId);
+        report.setBranchName(branch.getBranchName());
+        report.setReportDate(LocalDate.now());
+        report.setGeneratedAt(LocalDateTime.now());
+        return report;
+    }
+
+    // The header stream must be closed before the next query: MySQL cannot run one while a result is streaming
+    private HeaderTotals foldHeaderAggregates(Long branchId, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                                              Consumer<DailyRevenueDTO> dailySink) {
+        HeaderTotals totals = new HeaderTotals();
+        try (Stream<Object[]> rows = billingRepository.streamReportAggregatesByBranchAndDateRange(branchId, startDateTime, endDateTime)) {
+            rows.forEach(row -> totals.accept(row, dailySink));
+        }
+        totals.finish(dailySink);
+        return totals;
+    }
+
+    /**
+     * Service and staff revenue of PAID bills in the range, from one scan of the billing items
+     */
+    public ItemTotals foldItemAggregates(Long branchId, LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        ItemTotals totals = new ItemTotals();
+        billingItemRepository.getServiceStaffRevenueByBranchAndDateRange(branchId, startDateTime, endDateTime)
+                .forEach(totals::accept);
+        return totals;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date ? ((java.sql.Date) value).toLocalDate() : (LocalDate) value;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    // Folds (day, payment method) rows ordered by day; a day is complete when the next one starts
+    private static class HeaderTotals {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal tax = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private BigDecimal loyaltyRedeemed = BigDecimal.ZERO;
+        private long totalBills;
+        private long paidBills;
+        private long partialBills;
+        private long unpaidBills;
+        private final Map<String, PaymentMethodSummaryDTO> paymentMethods = new LinkedHashMap<>();
+
+        private LocalDate currentDay;
+        private BigDecimal dayRevenue = BigDecimal.ZERO;
+        private long dayPaidBills;
+
+        void accept(Object[] row, Consumer<DailyRevenueDTO> dailySink) {
+            LocalDate day = toLocalDate(row[0]);
+            if (currentDay != null && !currentDay.equals(day)) {
+                finish(dailySink);
+            }
+            currentDay = day;
+
+            long paid = ((Number) row[3]).longValue();
+            BigDecimal paidAmount = toBigDecimal(row[6]);
+            totalBills += ((Number) row[2]).longValue();
+            paidBills += paid;
+            partialBills += ((Number) row[4]).longValue();
+            unpaidBills += ((Number) row[5]).longValue();
+            revenue = revenue.add(paidAmount);
+            tax = tax.add(toBigDecimal(row[7]));
+            discount = discount.add(toBigDecimal(row[8]));
+            loyaltyRedeemed = loyaltyRedeemed.add(toBigDecimal(row[9]));
+
+            // Daily revenue and the payment method breakdown only cover paid bills
+            if (paid > 0) {
+                dayRevenue = dayRevenue.add(paidAmount);
+                dayPaidBills += paid;
+                PaymentMethodSummaryDTO method = paymentMethods.computeIfAbsent((String) row[1],
+                        name -> new PaymentMethodSummaryDTO(name, BigDecimal.ZERO, 0));
+                method.setTotalAmount(method.getTotalAmount().add(paidAmount));
+                method.setTransactionCount(method.getTransactionCount() + (int) paid);
+            }
+        }
+
+        void finish(Consumer<DailyRevenueDTO> dailySink) {
+            if (currentDay != null && dayPaidBills > 0) {
+                dailySink.accept(new DailyRevenueDTO(currentDay, dayRevenue, (int) dayPaidBills));
+            }
+            currentDay = null;
+            dayRevenue = BigDecimal.ZERO;
+            dayPaidBills = 0;
+        }
+
+        List<PaymentMethodSummaryDTO> paymentMethods() {
+            List<PaymentMethodSummaryDTO> breakdown = new ArrayList<>(paymentMethods.values());
+            breakdown.sort(Comparator.comparing(PaymentMethodSummaryDTO::getTotalAmount).reversed());
+            return breakdown;
+        }
+
+        void applyTo(BillingReportDTO report) {
+            report.setTotalRevenue(revenue);
+            report.setTotalTax(tax);
+            report.setTotalDiscount(discount);
+            report.setTotalLoyaltyRedeemed(loyaltyRedeemed);
+            report.setTotalBills((int) totalBills);
+            report.setPaidBills((int) paidBills);
+            report.setPartialBills((int) partialBills);
+            report.setUnpaidBills((int) unpaidBills);
+            report.setPaymentMethodBreakdown(paymentMethods());
+        }
+    }
+
+    // Folds (service, staff) rows into per-service and per-staff totals; DTOs are built at the end
+    // because their constructors derive the average value from the final totals
+    public static class ItemTotals {
+        private final Map<Long, RevenueTotal> services = new LinkedHashMap<>();
+        private final Map<Long, RevenueTotal> staff = new LinkedHashMap<>();
+
+        void accept(Object[] row) {
+            BigDecimal itemRevenue = toBigDecimal(row[8]);
+            long itemCount = ((Number) row[9]).longValue();
+
+            services.computeIfAbsent(((Number) row[0]).longValue(), id -> new RevenueTotal(row[1], row[2], null))
+                    .add(itemRevenue, itemCount, BigDecimal.ZERO);
+            if (row[3] != null) {
+                staff.computeIfAbsent(((Number) row[3]).longValue(), id -> new RevenueTotal(row[4] + " " + row[5], row[6], row[7]))
+                        .add(itemRevenue, itemCount, toBigDecimal(row[10]));
+            }
+        }
+
+        public List<ServiceRevenueDTO> services() {
+            List<ServiceRevenueDTO> result = new ArrayList<>();
+            services.forEach((id, total) -> result.add(new ServiceRevenueDTO(id, (String) total.name, (String) total.detail,
+                    total.revenue, (int) total.count)));
+            result.sort(Comparator.comparing(ServiceRevenueDTO::getTotalRevenue).reversed());
+            return result;
+        }
+
+        public List<StaffRevenueDTO> staff() {
+            List<StaffRevenueDTO> result = new ArrayList<>();
+            staff.forEach((id, total) -> result.add(new StaffRevenueDTO(id, (String) total.name, (String) total.detail,
+                    (String) total.extra, total.revenue, (int) total.count, total.commission)));
+            result.sort(Comparator.comparing(StaffRevenueDTO::getTotalRevenue).reversed());
+            return result;
+        }
+    }
+
+    private static class RevenueTotal {
+        private final Object name;
+        private final Object detail;
+        private final Object extra;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal commission = BigDecimal.ZERO;
+        private long count;
+
+        RevenueTotal(Object name, Object detail, Object extra) {
+            this.name = name;
+            this.detail = detail;
+            this.extra = extra;
+        }
+
+        void add(BigDecimal itemRevenue, long itemCount, BigDecimal itemCommission) {
+            revenue = revenue.add(itemRevenue);
+            commission = commission.add(itemCommission);
+            count += itemCount;
+        }
+    }
+}
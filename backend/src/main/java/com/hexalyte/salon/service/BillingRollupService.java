@@ -0,0 +1,318 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.model.Billing;
+import com.hexalyte.salon.model.BillingPaymentRollup;
+import com.hexalyte.salon.model.BillingRollup;
+import com.hexalyte.salon.model.Branch;
+import com.hexalyte.salon.repository.BillingPaymentRollupRepository;
+import com.hexalyte.salon.repository.BillingRepository;
+import com.hexalyte.salon.repository.BillingRollupRepository;
+import com.hexalyte.salon.repository.BranchRepository;
+import com.hexalyte.salon.repository.PaymentTransactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the billing rollups (per branch and day, month and all time) in step with bill changes.
+ * Callers take a {@link BillSnapshot} before changing a bill and pass it with the snapshot after
+ * the change; the difference is applied as atomic increments in the same transaction, so the
+ * dashboard never has to aggregate the billing table.
+ */
+@Service
+public class BillingRollupService {
+
+    private static final String UNKNOWN_PAYMENT_METHOD = "UNKNOWN";
+
+    @Autowired
+    private BillingRollupRepository billingRollupRepository;
+
+    @Autowired
+    private BillingPaymentRollupRepository billingPaymentRollupRepository;
+
+    @Autowired
+    private BillingRepository billingRepository;
+
+    @Autowired
+    private PaymentTransactionRepository paymentTransactionRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // First start after upgrading: build the rollups from existing bills
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeRollups() {
+        try {
+            if (billingRollupRepository.count() == 0 && billingRepository.count() > 0) {
+                for (Branch branch : branchRepository.findAll()) {
+                    newTransaction.executeWithoutResult(status -> rebuildRollups(branch.getId()));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Billing rollup initialization failed: " + e.getMessage());
+        }
+    }
+
+    public static BillSnapshot snapshot(Billing billing) {
+        return new BillSnapshot(billing);
+    }
+
+    /**
+     * Apply the change of one bill; before is null for a new bill
+     */
+    @Transactional
+    public void recordChange(BillSnapshot before, BillSnapshot after) {
+        if (before != null && after != null && before.branchId.equals(after.branchId) && before.billDate.equals(after.billDate)) {
+            Delta delta = new Delta();
+            delta.subtract(before);
+            delta.add(after);
+            apply(after.branchId, after.billDate, delta);
+        } else {
+            if (before != null) {
+                Delta delta = new Delta();
+                delta.subtract(before);
+                apply(before.branchId, before.billDate, delta);
+            }
+            if (after != null) {
+                Delta delta = new Delta();
+                delta.add(after);
+                apply(after.branchId, after.billDate, delta);
+            }
+        }
+
+        if (before != null && after != null && before.samePayment(after)) {
+            return;
+        }
+        if (before != null && before.status == Billing.BillingStatus.PAID) {
+            applyPayment(before.branchId, before.billDate, before.paymentMethod, -1, before.totalAmount.negate());
+        }
+        if (after != null && after.status == Billing.BillingStatus.PAID) {
+            applyPayment(after.branchId, after.billDate, after.paymentMethod, 1, after.totalAmount);
+        }
+    }
+
+    /**
+     * Count a refund on the day it is made
+     */
+    @Transactional
+    public void recordRefund(Long branchId, LocalDate refundDate, BigDecimal amount) {
+        Delta delta = new Delta();
+        delta.refundCount = 1;
+        delta.refundAmount = amount;
+        apply(branchId, refundDate, delta);
+    }
+
+    /**
+     * Recompute a branch's rollups from its bills and refunds, e.g. after a restore or manual data fix
+     */
+    @Transactional
+    public void rebuildRollups(Long branchId) {
+        billingRollupRepository.deleteByBranch(branchId);
+        billingPaymentRollupRepository.deleteByBranch(branchId);
+        billingRollupRepository.flush();
+
+        Map<String, BillingRollup> rollups = new HashMap<>();
+        Map<String, BillingPaymentRollup> payments = new HashMap<>();
+        for (Object[] row : billingRepository.getRollupTotalsByBranch(branchId)) {
+            LocalDate day = toLocalDate(row[0]);
+            Billing.BillingStatus status = (Billing.BillingStatus) row[1];
+            int bills = ((Number) row[3]).intValue();
+            Delta delta = new Delta();
+            delta.bills = bills;
+            delta.countStatus(status, bills);
+            if (status == Billing.BillingStatus.PAID) {
+                delta.revenue = (BigDecimal) row[4];
+                delta.tax = (BigDecimal) row[5];
+                delta.discount = (BigDecimal) row[6];
+
+                String method = row[2] != null ? (String) row[2] : UNKNOWN_PAYMENT_METHOD;
+                BillingPaymentRollup payment = payments.computeIfAbsent(day + "|" + method,
+                        key -> new BillingPaymentRollup(branchId, day, method));
+                payment.setBillCount(payment.getBillCount() + bills);
+                payment.setAmount(payment.getAmount().add((BigDecimal) row[4]));
+            }
+            accumulate(rollups, branchId, day, delta);
+        }
+        for (Object[] row : paymentTransactionRepository.getRefundTotalsByBranch(branchId)) {
+            Delta delta = new Delta();
+            delta.refundCount = ((Number) row[1]).intValue();
+            delta.refundAmount = ((BigDecimal) row[2]).negate();
+            accumulate(rollups, branchId, toLocalDate(row[0]), delta);
+        }
+
+        billingRollupRepository.saveAll(rollups.values());
+        billingPaymentRollupRepository.saveAll(payments.values());
+    }
+
+    private void accumulate(Map<String, BillingRollup> rollups, Long branchId, LocalDate day, Delta delta) {
+        for (BillingRollup.Granularity granularity : BillingRollup.Granularity.values()) {
+            LocalDate periodStart = granularity.periodStart(day);
+            BillingRollup rollup = rollups.computeIfAbsent(granularity + "|" + periodStart,
+                    key -> new BillingRollup(branchId, granularity, periodStart));
+            rollup.setBillCount(rollup.getBillCount() + delta.bills);
+            rollup.setPaidBills(rollup.getPaidBills() + delta.paid);
+            rollup.setPartialBills(rollup.getPartialBills() + delta.partial);
+            rollup.setUnpaidBills(rollup.getUnpaidBills() + delta.unpaid);
+            rollup.setRefundedBills(rollup.getRefundedBills() + delta.refunded);
+            rollup.setCancelledBills(rollup.getCancelledBills() + delta.cancelled);
+            rollup.setRevenue(rollup.getRevenue().add(delta.revenue));
+            rollup.setTaxAmount(rollup.getTaxAmount().add(delta.tax));
+            rollup.setDiscountAmount(rollup.getDiscountAmount().add(delta.discount));
+            rollup.setRefundCount(rollup.getRefundCount() + delta.refundCount);
+            rollup.setRefundAmount(rollup.getRefundAmount().add(delta.refundAmount));
+        }
+    }
+
+    private void apply(Long branchId, LocalDate day, Delta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        for (BillingRollup.Granularity granularity : BillingRollup.Granularity.values()) {
+            LocalDate periodStart = granularity.periodStart(day);
+            if (!billingRollupRepository.existsByBranchIdAndGranularityAndPeriodStart(branchId, granularity, periodStart)) {
+                createRow(() -> billingRollupRepository.saveAndFlush(new BillingRollup(branchId, granularity, periodStart)));
+            }
+            billingRollupRepository.increment(branchId, granularity, periodStart,
+                    delta.bills, delta.paid, delta.partial, delta.unpaid, delta.refunded, delta.cancelled,
+                    delta.revenue, delta.tax, delta.discount, delta.refundCount, delta.refundAmount);
+        }
+    }
+
+    private void applyPayment(Long branchId, LocalDate day, String paymentMethod, int bills, BigDecimal amount) {
+        String method = paymentMethod != null ? paymentMethod : UNKNOWN_PAYMENT_METHOD;
+        if (!billingPaymentRollupRepository.existsByBranchIdAndRollupDateAndPaymentMethod(branchId, day, method)) {
+            createRow(() -> billingPaymentRollupRepository.saveAndFlush(new BillingPaymentRollup(branchId, day, method)));
+        }
+        billingPaymentRollupRepository.increment(branchId, day, method, bills, amount);
+    }
+
+    // Rollup rows start at zero and are only ever incremented, so a row another bill created first is
+    // just as good; callers check with a plain read so the billing transaction takes no gap lock on the key
+    private void createRow(Runnable insert) {
+        try {
+            newTransaction.executeWithoutResult(status -> insert.run());
+        } catch (DataIntegrityViolationException e) {
+            // Created by another transaction in the meantime
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date ? ((java.sql.Date) value).toLocalDate() : (LocalDate) value;
+    }
+
+    /**
+     * The parts of a bill that feed the rollups, captured before and after a change
+     */
+    public static class BillSnapshot {
+        private final Long branchId;
+        private final LocalDate billDate;
+        private final Billing.BillingStatus status;
+        private final String paymentMethod;
+        private final BigDecimal totalAmount;
+        private final BigDecimal taxAmount;
+        private final BigDecimal discountAmount;
+
+        private BillSnapshot(Billing billing) {
+            this.branchId = billing.getBranch().getId();
+            this.billDate = billing.getBillDate() != null ? billing.getBillDate().toLocalDate() : LocalDate.now();
+            this.status = billing.getStatus();
+            this.paymentMethod = billing.getPaymentMethod();
+            this.totalAmount = valueOrZero(billing.getTotalAmount());
+            this.taxAmount = valueOrZero(billing.getTaxAmount());
+            this.discountAmount = valueOrZero(billing.getDiscountAmount());
+        }
+
+        private boolean samePayment(BillSnapshot other) {
+            return status == other.status && branchId.equals(other.branchId) && billDate.equals(other.billDate)
+                    && Objects.equals(paymentMethod, other.paymentMethod)
+                    && totalAmount.compareTo(other.totalAmount) == 0;
+        }
+
+        private static BigDecimal valueOrZero(BigDecimal value) {
+            return value != null ? value : BigDecimal.ZERO;
+        }
+    }
+
+    private static class Delta {
+        private int bills;
+        private int paid;
+        private int partial;
+        private int unpaid;
+        private int refunded;
+        private int cancelled;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal tax = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private int refundCount;
+        private BigDecimal refundAmount = BigDecimal.ZERO;
+
+        void add(BillSnapshot bill) {
+            apply(bill, 1);
+        }
+
+        void subtract(BillSnapshot bill) {
+            apply(bill, -1);
+        }
+
+        private void apply(BillSnapshot bill, int sign) {
+            bills += sign;
+            countStatus(bill.status, sign);
+            if (bill.status == Billing.BillingStatus.PAID) {
+                BigDecimal factor = BigDecimal.valueOf(sign);
+                revenue = revenue.add(bill.totalAmount.multiply(factor));
+                tax = tax.add(bill.taxAmount.multiply(factor));
+                discount = discount.add(bill.discountAmount.multiply(factor));
+            }
+        }
+
+        void countStatus(Billing.BillingStatus status, int count) {
+            switch (status) {
+                case PAID:
+                    paid += count;
+                    break;
+                case PARTIAL:
+                    partial += count;
+                    break;
+                case UNPAID:
+                    unpaid += count;
+                    break;
+                case REFUNDED:
+                    refunded += count;
+                    break;
+                case CANCELLED:
+                    cancelled += count;
+                    break;
+            }
+        }
+
+        boolean isEmpty() {
+            return bills == 0 && paid == 0 && partial == 0 && unpaid == 0 && refunded == 0 && cancelled == 0
+                    && revenue.signum() == 0 && tax.signum() == 0 && discount.signum() == 0
+                    && refundCount == 0 && refundAmount.signum() == 0;
+        }
+    }
+}
@@ -6,7 +6,10 @@ import com.hexalyte.salon.repository.*;
 import com.hexalyte.salon.security.AuthUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +25,10 @@ import java.util.stream.Collectors;
 @Transactional
 public class BillingService {
     
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("billDate"), Sort.Order.desc("billId"));
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int DASHBOARD_RECENT_BILLS = 10;
+    
     @Autowired
     private BillingRepository billingRepository;
     
@@ -48,6 +55,21 @@ public class BillingService {
     
     @Autowired
     private CommissionService commissionService;
+
+    @Autowired
+    private BillNumberAllocator billNumberAllocator;
+
+    @Autowired
+    private BillingReportService billingReportService;
+
+    @Autowired
+    private BillingRollupService billingRollupService;
+
+    @Autowired
+    private BillingRollupRepository billingRollupRepository;
+
+    @Autowired
+    private BillingPaymentRollupRepository billingPaymentRollupRepository;
     
     @Autowired
     private AuthUtils authUtils;
@@ -94,6 +116,7 @@ public class BillingService {
         
         // Save billing
         billing = billingRepository.save(billing);
+        billingRollupService.recordChange(null, BillingRollupService.snapshot(billing));
         
         // Create billing items from appointment services
         createBillingItemsFromAppointment(billing, appointment);
@@ -110,6 +133,7 @@ public class BillingService {
     public BillingDTO processPayment(Long billId, BillingRequestDTO billingRequest) {
         Billing billing = billingRepository.findById(billId)
             .orElseThrow(() -> new RuntimeException("Bill not found"));
+        BillingRollupService.BillSnapshot before = BillingRollupService.snapshot(billing);
         
         // Update discount and loyalty if provided
         if (billingRequest.getDiscountAmount() != null) {
@@ -137,6 +161,7 @@ public class BillingService {
         billing.setPaymentMethod(determinePaymentMethod(billingRequest.getPayments()));
         
         billing = billingRepository.save(billing);
+        billingRollupService.recordChange(before, BillingRollupService.snapshot(billing));
         
         return new BillingDTO(billing);
     }
@@ -158,6 +183,126 @@ public class BillingService {
         return bills.map(BillingDTO::new);
     }
     
+    /**
+     * Search bills with optional filters; only the supplied filters become predicates
+     */
+    public Page<BillingDTO> searchBills(Long branchId, Long customerId, String status, String paymentMethod,
+                                        LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        Pageable sortedPageable = pageable.getSort().isSorted()
+            ? pageable
+            : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), NEWEST_FIRST);
+        Specification<Billing> specification = searchSpecification(branchId, customerId, status, paymentMethod, startDate, endDate)
+            .and(BillingSpecifications.fetchSummaryRelations());
+        return billingRepository.findAll(specification, sortedPageable).map(BillingDTO::new);
+    }
+    
+    /**
+     * Keyset variant of the bill search for deep paging and infinite scroll. Pages are ordered
+     * newest first and continue after the (billDate, billId) cursor of the previous page; the
+     * total count is only run when requested.
+     */
+    public BillingKeysetPageDTO searchBillsKeyset(Long branchId, Long customerId, String status, String paymentMethod,
+                                                  LocalDate startDate, LocalDate endDate,
+                                                  LocalDateTime cursorDate, Long cursorId, int size, boolean includeTotal) {
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        Specification<Billing> filters = searchSpecification(branchId, customerId, status, paymentMethod, startDate, endDate);
+        
+        // One extra row tells whether another page exists without counting
+        List<Billing> rows = billingRepository.findBy(
+            filters.and(BillingSpecifications.after(cursorDate, cursorId)).and(BillingSpecifications.fetchSummaryRelations()),
+            query -> query.sortBy(NEWEST_FIRST).limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        List<Billing> pageRows = hasNext ? rows.subList(0, size) : rows;
+        
+        BillingKeysetPageDTO page = new BillingKeysetPageDTO(
+            pageRows.stream().map(BillingDTO::new).collect(Collectors.toList()), pageRows.size(), hasNext);
+        if (hasNext) {
+            Billing last = pageRows.get(pageRows.size() - 1);
+            page.setNextCursorDate(last.getBillDate());
+            page.setNextCursorId(last.getBillId());
+        }
+        if (includeTotal) {
+            page.setTotalElements(billingRepository.count(filters));
+        }
+        return page;
+    }
+    
+    private Specification<Billing> searchSpecification(Long branchId, Long customerId, String status, String paymentMethod,
+                                                       LocalDate startDate, LocalDate endDate) {
+        Billing.BillingStatus billingStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                billingStatus = Billing.BillingStatus.valueOf(status.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid bill status: " + status);
+            }
+        }
+        return Specification.where(BillingSpecifications.hasBranch(branchId))
+            .and(BillingSpecifications.hasCustomer(customerId))
+            .and(BillingSpecifications.hasStatus(billingStatus))
+            .and(BillingSpecifications.hasPaymentMethod(paymentMethod))
+            .and(BillingSpecifications.billedFrom(startDate != null ? startDate.atStartOfDay() : null))
+            .and(BillingSpecifications.billedBefore(endDate != null ? endDate.plusDays(1).atStartOfDay() : null));
+    }
+    
+    /**
+     * Billing dashboard read from the materialized rollups: the day, month and all-time rows plus
+     * today's payment-method rows, instead of aggregating the billing table
+     */
+    public BillingDashboardDTO getBillingDashboard(Long branchId) {
+        Branch branch = branchRepository.findById(branchId)
+            .orElseThrow(() -> new RuntimeException("Branch not found with id: " + branchId));
+        LocalDate today = LocalDate.now();
+        BillingRollup day = findRollup(branchId, BillingRollup.Granularity.DAY, today);
+        BillingRollup month = findRollup(branchId, BillingRollup.Granularity.MONTH, today);
+        BillingRollup allTime = findRollup(branchId, BillingRollup.Granularity.ALL, today);
+        
+        BillingDashboardDTO dashboard = new BillingDashboardDTO();
+        dashboard.setBranchId(branchId);
+        dashboard.setBranchName(branch.getBranchName());
+        dashboard.setReportDate(today);
+        
+        dashboard.setTodayRevenue(day.getRevenue());
+        dashboard.setTodayBills(day.getBillCount());
+        dashboard.setTodayTax(day.getTaxAmount());
+        dashboard.setTodayDiscount(day.getDiscountAmount());
+        dashboard.setTodayRefunds(day.getRefundCount());
+        dashboard.setTodayRefundAmount(day.getRefundAmount());
+        
+        dashboard.setMonthRevenue(month.getRevenue());
+        dashboard.setMonthBills(month.getBillCount());
+        dashboard.setMonthTax(month.getTaxAmount());
+        dashboard.setMonthDiscount(month.getDiscountAmount());
+        dashboard.setMonthRefundAmount(month.getRefundAmount());
+        
+        dashboard.setPaidBills(allTime.getPaidBills());
+        dashboard.setPartialBills(allTime.getPartialBills());
+        dashboard.setUnpaidBills(allTime.getUnpaidBills());
+        
+        dashboard.setTodayPaymentBreakdown(billingPaymentRollupRepository.findActiveByBranchAndDate(branchId, today).stream()
+            .map(row -> new PaymentMethodSummaryDTO(row.getPaymentMethod(), row.getAmount(), row.getBillCount()))
+            .collect(Collectors.toList()));
+        
+        List<Billing> recentBills = billingRepository.findBy(
+            Specification.where(BillingSpecifications.hasBranch(branchId)).and(BillingSpecifications.fetchSummaryRelations()),
+            query -> query.sortBy(NEWEST_FIRST).limit(DASHBOARD_RECENT_BILLS).all());
+        dashboard.setRecentBills(recentBills.stream().map(BillingDTO::new).collect(Collectors.toList()));
+        
+        // Item figures only cover today's bills
+        BillingReportService.ItemTotals items = billingReportService.foldItemAggregates(
+            branchId, today.atStartOfDay(), today.atTime(23, 59, 59));
+        dashboard.setTopServicesToday(items.services());
+        dashboard.setStaffPerformanceToday(items.staff());
+        return dashboard;
+    }
+    
+    private BillingRollup findRollup(Long branchId, BillingRollup.Granularity granularity, LocalDate date) {
+        return billingRollupRepository.findByBranchIdAndGranularityAndPeriodStart(branchId, granularity, granularity.periodStart(date))
+            .orElseGet(() -> new BillingRollup(branchId, granularity, granularity.periodStart(date)));
+    }
+    
     /**
      * Get bills by customer
      */
@@ -178,88 +323,7 @@ public class BillingService {
      * Get billing report
      */
     public BillingReportDTO getBillingReport(Long branchId, LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-        
-        BillingReportDTO report = new BillingReportDTO();
-        report.setBranchId(branchId);
-        report.setBranchName(branchRepository.findById(branchId).orElseThrow().getBranchName());
-        report.setReportDate(LocalDate.now());
-        report.setGeneratedAt(LocalDateTime.now());
-        
-        // Get summary totals
-        BigDecimal totalRevenue = billingRepository.getRevenueByBranchAndDateRange(branchId, startDateTime, endDateTime);
-        BigDecimal totalTax = billingRepository.getTaxCollectedByBranchAndDateRange(branchId, startDateTime, endDateTime);
-        BigDecimal totalDiscount = billingRepository.getDiscountGivenByBranchAndDateRange(branchId, startDateTime, endDateTime);
-        BigDecimal totalLoyalty = billingRepository.getLoyaltyRedeemedByBranchAndDateRange(branchId, startDateTime, endDateTime);
-        
-        report.setTotalRevenue(totalRevenue);
-        report.setTotalTax(totalTax);
-        report.setTotalDiscount(totalDiscount);
-        report.setTotalLoyaltyRedeemed(totalLoyalty);
-        
-        // Get bill counts
-        Long totalBills = billingRepository.countByBranchAndDateRange(branchId, startDateTime, endDateTime);
-        Long paidBills = billingRepository.countByBranchAndStatus(branchId, Billing.BillingStatus.PAID);
-        Long partialBills = billingRepository.countByBranchAndStatus(branchId, Billing.BillingStatus.PARTIAL);
-        Long unpaidBills = billingRepository.countByBranchAndStatus(branchId, Billing.BillingStatus.UNPAID);
-        
-        report.setTotalBills(totalBills.intValue());
-        report.setPaidBills(paidBills.intValue());
-        report.setPartialBills(partialBills.intValue());
-        report.setUnpaidBills(unpaidBills.intValue());
-        
-        // Get payment method breakdown
-        List<Object[]> paymentMethodData = billingRepository.getPaymentMethodBreakdownByBranchAndDateRange(branchId, startDateTime, endDateTime);
-        List<PaymentMethodSummaryDTO> paymentMethodBreakdown = paymentMethodData.stream()
-            .map(row -> new PaymentMethodSummaryDTO(
-                (String) row[0], 
-                (BigDecimal) row[1], 
-                ((Number) row[2]).intValue()
-            ))
-            .collect(Collectors.toList());
-        report.setPaymentMethodBreakdown(paymentMethodBreakdown);
-        
-        // Get daily revenue
-        List<Object[]> dailyRevenueData = billingRepository.getDailyRevenueByBranchAndDateRange(branchId, startDateTime, endDateTime);
-        List<DailyRevenueDTO> dailyRevenue = dailyRevenueData.stream()
-            .map(row -> new DailyRevenueDTO(
-                ((java.sql.Date) row[0]).toLocalDate(),
-                (BigDecimal) row[1],
-                ((Number) row[2]).intValue()
-            ))
-            .collect(Collectors.toList());
-        report.setDailyRevenue(dailyRevenue);
-        
-        // Get top services
-        List<Object[]> serviceRevenueData = billingItemRepository.getServiceRevenueByBranchAndDateRange(branchId, startDateTime, endDateTime);
-        List<ServiceRevenueDTO> topServices = serviceRevenueData.stream()
-            .map(row -> new ServiceRevenueDTO(
-                ((Number) row[0]).longValue(),
-                (String) row[1],
-                (String) row[2],
-                (BigDecimal) row[3],
-                ((Number) row[4]).intValue()
-            ))
-            .collect(Collectors.toList());
-        report.setTopServices(topServices);
-        
-        // Get staff performance
-        List<Object[]> staffRevenueData = billingItemRepository.getStaffRevenueByBranchAndDateRange(branchId, startDateTime, endDateTime);
-        List<StaffRevenueDTO> staffPerformance = staffRevenueData.stream()
-            .map(row -> new StaffRevenueDTO(
-                ((Number) row[0]).longValue(),
-                (String) row[1] + " " + (String) row[2],
-                (String) row[3],
-                (String) row[4],
-                (BigDecimal) row[5],
-                ((Number) row[6]).intValue(),
-                (BigDecimal) row[7]
-            ))
-            .collect(Collectors.toList());
-        report.setStaffPerformance(staffPerformance);
-        
-        return report;
+        return billingReportService.getBillingReport(branchId, startDate, endDate);
     }
     
     /**
@@ -272,6 +336,7 @@ public class BillingService {
         if (billing.getStatus() != Billing.BillingStatus.PAID) {
             throw new RuntimeException("Only paid bills can be refunded");
         }
+        BillingRollupService.BillSnapshot before = BillingRollupService.snapshot(billing);
         
         // Create refund transaction
         PaymentTransaction refundTransaction = new PaymentTransaction(
@@ -287,6 +352,8 @@ public class BillingService {
         billing.setStatus(Billing.BillingStatus.REFUNDED);
         billing.setRemarks(billing.getRemarks() + "\nRefunded: " + reason);
         billing = billingRepository.save(billing);
+        billingRollupService.recordChange(before, BillingRollupService.snapshot(billing));
+        billingRollupService.recordRefund(billing.getBranch().getId(), LocalDate.now(), billing.getPaidAmount());
         
         // Reverse commissions
         reverseCommissionsForBilling(billing);
@@ -298,15 +365,7 @@ public class BillingService {
     
     private String generateBillNumber(Long branchId) {
         Branch branch = branchRepository.findById(branchId).orElseThrow();
-        String branchCode = branch.getBranchCode();
-        String year = String.valueOf(LocalDate.now().getYear());
-        String month = String.format("%02d", LocalDate.now().getMonthValue());
-        
-        // Get next sequence number for this branch and month
-        String prefix = branchCode + "-" + year + "-" + month + "-";
-        Long lastBillNumber = billingRepository.countByBranchIdAndBillNumberStartingWith(branchId, prefix);
-        
-        return prefix + String.format("%06d", lastBillNumber + 1);
+        return billNumberAllocator.nextBillNumber(branch);
     }
     
     private BigDecimal calculateSubtotalFromAppointment(Appointment appointment) {
@@ -0,0 +1,172 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.model.Commission;
+import com.hexalyte.salon.model.CommissionEvent;
+import com.hexalyte.salon.model.MonthPeriod;
+import com.hexalyte.salon.repository.CommissionEventRepository;
+import com.hexalyte.salon.repository.CommissionRepository;
+import com.hexalyte.salon.repository.CommissionSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Append-only event streams of commissions. Every state change (calculated, recalculated, adjusted,
+ * approved, locked, reversed) is appended as an insert numbered per commission. The commission row
+ * (current amount and status) and the monthly summaries are projections of these streams and can be
+ * rebuilt from them; a rebuild replays each staff member's streams in parallel.
+ */
+@Service
+@Transactional
+public class CommissionEventStore {
+
+    @Value("${commission.events.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Autowired
+    private CommissionEventRepository eventRepository;
+
+    @Autowired
+    private CommissionRepository commissionRepository;
+
+    @Autowired
+    private CommissionSummaryRepository commissionSummaryRepository;
+
+    @Autowired
+    private CommissionSummaryService commissionSummaryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Record the first event of a commission that was saved with event sequence 1
+     */
+    public void recordCreated(Commission commission, String reason) {
+        eventRepository.save(new CommissionEvent(commission, CommissionEvent.EventType.CALCULATED, null, reason));
+    }
+
+    /**
+     * Append the commission's new state after a change made in the current transaction
+     */
+    public void append(Commission commission, CommissionEvent.EventType eventType, Long userId, String reason) {
+        commission.setEventSequence(commission.getEventSequence() + 1);
+        eventRepository.save(new CommissionEvent(commission, eventType, userId, reason));
+    }
+
+    /**
+     * Append one event per commission after a bulk UPDATE that bumped their event_sequence
+     */
+    public void appendBulk(List<Long> commissionIds, CommissionEvent.EventType eventType, Long userId, String reason) {
+        if (!commissionIds.isEmpty()) {
+            eventRepository.appendCurrentState(commissionIds, eventType.name(), userId, reason, LocalDateTime.now());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<CommissionEvent> getEvents(Long commissionId) {
+        return eventRepository.findByCommissionIdOrderBySequenceNoAsc(commissionId);
+    }
+
+    /**
+     * Rebuild the month's projections from the event streams: commission rows whose amount or status
+     * disagrees with their last event are corrected, and each staff member's summaries are reset to
+     * the replayed totals (locked summaries are left alone). Staff members are replayed in parallel,
+     * each in its own transaction. Returns the number of commissions and summaries corrected.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int rebuildProjections(String month) {
+        String monthKey = MonthPeriod.of(month).getKey();
+        newTransaction.executeWithoutResult(status -> {
+            eventRepository.startUntrackedStreams(monthKey);
+            eventRepository.backfillStreams(monthKey, LocalDateTime.now());
+        });
+
+        List<Long> staffIds = eventRepository.findStaffIdsWithEventsInMonth(monthKey);
+        if (staffIds.isEmpty()) {
+            return 0;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(rebuildThreads, staffIds.size())));
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (Long staffId : staffIds) {
+                results.add(executor.submit(() -> newTransaction.execute(status -> replayStaff(staffId, monthKey))));
+            }
+            int corrected = 0;
+            for (Future<Integer> result : results) {
+                corrected += result.get();
+            }
+            return corrected;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Commission projection rebuild interrupted for " + monthKey);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Commission projection rebuild failed for " + monthKey + ": " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Fold one staff member's streams to their last events and reconcile both projections with the result
+    private int replayStaff(Long staffId, String month) {
+        Map<Long, CommissionEvent> latest = new LinkedHashMap<>();
+        for (CommissionEvent event : eventRepository.findStaffEventsInMonth(staffId, month)) {
+            latest.put(event.getCommissionId(), event);
+        }
+
+        int corrected = 0;
+        for (Commission commission : commissionRepository.findAllById(latest.keySet())) {
+            CommissionEvent event = latest.get(commission.getId());
+            boolean amountDiffers = event.getAmount() != null && (commission.getAmount() == null
+                || commission.getAmount().compareTo(event.getAmount()) != 0);
+            if (amountDiffers || commission.getStatus() != event.getStatus()) {
+                System.err.println("Commission " + commission.getId() + " disagrees with its event stream: " +
+                    commission.getAmount() + "/" + commission.getStatus() + ", replayed " + event.getAmount() + "/" + event.getStatus());
+                commission.setAmount(event.getAmount());
+                commission.setStatus(event.getStatus());
+                corrected++;
+            }
+        }
+
+        // Replayed totals per branch: staff id, branch id, total commission, service count
+        Map<Long, Object[]> totals = new HashMap<>();
+        for (CommissionEvent event : latest.values()) {
+            if (event.getStatus() == Commission.CommissionStatus.REVERSED) {
+                continue;
+            }
+            Object[] row = totals.computeIfAbsent(event.getBranchId(),
+                branchId -> new Object[] {staffId, branchId, BigDecimal.ZERO, 0});
+            row[2] = ((BigDecimal) row[2]).add(event.getAmount() != null ? event.getAmount() : BigDecimal.ZERO);
+            row[3] = (Integer) row[3] + 1;
+        }
+        corrected += commissionSummaryService.correctSummaries(month,
+            commissionSummaryRepository.findAllByStaffIdAndMonth(staffId, month), new ArrayList<>(totals.values()));
+        return corrected;
+    }
+}
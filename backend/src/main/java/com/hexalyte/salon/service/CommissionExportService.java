@@ -0,0 +1,200 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.model.Commission;
+import com.hexalyte.salon.model.MonthPeriod;
+import com.hexalyte.salon.repository.CommissionRepository;
+import jakarta.annotation.PostConstruct;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Payroll export of commission rows as CSV or XLSX, written straight to the response.
+ * Rows stream from the driver as scalars and are written one at a time; the XLSX writer keeps a
+ * fixed window of rows in memory and flushes the rest to a temp file, so memory stays flat however
+ * many rows the period has.
+ */
+@Service
+public class CommissionExportService {
+
+    private static final String[] HEADERS = {
+        "Commission ID", "Period", "Calculated On", "Staff ID", "Employee Code", "Staff Name",
+        "Branch ID", "Branch", "Service", "Appointment ID", "Type", "Rate", "Service Price", "Amount",
+        "Status", "Manual", "Approved At"
+    };
+    private static final int XLSX_ROW_WINDOW = 500;
+    private static final int XLSX_MAX_ROWS = 1048575; // Sheet limit less the header row
+
+    @Autowired
+    private CommissionRepository commissionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Write the matching commissions as RFC 4180 CSV; months are "yyyy-MM" and inclusive
+     */
+    public void writeCsv(Long staffId, Long branchId, Commission.CommissionStatus status,
+                         String fromMonth, String toMonth, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            writeCsvLine(writer, HEADERS);
+            forEachRow(staffId, branchId, status, fromMonth, toMonth, row -> {
+                String[] values = new String[HEADERS.length];
+                for (int i = 0; i < HEADERS.length; i++) {
+                    values[i] = format(row, i);
+                }
+                try {
+                    writeCsvLine(writer, values);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the matching commissions as an XLSX workbook, continuing on a new sheet past the row limit
+     */
+    public void writeXlsx(Long staffId, Long branchId, Commission.CommissionStatus status,
+                          String fromMonth, String toMonth, OutputStream out) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle.setFont(bold);
+
+            int[] position = {0, 0}; // sheet number, next row on the sheet
+            Sheet[] sheet = {newSheet(workbook, 1, headerStyle)};
+            forEachRow(staffId, branchId, status, fromMonth, toMonth, values -> {
+                if (position[1] == XLSX_MAX_ROWS) {
+                    position[0]++;
+                    position[1] = 0;
+                    sheet[0] = newSheet(workbook, position[0] + 1, headerStyle);
+                }
+                Row row = sheet[0].createRow(++position[1]);
+                for (int i = 0; i < HEADERS.length; i++) {
+                    setCell(row.createCell(i), values, i);
+                }
+            });
+            workbook.write(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    // Rows in calculation order, streamed inside a read-only transaction that stays open while writing
+    private void forEachRow(Long staffId, Long branchId, Commission.CommissionStatus status,
+                            String fromMonth, String toMonth, Consumer<Object[]> sink) {
+        LocalDateTime start = MonthPeriod.of(fromMonth).getStart();
+        LocalDateTime end = MonthPeriod.of(toMonth != null ? toMonth : fromMonth).getEnd();
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("Export period end cannot be before its start");
+        }
+
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try (Stream<Object[]> rows = commissionRepository.streamForExport(start, end, staffId, branchId, status)) {
+                rows.forEach(sink);
+            }
+        });
+    }
+
+    private static Sheet newSheet(SXSSFWorkbook workbook, int number, CellStyle headerStyle) {
+        Sheet sheet = workbook.createSheet(number == 1 ? "Commissions" : "Commissions " + number);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(HEADERS[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        return sheet;
+    }
+
+    // Query columns with first and last name merged into one "Staff Name" column
+    private static Object columnValue(Object[] row, int column) {
+        if (column < 5) {
+            return row[column];
+        }
+        if (column == 5) {
+            return row[5] + " " + row[6];
+        }
+        return row[column + 1];
+    }
+
+    private static String format(Object[] row, int column) {
+        Object value = columnValue(row, column);
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "Yes" : "No";
+        }
+        return value.toString();
+    }
+
+    private static void setCell(Cell cell, Object[] row, int column) {
+        Object value = columnValue(row, column);
+        if (value instanceof BigDecimal) {
+            cell.setCellValue(((BigDecimal) value).doubleValue());
+        } else if (value instanceof Long) {
+            cell.setCellValue((Long) value);
+        } else if (value != null) {
+            cell.setCellValue(format(row, column));
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
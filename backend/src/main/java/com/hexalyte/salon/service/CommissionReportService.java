@@ -1,7 +1,9 @@
 package com.hexalyte.salon.service;
 
+import com.hexalyte.salon.dto.CommissionPeriodSnapshotDTO;
+import com.hexalyte.salon.dto.CommissionPeriodTotalsDTO;
 import com.hexalyte.salon.dto.CommissionReportDTO;
-import com.hexalyte.salon.model.CommissionSummary;
+import com.hexalyte.salon.model.MonthPeriod;
 import com.hexalyte.salon.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
@@ -12,7 +14,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 @Transactional(readOnly = true)
@@ -29,6 +37,9 @@ public class CommissionReportService {
     
     @Autowired
     private BranchRepository branchRepository;
+    
+    @Autowired
+    private CommissionSnapshotService commissionSnapshotService;
 
     /**
      * Generate branch-wise commission report for a month
@@ -36,6 +47,13 @@ public class CommissionReportService {
     public CommissionReportDTO generateBranchWiseReport(String month) {
         CommissionReportDTO report = new CommissionReportDTO("BRANCH_WISE", month);
         
+        // Locked months are served from their snapshot
+        Optional<CommissionPeriodSnapshotDTO> snapshot = commissionSnapshotService.getSnapshot(month);
+        if (snapshot.isPresent()) {
+            report.setBranchSummaries(toBranchSummaries(snapshot.get().getBranchTotals(), month));
+            return report;
+        }
+        
         // Get branch-wise commission data
         List<Object[]> branchData = commissionSummaryRepository.findBranchWiseCommissionInMonth(month);
         
@@ -62,6 +80,13 @@ public class CommissionReportService {
     public CommissionReportDTO generateStaffWiseReport(String month) {
         CommissionReportDTO report = new CommissionReportDTO("STAFF_WISE", month);
         
+        // Locked months are served from their snapshot
+        Optional<CommissionPeriodSnapshotDTO> snapshot = commissionSnapshotService.getSnapshot(month);
+        if (snapshot.isPresent()) {
+            report.setStaffSummaries(toStaffSummaries(snapshot.get().getStaffTotals(), month));
+            return report;
+        }
+        
         // Get staff-wise commission data
         List<Object[]> staffData = commissionSummaryRepository.findTopEarningStaffInMonth(
             month, PageRequest.of(0, 1000) // Get all staff
@@ -155,25 +180,31 @@ public class CommissionReportService {
      */
     public CommissionReportDTO generateMonthlyTrendReport(int year) {
         CommissionReportDTO report = new CommissionReportDTO("MONTHLY_TREND", String.valueOf(year));
+        List<String> months = monthsOf(year, 1, 12);
+        
+        // A fully locked year reads its twelve snapshots; otherwise one grouped query
+        Map<String, CommissionPeriodTotalsDTO> totalsByMonth = new HashMap<>();
+        Optional<List<CommissionPeriodSnapshotDTO>> snapshots = commissionSnapshotService.getSnapshots(months);
+        if (snapshots.isPresent()) {
+            for (CommissionPeriodSnapshotDTO snapshot : snapshots.get()) {
+                totalsByMonth.put(snapshot.getMonth(), new CommissionPeriodTotalsDTO(
+                    snapshot.getMonth(), snapshot.getTotalServices(), snapshot.getTotalCommission()));
+            }
+        } else {
+            for (CommissionPeriodTotalsDTO totals : commissionSummaryRepository.sumByMonth(months.get(0), months.get(11), true)) {
+                totalsByMonth.put(totals.getMonth(), totals);
+            }
+        }
         
+        // One entry per month of the year, including months without commissions
         List<CommissionReportDTO.BranchCommissionSummary> monthlyTrends = new ArrayList<>();
-        
-        // Get data for each month of the year
-        for (int month = 1; month <= 12; month++) {
-            String monthString = String.format("%d-%02d", year, month);
-            
-            // Get total commission for the month
-            BigDecimal totalCommission = commissionSummaryRepository.calculateTotalCommissionForMonth(monthString);
-            
-            // Get total services for the month
-            Long totalServices = commissionRepository.countServicesForBranchInMonth(
-                null, year, month
-            );
-            
-            CommissionReportDTO.BranchCommissionSummary monthlyData = new CommissionReportDTO.BranchCommissionSummary(
-                null, "All Branches", monthString, totalServices.intValue(), totalCommission
-            );
-            monthlyTrends.add(monthlyData);
+        for (String month : months) {
+            CommissionPeriodTotalsDTO totals = totalsByMonth.get(month);
+            monthlyTrends.add(new CommissionReportDTO.BranchCommissionSummary(
+                null, "All Branches", month,
+                totals != null ? totals.getTotalServices().intValue() : 0,
+                totals != null ? totals.getTotalCommission() : BigDecimal.ZERO
+            ));
         }
         
         report.setBranchSummaries(monthlyTrends);
@@ -186,34 +217,19 @@ public class CommissionReportService {
     public CommissionReportDTO generateQuarterlyReport(String year, int quarter) {
         String quarterString = String.format("%s-Q%d", year, quarter);
         CommissionReportDTO report = new CommissionReportDTO("QUARTERLY", quarterString);
+        List<String> months = monthsOf(Integer.parseInt(year), (quarter - 1) * 3 + 1, quarter * 3);
         
+        // One row per month, staff and branch, highest earners first within each month
         List<CommissionReportDTO.StaffCommissionSummary> quarterlyStaffData = new ArrayList<>();
-        
-        // Get data for each month in the quarter
-        int startMonth = (quarter - 1) * 3 + 1;
-        int endMonth = quarter * 3;
-        
-        for (int month = startMonth; month <= endMonth; month++) {
-            String monthString = String.format("%s-%02d", year, month);
-            
-            // Get staff data for this month
-            List<Object[]> staffData = commissionSummaryRepository.findTopEarningStaffInMonth(
-                monthString, PageRequest.of(0, 1000)
-            );
-            
-            for (Object[] data : staffData) {
-                Long staffId = (Long) data[0];
-                String firstName = (String) data[1];
-                String lastName = (String) data[2];
-                String branchName = (String) data[3];
-                BigDecimal totalCommission = (BigDecimal) data[4];
-                Long totalServices = (Long) data[5];
-                
-                CommissionReportDTO.StaffCommissionSummary summary = new CommissionReportDTO.StaffCommissionSummary(
-                    staffId, firstName + " " + lastName, null,
-                    null, branchName, monthString, totalServices.intValue(), totalCommission
-                );
-                quarterlyStaffData.add(summary);
+        Optional<List<CommissionPeriodSnapshotDTO>> snapshots = commissionSnapshotService.getSnapshots(months);
+        if (snapshots.isPresent()) {
+            for (CommissionPeriodSnapshotDTO snapshot : snapshots.get()) {
+                quarterlyStaffData.addAll(toStaffSummaries(snapshot.getStaffTotals(), snapshot.getMonth()));
+            }
+        } else {
+            for (CommissionPeriodTotalsDTO totals : commissionSummaryRepository.sumByMonthStaffAndBranch(
+                    months.get(0), months.get(months.size() - 1), true)) {
+                quarterlyStaffData.add(toStaffSummary(totals, totals.getMonth()));
             }
         }
         
@@ -226,66 +242,101 @@ public class CommissionReportService {
      */
     public CommissionReportDTO generateYearEndReport(String year) {
         CommissionReportDTO report = new CommissionReportDTO("YEAR_END", year);
+        List<String> months = monthsOf(Integer.parseInt(year), 1, 12);
+        
+        List<CommissionPeriodTotalsDTO> staffTotals;
+        List<CommissionPeriodTotalsDTO> branchTotals;
+        Optional<List<CommissionPeriodSnapshotDTO>> snapshots = commissionSnapshotService.getSnapshots(months);
+        if (snapshots.isPresent()) {
+            // Twelve snapshots merged in memory instead of a scan over the year's summaries
+            Map<String, CommissionPeriodTotalsDTO> staff = new HashMap<>();
+            Map<String, CommissionPeriodTotalsDTO> branches = new HashMap<>();
+            for (CommissionPeriodSnapshotDTO snapshot : snapshots.get()) {
+                for (CommissionPeriodTotalsDTO totals : snapshot.getStaffTotals()) {
+                    merge(staff, totals.getStaffId() + ":" + totals.getBranchId(), totals);
+                }
+                for (CommissionPeriodTotalsDTO totals : snapshot.getBranchTotals()) {
+                    merge(branches, String.valueOf(totals.getBranchId()), totals);
+                }
+            }
+            staffTotals = perStaff(staff.values());
+            branchTotals = byCommissionDescending(branches.values());
+        } else {
+            staffTotals = perStaff(commissionSummaryRepository.sumByStaffAndBranch(months.get(0), months.get(11), false));
+            branchTotals = commissionSummaryRepository.sumByBranch(months.get(0), months.get(11), false);
+        }
         
-        // Get all summaries for the year
-        List<CommissionSummary> yearSummaries = commissionSummaryRepository.findByYear(year);
-        
-        // Group by staff
-        List<CommissionReportDTO.StaffCommissionSummary> staffSummaries = new ArrayList<>();
-        // Group by branch
-        List<CommissionReportDTO.BranchCommissionSummary> branchSummaries = new ArrayList<>();
-        
-        // Process staff summaries
-        yearSummaries.stream()
-            .collect(java.util.stream.Collectors.groupingBy(
-                summary -> summary.getStaff().getId(),
-                java.util.stream.Collectors.toList()
-            ))
-            .forEach((staffId, summaries) -> {
-                CommissionSummary firstSummary = summaries.get(0);
-                BigDecimal totalCommission = summaries.stream()
-                    .map(CommissionSummary::getTotalCommission)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                Integer totalServices = summaries.stream()
-                    .mapToInt(CommissionSummary::getTotalServices)
-                    .sum();
-                
-                CommissionReportDTO.StaffCommissionSummary staffSummary = new CommissionReportDTO.StaffCommissionSummary(
-                    staffId, firstSummary.getStaff().getFullName(), firstSummary.getStaff().getEmployeeCode(),
-                    firstSummary.getBranch().getId(), firstSummary.getBranch().getBranchName(),
-                    year, totalServices, totalCommission
-                );
-                staffSummaries.add(staffSummary);
-            });
-        
-        // Process branch summaries
-        yearSummaries.stream()
-            .collect(java.util.stream.Collectors.groupingBy(
-                summary -> summary.getBranch().getId(),
-                java.util.stream.Collectors.toList()
-            ))
-            .forEach((branchId, summaries) -> {
-                CommissionSummary firstSummary = summaries.get(0);
-                BigDecimal totalCommission = summaries.stream()
-                    .map(CommissionSummary::getTotalCommission)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-                Integer totalServices = summaries.stream()
-                    .mapToInt(CommissionSummary::getTotalServices)
-                    .sum();
-                
-                CommissionReportDTO.BranchCommissionSummary branchSummary = new CommissionReportDTO.BranchCommissionSummary(
-                    branchId, firstSummary.getBranch().getBranchName(),
-                    year, totalServices, totalCommission
-                );
-                branchSummaries.add(branchSummary);
-            });
-        
-        report.setStaffSummaries(staffSummaries);
-        report.setBranchSummaries(branchSummaries);
-        
+        report.setStaffSummaries(toStaffSummaries(staffTotals, year));
+        report.setBranchSummaries(toBranchSummaries(branchTotals, year));
         return report;
     }
     
+    private List<String> monthsOf(int year, int firstMonth, int lastMonth) {
+        List<String> months = new ArrayList<>();
+        for (int month = firstMonth; month <= lastMonth; month++) {
+            months.add(MonthPeriod.of(year, month).getKey());
+        }
+        return months;
+    }
+    
+    private void merge(Map<String, CommissionPeriodTotalsDTO> merged, String key, CommissionPeriodTotalsDTO totals) {
+        CommissionPeriodTotalsDTO existing = merged.get(key);
+        if (existing == null) {
+            CommissionPeriodTotalsDTO copy = new CommissionPeriodTotalsDTO(totals.getBranchId(), totals.getBranchName(),
+                totals.getTotalServices(), totals.getTotalCommission());
+            copy.setStaffId(totals.getStaffId());
+            copy.setStaffName(totals.getStaffName());
+            copy.setStaffEmployeeCode(totals.getStaffEmployeeCode());
+            merged.put(key, copy);
+        } else {
+            existing.setTotalServices(existing.getTotalServices() + totals.getTotalServices());
+            existing.setTotalCommission(existing.getTotalCommission().add(totals.getTotalCommission()));
+        }
+    }
+    
+    // One row per staff member across every branch they worked in, reported under the branch where they
+    // earned the most
+    private List<CommissionPeriodTotalsDTO> perStaff(Collection<CommissionPeriodTotalsDTO> staffBranchTotals) {
+        Map<String, CommissionPeriodTotalsDTO> staff = new LinkedHashMap<>();
+        for (CommissionPeriodTotalsDTO totals : byCommissionDescending(staffBranchTotals)) {
+            merge(staff, String.valueOf(totals.getStaffId()), totals);
+        }
+        return byCommissionDescending(staff.values());
+    }
+    
+    private List<CommissionPeriodTotalsDTO> byCommissionDescending(Collection<CommissionPeriodTotalsDTO> totals) {
+        List<CommissionPeriodTotalsDTO> sorted = new ArrayList<>(totals);
+        sorted.sort(Comparator.comparing(CommissionPeriodTotalsDTO::getTotalCommission).reversed());
+        return sorted;
+    }
+    
+    private List<CommissionReportDTO.BranchCommissionSummary> toBranchSummaries(List<CommissionPeriodTotalsDTO> totals, String period) {
+        List<CommissionReportDTO.BranchCommissionSummary> summaries = new ArrayList<>();
+        for (CommissionPeriodTotalsDTO branch : totals) {
+            summaries.add(new CommissionReportDTO.BranchCommissionSummary(
+                branch.getBranchId(), branch.getBranchName(), period,
+                branch.getTotalServices().intValue(), branch.getTotalCommission()
+            ));
+        }
+        return summaries;
+    }
+    
+    private List<CommissionReportDTO.StaffCommissionSummary> toStaffSummaries(List<CommissionPeriodTotalsDTO> totals, String period) {
+        List<CommissionReportDTO.StaffCommissionSummary> summaries = new ArrayList<>();
+        for (CommissionPeriodTotalsDTO staff : totals) {
+            summaries.add(toStaffSummary(staff, period));
+        }
+        return summaries;
+    }
+    
+    private CommissionReportDTO.StaffCommissionSummary toStaffSummary(CommissionPeriodTotalsDTO totals, String period) {
+        return new CommissionReportDTO.StaffCommissionSummary(
+            totals.getStaffId(), totals.getStaffName(), totals.getStaffEmployeeCode(),
+            totals.getBranchId(), totals.getBranchName(), period,
+            totals.getTotalServices().intValue(), totals.getTotalCommission()
+        );
+    }
+    
     /**
      * Get commission statistics for dashboard
      */
@@ -0,0 +1,330 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.model.Branch;
+import com.hexalyte.salon.model.Commission;
+import com.hexalyte.salon.model.CommissionRule;
+import com.hexalyte.salon.model.Staff;
+import com.hexalyte.salon.repository.CommissionRuleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Resolves the commission rate for a service performed by a staff member at a branch.
+ * Active rules are compiled into an immutable in-memory table that is swapped atomically when a rule
+ * changes (after commit locally, or within a minute on other instances), so checkout never queries rules.
+ * Precedence: the most specific rule wins (service 8, branch 4, staff 2, tier 1), then the higher
+ * priority, then a dated rule over an open-ended one, then the newest rule. The rates stored on the
+ * service (service level) and on the staff member (staff level) still apply where no rule is at least
+ * as specific.
+ */
+@Service
+public class CommissionRuleEngine {
+
+    private static final int SERVICE_SCORE = 8;
+    private static final int BRANCH_SCORE = 4;
+    private static final int STAFF_SCORE = 2;
+    private static final int TIER_SCORE = 1;
+
+    @Autowired
+    private CommissionRuleRepository ruleRepository;
+
+    private final AtomicReference<RuleSet> compiled = new AtomicReference<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Recompile the rule table from the active rules
+     */
+    public void reload() {
+        Object fingerprint = fingerprint();
+        compiled.set(new RuleSet(ruleRepository.findByActiveTrue(), fingerprint));
+    }
+
+    /**
+     * Recompile once the transaction that changed a rule has committed
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    // Pick up rule changes made through other instances
+    @Scheduled(fixedDelay = 60000) // 1 minute in milliseconds
+    public void refreshIfChanged() {
+        RuleSet current = compiled.get();
+        if (current == null || !current.fingerprint.equals(fingerprint())) {
+            reload();
+        }
+    }
+
+    /**
+     * Rate that applies to the service on the given date
+     */
+    public ResolvedRate resolve(com.hexalyte.salon.model.Service service, Branch branch, Staff staff, LocalDate date) {
+        return current().resolve(service, branch.getId(), staff, date);
+    }
+
+    /**
+     * The compiled table of the active rules
+     */
+    public RuleSet current() {
+        RuleSet rules = compiled.get();
+        if (rules == null) {
+            reload();
+            rules = compiled.get();
+        }
+        return rules;
+    }
+
+    /**
+     * A private copy of the active rules with candidate rules applied, for simulations. A candidate with
+     * the id of an existing rule replaces it (or removes it when inactive); the others are added and win
+     * ties against existing rules. The live table is not affected.
+     */
+    public RuleSet withCandidates(List<CommissionRule> candidateRules) {
+        Map<Long, CommissionRule> merged = new HashMap<>();
+        for (CommissionRule rule : current().rules) {
+            merged.put(rule.getId(), rule);
+        }
+        long syntheticId = Long.MAX_VALUE;
+        for (CommissionRule candidate : candidateRules) {
+            if (candidate.getId() != null && merged.containsKey(candidate.getId())) {
+                merged.remove(candidate.getId());
+            } else {
+                candidate.setId(syntheticId--);
+            }
+            if (!Boolean.FALSE.equals(candidate.getActive())) {
+                if (candidate.getPriority() == null) {
+                    candidate.setPriority(0);
+                }
+                merged.put(candidate.getId(), candidate);
+            }
+        }
+        return new RuleSet(new ArrayList<>(merged.values()), null);
+    }
+
+    private Object fingerprint() {
+        List<Object[]> rows = ruleRepository.getRuleFingerprint();
+        return rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0));
+    }
+
+    // Rates stored on the service and staff records, used where no rule is at least as specific
+    private static ResolvedRate legacyRate(com.hexalyte.salon.model.Service service, Staff staff) {
+        if (service.getCommissionType() == com.hexalyte.salon.model.Service.CommissionType.FIXED_AMOUNT) {
+            BigDecimal fixed = isPositive(service.getFixedCommissionAmount())
+                ? service.getFixedCommissionAmount() : service.getCommissionRate();
+            if (isPositive(fixed)) {
+                return new ResolvedRate(fixed, Commission.CommissionType.FIXED, null,
+                    "Service-level rate: " + service.getName(), SERVICE_SCORE);
+            }
+        } else if (isPositive(service.getCommissionRate())) {
+            return new ResolvedRate(service.getCommissionRate(), Commission.CommissionType.PERCENT, null,
+                "Service-level rate: " + service.getName(), SERVICE_SCORE);
+        }
+
+        if (isPositive(staff.getCommissionRate())) {
+            return new ResolvedRate(staff.getCommissionRate(), Commission.CommissionType.PERCENT, null,
+                "Staff-level rate: " + staff.getFullName(), STAFF_SCORE);
+        }
+        return null;
+    }
+
+    private static boolean isPositive(BigDecimal value) {
+        return value != null && value.compareTo(BigDecimal.ZERO) > 0;
+    }
+
+    private static String tierOf(Staff staff) {
+        return staff.getDesignation() != null ? staff.getDesignation().trim().toLowerCase() : null;
+    }
+
+    static int score(CommissionRule rule) {
+        return (rule.getServiceId() != null ? SERVICE_SCORE : 0)
+            + (rule.getBranchId() != null ? BRANCH_SCORE : 0)
+            + (rule.getStaffId() != null ? STAFF_SCORE : 0)
+            + (rule.getStaffTier() != null ? TIER_SCORE : 0);
+    }
+
+    /**
+     * Immutable rule table: active rules bucketed by service id (null for rules on any service),
+     * each bucket in precedence order. Candidate lists per (service, branch, staff, tier) are memoized,
+     * so a lookup is a map hit plus a date check on a handful of rules. Safe for concurrent use.
+     */
+    public static final class RuleSet {
+        private static final Comparator<CommissionRule> PRECEDENCE =
+            Comparator.comparingInt(CommissionRuleEngine::score).reversed()
+                .thenComparing(CommissionRule::getPriority, Comparator.reverseOrder())
+                .thenComparing(rule -> rule.getValidFrom() == null && rule.getValidTo() == null)
+                .thenComparing(CommissionRule::getId, Comparator.reverseOrder());
+
+        private final List<CommissionRule> rules;
+        private final Map<Long, List<CommissionRule>> byService;
+        private final List<CommissionRule> anyService;
+        private final Object fingerprint;
+        private final ConcurrentHashMap<RuleKey, List<CommissionRule>> candidates = new ConcurrentHashMap<>();
+
+        RuleSet(List<CommissionRule> rules, Object fingerprint) {
+            this.rules = List.copyOf(rules);
+            Map<Long, List<CommissionRule>> grouped = new HashMap<>();
+            List<CommissionRule> unscoped = new ArrayList<>();
+            for (CommissionRule rule : rules) {
+                if (rule.getServiceId() != null) {
+                    grouped.computeIfAbsent(rule.getServiceId(), id -> new ArrayList<>()).add(rule);
+                } else {
+                    unscoped.add(rule);
+                }
+            }
+            Map<Long, List<CommissionRule>> sorted = new HashMap<>();
+            grouped.forEach((serviceId, list) -> {
+                list.sort(PRECEDENCE);
+                sorted.put(serviceId, List.copyOf(list));
+            });
+            unscoped.sort(PRECEDENCE);
+            this.byService = Map.copyOf(sorted);
+            this.anyService = List.copyOf(unscoped);
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Rate for a service performed by the staff member at the branch on the given date
+         */
+        public ResolvedRate resolve(com.hexalyte.salon.model.Service service, Long branchId, Staff staff, LocalDate date) {
+            CommissionRule rule = match(service.getId(), branchId, staff.getId(), tierOf(staff), date);
+            ResolvedRate legacy = legacyRate(service, staff);
+            if (rule != null && (legacy == null || score(rule) >= legacy.score)) {
+                return new ResolvedRate(rule.getRate(), rule.getCommissionType(), rule.getId(),
+                    "Rule #" + rule.getId() + ": " + rule.getName(), score(rule));
+            }
+            if (legacy != null) {
+                return legacy;
+            }
+            return new ResolvedRate(BigDecimal.ZERO, Commission.CommissionType.PERCENT, null,
+                "No commission rate configured", 0);
+        }
+
+        CommissionRule match(Long serviceId, Long branchId, Long staffId, String tier, LocalDate date) {
+            List<CommissionRule> list = candidates.computeIfAbsent(new RuleKey(serviceId, branchId, staffId, tier),
+                this::collect);
+            for (CommissionRule rule : list) {
+                if (rule.isValidOn(date)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+
+        // Rules whose service, branch, staff and tier criteria all match, in precedence order
+        private List<CommissionRule> collect(RuleKey key) {
+            List<CommissionRule> matching = new ArrayList<>();
+            for (CommissionRule rule : byService.getOrDefault(key.serviceId, List.of())) {
+                if (matches(rule, key)) {
+                    matching.add(rule);
+                }
+            }
+            for (CommissionRule rule : anyService) {
+                if (matches(rule, key)) {
+                    matching.add(rule);
+                }
+            }
+            matching.sort(PRECEDENCE);
+            return List.copyOf(matching);
+        }
+
+        private static boolean matches(CommissionRule rule, RuleKey key) {
+            return (rule.getBranchId() == null || rule.getBranchId().equals(key.branchId))
+                && (rule.getStaffId() == null || rule.getStaffId().equals(key.staffId))
+                && (rule.getStaffTier() == null || rule.getStaffTier().trim().equalsIgnoreCase(key.tier));
+        }
+    }
+
+    private static final class RuleKey {
+        private final Long serviceId;
+        private final Long branchId;
+        private final Long staffId;
+        private final String tier;
+
+        RuleKey(Long serviceId, Long branchId, Long staffId, String tier) {
+            this.serviceId = serviceId;
+            this.branchId = branchId;
+            this.staffId = staffId;
+            this.tier = tier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RuleKey)) {
+                return false;
+            }
+            RuleKey other = (RuleKey) o;
+            return Objects.equals(serviceId, other.serviceId) && Objects.equals(branchId, other.branchId)
+                && Objects.equals(staffId, other.staffId) && Objects.equals(tier, other.tier);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(serviceId, branchId, staffId, tier);
+        }
+    }
+
+    /**
+     * Rate chosen for one service line, with the rule it came from (null for service/staff record rates)
+     */
+    public static class ResolvedRate {
+        private final BigDecimal rate;
+        private final Commission.CommissionType commissionType;
+        private final Long ruleId;
+        private final String description;
+        private final int score;
+
+        ResolvedRate(BigDecimal rate, Commission.CommissionType commissionType, Long ruleId, String description, int score) {
+            this.rate = rate;
+            this.commissionType = commissionType;
+            this.ruleId = ruleId;
+            this.description = description;
+            this.score = score;
+        }
+
+        /**
+         * Commission earned on a service price: the fixed amount, or price x rate / 100
+         */
+        public BigDecimal amountFor(BigDecimal servicePrice) {
+            if (commissionType == Commission.CommissionType.FIXED) {
+                return rate.setScale(2, RoundingMode.HALF_UP);
+            }
+            return servicePrice.multiply(rate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        }
+
+        public BigDecimal getRate() { return rate; }
+        public Commission.CommissionType getCommissionType() { return commissionType; }
+        public Long getRuleId() { return ruleId; }
+        public String getDescription() { return description; }
+    }
+}
@@ -0,0 +1,220 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.dto.CommissionRecalculationReportDTO;
+import com.hexalyte.salon.model.Commission;
+import com.hexalyte.salon.model.CommissionEvent;
+import com.hexalyte.salon.model.CommissionRule;
+import com.hexalyte.salon.model.MonthPeriod;
+import com.hexalyte.salon.repository.CommissionRepository;
+import com.hexalyte.salon.repository.CommissionRuleRepository;
+import com.hexalyte.salon.repository.CommissionSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@Transactional
+public class CommissionRuleService {
+
+    private static final int RECALCULATION_PAGE_SIZE = 500;
+
+    @Autowired
+    private CommissionRuleRepository ruleRepository;
+
+    @Autowired
+    private CommissionRepository commissionRepository;
+
+    @Autowired
+    private CommissionSummaryRepository commissionSummaryRepository;
+
+    @Autowired
+    private CommissionSummaryService commissionSummaryService;
+
+    @Autowired
+    private CommissionRuleEngine ruleEngine;
+
+    @Autowired
+    private CommissionEventStore commissionEventStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate pageTransaction;
+
+    @PostConstruct
+    public void init() {
+        pageTransaction = new TransactionTemplate(transactionManager);
+        pageTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CommissionRule> getAllRules() {
+        return ruleRepository.findAll();
+    }
+
+    @Transactional(readOnly = true)
+    public CommissionRule getRuleById(Long id) {
+        return ruleRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Commission rule not found with id: " + id));
+    }
+
+    public CommissionRule createRule(CommissionRule rule) {
+        validate(rule);
+        rule.setId(null);
+        CommissionRule saved = ruleRepository.save(rule);
+        ruleEngine.reloadAfterCommit();
+        return saved;
+    }
+
+    public CommissionRule updateRule(Long id, CommissionRule details) {
+        validate(details);
+        CommissionRule rule = getRuleById(id);
+        rule.setName(details.getName());
+        rule.setServiceId(details.getServiceId());
+        rule.setBranchId(details.getBranchId());
+        rule.setStaffId(details.getStaffId());
+        rule.setStaffTier(details.getStaffTier());
+        rule.setValidFrom(details.getValidFrom());
+        rule.setValidTo(details.getValidTo());
+        rule.setCommissionType(details.getCommissionType());
+        rule.setRate(details.getRate());
+        rule.setPriority(details.getPriority());
+        rule.setActive(details.getActive());
+        CommissionRule saved = ruleRepository.save(rule);
+        ruleEngine.reloadAfterCommit();
+        return saved;
+    }
+
+    public void deleteRule(Long id) {
+        ruleRepository.delete(getRuleById(id));
+        ruleEngine.reloadAfterCommit();
+    }
+
+    /**
+     * Re-run the current rules over the month's open (pending or approved, not manually adjusted)
+     * commissions and report what changes. With apply, the new rates and amounts are written page by
+     * page, each page in its own transaction together with the matching summary deltas.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CommissionRecalculationReportDTO recalculatePeriod(String month, Long branchId, boolean apply) {
+        String key = MonthPeriod.of(month).getKey();
+        if (apply && commissionSummaryRepository.countLockedInMonth(key, branchId) > 0) {
+            throw new IllegalStateException("Commission period " + key + " has locked summaries and cannot be recalculated");
+        }
+
+        CommissionRecalculationReportDTO report = new CommissionRecalculationReportDTO(key, branchId, apply);
+        Long afterId = 0L;
+        while (afterId != null) {
+            Long lastId = afterId;
+            afterId = pageTransaction.execute(status -> recalculatePage(key, branchId, lastId, apply, report));
+        }
+        return report;
+    }
+
+    // One keyset page; returns the last id seen, or null when there are no more commissions
+    private Long recalculatePage(String month, Long branchId, Long afterId, boolean apply,
+                                 CommissionRecalculationReportDTO report) {
+        List<Commission> page = commissionRepository.findRecalculationPage(
+            month, branchId, afterId, PageRequest.of(0, RECALCULATION_PAGE_SIZE));
+        if (page.isEmpty()) {
+            return null;
+        }
+
+        Map<List<Long>, BigDecimal> summaryDeltas = new HashMap<>();
+        for (Commission commission : page) {
+            if (commission.getServicePrice() == null) {
+                report.addSkipped();
+                continue;
+            }
+
+            CommissionRuleEngine.ResolvedRate resolved = ruleEngine.resolve(commission.getService(),
+                commission.getBranch(), commission.getStaff(), commission.getCalculatedOn().toLocalDate());
+            BigDecimal oldAmount = commission.getAmount() != null ? commission.getAmount() : BigDecimal.ZERO;
+            BigDecimal newAmount = resolved.amountFor(commission.getServicePrice());
+            report.addChecked(oldAmount, newAmount);
+
+            boolean changed = oldAmount.compareTo(newAmount) != 0
+                || commission.getCommissionType() != resolved.getCommissionType()
+                || commission.getRate() == null || commission.getRate().compareTo(resolved.getRate()) != 0
+                || !Objects.equals(commission.getRuleId(), resolved.getRuleId());
+            if (!changed) {
+                continue;
+            }
+            report.addLine(toLine(commission, oldAmount, resolved, newAmount));
+
+            if (apply) {
+                commission.setCommissionType(resolved.getCommissionType());
+                commission.setRate(resolved.getRate());
+                commission.setAmount(newAmount);
+                commission.setRuleId(resolved.getRuleId());
+                commission.setCalculationRule(resolved.getDescription());
+                commissionEventStore.append(commission, CommissionEvent.EventType.RECALCULATED, null, resolved.getDescription());
+                summaryDeltas.merge(List.of(commission.getStaff().getId(), commission.getBranch().getId()),
+                    newAmount.subtract(oldAmount), BigDecimal::add);
+            }
+        }
+
+        // One summary update per staff member and branch in the page
+        summaryDeltas.forEach((staffBranch, delta) -> {
+            if (delta.signum() != 0) {
+                commissionSummaryService.applyDelta(staffBranch.get(0), staffBranch.get(1), month, delta, 0);
+            }
+        });
+        return page.get(page.size() - 1).getId();
+    }
+
+    private CommissionRecalculationReportDTO.Line toLine(Commission commission, BigDecimal oldAmount,
+                                                         CommissionRuleEngine.ResolvedRate resolved, BigDecimal newAmount) {
+        CommissionRecalculationReportDTO.Line line = new CommissionRecalculationReportDTO.Line();
+        line.setCommissionId(commission.getId());
+        line.setStaffId(commission.getStaff().getId());
+        line.setStaffName(commission.getStaff().getFullName());
+        line.setBranchId(commission.getBranch().getId());
+        line.setServiceId(commission.getService().getId());
+        line.setServiceName(commission.getService().getName());
+        line.setOldType(commission.getCommissionType() != null ? commission.getCommissionType().name() : null);
+        line.setOldRate(commission.getRate());
+        line.setOldAmount(oldAmount);
+        line.setOldRule(commission.getCalculationRule());
+        line.setNewType(resolved.getCommissionType().name());
+        line.setNewRate(resolved.getRate());
+        line.setNewAmount(newAmount);
+        line.setNewRule(resolved.getDescription());
+        return line;
+    }
+
+    void validate(CommissionRule rule) {
+        if (rule.getCommissionType() != Commission.CommissionType.PERCENT
+                && rule.getCommissionType() != Commission.CommissionType.FIXED) {
+            throw new IllegalArgumentException("Commission rules support PERCENT and FIXED rates only");
+        }
+        if (rule.getCommissionType() == Commission.CommissionType.PERCENT
+                && rule.getRate().compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new IllegalArgumentException("Percentage rate cannot exceed 100");
+        }
+        if (rule.getValidFrom() != null && rule.getValidTo() != null && rule.getValidTo().isBefore(rule.getValidFrom())) {
+            throw new IllegalArgumentException("Rule end date cannot be before its start date");
+        }
+        if (rule.getStaffTier() != null && rule.getStaffTier().isBlank()) {
+            rule.setStaffTier(null);
+        }
+        if (rule.getPriority() == null) {
+            rule.setPriority(0);
+        }
+        if (rule.getActive() == null) {
+            rule.setActive(true);
+        }
+    }
+}
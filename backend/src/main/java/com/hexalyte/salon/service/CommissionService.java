@@ -13,8 +13,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -22,6 +24,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class CommissionService {
     
+    private static final int BULK_CHUNK_SIZE = 1000;
+    
     @Autowired
     private CommissionRepository commissionRepository;
     
@@ -51,6 +55,15 @@ public class CommissionService {
     
     @Autowired
     private BillingItemRepository billingItemRepository;
+    
+    @Autowired
+    private CommissionSummaryService commissionSummaryService;
+    
+    @Autowired
+    private CommissionRuleEngine commissionRuleEngine;
+    
+    @Autowired
+    private CommissionEventStore commissionEventStore;
 
     /**
      * Calculate and create commission for a completed appointment
@@ -64,31 +77,30 @@ public class CommissionService {
         Appointment appointment = appointmentOpt.get();
         
         // Calculate commission for each service in the appointment
+        Commission last = null;
+        BigDecimal total = BigDecimal.ZERO;
         for (com.hexalyte.salon.model.AppointmentService appointmentService : appointment.getAppointmentServices()) {
-            calculateCommissionForService(appointment, appointmentService);
+            last = calculateCommissionForService(appointment, appointmentService);
+            total = total.add(last.getAmount());
         }
         
-        // Update commission summary
-        updateCommissionSummary(appointment.getStaff().getId(), appointment.getBranch().getId());
+        // All services share staff, branch and month, so the summary takes a single delta
+        if (last != null) {
+            applySummaryDelta(last, total, appointment.getAppointmentServices().size());
+        }
     }
     
     /**
      * Calculate commission for a specific service
      */
-    private void calculateCommissionForService(Appointment appointment, com.hexalyte.salon.model.AppointmentService appointmentService) {
+    private Commission calculateCommissionForService(Appointment appointment, com.hexalyte.salon.model.AppointmentService appointmentService) {
         com.hexalyte.salon.model.Service service = appointmentService.getService();
         Staff staff = appointment.getStaff();
         Branch branch = appointment.getBranch();
+        LocalDateTime calculatedOn = LocalDateTime.now();
         
-        // Determine commission rate using hierarchy: Service > Branch > Staff
-        CommissionRateInfo rateInfo = determineCommissionRate(service, staff, branch);
-        
-        // Calculate commission amount
-        BigDecimal commissionAmount = calculateCommissionAmount(
-            appointmentService.getPrice(), 
-            rateInfo.getRate(), 
-            rateInfo.getCommissionType()
-        );
+        // Rate from the compiled commission rules; no rule queries here
+        CommissionRuleEngine.ResolvedRate resolved = commissionRuleEngine.resolve(service, branch, staff, calculatedOn.toLocalDate());
         
         // Create commission record
         Commission commission = new Commission();
@@ -96,116 +108,38 @@ public class CommissionService {
         commission.setStaff(staff);
         commission.setAppointment(appointment);
         commission.setService(service);
-        commission.setCommissionType(rateInfo.getCommissionType());
-        commission.setRate(rateInfo.getRate());
-        commission.setAmount(commissionAmount);
-        commission.setCalculatedOn(LocalDateTime.now());
+        commission.setCalculatedOn(calculatedOn);
         commission.setServicePrice(appointmentService.getPrice());
-        commission.setCalculationRule(rateInfo.getRuleDescription());
+        applyResolvedRate(commission, resolved);
         commission.setIsManual(false);
         commission.setStatus(Commission.CommissionStatus.PENDING);
+        commission.setEventSequence(1);
         
         commissionRepository.save(commission);
+        commissionEventStore.recordCreated(commission, resolved.getDescription());
         
         // Log the commission calculation
         auditLogger.logCommissionCalculation(commission);
+        return commission;
     }
     
     /**
-     * Convert Service CommissionType to Commission CommissionType
-     */
-    private Commission.CommissionType convertServiceCommissionType(com.hexalyte.salon.model.Service.CommissionType serviceType) {
-        if (serviceType == null) {
-            return Commission.CommissionType.PERCENT;
-        }
-        switch (serviceType) {
-            case PERCENTAGE:
-                return Commission.CommissionType.PERCENT;
-            case FIXED_AMOUNT:
-                return Commission.CommissionType.FIXED;
-            default:
-                return Commission.CommissionType.PERCENT;
-        }
-    }
-
-    /**
-     * Determine commission rate using hierarchy: Service > Branch > Staff
-     */
-    private CommissionRateInfo determineCommissionRate(com.hexalyte.salon.model.Service service, Staff staff, Branch branch) {
-        // Check service-level commission first
-        if (service.getCommissionRate() != null && service.getCommissionRate().compareTo(BigDecimal.ZERO) > 0) {
-            return new CommissionRateInfo(
-                service.getCommissionRate(),
-                convertServiceCommissionType(service.getCommissionType()),
-                "Service-level rate: " + service.getName()
-            );
-        }
-        
-        // Check branch-level commission (if implemented)
-        // For now, we'll use staff-level commission
-        if (staff.getCommissionRate() != null && staff.getCommissionRate().compareTo(BigDecimal.ZERO) > 0) {
-            return new CommissionRateInfo(
-                staff.getCommissionRate(),
-                Commission.CommissionType.PERCENT,
-                "Staff-level rate: " + staff.getFullName()
-            );
-        }
-        
-        // Default to 0% if no rate is set
-        return new CommissionRateInfo(
-            BigDecimal.ZERO,
-            Commission.CommissionType.PERCENT,
-            "No commission rate configured"
-        );
-    }
-    
-    /**
-     * Calculate commission amount based on type and rate
+     * Set the rate, type, rule and amount of a commission from the resolved rate and its service price
      */
-    private BigDecimal calculateCommissionAmount(BigDecimal servicePrice, BigDecimal rate, Commission.CommissionType type) {
-        if (type == Commission.CommissionType.FIXED) {
-            return rate; // Fixed amount
-        } else {
-            // Percentage-based calculation
-            return servicePrice.multiply(rate).divide(BigDecimal.valueOf(100), 2, BigDecimal.ROUND_HALF_UP);
-        }
+    private void applyResolvedRate(Commission commission, CommissionRuleEngine.ResolvedRate resolved) {
+        commission.setCommissionType(resolved.getCommissionType());
+        commission.setRate(resolved.getRate());
+        commission.setRuleId(resolved.getRuleId());
+        commission.setCalculationRule(resolved.getDescription());
+        commission.setAmount(resolved.amountFor(commission.getServicePrice()));
     }
     
     /**
-     * Update commission summary for staff and branch
+     * Apply a commission's signed change to the summary of the month it was earned in
      */
-    private void updateCommissionSummary(Long staffId, Long branchId) {
-        String currentMonth = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
-        
-        Optional<CommissionSummary> summaryOpt = commissionSummaryRepository
-            .findByStaffIdAndBranchIdAndMonth(staffId, branchId, currentMonth);
-        
-        CommissionSummary summary;
-        if (summaryOpt.isPresent()) {
-            summary = summaryOpt.get();
-        } else {
-            Staff staff = staffRepository.findById(staffId).orElseThrow();
-            Branch branch = branchRepository.findById(branchId).orElseThrow();
-            summary = new CommissionSummary(staff, branch, currentMonth);
-        }
-        
-        // Recalculate totals
-        BigDecimal totalCommission = commissionRepository.calculateTotalCommissionForStaffInMonth(
-            staffId, branchId, 
-            LocalDateTime.now().getYear(), 
-            LocalDateTime.now().getMonthValue()
-        );
-        
-        Long totalServices = commissionRepository.countServicesForStaffInMonth(
-            staffId, branchId,
-            LocalDateTime.now().getYear(),
-            LocalDateTime.now().getMonthValue()
-        );
-        
-        summary.setTotalCommission(totalCommission);
-        summary.setTotalServices(totalServices.intValue());
-        
-        commissionSummaryRepository.save(summary);
+    private void applySummaryDelta(Commission commission, BigDecimal amount, int services) {
+        commissionSummaryService.applyDelta(commission.getStaff().getId(), commission.getBranch().getId(),
+            MonthPeriod.of(commission.getCalculatedOn()).getKey(), amount, services);
     }
     
     /**
@@ -280,6 +214,7 @@ public class CommissionService {
         
         commission.approve(approver);
         commissionRepository.save(commission);
+        commissionEventStore.append(commission, CommissionEvent.EventType.APPROVED, approverId, null);
         
         // Log the approval
         auditLogger.logCommissionApproval(commission, approver);
@@ -294,6 +229,7 @@ public class CommissionService {
         
         commission.lock();
         commissionRepository.save(commission);
+        commissionEventStore.append(commission, CommissionEvent.EventType.LOCKED, null, null);
         
         // Log the lock
         auditLogger.logCommissionLock(commission);
@@ -310,16 +246,108 @@ public class CommissionService {
             throw new IllegalStateException("Commission is locked and cannot be modified");
         }
         
+        boolean wasCounted = !commission.isReversed();
         commission.reverse();
         commissionRepository.save(commission);
+        commissionEventStore.append(commission, CommissionEvent.EventType.REVERSED, null, null);
         
         // Update commission summary
-        updateCommissionSummary(commission.getStaff().getId(), commission.getBranch().getId());
+        if (wasCounted) {
+            applySummaryDelta(commission, commission.getAmount().negate(), -1);
+        }
         
         // Log the reversal
         auditLogger.logCommissionReversal(commission);
     }
     
+    /**
+     * Approve every pending commission matching the filter (a null filter matches everything, but at
+     * least one is required) with guarded bulk updates; returns the number approved
+     */
+    public int approveCommissions(Long staffId, Long branchId, String month, Long approverId) {
+        if (staffId == null && branchId == null && month == null) {
+            throw new IllegalArgumentException("Staff, branch or month is required to approve commissions");
+        }
+        User approver = userRepository.findById(approverId)
+            .orElseThrow(() -> new IllegalArgumentException("Approver not found"));
+        String monthKey = month != null ? MonthPeriod.of(month).getKey() : null;
+        
+        List<Long> ids = commissionRepository.findPendingIdsForApproval(staffId, branchId, monthKey);
+        LocalDateTime now = LocalDateTime.now();
+        int approved = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            approved += commissionRepository.approveByIds(chunk, approver, now);
+            commissionEventStore.appendBulk(chunk, CommissionEvent.EventType.APPROVED, approverId, null);
+        }
+        
+        auditLogger.logCommissionBulkTransition("APPROVED",
+            "staff " + staffId + ", branch " + branchId + ", month " + monthKey + " by " + approver.getUsername(),
+            approved);
+        return approved;
+    }
+    
+    /**
+     * Lock the approved commissions of a month (for payroll processing), in one branch or all
+     * branches; returns the number locked
+     */
+    public int lockCommissionsForMonth(String month, Long branchId) {
+        String monthKey = MonthPeriod.of(month).getKey();
+        List<Long> ids = commissionRepository.findApprovedIdsInMonth(monthKey, branchId);
+        LocalDateTime now = LocalDateTime.now();
+        int locked = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            locked += commissionRepository.lockByIds(chunk, now);
+            commissionEventStore.appendBulk(chunk, CommissionEvent.EventType.LOCKED, null, null);
+        }
+        
+        auditLogger.logCommissionBulkTransition("LOCKED", "month " + monthKey + ", branch " + branchId, locked);
+        return locked;
+    }
+    
+    /**
+     * Reverse all pending and approved commissions of an appointment with one update, taking their
+     * amounts out of the summaries; locked commissions are left as they are. Returns the number reversed.
+     */
+    public int reverseCommissionsForAppointment(Long appointmentId) {
+        List<Object[]> rows = commissionRepository.findReversibleByAppointmentId(appointmentId);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        List<Long> ids = new ArrayList<>();
+        Map<List<Object>, BigDecimal> amounts = new HashMap<>();
+        Map<List<Object>, Integer> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+            List<Object> staffBranchMonth = List.of(row[1], row[2], row[3]);
+            amounts.merge(staffBranchMonth, row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO, BigDecimal::add);
+            counts.merge(staffBranchMonth, 1, Integer::sum);
+        }
+        
+        int reversed = commissionRepository.reverseByIds(ids, LocalDateTime.now());
+        if (reversed != ids.size()) {
+            // Another request changed one of them in between; the summary deltas would no longer match
+            throw new IllegalStateException("Commissions of appointment " + appointmentId + " changed concurrently, retry the reversal");
+        }
+        commissionEventStore.appendBulk(ids, CommissionEvent.EventType.REVERSED, null, null);
+        
+        amounts.forEach((staffBranchMonth, amount) -> commissionSummaryService.applyDelta(
+            (Long) staffBranchMonth.get(0), (Long) staffBranchMonth.get(1), (String) staffBranchMonth.get(2),
+            amount.negate(), -counts.get(staffBranchMonth)));
+        
+        auditLogger.logCommissionBulkTransition("REVERSED", "appointment " + appointmentId, reversed);
+        return reversed;
+    }
+    
+    // Split id lists so IN clauses stay a reasonable size
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + BULK_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+    
     /**
      * Adjust commission amount
      */
@@ -348,17 +376,28 @@ public class CommissionService {
         commission.setAmount(newAmount);
         commission.setIsManual(true);
         commissionRepository.save(commission);
+        commissionEventStore.append(commission, CommissionEvent.EventType.ADJUSTED, userId, request.getReason());
         
         // Save adjustment log
         adjustmentLogRepository.save(adjustmentLog);
         
         // Update commission summary
-        updateCommissionSummary(commission.getStaff().getId(), commission.getBranch().getId());
+        if (!commission.isReversed()) {
+            applySummaryDelta(commission, newAmount.subtract(oldAmount), 0);
+        }
         
         // Log the adjustment
         auditLogger.logCommissionAdjustment(commission, adjustmentLog);
     }
     
+    /**
+     * Get a commission's event stream in sequence order
+     */
+    @Transactional(readOnly = true)
+    public List<CommissionEvent> getCommissionEvents(Long commissionId) {
+        return commissionEventStore.getEvents(commissionId);
+    }
+    
     /**
      * Get commission adjustment history
      */
@@ -380,54 +419,44 @@ public class CommissionService {
      */
     @Transactional(readOnly = true)
     public BigDecimal getTotalApprovedCommissionThisMonth() {
-        LocalDateTime now = LocalDateTime.now();
-        return commissionRepository.calculateTotalApprovedCommissionInMonth(now.getYear(), now.getMonthValue());
-    }
-    
-    // Helper class for commission rate information
-    private static class CommissionRateInfo {
-        private final BigDecimal rate;
-        private final Commission.CommissionType commissionType;
-        private final String ruleDescription;
-        
-        public CommissionRateInfo(BigDecimal rate, Commission.CommissionType commissionType, String ruleDescription) {
-            this.rate = rate;
-            this.commissionType = commissionType;
-            this.ruleDescription = ruleDescription;
-        }
-        
-        public BigDecimal getRate() { return rate; }
-        public Commission.CommissionType getCommissionType() { return commissionType; }
-        public String getRuleDescription() { return ruleDescription; }
+        MonthPeriod period = MonthPeriod.current();
+        return commissionRepository.calculateTotalApprovedCommissionInMonth(period.getStart(), period.getEnd());
     }
     
     /**
      * Generate commission from billing item
      */
     public void generateCommissionFromBillingItem(BillingItem billingItem) {
-        if (billingItem.getCommissionGenerated()) {
-            return; // Already generated
+        if (billingItem.getCommissionGenerated() || billingItem.getTotal() == null) {
+            return; // Already generated, or nothing billed
         }
         
-        BigDecimal commissionAmount = billingItem.calculateCommission();
-        if (commissionAmount.compareTo(BigDecimal.ZERO) <= 0) {
-            return; // No commission to generate
-        }
+        Branch branch = billingItem.getBilling().getBranch();
+        LocalDateTime billDate = billingItem.getBilling().getBillDate() != null
+            ? billingItem.getBilling().getBillDate() : LocalDateTime.now();
+        CommissionRuleEngine.ResolvedRate resolved = commissionRuleEngine.resolve(
+            billingItem.getService(), branch, billingItem.getStaff(), billDate.toLocalDate());
         
         Commission commission = new Commission();
         commission.setStaff(billingItem.getStaff());
         commission.setAppointment(billingItem.getBilling().getAppointment());
         commission.setService(billingItem.getService());
-        commission.setBranch(billingItem.getBilling().getBranch());
-        commission.setAmount(commissionAmount);
-        commission.setCommissionRate(billingItem.getService().getCommissionRate());
-        commission.setCommissionDate(billingItem.getBilling().getBillDate());
+        commission.setBranch(branch);
+        commission.setCommissionDate(billDate);
+        commission.setServicePrice(billingItem.getTotal());
+        applyResolvedRate(commission, resolved);
+        if (commission.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return; // No commission to generate
+        }
+        commission.setIsManual(false);
         commission.setStatus(Commission.CommissionStatus.PENDING);
+        commission.setEventSequence(1);
         
         commissionRepository.save(commission);
+        commissionEventStore.recordCreated(commission, resolved.getDescription());
         
         // Update commission summary
-        updateCommissionSummary(billingItem.getStaff().getId(), billingItem.getBilling().getBranch().getId());
+        applySummaryDelta(commission, commission.getAmount(), 1);
         
         // Log the commission generation
         auditLogger.logCommissionCalculation(commission);
@@ -448,13 +477,11 @@ public class CommissionService {
             billingItem.getStaff().getId()
         );
         
+        // Each reversal takes its own amount back out of the summary
         for (Commission commission : commissions) {
             if (commission.getStatus() != Commission.CommissionStatus.REVERSED) {
                 reverseCommission(commission.getId());
             }
         }
-        
-        // Update commission summary
-        updateCommissionSummary(billingItem.getStaff().getId(), billingItem.getBilling().getBranch().getId());
     }
 }
\ No newline at end of file
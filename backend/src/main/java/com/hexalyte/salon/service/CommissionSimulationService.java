@@ -0,0 +1,191 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.dto.CommissionSimulationRequestDTO;
+import com.hexalyte.salon.dto.CommissionSimulationResultDTO;
+import com.hexalyte.salon.model.Branch;
+import com.hexalyte.salon.model.CommissionRule;
+import com.hexalyte.salon.model.Staff;
+import com.hexalyte.salon.repository.BillingItemRepository;
+import com.hexalyte.salon.repository.BranchRepository;
+import com.hexalyte.salon.repository.ServiceRepository;
+import com.hexalyte.salon.repository.StaffRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * What-if pricing of candidate commission rules against past billing. Billing items are streamed per
+ * branch and month, priced under both the live rule table and a private copy with the candidates
+ * applied, and folded into per-staff totals in memory. The slices run in parallel and are merged at
+ * the end. Nothing is written: commissions, summaries and the live rule table are untouched.
+ */
+@Service
+public class CommissionSimulationService {
+
+    @Value("${commission.simulation.threads:4}")
+    private int simulationThreads;
+
+    @Autowired
+    private BillingItemRepository billingItemRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    @Autowired
+    private CommissionRuleEngine ruleEngine;
+
+    @Autowired
+    private CommissionRuleService commissionRuleService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public CommissionSimulationResultDTO simulate(CommissionSimulationRequestDTO request) {
+        LocalDate startDate = request.getStartDate();
+        LocalDate endDate = request.getEndDate();
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Simulation start and end dates are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Simulation end date cannot be before its start date");
+        }
+        if (request.getRules() == null || request.getRules().isEmpty()) {
+            throw new IllegalArgumentException("At least one candidate rule is required");
+        }
+        for (CommissionRule rule : request.getRules()) {
+            if (rule.getRate() == null) {
+                throw new IllegalArgumentException("Candidate rule rate is required");
+            }
+            commissionRuleService.validate(rule);
+        }
+
+        CommissionRuleEngine.RuleSet currentRules = ruleEngine.current();
+        CommissionRuleEngine.RuleSet candidateRules = ruleEngine.withCandidates(request.getRules());
+
+        // Reference data loaded once and shared read-only by every slice
+        Map<Long, com.hexalyte.salon.model.Service> services = readOnlyTransaction.execute(status ->
+            serviceRepository.findAll().stream().collect(Collectors.toMap(com.hexalyte.salon.model.Service::getId, Function.identity())));
+        Map<Long, Staff> staff = readOnlyTransaction.execute(status ->
+            staffRepository.findAll().stream().collect(Collectors.toMap(Staff::getId, Function.identity())));
+        List<Long> branchIds = request.getBranchId() != null ? List.of(request.getBranchId())
+            : branchRepository.findAll().stream().map(Branch::getId).collect(Collectors.toList());
+
+        // One slice per branch and calendar month, clipped to the requested range
+        List<LocalDate[]> months = new ArrayList<>();
+        for (LocalDate from = startDate; !from.isAfter(endDate); from = from.withDayOfMonth(1).plusMonths(1)) {
+            LocalDate monthEnd = from.withDayOfMonth(from.lengthOfMonth());
+            months.add(new LocalDate[] {from, monthEnd.isAfter(endDate) ? endDate : monthEnd});
+        }
+
+        CommissionSimulationResultDTO result = new CommissionSimulationResultDTO(startDate, endDate, request.getBranchId());
+        Map<Long, CommissionSimulationResultDTO.StaffDelta> totals = new HashMap<>();
+        int slices = branchIds.size() * months.size();
+        if (slices == 0) {
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(simulationThreads, slices)));
+        try {
+            List<Future<Map<Long, CommissionSimulationResultDTO.StaffDelta>>> parts = new ArrayList<>();
+            for (Long branchId : branchIds) {
+                for (LocalDate[] month : months) {
+                    parts.add(executor.submit(() -> readOnlyTransaction.execute(status ->
+                        simulateSlice(branchId, month[0], month[1], services, staff, currentRules, candidateRules))));
+                }
+            }
+            for (Future<Map<Long, CommissionSimulationResultDTO.StaffDelta>> part : parts) {
+                part.get().forEach((staffId, delta) -> totals.merge(staffId, delta, CommissionSimulationService::merge));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Commission simulation interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Commission simulation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (CommissionSimulationResultDTO.StaffDelta delta : totals.values()) {
+            result.setItemsEvaluated(result.getItemsEvaluated() + delta.getItems());
+            result.setCurrentTotal(result.getCurrentTotal().add(delta.getCurrentAmount()));
+            result.setSimulatedTotal(result.getSimulatedTotal().add(delta.getSimulatedAmount()));
+        }
+        List<CommissionSimulationResultDTO.StaffDelta> staffDeltas = new ArrayList<>(totals.values());
+        staffDeltas.sort(Comparator.comparing((CommissionSimulationResultDTO.StaffDelta delta) -> delta.getDelta().abs()).reversed()
+            .thenComparing(CommissionSimulationResultDTO.StaffDelta::getStaffId));
+        result.setStaff(staffDeltas);
+        return result;
+    }
+
+    // Price one branch's billing items between the dates (inclusive) under both rule sets
+    private Map<Long, CommissionSimulationResultDTO.StaffDelta> simulateSlice(Long branchId, LocalDate from, LocalDate to,
+                                                                             Map<Long, com.hexalyte.salon.model.Service> services,
+                                                                             Map<Long, Staff> staff,
+                                                                             CommissionRuleEngine.RuleSet currentRules,
+                                                                             CommissionRuleEngine.RuleSet candidateRules) {
+        Map<Long, CommissionSimulationResultDTO.StaffDelta> totals = new HashMap<>();
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        try (Stream<Object[]> rows = billingItemRepository.streamCommissionBasisForBranch(branchId, start, end)) {
+            rows.forEach(row -> {
+                com.hexalyte.salon.model.Service service = services.get((Long) row[0]);
+                Staff member = staff.get((Long) row[1]);
+                if (service == null || member == null) {
+                    return;
+                }
+                LocalDate date = ((LocalDateTime) row[2]).toLocalDate();
+                BigDecimal price = (BigDecimal) row[3];
+
+                CommissionSimulationResultDTO.StaffDelta delta = totals.computeIfAbsent(member.getId(),
+                    id -> new CommissionSimulationResultDTO.StaffDelta(id, member.getFullName(), member.getEmployeeCode()));
+                delta.setItems(delta.getItems() + 1);
+                delta.setCurrentAmount(delta.getCurrentAmount().add(
+                    currentRules.resolve(service, branchId, member, date).amountFor(price)));
+                delta.setSimulatedAmount(delta.getSimulatedAmount().add(
+                    candidateRules.resolve(service, branchId, member, date).amountFor(price)));
+            });
+        }
+        return totals;
+    }
+
+    private static CommissionSimulationResultDTO.StaffDelta merge(CommissionSimulationResultDTO.StaffDelta a,
+                                                                 CommissionSimulationResultDTO.StaffDelta b) {
+        a.setItems(a.getItems() + b.getItems());
+        a.setCurrentAmount(a.getCurrentAmount().add(b.getCurrentAmount()));
+        a.setSimulatedAmount(a.getSimulatedAmount().add(b.getSimulatedAmount()));
+        return a;
+    }
+}
@@ -0,0 +1,234 @@
+package com.hexalyte.salon.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hexalyte.salon.dto.CommissionPeriodSnapshotDTO;
+import com.hexalyte.salon.model.CommissionPeriodSnapshot;
+import com.hexalyte.salon.model.MonthPeriod;
+import com.hexalyte.salon.repository.CommissionPeriodSnapshotRepository;
+import com.hexalyte.salon.repository.CommissionSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshots of fully locked commission months. Locking the last summary of a past month writes the
+ * month's totals to commission_period_snapshot; reports over locked months read only the snapshots.
+ * Any change to a summary of the month (reverse, adjust, regeneration) drops it. Building a snapshot and
+ * dropping one both lock the month's summary rows, so a snapshot never misses a change whose invalidation
+ * ran before it was written. Decoded payloads are
+ * cached in process, but every read first checks the stored row ids, so a snapshot dropped or rewritten
+ * on any instance is never served from the cache.
+ */
+@Service
+@Transactional
+public class CommissionSnapshotService {
+
+    @Autowired
+    private CommissionPeriodSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private CommissionSummaryRepository commissionSummaryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate newTransaction;
+    private final ConcurrentHashMap<String, CachedSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Snapshot of a locked month, loading it from the table or writing it on first use if the month
+     * is closed; empty while the month is current or still has unlocked summaries
+     */
+    public Optional<CommissionPeriodSnapshotDTO> getSnapshot(String month) {
+        return getSnapshots(List.of(month)).map(found -> found.get(0));
+    }
+
+    /**
+     * Snapshots of every month in the list, or empty if any of them is not locked yet
+     */
+    public Optional<List<CommissionPeriodSnapshotDTO>> getSnapshots(List<String> months) {
+        // One id-only read decides which cached payloads are still current
+        Map<String, Long> storedIds = new HashMap<>();
+        for (Object[] row : snapshotRepository.findIdsByMonthIn(months)) {
+            storedIds.put((String) row[0], (Long) row[1]);
+        }
+
+        Map<String, CommissionPeriodSnapshotDTO> found = new HashMap<>();
+        List<String> stale = new ArrayList<>();
+        for (String month : months) {
+            Long storedId = storedIds.get(month);
+            CachedSnapshot cached = snapshots.get(month);
+            if (storedId == null) {
+                if (cached != null) {
+                    snapshots.remove(month, cached);
+                }
+            } else if (cached != null && cached.id.equals(storedId)) {
+                found.put(month, cached.snapshot);
+            } else {
+                stale.add(month);
+            }
+        }
+
+        // One read for the payloads not cached or cached from an older row
+        if (!stale.isEmpty()) {
+            for (CommissionPeriodSnapshot stored : snapshotRepository.findByMonthIn(stale)) {
+                CachedSnapshot loaded = new CachedSnapshot(stored.getId(), deserialize(stored));
+                snapshots.put(stored.getMonth(), loaded);
+                found.put(stored.getMonth(), loaded.snapshot);
+            }
+        }
+
+        List<CommissionPeriodSnapshotDTO> result = new ArrayList<>();
+        for (String month : months) {
+            CommissionPeriodSnapshotDTO snapshot = found.get(month);
+            if (snapshot == null) {
+                if (!isClosed(month)) {
+                    return Optional.empty();
+                }
+                snapshot = writeSnapshot(month);
+                if (snapshot == null) {
+                    return Optional.empty();
+                }
+            }
+            result.add(snapshot);
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Write the month's snapshot once the locking transaction has committed, if that closed the month
+     */
+    public void snapshotAfterCommit(String month) {
+        Runnable write = () -> {
+            try {
+                if (Boolean.TRUE.equals(newTransaction.execute(
+                        status -> isClosed(month) && snapshotRepository.findByMonth(month).isEmpty()))) {
+                    writeSnapshot(month);
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to write commission snapshot for " + month + ": " + e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    /**
+     * Drop the month's snapshot because one of its summaries changed. Readers on any instance stop using
+     * their cached copy once the deletion commits, as the row it was decoded from is gone. The month's
+     * summaries stay locked until the caller commits, so a snapshot being built waits for the change.
+     */
+    public void invalidate(String month) {
+        List<Long> ids = commissionSummaryRepository.findIdsByMonth(month);
+        if (!ids.isEmpty()) {
+            commissionSummaryRepository.lockByIds(ids);
+        }
+        snapshots.remove(month);
+        if (snapshotRepository.deleteByMonth(month) > 0) {
+            System.err.println("Commission snapshot for " + month + " invalidated by a change to a locked period");
+        }
+    }
+
+    private boolean isClosed(String month) {
+        return month.compareTo(MonthPeriod.current().getKey()) < 0
+            && commissionSummaryRepository.countInMonthRange(month, month) > 0
+            && commissionSummaryRepository.countUnlockedInMonthRange(month, month) == 0;
+    }
+
+    // Build and store the snapshot in its own transaction; it is cached only once committed. Null when
+    // the month reopened or the lock could not be taken, in which case callers read the summaries live.
+    private CommissionPeriodSnapshotDTO writeSnapshot(String month) {
+        CachedSnapshot written;
+        try {
+            written = newTransaction.execute(status -> {
+                // Taken before anything is read: a change still in flight is waited for and then included,
+                // and one that comes later waits for this snapshot to commit before deleting it
+                commissionSummaryRepository.lockMonth(month);
+                if (!isClosed(month)) {
+                    return null;
+                }
+                CommissionPeriodSnapshotDTO built = new CommissionPeriodSnapshotDTO(
+                    month,
+                    commissionSummaryRepository.sumByBranch(month, month, false),
+                    commissionSummaryRepository.sumByStaffAndBranch(month, month, false)
+                );
+                CommissionPeriodSnapshot saved = snapshotRepository.saveAndFlush(new CommissionPeriodSnapshot(
+                    month, built.getTotalServices(), built.getTotalCommission(), serialize(built)));
+                return new CachedSnapshot(saved.getId(), built);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Written by another request in the meantime
+            CommissionPeriodSnapshot stored = snapshotRepository.findByMonth(month)
+                .orElseThrow(() -> new RuntimeException("Commission snapshot not found for month " + month));
+            written = new CachedSnapshot(stored.getId(), deserialize(stored));
+        } catch (PessimisticLockingFailureException e) {
+            System.err.println("Commission snapshot for " + month + " not written, summaries are being changed: " + e.getMessage());
+            return null;
+        }
+        if (written == null) {
+            return null;
+        }
+        snapshots.put(month, written);
+        return written.snapshot;
+    }
+
+    private String serialize(CommissionPeriodSnapshotDTO snapshot) {
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize commission snapshot for " + snapshot.getMonth(), e);
+        }
+    }
+
+    private CommissionPeriodSnapshotDTO deserialize(CommissionPeriodSnapshot stored) {
+        try {
+            return objectMapper.readValue(stored.getPayload(), CommissionPeriodSnapshotDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read commission snapshot for " + stored.getMonth(), e);
+        }
+    }
+
+    // A decoded payload and the id of the row it came from
+    private static final class CachedSnapshot {
+        private final Long id;
+        private final CommissionPeriodSnapshotDTO snapshot;
+
+        CachedSnapshot(Long id, CommissionPeriodSnapshotDTO snapshot) {
+            this.id = id;
+            this.snapshot = snapshot;
+        }
+    }
+}
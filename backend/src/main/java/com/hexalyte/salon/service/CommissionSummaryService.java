@@ -1,26 +1,50 @@
 package com.hexalyte.salon.service;
 
+import com.hexalyte.salon.dto.CommissionPeriodSnapshotDTO;
+import com.hexalyte.salon.dto.CommissionPeriodTotalsDTO;
 import com.hexalyte.salon.dto.CommissionSummaryDTO;
 import com.hexalyte.salon.model.*;
 import com.hexalyte.salon.repository.*;
 import com.hexalyte.salon.security.AuditLogger;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class CommissionSummaryService {
     
+    private static final int GENERATION_ATTEMPTS = 3;
+    
+    @Value("${commission.summary.reconcile-months:2}")
+    private int reconcileMonths;
+    
+    @Value("${commission.summary.generation-threads:1}")
+    private int generationThreads;
+    
     @Autowired
     private CommissionSummaryRepository commissionSummaryRepository;
     
@@ -38,25 +62,187 @@ public class CommissionSummaryService {
     
     @Autowired
     private AuditLogger auditLogger;
+    
+    @Autowired
+    private CommissionSnapshotService commissionSnapshotService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate newTransaction;
+    
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    /**
+     * Apply a signed change to a staff member's monthly summary with a single UPDATE, so the cost does not
+     * grow with the number of commissions already in the month. Runs inside the caller's transaction.
+     */
+    public void applyDelta(Long staffId, Long branchId, String month, BigDecimal amount, int services) {
+        if (amount.signum() == 0 && services == 0) {
+            return;
+        }
+        
+        // Plain read first: updating a missing row would take a gap lock that blocks the insert below
+        if (!commissionSummaryRepository.existsByStaffIdAndBranchIdAndMonth(staffId, branchId, month)) {
+            createSummary(staffId, branchId, month, BigDecimal.ZERO, 0);
+        }
+        
+        if (commissionSummaryRepository.applyDelta(staffId, branchId, month, amount, services) == 0) {
+            throw new RuntimeException("Commission summary not found for staff " + staffId + " and month " + month);
+        }
+        invalidateSnapshot(month);
+    }
+    
+    /**
+     * Check recent months for summaries that drifted from their commissions (e.g. rows edited outside the application)
+     */
+    @Scheduled(cron = "0 15 1 * * ?") // 1:15 AM daily
+    public void reconcileRecentSummaries() {
+        MonthPeriod period = MonthPeriod.current();
+        for (int i = 0; i < reconcileMonths; i++, period = period.previous()) {
+            String month = period.getKey();
+            try {
+                newTransaction.execute(status -> reconcileMonth(month));
+            } catch (Exception e) {
+                System.err.println("Commission summary reconciliation failed for " + month + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Compare every summary of the month with one grouped aggregate of its commissions and correct the ones
+     * that drifted. Locked summaries are reported but left untouched. Returns the number of summaries fixed.
+     */
+    public int reconcileMonth(String month) {
+        MonthPeriod period = MonthPeriod.of(month);
+        return correctSummaries(month, commissionSummaryRepository.findByMonth(month),
+            commissionRepository.sumByStaffAndBranchInRange(period.getStart(), period.getEnd()));
+    }
+    
+    /**
+     * Bring the given summaries of a month in line with actual totals (staff id, branch id, total commission,
+     * service count) and create the summaries that are missing. Locked summaries are reported but left
+     * untouched. Returns the number of summaries fixed.
+     */
+    public int correctSummaries(String month, List<CommissionSummary> summaries, List<Object[]> actualRows) {
+        Map<String, Object[]> actualTotals = new HashMap<>();
+        for (Object[] row : actualRows) {
+            actualTotals.put(row[0] + ":" + row[1], row);
+        }
+        
+        int corrected = 0;
+        for (CommissionSummary summary : summaries) {
+            Object[] row = actualTotals.remove(summary.getStaff().getId() + ":" + summary.getBranch().getId());
+            BigDecimal totalCommission = row != null ? (BigDecimal) row[2] : BigDecimal.ZERO;
+            int totalServices = row != null ? ((Number) row[3]).intValue() : 0;
+            if (totalCommission.compareTo(summary.getTotalCommission()) == 0 && totalServices == summary.getTotalServices()) {
+                continue;
+            }
+            
+            System.err.println("Commission summary " + summary.getId() + " drifted: recorded " + summary.getTotalCommission() +
+                "/" + summary.getTotalServices() + ", actual " + totalCommission + "/" + totalServices);
+            if (!summary.isLocked()) {
+                // A version mismatch means a delta landed after the aggregate was read; the next run re-checks it
+                corrected += commissionSummaryRepository.correctTotals(
+                    summary.getId(), summary.getVersion(), totalCommission, totalServices);
+            }
+        }
+        
+        // Commissions whose summary row is missing altogether
+        for (Object[] row : actualTotals.values()) {
+            System.err.println("Commission summary missing for staff " + row[0] + ", branch " + row[1] + " in " + month);
+            if (createSummary((Long) row[0], (Long) row[1], month, (BigDecimal) row[2], ((Number) row[3]).intValue())) {
+                corrected++;
+            }
+        }
+        if (corrected > 0) {
+            invalidateSnapshot(month);
+        }
+        return corrected;
+    }
+    
+    // Only past months can be locked and snapshotted; a change there drops the month's snapshot explicitly
+    private void invalidateSnapshot(String month) {
+        if (month.compareTo(MonthPeriod.current().getKey()) < 0) {
+            commissionSnapshotService.invalidate(month);
+        }
+    }
+    
+    // False when the staff-branch-month row turned out to exist already, so reconcile counts only the
+    // summaries it actually created and applyDelta goes on to update the existing one
+    private boolean createSummary(Long staffId, Long branchId, String month, BigDecimal totalCommission, int totalServices) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                CommissionSummary summary = new CommissionSummary(
+                    staffRepository.getReferenceById(staffId), branchRepository.getReferenceById(branchId), month);
+                summary.setTotalCommission(totalCommission);
+                summary.setTotalServices(totalServices);
+                commissionSummaryRepository.saveAndFlush(summary);
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Created by another request in the meantime
+            return false;
+        }
+    }
 
     /**
-     * Generate commission summaries for a specific month
+     * Generate commission summaries for a specific month with one INSERT ... SELECT per branch.
+     * Safe to rerun: existing summaries are refreshed in place and locked ones are left as they are.
+     * With commission.summary.generation-threads above 1, branches are upserted in parallel, each in
+     * its own transaction.
      */
     public void generateCommissionSummariesForMonth(String month) {
-        // Parse year and month
-        String[] parts = month.split("-");
-        int year = Integer.parseInt(parts[0]);
-        int monthValue = Integer.parseInt(parts[1]);
+        String monthKey = MonthPeriod.of(month).getKey();
+        List<Long> branchIds = commissionRepository.findBranchIdsWithCommissionsInMonth(monthKey);
         
-        // Find all staff-branch combinations that have commissions for this month
-        List<Object[]> staffBranchCombinations = commissionRepository
-            .findStaffBranchCombinationsForMonth(year, monthValue);
+        if (generationThreads <= 1 || branchIds.size() <= 1) {
+            for (Long branchId : branchIds) {
+                generateCommissionSummariesForBranch(branchId, monthKey);
+            }
+            return;
+        }
         
-        for (Object[] combination : staffBranchCombinations) {
-            Long staffId = (Long) combination[0];
-            Long branchId = (Long) combination[1];
-            
-            generateCommissionSummaryForStaffBranch(staffId, branchId, month);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(generationThreads, branchIds.size()));
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Long branchId : branchIds) {
+                results.add(executor.submit(() -> generateBranchInNewTransaction(branchId, monthKey)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Commission summary generation interrupted for " + monthKey);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Commission summary generation failed for " + monthKey + ": " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private void generateCommissionSummariesForBranch(Long branchId, String month) {
+        int affectedRows = commissionSummaryRepository.upsertSummariesForBranchInMonth(branchId, month);
+        auditLogger.logCommissionSummaryBatchGeneration(branchId, month, affectedRows);
+        invalidateSnapshot(month);
+    }
+    
+    // Branches touch disjoint summary rows, but neighbouring index keys can still deadlock; retry in a fresh transaction
+    private void generateBranchInNewTransaction(Long branchId, String month) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                newTransaction.executeWithoutResult(status -> generateCommissionSummariesForBranch(branchId, month));
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= GENERATION_ATTEMPTS) {
+                    throw e;
+                }
+            }
         }
     }
     
@@ -75,18 +261,13 @@ public class CommissionSummaryService {
         Branch branch = branchRepository.findById(branchId)
             .orElseThrow(() -> new IllegalArgumentException("Branch not found"));
         
-        // Parse month for calculations
-        String[] parts = month.split("-");
-        int year = Integer.parseInt(parts[0]);
-        int monthValue = Integer.parseInt(parts[1]);
-        
         // Calculate totals
         BigDecimal totalCommission = commissionRepository.calculateTotalCommissionForStaffInMonth(
-            staffId, branchId, year, monthValue
+            staffId, branchId, month
         );
         
         Long totalServices = commissionRepository.countServicesForStaffInMonth(
-            staffId, branchId, year, monthValue
+            staffId, branchId, month
         );
         
         // Create summary
@@ -219,40 +400,29 @@ public class CommissionSummaryService {
         
         // Log the lock
         auditLogger.logCommissionSummaryLock(summary);
+        
+        // Freeze the month if this was its last unlocked summary
+        commissionSnapshotService.snapshotAfterCommit(summary.getMonth());
     }
     
     /**
-     * Approve all pending summaries for a month
+     * Approve all pending summaries for a month in one update; returns the number approved
      */
-    public void approveAllSummariesForMonth(String month, Long approverId) {
-        List<CommissionSummary> summaries = commissionSummaryRepository.findByMonthAndStatus(
-            month, CommissionSummary.SummaryStatus.PENDING
-        );
-        
-        for (CommissionSummary summary : summaries) {
-            summary.approve(approverId);
-            commissionSummaryRepository.save(summary);
-            
-            // Log the approval
-            auditLogger.logCommissionSummaryApproval(summary, approverId);
-        }
+    public int approveAllSummariesForMonth(String month, Long approverId) {
+        int approved = commissionSummaryRepository.approvePendingInMonth(month, approverId, LocalDateTime.now());
+        auditLogger.logCommissionSummaryBulkTransition("APPROVED", month, approved, approverId);
+        return approved;
     }
     
     /**
-     * Lock all approved summaries for a month
+     * Lock all approved summaries for a month in one update; returns the number locked
      */
-    public void lockAllSummariesForMonth(String month) {
-        List<CommissionSummary> summaries = commissionSummaryRepository.findByMonthAndStatus(
-            month, CommissionSummary.SummaryStatus.APPROVED
-        );
+    public int lockAllSummariesForMonth(String month) {
+        int locked = commissionSummaryRepository.lockApprovedInMonth(month, LocalDateTime.now());
+        auditLogger.logCommissionSummaryBulkTransition("LOCKED", month, locked, null);
         
-        for (CommissionSummary summary : summaries) {
-            summary.lock();
-            commissionSummaryRepository.save(summary);
-            
-            // Log the lock
-            auditLogger.logCommissionSummaryLock(summary);
-        }
+        commissionSnapshotService.snapshotAfterCommit(month);
+        return locked;
     }
     
     /**
@@ -260,7 +430,9 @@ public class CommissionSummaryService {
      */
     @Transactional(readOnly = true)
     public BigDecimal getTotalCommissionForMonth(String month) {
-        return commissionSummaryRepository.calculateTotalCommissionForMonth(month);
+        return commissionSnapshotService.getSnapshot(month)
+            .map(CommissionPeriodSnapshotDTO::getTotalCommission)
+            .orElseGet(() -> commissionSummaryRepository.calculateTotalCommissionForMonth(month));
     }
     
     /**
@@ -268,7 +440,12 @@ public class CommissionSummaryService {
      */
     @Transactional(readOnly = true)
     public BigDecimal getTotalCommissionForBranchInMonth(Long branchId, String month) {
-        return commissionSummaryRepository.calculateTotalCommissionForBranchInMonth(branchId, month);
+        return commissionSnapshotService.getSnapshot(month)
+            .map(snapshot -> snapshot.getBranchTotals().stream()
+                .filter(totals -> totals.getBranchId().equals(branchId))
+                .map(CommissionPeriodTotalsDTO::getTotalCommission)
+                .reduce(BigDecimal.ZERO, BigDecimal::add))
+            .orElseGet(() -> commissionSummaryRepository.calculateTotalCommissionForBranchInMonth(branchId, month));
     }
     
     /**
@@ -276,7 +453,12 @@ public class CommissionSummaryService {
      */
     @Transactional(readOnly = true)
     public BigDecimal getTotalCommissionForStaffInMonth(Long staffId, String month) {
-        return commissionSummaryRepository.calculateTotalCommissionForStaffInMonth(staffId, month);
+        return commissionSnapshotService.getSnapshot(month)
+            .map(snapshot -> snapshot.getStaffTotals().stream()
+                .filter(totals -> totals.getStaffId().equals(staffId))
+                .map(CommissionPeriodTotalsDTO::getTotalCommission)
+                .reduce(BigDecimal.ZERO, BigDecimal::add))
+            .orElseGet(() -> commissionSummaryRepository.calculateTotalCommissionForStaffInMonth(staffId, month));
     }
     
     /**
@@ -309,14 +491,14 @@ public class CommissionSummaryService {
         
         // Generate new summary
         generateCommissionSummaryForStaffBranch(staffId, branchId, month);
+        invalidateSnapshot(month);
     }
     
     /**
      * Generate summaries for current month
      */
     public void generateCurrentMonthSummaries() {
-        String currentMonth = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
-        generateCommissionSummariesForMonth(currentMonth);
+        generateCommissionSummariesForMonth(MonthPeriod.current().getKey());
     }
     
     /**
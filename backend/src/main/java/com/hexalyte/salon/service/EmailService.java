@@ -1,30 +1,37 @@
 package com.hexalyte.salon.service;
 
+import com.hexalyte.salon.model.NotificationOutbox;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
-public class EmailService {
+@ConditionalOnProperty(name = "notification.transport", havingValue = "live", matchIfMissing = true)
+public class EmailService implements NotificationTransport {
 
     @Autowired
     private JavaMailSender mailSender;
 
-    public void sendEmail(String to, String subject, String body) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            message.setFrom("noreply@salon.com");
-            
-            mailSender.send(message);
-        } catch (Exception e) {
-            // Log error but don't throw exception to avoid breaking appointment flow
-            System.err.println("Failed to send email to " + to + ": " + e.getMessage());
-        }
+    @Override
+    public boolean supports(NotificationOutbox.Channel channel) {
+        return channel == NotificationOutbox.Channel.EMAIL;
     }
-}
 
+    @Override
+    public void send(NotificationOutbox message) {
+        sendEmail(message.getRecipient(), message.getSubject(), message.getBody());
+    }
 
+    // Failures propagate to the notification dispatcher, which retries with backoff
+    public void sendEmail(String to, String subject, String body) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        message.setFrom("noreply@salon.com");
+
+        mailSender.send(message);
+    }
+}
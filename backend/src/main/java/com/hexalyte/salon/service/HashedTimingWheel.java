@@ -0,0 +1,150 @@
+package com.hexalyte.salon.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for firing many keyed timeouts with O(1) schedule and cancel.
+ * A single ticker thread advances the wheel one bucket per tick; deadlines further away than
+ * one revolution carry a round count. Expired keys are handed to the expiry handler on a
+ * separate executor so a slow handler never delays the wheel.
+ */
+public class HashedTimingWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Entry>> buckets;
+    private final ConcurrentLinkedQueue<Entry> pendingEntries = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<Long, Entry> entriesByKey = new ConcurrentHashMap<>();
+    private final Consumer<Long> expiryHandler;
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService dispatcher;
+
+    // Only touched by the ticker thread after start()
+    private long startMillis;
+    private long currentTick;
+
+    public HashedTimingWheel(String name, long tickMillis, int wheelSize, int dispatcherThreads, Consumer<Long> expiryHandler) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.expiryHandler = expiryHandler;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        startMillis = System.currentTimeMillis();
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Schedule (or move) the timeout for a key. Deadlines in the past fire on the next tick.
+     */
+    public void schedule(Long key, long deadlineMillis) {
+        Entry entry = new Entry(key, deadlineMillis);
+        Entry previous = entriesByKey.put(key, entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        pendingEntries.add(entry);
+    }
+
+    public void cancel(Long key) {
+        Entry entry = entriesByKey.remove(key);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    public boolean contains(Long key) {
+        return entriesByKey.containsKey(key);
+    }
+
+    public int size() {
+        return entriesByKey.size();
+    }
+
+    private void advance() {
+        try {
+            long elapsedTicks = (System.currentTimeMillis() - startMillis) / tickMillis;
+            // Catch up on ticks missed during pauses so nothing fires late by more than one tick
+            while (currentTick <= elapsedTicks) {
+                transferPendingEntries();
+                expireBucket(buckets.get((int) (currentTick & mask)));
+                currentTick++;
+            }
+        } catch (Exception e) {
+            // An exception would cancel the periodic task, so never let one escape
+            System.err.println("Timing wheel tick failed: " + e.getMessage());
+        }
+    }
+
+    private void transferPendingEntries() {
+        Entry entry;
+        while ((entry = pendingEntries.poll()) != null) {
+            if (entry.cancelled) {
+                continue;
+            }
+            long deadlineTick = Math.max(currentTick, (entry.deadlineMillis - startMillis + tickMillis - 1) / tickMillis);
+            entry.remainingRounds = (deadlineTick - currentTick) / buckets.size();
+            buckets.get((int) (deadlineTick & mask)).add(entry);
+        }
+    }
+
+    private void expireBucket(List<Entry> bucket) {
+        Iterator<Entry> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.cancelled) {
+                iterator.remove();
+            } else if (entry.remainingRounds <= 0) {
+                iterator.remove();
+                if (entriesByKey.remove(entry.key, entry)) {
+                    dispatcher.execute(() -> expiryHandler.accept(entry.key));
+                }
+            } else {
+                entry.remainingRounds--;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Long key;
+        private final long deadlineMillis;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        Entry(Long key, long deadlineMillis) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
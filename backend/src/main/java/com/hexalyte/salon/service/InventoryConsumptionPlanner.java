@@ -0,0 +1,221 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.dto.ServiceProductMappingDTO;
+import com.hexalyte.salon.model.Appointment;
+import com.hexalyte.salon.model.Product;
+import com.hexalyte.salon.model.StockLedgerEntry;
+import com.hexalyte.salon.repository.InventoryRepository;
+import com.hexalyte.salon.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Product consumption of a completed appointment, planned up front and applied in bulk. The mappings
+ * of all the appointment's services are loaded in one query and merged per product; the stock
+ * decrements, usage rows, transaction rows and stock ledger entries are then each sent as one JDBC
+ * batch. Stock is checked under row locks before anything is written, so a shortfall is reported
+ * instead of thrown and never leaves the caller's transaction rollback-only. Runs in the caller's
+ * transaction.
+ */
+@Service
+public class InventoryConsumptionPlanner {
+
+    private static final String DEDUCT_SQL =
+        "UPDATE inventory SET quantity = quantity - ?, last_updated = ? " +
+        "WHERE branch_id = ? AND product_id = ? AND quantity >= ?";
+    private static final String USAGE_SQL =
+        "INSERT INTO inventory_usage (appointment_id, service_id, staff_id, branch_id, product_id, " +
+        "quantity_used, unit_cost, total_cost, used_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String TRANSACTION_SQL =
+        "INSERT INTO inventory_transaction (branch_id, product_id, type, quantity, remarks, created_by, created_at) " +
+        "VALUES (?, ?, 'USAGE', ?, ?, ?, ?)";
+
+    @Autowired
+    private ServiceProductMappingService serviceProductMappingService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private LowStockAlertService lowStockAlertService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Usage lines per service performed and the merged quantity per product
+     */
+    public Plan plan(Appointment appointment) {
+        List<Long> serviceIds = appointment.getAppointmentServices().stream()
+                .map(appointmentService -> appointmentService.getService().getId())
+                .collect(Collectors.toList());
+        Plan plan = new Plan(appointment.getId(), appointment.getBranch().getId(), appointment.getStaff().getId());
+        if (serviceIds.isEmpty()) {
+            return plan;
+        }
+
+        Map<Long, List<ServiceProductMappingDTO>> mappingsByService = serviceProductMappingService
+                .getMappingsByServices(serviceIds.stream().distinct().collect(Collectors.toList()))
+                .stream()
+                .filter(mapping -> mapping.getDefaultQuantity() != null && mapping.getDefaultQuantity().signum() > 0)
+                .collect(Collectors.groupingBy(ServiceProductMappingDTO::getServiceId));
+        List<Long> productIds = mappingsByService.values().stream()
+                .flatMap(List::stream)
+                .map(ServiceProductMappingDTO::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        plan.products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        // A service booked twice consumes its products twice
+        for (Long serviceId : serviceIds) {
+            for (ServiceProductMappingDTO mapping : mappingsByService.getOrDefault(serviceId, List.of())) {
+                Product product = plan.products.get(mapping.getProductId());
+                if (product == null) {
+                    throw new IllegalArgumentException("Product not found with id: " + mapping.getProductId());
+                }
+                plan.lines.add(new Line(serviceId, product.getProductId(), mapping.getDefaultQuantity(), product.getCostPrice()));
+                plan.totals.merge(product.getProductId(), mapping.getDefaultQuantity(), BigDecimal::add);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Lock the plan's stock rows in product order and list the products the branch cannot cover.
+     * An empty result means {@link #apply(Plan)} will succeed within this transaction.
+     */
+    public List<String> checkAvailability(Plan plan) {
+        List<String> shortfalls = new ArrayList<>();
+        if (plan.totals.isEmpty()) {
+            return shortfalls;
+        }
+        Map<Long, BigDecimal> onHand = new HashMap<>();
+        for (Object[] row : inventoryRepository.lockQuantities(plan.branchId, new ArrayList<>(plan.totals.keySet()))) {
+            onHand.put(((Number) row[0]).longValue(), (BigDecimal) row[1]);
+        }
+        plan.totals.forEach((productId, required) -> {
+            BigDecimal available = onHand.getOrDefault(productId, BigDecimal.ZERO);
+            if (available.compareTo(required) < 0) {
+                shortfalls.add("Insufficient inventory quantity for product " + productId + " at branch " + plan.branchId +
+                        ". Available: " + available + ", Required: " + required);
+            }
+        });
+        return shortfalls;
+    }
+
+    /**
+     * Apply the plan: one batched decrement per product, then the usage and transaction rows, then the
+     * low-stock check against the new quantities
+     */
+    public void apply(Plan plan) {
+        if (plan.totals.isEmpty()) {
+            return;
+        }
+        LocalDateTime occurredAt = LocalDateTime.now();
+        Timestamp now = Timestamp.valueOf(occurredAt);
+        String remarks = "Used in appointment " + plan.appointmentId;
+
+        // Product order keeps lock order stable between concurrent completions at the branch
+        List<Long> productIds = new ArrayList<>(plan.totals.keySet());
+        List<Object[]> decrements = new ArrayList<>();
+        for (Long productId : productIds) {
+            BigDecimal quantity = plan.totals.get(productId);
+            decrements.add(new Object[] {quantity, now, plan.branchId, productId, quantity});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(DEDUCT_SQL, decrements);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Long productId = productIds.get(i);
+                throw new IllegalStateException("Insufficient inventory quantity for product " + productId +
+                        " at branch " + plan.branchId + ". Required: " + plan.totals.get(productId));
+            }
+        }
+
+        List<Object[]> usages = new ArrayList<>();
+        for (Line line : plan.lines) {
+            BigDecimal unitCost = line.unitCost != null ? line.unitCost : BigDecimal.ZERO;
+            usages.add(new Object[] {plan.appointmentId, line.serviceId, plan.staffId, plan.branchId, line.productId,
+                    line.quantity, unitCost, line.quantity.multiply(unitCost), now});
+        }
+        jdbcTemplate.batchUpdate(USAGE_SQL, usages);
+
+        List<Object[]> transactions = new ArrayList<>();
+        for (Long productId : productIds) {
+            transactions.add(new Object[] {plan.branchId, productId, plan.totals.get(productId).negate(), remarks,
+                    plan.staffId, now});
+        }
+        jdbcTemplate.batchUpdate(TRANSACTION_SQL, transactions);
+
+        Map<Long, BigDecimal> ledgerChanges = new TreeMap<>();
+        plan.totals.forEach((productId, quantity) -> ledgerChanges.put(productId, quantity.negate()));
+        stockLedgerService.recordBatch(plan.branchId, ledgerChanges, StockLedgerEntry.MovementType.USAGE, remarks,
+                plan.staffId, occurredAt);
+
+        // Each row is still locked by this transaction's decrement, so these are the values it leaves
+        for (Object[] row : inventoryRepository.findQuantities(plan.branchId, productIds)) {
+            Long productId = (Long) row[0];
+            BigDecimal newQuantity = (BigDecimal) row[1];
+            lowStockAlertService.onStockChange(plan.branchId, productId, newQuantity.add(plan.totals.get(productId)), newQuantity);
+        }
+    }
+
+    /**
+     * What an appointment consumes
+     */
+    public static class Plan {
+        private final Long appointmentId;
+        private final Long branchId;
+        private final Long staffId;
+        private final List<Line> lines = new ArrayList<>();
+        private final Map<Long, BigDecimal> totals = new TreeMap<>();
+        private Map<Long, Product> products = new HashMap<>();
+
+        Plan(Long appointmentId, Long branchId, Long staffId) {
+            this.appointmentId = appointmentId;
+            this.branchId = branchId;
+            this.staffId = staffId;
+        }
+
+        public int getLineCount() {
+            return lines.size();
+        }
+
+        public Map<Long, BigDecimal> getTotals() {
+            return totals;
+        }
+    }
+
+    // One product used by one service performed
+    private static class Line {
+        private final Long serviceId;
+        private final Long productId;
+        private final BigDecimal quantity;
+        private final BigDecimal unitCost;
+
+        Line(Long serviceId, Long productId, BigDecimal quantity, BigDecimal unitCost) {
+            this.serviceId = serviceId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.unitCost = unitCost;
+        }
+    }
+}
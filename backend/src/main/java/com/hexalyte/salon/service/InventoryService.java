@@ -6,6 +6,7 @@ import com.hexalyte.salon.dto.LowStockAlertDTO;
 import com.hexalyte.salon.model.Inventory;
 import com.hexalyte.salon.model.LowStockAlert;
 import com.hexalyte.salon.model.Product;
+import com.hexalyte.salon.model.StockLedgerEntry;
 import com.hexalyte.salon.repository.InventoryRepository;
 import com.hexalyte.salon.repository.LowStockAlertRepository;
 import com.hexalyte.salon.repository.ProductRepository;
@@ -16,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -33,6 +35,12 @@ public class InventoryService {
     @Autowired
     private LowStockAlertRepository lowStockAlertRepository;
     
+    @Autowired
+    private LowStockAlertService lowStockAlertService;
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
     @Autowired
     private InventoryTransactionService inventoryTransactionService;
     
@@ -65,69 +73,94 @@ public class InventoryService {
                 .map(this::convertToDTO);
     }
     
+    /**
+     * Set the quantity from a stock count. The row is read under lock so the recorded adjustment is the
+     * exact difference from the last committed quantity.
+     */
     public InventoryDTO updateInventoryQuantity(Long branchId, Long productId, BigDecimal newQuantity, 
                                              String remarks, Long userId) {
-        Inventory inventory = inventoryRepository.findByBranchIdAndProductId(branchId, productId)
+        if (newQuantity == null || newQuantity.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Quantity must be greater than or equal to 0");
+        }
+        BigDecimal oldQuantity = inventoryRepository.lockQuantity(branchId, productId)
                 .orElseThrow(() -> new IllegalArgumentException("Inventory not found for branch: " + branchId + " and product: " + productId));
         
-        BigDecimal oldQuantity = inventory.getQuantity();
-        BigDecimal quantityDifference = newQuantity.subtract(oldQuantity);
-        
-        // Update inventory quantity
-        inventory.setQuantity(newQuantity);
-        inventoryRepository.save(inventory);
+        LocalDateTime now = LocalDateTime.now();
+        inventoryRepository.setQuantity(branchId, productId, newQuantity, now);
         
         // Create transaction record
         inventoryTransactionService.createAdjustmentTransaction(
-                branchId, productId, quantityDifference, remarks, userId);
+                branchId, productId, newQuantity.subtract(oldQuantity), remarks, userId);
+        stockLedgerService.record(branchId, productId, StockLedgerEntry.MovementType.COUNT,
+                newQuantity.subtract(oldQuantity), remarks, userId);
         
         // Check for low stock alerts
-        checkAndCreateLowStockAlert(branchId, productId, newQuantity);
+        lowStockAlertService.onStockChange(branchId, productId, oldQuantity, newQuantity);
         
-        return convertToDTO(inventory);
+        return convertToDTO(branchId, productId, newQuantity, now);
     }
     
     public InventoryDTO addInventoryQuantity(Long branchId, Long productId, BigDecimal quantityToAdd, 
                                           String remarks, Long userId) {
-        Inventory inventory = inventoryRepository.findByBranchIdAndProductId(branchId, productId)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory not found for branch: " + branchId + " and product: " + productId));
-        
-        BigDecimal newQuantity = inventory.getQuantity().add(quantityToAdd);
-        inventory.setQuantity(newQuantity);
-        inventoryRepository.save(inventory);
+        return addInventoryQuantity(branchId, productId, quantityToAdd, remarks, userId, StockLedgerEntry.MovementType.STOCK_IN);
+    }
+    
+    /**
+     * Add stock, recording the ledger entry under the given movement type (TRANSFER for a transfer's arrival)
+     */
+    public InventoryDTO addInventoryQuantity(Long branchId, Long productId, BigDecimal quantityToAdd, 
+                                          String remarks, Long userId, StockLedgerEntry.MovementType movementType) {
+        requirePositive(quantityToAdd);
+        LocalDateTime now = LocalDateTime.now();
+        if (inventoryRepository.addQuantity(branchId, productId, quantityToAdd, now) == 0) {
+            throw new IllegalArgumentException("Inventory not found for branch: " + branchId + " and product: " + productId);
+        }
+        BigDecimal newQuantity = currentQuantity(branchId, productId);
         
         // Create transaction record
         inventoryTransactionService.createAdjustmentTransaction(
                 branchId, productId, quantityToAdd, remarks, userId);
+        stockLedgerService.record(branchId, productId, movementType, quantityToAdd, remarks, userId);
         
         // Check for low stock alerts
-        checkAndCreateLowStockAlert(branchId, productId, newQuantity);
+        lowStockAlertService.onStockChange(branchId, productId, newQuantity.subtract(quantityToAdd), newQuantity);
         
-        return convertToDTO(inventory);
+        return convertToDTO(branchId, productId, newQuantity, now);
     }
     
+    /**
+     * Deduct stock with one conditional UPDATE that only matches while enough stock remains, so
+     * concurrent deductions can neither lose an update nor take the quantity below zero
+     */
     public InventoryDTO deductInventoryQuantity(Long branchId, Long productId, BigDecimal quantityToDeduct, 
                                              String remarks, Long userId) {
-        Inventory inventory = inventoryRepository.findByBranchIdAndProductId(branchId, productId)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory not found for branch: " + branchId + " and product: " + productId));
-        
-        if (inventory.getQuantity().compareTo(quantityToDeduct) < 0) {
-            throw new IllegalArgumentException("Insufficient inventory quantity. Available: " + inventory.getQuantity() + 
+        return deductInventoryQuantity(branchId, productId, quantityToDeduct, remarks, userId, StockLedgerEntry.MovementType.STOCK_OUT);
+    }
+    
+    /**
+     * Deduct stock, recording the ledger entry under the given movement type (TRANSFER for a transfer's departure)
+     */
+    public InventoryDTO deductInventoryQuantity(Long branchId, Long productId, BigDecimal quantityToDeduct, 
+                                             String remarks, Long userId, StockLedgerEntry.MovementType movementType) {
+        requirePositive(quantityToDeduct);
+        LocalDateTime now = LocalDateTime.now();
+        if (inventoryRepository.deductIfAvailable(branchId, productId, quantityToDeduct, now) == 0) {
+            BigDecimal available = inventoryRepository.findQuantity(branchId, productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Inventory not found for branch: " + branchId + " and product: " + productId));
+            throw new IllegalArgumentException("Insufficient inventory quantity. Available: " + available + 
                                              ", Required: " + quantityToDeduct);
         }
-        
-        BigDecimal newQuantity = inventory.getQuantity().subtract(quantityToDeduct);
-        inventory.setQuantity(newQuantity);
-        inventoryRepository.save(inventory);
+        BigDecimal newQuantity = currentQuantity(branchId, productId);
         
         // Create transaction record
         inventoryTransactionService.createAdjustmentTransaction(
                 branchId, productId, quantityToDeduct.negate(), remarks, userId);
+        stockLedgerService.record(branchId, productId, movementType, quantityToDeduct.negate(), remarks, userId);
         
         // Check for low stock alerts
-        checkAndCreateLowStockAlert(branchId, productId, newQuantity);
+        lowStockAlertService.onStockChange(branchId, productId, newQuantity.add(quantityToDeduct), newQuantity);
         
-        return convertToDTO(inventory);
+        return convertToDTO(branchId, productId, newQuantity, now);
     }
     
     @Transactional(readOnly = true)
@@ -212,41 +245,29 @@ public class InventoryService {
         lowStockAlertRepository.save(alert);
     }
     
-    private void checkAndCreateLowStockAlert(Long branchId, Long productId, BigDecimal currentQuantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + productId));
-        
-        if (product.getAlertQuantity().compareTo(BigDecimal.ZERO) > 0) {
-            // Check if there's already an unresolved alert for this product
-            Optional<LowStockAlert> existingAlert = lowStockAlertRepository
-                    .findUnresolvedAlertByBranchAndProduct(branchId, productId);
-            
-            if (currentQuantity.compareTo(product.getAlertQuantity()) <= 0) {
-                // Create or update low stock alert
-                LowStockAlert.AlertType alertType = currentQuantity.compareTo(BigDecimal.ZERO) == 0 ? 
-                        LowStockAlert.AlertType.OUT_OF_STOCK : LowStockAlert.AlertType.LOW_STOCK;
-                
-                if (existingAlert.isPresent()) {
-                    LowStockAlert alert = existingAlert.get();
-                    alert.setCurrentQuantity(currentQuantity);
-                    alert.setAlertType(alertType);
-                    lowStockAlertRepository.save(alert);
-                } else {
-                    LowStockAlert alert = new LowStockAlert(branchId, productId, currentQuantity, 
-                                                          product.getAlertQuantity(), alertType);
-                    lowStockAlertRepository.save(alert);
-                }
-            } else if (existingAlert.isPresent()) {
-                // Resolve existing alert if stock is now above threshold
-                LowStockAlert alert = existingAlert.get();
-                alert.setIsResolved(true);
-                alert.setResolvedAt(java.time.LocalDateTime.now());
-                lowStockAlertRepository.save(alert);
-            }
+    // Helper methods
+    private void requirePositive(BigDecimal quantity) {
+        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
         }
     }
     
-    // Helper methods
+    // The row's value after this transaction's update; the row stays locked by that update until commit
+    private BigDecimal currentQuantity(Long branchId, Long productId) {
+        return inventoryRepository.findQuantity(branchId, productId)
+                .orElseThrow(() -> new IllegalArgumentException("Inventory not found for branch: " + branchId + " and product: " + productId));
+    }
+    
+    // A managed entity loaded earlier in the transaction would still hold the old quantity
+    private InventoryDTO convertToDTO(Long branchId, Long productId, BigDecimal quantity, LocalDateTime lastUpdated) {
+        InventoryDTO dto = inventoryRepository.findByBranchIdAndProductId(branchId, productId)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new IllegalArgumentException("Inventory not found for branch: " + branchId + " and product: " + productId));
+        dto.setQuantity(quantity);
+        dto.setLastUpdated(lastUpdated);
+        return dto;
+    }
+    
     private InventoryDTO convertToDTO(Inventory inventory) {
         InventoryDTO dto = new InventoryDTO();
         dto.setId(inventory.getId());
@@ -4,6 +4,7 @@ import com.hexalyte.salon.dto.InventoryTransactionDTO;
 import com.hexalyte.salon.dto.PurchaseEntryDTO;
 import com.hexalyte.salon.model.Inventory;
 import com.hexalyte.salon.model.InventoryTransaction;
+import com.hexalyte.salon.model.StockLedgerEntry;
 import com.hexalyte.salon.repository.InventoryRepository;
 import com.hexalyte.salon.repository.InventoryTransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -94,9 +95,9 @@ public class InventoryTransactionService {
         
         // Update inventory quantities
         inventoryService.deductInventoryQuantity(fromBranchId, productId, quantity, 
-                "Transfer to branch " + toBranchId, createdBy);
+                "Transfer to branch " + toBranchId, createdBy, StockLedgerEntry.MovementType.TRANSFER);
         inventoryService.addInventoryQuantity(toBranchId, productId, quantity, 
-                "Transfer from branch " + fromBranchId, createdBy);
+                "Transfer from branch " + fromBranchId, createdBy, StockLedgerEntry.MovementType.TRANSFER);
         
         return convertToDTO(savedTransaction);
     }
@@ -44,6 +44,9 @@ public class InventoryUsageService {
     @Autowired
     private AppointmentRepository appointmentRepository;
     
+    @Autowired
+    private InventoryConsumptionPlanner inventoryConsumptionPlanner;
+    
     public InventoryUsageDTO recordProductUsage(Long appointmentId, Long serviceId, Long staffId, 
                                               Long branchId, Long productId, BigDecimal quantityUsed, 
                                               BigDecimal unitCost) {
@@ -157,45 +160,29 @@ public class InventoryUsageService {
                 .collect(Collectors.toList());
     }
     
-    public void trackInventoryUsageForAppointment(Long appointmentId) {
+    /**
+     * Consume the products mapped to the appointment's services as one batched unit of work, in the
+     * caller's transaction so consumption commits or rolls back together with the completion. Returns
+     * false, writing nothing, when the products cannot be resolved or the branch is short of stock.
+     */
+    public boolean trackInventoryUsageForAppointment(Long appointmentId) {
+        Appointment appointment = appointmentRepository.findById(appointmentId)
+                .orElseThrow(() -> new IllegalArgumentException("Appointment not found with id: " + appointmentId));
+
+        InventoryConsumptionPlanner.Plan plan;
         try {
-            // Get appointment details
-            Appointment appointment = appointmentRepository.findById(appointmentId)
-                    .orElseThrow(() -> new IllegalArgumentException("Appointment not found with id: " + appointmentId));
-            
-            // Get all services for this appointment
-            List<com.hexalyte.salon.model.AppointmentService> appointmentServices = appointment.getAppointmentServices();
-            
-            for (com.hexalyte.salon.model.AppointmentService appointmentService : appointmentServices) {
-                Long serviceId = appointmentService.getService().getId();
-                
-                // Get product mappings for this service
-                List<com.hexalyte.salon.dto.ServiceProductMappingDTO> mappings = serviceProductMappingService.getMappingsByService(serviceId);
-                
-                for (com.hexalyte.salon.dto.ServiceProductMappingDTO mapping : mappings) {
-                    Long productId = mapping.getProductId();
-                    BigDecimal defaultQuantity = mapping.getDefaultQuantity();
-                    
-                    // Get product details
-                    Product product = productRepository.findById(productId)
-                            .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + productId));
-                    
-                    // Record inventory usage
-                    recordProductUsage(
-                            appointmentId,
-                            serviceId,
-                            appointment.getStaff().getId(),
-                            appointment.getBranch().getId(),
-                            productId,
-                            defaultQuantity,
-                            product.getCostPrice()
-                    );
-                }
-            }
-        } catch (Exception e) {
+            plan = inventoryConsumptionPlanner.plan(appointment);
+        } catch (IllegalArgumentException e) {
             System.err.println("Error tracking inventory usage for appointment " + appointmentId + ": " + e.getMessage());
-            throw e;
+            return false;
+        }
+        List<String> shortfalls = inventoryConsumptionPlanner.checkAvailability(plan);
+        if (!shortfalls.isEmpty()) {
+            System.err.println("Inventory usage not tracked for appointment " + appointmentId + ": " + String.join("; ", shortfalls));
+            return false;
         }
+        inventoryConsumptionPlanner.apply(plan);
+        return true;
     }
     
     // Helper methods
@@ -1,9 +1,11 @@
 package com.hexalyte.salon.service;
 
 import com.hexalyte.salon.dto.LowStockAlertDTO;
+import com.hexalyte.salon.model.Branch;
 import com.hexalyte.salon.model.LowStockAlert;
 import com.hexalyte.salon.model.Inventory;
 import com.hexalyte.salon.model.Product;
+import com.hexalyte.salon.repository.BranchRepository;
 import com.hexalyte.salon.repository.LowStockAlertRepository;
 import com.hexalyte.salon.repository.InventoryRepository;
 import com.hexalyte.salon.repository.ProductRepository;
@@ -15,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,27 +33,85 @@ public class LowStockAlertService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private BranchRepository branchRepository;
+    
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private ProductThresholdTable productThresholdTable;
+    
     /**
-     * Check for low stock items and create alerts
-     * This method is called automatically every hour
+     * Raise, escalate or clear the branch's alert for a product when a stock change crosses the product's
+     * alert level or zero. Runs inside the stock mutation's transaction, which holds the inventory row, so
+     * each crossing is seen exactly once; changes that cross nothing cost no queries.
+     */
+    public void onStockChange(Long branchId, Long productId, BigDecimal oldQuantity, BigDecimal newQuantity) {
+        BigDecimal alertQuantity = productThresholdTable.alertQuantityOf(productId);
+        if (alertQuantity == null) {
+            return;
+        }
+        boolean wasLow = oldQuantity.compareTo(alertQuantity) <= 0;
+        boolean isLow = newQuantity.compareTo(alertQuantity) <= 0;
+        boolean wasOut = oldQuantity.signum() <= 0;
+        boolean isOut = newQuantity.signum() <= 0;
+        if (wasLow == isLow && wasOut == isOut) {
+            return;
+        }
+        
+        Optional<LowStockAlert> openAlert = lowStockAlertRepository.findUnresolvedAlertByBranchAndProduct(branchId, productId);
+        if (!isLow) {
+            // Back above the alert level
+            openAlert.ifPresent(alert -> {
+                alert.setCurrentQuantity(newQuantity);
+                alert.setIsResolved(true);
+                alert.setResolvedAt(LocalDateTime.now());
+                lowStockAlertRepository.save(alert);
+            });
+            return;
+        }
+        
+        LowStockAlert.AlertType alertType = isOut ? 
+                LowStockAlert.AlertType.OUT_OF_STOCK : LowStockAlert.AlertType.LOW_STOCK;
+        LowStockAlert alert;
+        boolean notify;
+        if (openAlert.isPresent()) {
+            alert = openAlert.get();
+            notify = isOut && alert.getAlertType() != LowStockAlert.AlertType.OUT_OF_STOCK;
+            alert.setCurrentQuantity(newQuantity);
+            alert.setAlertType(alertType);
+        } else {
+            alert = new LowStockAlert(branchId, productId, newQuantity, alertQuantity, alertType);
+            notify = true;
+        }
+        lowStockAlertRepository.save(alert);
+        
+        if (notify) {
+            Optional<Product> product = productRepository.findById(productId);
+            Optional<Branch> branch = branchRepository.findById(branchId);
+            if (product.isPresent() && branch.isPresent()) {
+                sendLowStockNotification(alert, branch.get(), product.get(), newQuantity);
+            }
+        }
+    }
+    
+    /**
+     * Reconcile alerts with stock. Crossings are handled as stock changes, so this only picks up what
+     * they could not see (an alert level edited under existing stock, rows changed outside the
+     * application): stock at or below its alert level without an open alert, and open alerts whose
+     * stock has recovered. Runs every hour.
      */
     @Scheduled(fixedRate = 3600000) // Run every hour
     public void checkLowStockAlerts() {
         try {
-            // Get all active products with alert quantities
-            List<Product> productsWithAlerts = productRepository.findActiveProductsWithAlertQuantity();
+            productThresholdTable.reload();
             
-            for (Product product : productsWithAlerts) {
-                // Get all inventory entries for this product
-                List<Inventory> inventoryEntries = inventoryRepository.findByProductId(product.getProductId());
-                
-                for (Inventory inventory : inventoryEntries) {
-                    checkAndCreateAlert(inventory, product);
-                }
+            for (Inventory inventory : inventoryRepository.findLowStockWithoutOpenAlert()) {
+                checkAndCreateAlert(inventory, inventory.getProduct());
             }
+            
+            lowStockAlertRepository.resolveRecoveredAlerts(LocalDateTime.now());
         } catch (Exception e) {
             System.err.println("Error checking low stock alerts: " + e.getMessage());
         }
@@ -86,7 +147,7 @@ public class LowStockAlertService {
                 lowStockAlertRepository.save(alert);
                 
                 // Send notification
-                sendLowStockNotification(alert, inventory, product);
+                sendLowStockNotification(alert, inventory.getBranch(), product, inventory.getQuantity());
             }
         } catch (Exception e) {
             System.err.println("Error creating low stock alert: " + e.getMessage());
@@ -152,21 +213,21 @@ public class LowStockAlertService {
     /**
      * Send low stock notification
      */
-    private void sendLowStockNotification(LowStockAlert alert, Inventory inventory, Product product) {
+    private void sendLowStockNotification(LowStockAlert alert, Branch branch, Product product, BigDecimal quantity) {
         try {
             String message = String.format(
                     "Low Stock Alert: %s (%s) in %s branch has %s %s remaining (Alert level: %s %s)",
                     product.getName(),
                     product.getCode(),
-                    inventory.getBranch().getBranchName(),
-                    inventory.getQuantity(),
+                    branch.getBranchName(),
+                    quantity,
                     product.getUom(),
                     product.getAlertQuantity(),
                     product.getUom()
             );
             
             // Send notification to branch managers and admins
-            notificationService.sendLowStockAlert(alert, message);
+            notificationService.sendLowStockAlert(alert, branch, message);
         } catch (Exception e) {
             System.err.println("Error sending low stock notification: " + e.getMessage());
         }
@@ -0,0 +1,309 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.dto.NotificationChannelMetricsDTO;
+import com.hexalyte.salon.model.NotificationOutbox;
+import com.hexalyte.salon.repository.NotificationOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the notification outbox on a bounded worker pool. Each drain task claims a batch of due
+ * messages for one channel, sends them through that channel's rate limiter and records the results
+ * with one bulk update; failed messages are retried with exponential backoff until they run out of
+ * attempts. Drains are triggered after every committing transaction that enqueued a message and by
+ * a short poll that picks up retries.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Object WAKE_UP_KEY = new Object();
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final Duration STALE_CLAIM_AGE = Duration.ofMinutes(10);
+    private static final int SENT_RETENTION_DAYS = 30;
+
+    @Value("${notification.dispatch.workers-per-channel:2}")
+    private int workersPerChannel;
+
+    @Value("${notification.dispatch.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.dispatch.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    @Value("${notification.rate-limit.email-per-second:5}")
+    private double emailPerSecond;
+
+    @Value("${notification.rate-limit.sms-per-second:10}")
+    private double smsPerSecond;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private List<NotificationTransport> transports;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<NotificationOutbox.Channel, ChannelState> channels = new EnumMap<>(NotificationOutbox.Channel.class);
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void startWorkers() {
+        for (NotificationOutbox.Channel channel : NotificationOutbox.Channel.values()) {
+            NotificationTransport transport = transports.stream()
+                    .filter(candidate -> candidate.supports(channel))
+                    .findFirst()
+                    .orElse(null);
+            double permitsPerSecond = channel == NotificationOutbox.Channel.SMS ? smsPerSecond : emailPerSecond;
+            channels.put(channel, new ChannelState(transport, workersPerChannel, permitsPerSecond));
+        }
+        // Submissions are capped by the per-channel semaphores, so the queue can never overflow
+        int poolSize = workersPerChannel * channels.size();
+        workers = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(poolSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        workers.shutdown();
+    }
+
+    /**
+     * Start draining once the current transaction commits (immediately when there is none).
+     * Registered at most once per transaction however many messages it enqueues.
+     */
+    public void dispatchAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            wakeUp();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(WAKE_UP_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WAKE_UP_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WAKE_UP_KEY);
+                if (status == STATUS_COMMITTED) {
+                    wakeUp();
+                }
+            }
+        });
+    }
+
+    // Poll for retries that became due and for messages committed by other nodes
+    @Scheduled(fixedDelay = 5000)
+    public void wakeUp() {
+        for (Map.Entry<NotificationOutbox.Channel, ChannelState> entry : channels.entrySet()) {
+            ChannelState state = entry.getValue();
+            if (state.drainPermits.tryAcquire()) {
+                workers.execute(() -> {
+                    try {
+                        drain(entry.getKey(), state);
+                    } catch (Exception e) {
+                        System.err.println("Notification drain failed for " + entry.getKey() + ": " + e.getMessage());
+                    } finally {
+                        state.drainPermits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void releaseStaleClaims() {
+        transactionTemplate.executeWithoutResult(status ->
+                notificationOutboxRepository.releaseStaleClaims(LocalDateTime.now().minus(STALE_CLAIM_AGE)));
+    }
+
+    @Scheduled(cron = "0 30 0 * * ?") // 12:30 AM daily
+    public void purgeSentMessages() {
+        transactionTemplate.executeWithoutResult(status ->
+                notificationOutboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(SENT_RETENTION_DAYS)));
+    }
+
+    public List<NotificationChannelMetricsDTO> getMetrics() {
+        List<NotificationChannelMetricsDTO> metrics = new ArrayList<>();
+        for (Map.Entry<NotificationOutbox.Channel, ChannelState> entry : channels.entrySet()) {
+            NotificationOutbox.Channel channel = entry.getKey();
+            ChannelState state = entry.getValue();
+            long sent = state.sent.get();
+
+            NotificationChannelMetricsDTO dto = new NotificationChannelMetricsDTO();
+            dto.setChannel(channel.name());
+            dto.setQueueDepth(notificationOutboxRepository.countByChannelAndStatus(channel, NotificationOutbox.OutboxStatus.PENDING));
+            dto.setInFlight(notificationOutboxRepository.countByChannelAndStatus(channel, NotificationOutbox.OutboxStatus.SENDING));
+            dto.setDeadLettered(notificationOutboxRepository.countByChannelAndStatus(channel, NotificationOutbox.OutboxStatus.FAILED));
+            dto.setSent(sent);
+            dto.setRetried(state.retried.get());
+            dto.setFailed(state.failed.get());
+            dto.setAverageSendMillis(sent > 0 ? state.totalSendMillis.get() / sent : 0);
+            dto.setAverageQueueLatencyMillis(sent > 0 ? state.totalQueueMillis.get() / sent : 0);
+            dto.setMaxQueueLatencyMillis(state.maxQueueMillis.get());
+            dto.setRateLimitPerSecond(state.rateLimiter.permitsPerSecond);
+            metrics.add(dto);
+        }
+        return metrics;
+    }
+
+    private void drain(NotificationOutbox.Channel channel, ChannelState state) {
+        while (true) {
+            List<NotificationOutbox> batch = claimBatch(channel);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<Long> sentIds = new ArrayList<>();
+            List<NotificationOutbox> failures = new ArrayList<>();
+            for (NotificationOutbox message : batch) {
+                state.rateLimiter.acquire();
+                long started = System.currentTimeMillis();
+                try {
+                    if (state.transport == null) {
+                        throw new IllegalStateException("No transport configured for channel " + channel);
+                    }
+                    state.transport.send(message);
+                    sentIds.add(message.getId());
+                    state.recordSent(System.currentTimeMillis() - started,
+                            Duration.between(message.getCreatedAt(), LocalDateTime.now()).toMillis());
+                } catch (Exception e) {
+                    failures.add(message);
+                    message.setLastError(e.getMessage());
+                }
+            }
+            recordResults(state, sentIds, failures);
+
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private List<NotificationOutbox> claimBatch(NotificationOutbox.Channel channel) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationOutbox> batch = notificationOutboxRepository.findDueForDispatch(channel, now, PageRequest.of(0, batchSize));
+            if (!batch.isEmpty()) {
+                notificationOutboxRepository.markSending(
+                        batch.stream().map(NotificationOutbox::getId).collect(Collectors.toList()), now);
+            }
+            return batch;
+        });
+    }
+
+    private void recordResults(ChannelState state, List<Long> sentIds, List<NotificationOutbox> failures) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                notificationOutboxRepository.markSent(sentIds, LocalDateTime.now());
+            }
+            for (NotificationOutbox message : failures) {
+                int attempts = message.getAttempts() + 1;
+                String error = message.getLastError() != null && message.getLastError().length() > 500
+                        ? message.getLastError().substring(0, 500)
+                        : message.getLastError();
+                if (attempts >= maxAttempts) {
+                    notificationOutboxRepository.markFailed(message.getId(), attempts, error);
+                    state.failed.incrementAndGet();
+                    System.err.println("Giving up on " + message.getChannel() + " notification " + message.getId()
+                            + " to " + message.getRecipient() + " after " + attempts + " attempts: " + error);
+                } else {
+                    notificationOutboxRepository.scheduleRetry(message.getId(), attempts, nextAttemptAt(attempts), error);
+                    state.retried.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    // Exponential backoff with up to 20% jitter so failed batches do not retry in lockstep
+    private LocalDateTime nextAttemptAt(int attempts) {
+        long delaySeconds = Math.min(MAX_BACKOFF.getSeconds(), backoffSeconds << Math.min(attempts - 1, 20));
+        long jitterSeconds = ThreadLocalRandom.current().nextLong(delaySeconds / 5 + 1);
+        return LocalDateTime.now().plusSeconds(delaySeconds + jitterSeconds);
+    }
+
+    private static class ChannelState {
+        private final NotificationTransport transport;
+        private final Semaphore drainPermits;
+        private final RateLimiter rateLimiter;
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong retried = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong totalSendMillis = new AtomicLong();
+        private final AtomicLong totalQueueMillis = new AtomicLong();
+        private final AtomicLong maxQueueMillis = new AtomicLong();
+
+        ChannelState(NotificationTransport transport, int workers, double permitsPerSecond) {
+            this.transport = transport;
+            this.drainPermits = new Semaphore(workers);
+            this.rateLimiter = new RateLimiter(permitsPerSecond);
+        }
+
+        void recordSent(long sendMillis, long queueMillis) {
+            sent.incrementAndGet();
+            totalSendMillis.addAndGet(sendMillis);
+            totalQueueMillis.addAndGet(queueMillis);
+            maxQueueMillis.accumulateAndGet(queueMillis, Math::max);
+        }
+    }
+
+    // Spaces sends evenly so a channel never exceeds its provider's rate limit
+    private static class RateLimiter {
+        private final double permitsPerSecond;
+        private final long intervalNanos;
+        private long nextFreeNanos = System.nanoTime();
+
+        RateLimiter(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.intervalNanos = permitsPerSecond > 0 ? (long) (1_000_000_000L / permitsPerSecond) : 0;
+        }
+
+        void acquire() {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(now, nextFreeNanos);
+                nextFreeNanos = slot + intervalNanos;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.hexalyte.salon.service;
 
 import com.hexalyte.salon.model.Appointment;
+import com.hexalyte.salon.model.NotificationOutbox;
+import com.hexalyte.salon.repository.NotificationOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Customer and staff notifications. Messages are written to the notification outbox in the caller's
+ * transaction and delivered asynchronously by {@link NotificationDispatcher}, so no request thread or
+ * database transaction waits on SMTP or SMS providers.
+ */
 @Service
 public class NotificationService {
 
     @Autowired
-    private EmailService emailService;
+    private NotificationOutboxRepository notificationOutboxRepository;
 
     @Autowired
-    private SmsService smsService;
+    private NotificationDispatcher notificationDispatcher;
 
     public void sendAppointmentConfirmation(Appointment appointment) {
         String message = String.format(
@@ -28,11 +38,11 @@ public class NotificationService {
         );
 
         // Send SMS
-        smsService.sendSms(appointment.getCustomer().getPhone(), message);
+        sendSms(appointment.getCustomer().getPhone(), message);
         
         // Send Email if available
         if (appointment.getCustomer().getEmail() != null && !appointment.getCustomer().getEmail().isEmpty()) {
-            emailService.sendEmail(appointment.getCustomer().getEmail(), "Appointment Confirmation", message);
+            sendEmail(appointment.getCustomer().getEmail(), "Appointment Confirmation", message);
         }
     }
 
@@ -45,10 +55,10 @@ public class NotificationService {
             appointment.getStartTime()
         );
 
-        smsService.sendSms(appointment.getCustomer().getPhone(), message);
+        sendSms(appointment.getCustomer().getPhone(), message);
         
         if (appointment.getCustomer().getEmail() != null && !appointment.getCustomer().getEmail().isEmpty()) {
-            emailService.sendEmail(appointment.getCustomer().getEmail(), "Appointment Status Update", message);
+            sendEmail(appointment.getCustomer().getEmail(), "Appointment Status Update", message);
         }
     }
 
@@ -60,10 +70,10 @@ public class NotificationService {
             appointment.getStartTime()
         );
 
-        smsService.sendSms(appointment.getCustomer().getPhone(), message);
+        sendSms(appointment.getCustomer().getPhone(), message);
         
         if (appointment.getCustomer().getEmail() != null && !appointment.getCustomer().getEmail().isEmpty()) {
-            emailService.sendEmail(appointment.getCustomer().getEmail(), "Appointment Cancelled", message);
+            sendEmail(appointment.getCustomer().getEmail(), "Appointment Cancelled", message);
         }
     }
 
@@ -76,16 +86,20 @@ public class NotificationService {
             appointment.getEndTime()
         );
 
-        smsService.sendSms(appointment.getCustomer().getPhone(), message);
+        sendSms(appointment.getCustomer().getPhone(), message);
         
         if (appointment.getCustomer().getEmail() != null && !appointment.getCustomer().getEmail().isEmpty()) {
-            emailService.sendEmail(appointment.getCustomer().getEmail(), "Appointment Rescheduled", message);
+            sendEmail(appointment.getCustomer().getEmail(), "Appointment Rescheduled", message);
         }
     }
 
     public void sendAppointmentReminder(Appointment appointment) {
+        // Worded from the actual date, as a day-before reminder can go out late on the day itself
+        long daysAhead = ChronoUnit.DAYS.between(LocalDate.now(), appointment.getAppointmentDate());
+        String when = daysAhead == 0 ? "today " : daysAhead == 1 ? "tomorrow " : "";
         String message = String.format(
-            "Reminder: You have an appointment tomorrow at %s on %s from %s to %s. Services: %s",
+            "Reminder: You have an appointment %sat %s on %s from %s to %s. Services: %s",
+            when,
             appointment.getBranch().getName(),
             appointment.getAppointmentDate(),
             appointment.getStartTime(),
@@ -96,10 +110,10 @@ public class NotificationService {
                 .orElse("")
         );
 
-        smsService.sendSms(appointment.getCustomer().getPhone(), message);
+        sendSms(appointment.getCustomer().getPhone(), message);
         
         if (appointment.getCustomer().getEmail() != null && !appointment.getCustomer().getEmail().isEmpty()) {
-            emailService.sendEmail(appointment.getCustomer().getEmail(), "Appointment Reminder", message);
+            sendEmail(appointment.getCustomer().getEmail(), "Appointment Reminder", message);
         }
     }
 
@@ -116,10 +130,10 @@ public class NotificationService {
             endTime
         );
 
-        smsService.sendSms(waitlist.getCustomer().getPhone(), message);
+        sendSms(waitlist.getCustomer().getPhone(), message);
         
         if (waitlist.getCustomer().getEmail() != null && !waitlist.getCustomer().getEmail().isEmpty()) {
-            emailService.sendEmail(waitlist.getCustomer().getEmail(), "Appointment Available", message);
+            sendEmail(waitlist.getCustomer().getEmail(), "Appointment Available", message);
         }
     }
 
@@ -134,19 +148,30 @@ public class NotificationService {
             appointment.getEndTime()
         );
 
-        smsService.sendSms(waitlist.getCustomer().getPhone(), message);
+        sendSms(waitlist.getCustomer().getPhone(), message);
         
         if (waitlist.getCustomer().getEmail() != null && !waitlist.getCustomer().getEmail().isEmpty()) {
-            emailService.sendEmail(waitlist.getCustomer().getEmail(), "Appointment Confirmed", message);
+            sendEmail(waitlist.getCustomer().getEmail(), "Appointment Confirmed", message);
         }
     }
 
     public void sendSms(String phoneNumber, String message) {
-        smsService.sendSms(phoneNumber, message);
+        if (phoneNumber == null || phoneNumber.isBlank()) {
+            return;
+        }
+        enqueue(new NotificationOutbox(NotificationOutbox.Channel.SMS, phoneNumber, null, message));
     }
 
     public void sendEmail(String email, String subject, String message) {
-        emailService.sendEmail(email, subject, message);
+        if (email == null || email.isBlank()) {
+            return;
+        }
+        enqueue(new NotificationOutbox(NotificationOutbox.Channel.EMAIL, email, subject, message));
+    }
+
+    private void enqueue(NotificationOutbox message) {
+        notificationOutboxRepository.save(message);
+        notificationDispatcher.dispatchAfterCommit();
     }
 
     public void sendFeedbackThankYouNotification(Appointment appointment, com.hexalyte.salon.model.AppointmentFeedback feedback) {
@@ -157,25 +182,23 @@ public class NotificationService {
             appointment.getAppointmentDate()
         );
 
-        smsService.sendSms(appointment.getCustomer().getPhone(), message);
+        sendSms(appointment.getCustomer().getPhone(), message);
         
         if (appointment.getCustomer().getEmail() != null && !appointment.getCustomer().getEmail().isEmpty()) {
-            emailService.sendEmail(appointment.getCustomer().getEmail(), "Thank You for Your Feedback", message);
+            sendEmail(appointment.getCustomer().getEmail(), "Thank You for Your Feedback", message);
         }
     }
     
-    public void sendLowStockAlert(com.hexalyte.salon.model.LowStockAlert alert, String message) {
-        try {
-            // Send notification to branch managers and admins
-            // This would typically involve sending emails or SMS to relevant staff
-            System.out.println("Low Stock Alert: " + message);
-            
-            // You can implement actual notification logic here
-            // For example, send email to branch manager or admin
-            // emailService.sendEmail(managerEmail, "Low Stock Alert", message);
-        } catch (Exception e) {
-            System.err.println("Error sending low stock alert notification: " + e.getMessage());
-        }
+    public void sendLowStockAlert(com.hexalyte.salon.model.LowStockAlert alert,
+                                  com.hexalyte.salon.model.Branch branch, String message) {
+        System.out.println("Low Stock Alert: " + message);
+
+        // Notify the branch manager, falling back to the branch's own address
+        String recipient = branch.getManager() != null && branch.getManager().getEmail() != null
+                && !branch.getManager().getEmail().isEmpty()
+                ? branch.getManager().getEmail()
+                : branch.getEmail();
+        sendEmail(recipient, "Low Stock Alert", message);
     }
 }
 
@@ -0,0 +1,14 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.model.NotificationOutbox;
+
+/**
+ * Delivers outbox messages over one or more channels. Implementations throw on failure so the
+ * dispatcher can retry the message with backoff.
+ */
+public interface NotificationTransport {
+
+    boolean supports(NotificationOutbox.Channel channel);
+
+    void send(NotificationOutbox message) throws Exception;
+}
@@ -20,6 +20,9 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductThresholdTable productThresholdTable;
+    
     public ProductDTO createProduct(ProductDTO productDTO) {
         // Check if product code already exists
         if (productRepository.existsByCode(productDTO.getCode())) {
@@ -28,6 +31,7 @@ public class ProductService {
         
         Product product = convertToEntity(productDTO);
         Product savedProduct = productRepository.save(product);
+        productThresholdTable.reloadAfterCommit();
         return convertToDTO(savedProduct);
     }
     
@@ -54,6 +58,7 @@ public class ProductService {
         existingProduct.setStatus(Product.ProductStatus.valueOf(productDTO.getStatus()));
         
         Product savedProduct = productRepository.save(existingProduct);
+        productThresholdTable.reloadAfterCommit();
         return convertToDTO(savedProduct);
     }
     
@@ -130,6 +135,7 @@ public class ProductService {
         // For now, we'll just deactivate the product
         product.setStatus(Product.ProductStatus.INACTIVE);
         productRepository.save(product);
+        productThresholdTable.reloadAfterCommit();
     }
     
     public void activateProduct(Long productId) {
@@ -138,6 +144,7 @@ public class ProductService {
         
         product.setStatus(Product.ProductStatus.ACTIVE);
         productRepository.save(product);
+        productThresholdTable.reloadAfterCommit();
     }
     
     // Helper methods
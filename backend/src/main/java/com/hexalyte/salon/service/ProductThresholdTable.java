@@ -0,0 +1,100 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Alert levels of the active products, held in memory so the stock-mutation path can detect low-stock
+ * crossings without reading the product. The table is swapped atomically after a product change commits
+ * locally, and within a minute when products change through another instance.
+ */
+@Service
+public class ProductThresholdTable {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final AtomicReference<Thresholds> table = new AtomicReference<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Reload the alert levels of the active products
+     */
+    public void reload() {
+        Object fingerprint = fingerprint();
+        Map<Long, BigDecimal> alertQuantities = new HashMap<>();
+        for (Object[] row : productRepository.findAlertThresholds()) {
+            alertQuantities.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        table.set(new Thresholds(alertQuantities, fingerprint));
+    }
+
+    /**
+     * Reload once the transaction that changed a product has committed
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    // Pick up product changes made through other instances
+    @Scheduled(fixedDelay = 60000) // 1 minute in milliseconds
+    public void refreshIfChanged() {
+        Thresholds current = table.get();
+        if (current == null || !current.fingerprint.equals(fingerprint())) {
+            reload();
+        }
+    }
+
+    /**
+     * Alert quantity of the product, or null when it is inactive or has no alert level
+     */
+    public BigDecimal alertQuantityOf(Long productId) {
+        Thresholds thresholds = table.get();
+        if (thresholds == null) {
+            reload();
+            thresholds = table.get();
+        }
+        return thresholds.alertQuantities.get(productId);
+    }
+
+    private Object fingerprint() {
+        List<Object[]> rows = productRepository.getThresholdFingerprint();
+        return rows.isEmpty() ? List.of() : Arrays.asList(rows.get(0));
+    }
+
+    private static final class Thresholds {
+        private final Map<Long, BigDecimal> alertQuantities;
+        private final Object fingerprint;
+
+        Thresholds(Map<Long, BigDecimal> alertQuantities, Object fingerprint) {
+            this.alertQuantities = Map.copyOf(alertQuantities);
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -1,29 +1,35 @@
 package com.hexalyte.salon.service;
 
+import com.hexalyte.salon.model.NotificationOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 @Service
-public class SmsService {
+@ConditionalOnProperty(name = "notification.transport", havingValue = "live", matchIfMissing = true)
+public class SmsService implements NotificationTransport {
 
-    public void sendSms(String phoneNumber, String message) {
-        try {
-            // TODO: Integrate with actual SMS provider (Twilio, etc.)
-            // For now, just log the message
-            System.out.println("SMS to " + phoneNumber + ": " + message);
-            
-            // In production, this would be:
-            // Twilio.init(accountSid, authToken);
-            // Message.creator(
-            //     new PhoneNumber(phoneNumber),
-            //     new PhoneNumber("+1234567890"), // Your Twilio number
-            //     message
-            // ).create();
-            
-        } catch (Exception e) {
-            // Log error but don't throw exception to avoid breaking appointment flow
-            System.err.println("Failed to send SMS to " + phoneNumber + ": " + e.getMessage());
-        }
+    @Override
+    public boolean supports(NotificationOutbox.Channel channel) {
+        return channel == NotificationOutbox.Channel.SMS;
     }
-}
 
+    @Override
+    public void send(NotificationOutbox message) {
+        sendSms(message.getRecipient(), message.getBody());
+    }
 
+    // Failures propagate to the notification dispatcher, which retries with backoff
+    public void sendSms(String phoneNumber, String message) {
+        // TODO: Integrate with actual SMS provider (Twilio, etc.)
+        // For now, just log the message
+        System.out.println("SMS to " + phoneNumber + ": " + message);
+
+        // In production, this would be:
+        // Twilio.init(accountSid, authToken);
+        // Message.creator(
+        //     new PhoneNumber(phoneNumber),
+        //     new PhoneNumber("+1234567890"), // Your Twilio number
+        //     message
+        // ).create();
+    }
+}
@@ -0,0 +1,368 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.model.Appointment;
+import com.hexalyte.salon.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of booked time ranges per staff member and day, used for read-side availability
+ * and slot listing. A day schedule is loaded from the database on first use and afterwards kept
+ * current by {@link AppointmentService} once a booking change commits; bookings made on other
+ * instances show up when the schedule is reloaded after {@code SCHEDULE_TTL_MS}. Booking conflicts
+ * on the write path are checked against the database, not against this index.
+ */
+@Service
+public class StaffScheduleIndex {
+
+    private static final long SCHEDULE_TTL_MS = 10 * 60 * 1000; // Reload a day schedule after 10 minutes
+
+    private final ConcurrentHashMap<ScheduleKey, StaffDaySchedule> schedules = new ConcurrentHashMap<>();
+    // Bumped on every committed change; a load that overlapped one is not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    /**
+     * Get the booked ranges for a staff member on a day, loading them once if not indexed yet
+     */
+    public StaffDaySchedule getSchedule(Long staffId, LocalDate date) {
+        ScheduleKey key = new ScheduleKey(staffId, date);
+        StaffDaySchedule schedule = schedules.get(key);
+        if (schedule == null || schedule.isExpired()) {
+            long loadedGeneration = generation.get();
+            schedule = StaffDaySchedule.of(appointmentRepository.findStaffBookingsForScheduleIndex(staffId, date));
+            cache(key, schedule, loadedGeneration);
+        }
+        return schedule;
+    }
+
+    /**
+     * Get day schedules for several staff members, loading all missing ones with a single query
+     */
+    public Map<Long, StaffDaySchedule> getSchedules(List<Long> staffIds, LocalDate date) {
+        return getSchedules(staffIds, date, date).get(date);
+    }
+
+    /**
+     * Get day schedules for several staff members over a date range (inclusive), keyed by date and
+     * then staff id. All missing staff/day schedules are loaded with a single range query.
+     */
+    public Map<LocalDate, Map<Long, StaffDaySchedule>> getSchedules(List<Long> staffIds, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Map<Long, StaffDaySchedule>> result = new TreeMap<>();
+        List<ScheduleKey> missingKeys = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            Map<Long, StaffDaySchedule> daySchedules = new HashMap<>();
+            result.put(date, daySchedules);
+            for (Long staffId : staffIds) {
+                ScheduleKey key = new ScheduleKey(staffId, date);
+                StaffDaySchedule schedule = schedules.get(key);
+                if (schedule == null || schedule.isExpired()) {
+                    missingKeys.add(key);
+                } else {
+                    daySchedules.put(staffId, schedule);
+                }
+            }
+        }
+
+        if (!missingKeys.isEmpty()) {
+            long loadedGeneration = generation.get();
+            Set<Long> missingStaffIds = missingKeys.stream().map(key -> key.staffId).collect(Collectors.toSet());
+            LocalDate loadFrom = missingKeys.stream().map(key -> key.date).min(LocalDate::compareTo).get();
+            LocalDate loadTo = missingKeys.stream().map(key -> key.date).max(LocalDate::compareTo).get();
+            Map<ScheduleKey, List<Appointment>> bookingsByKey = appointmentRepository
+                    .findStaffBookingsForScheduleIndex(missingStaffIds, loadFrom, loadTo).stream()
+                    .collect(Collectors.groupingBy(appointment ->
+                            new ScheduleKey(appointment.getStaff().getId(), appointment.getAppointmentDate())));
+            for (ScheduleKey key : missingKeys) {
+                StaffDaySchedule schedule = StaffDaySchedule.of(bookingsByKey.getOrDefault(key, List.of()));
+                cache(key, schedule, loadedGeneration);
+                result.get(key.date).put(key.staffId, schedule);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Day schedules read straight from the database for a staff member over a date range (inclusive),
+     * bypassing the index. Used by conflict checks that run under the staff booking lock.
+     */
+    public Map<LocalDate, StaffDaySchedule> loadSchedules(Long staffId, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, List<Appointment>> bookingsByDate = appointmentRepository
+                .findStaffBookingsForScheduleIndex(List.of(staffId), startDate, endDate).stream()
+                .collect(Collectors.groupingBy(Appointment::getAppointmentDate));
+        Map<LocalDate, StaffDaySchedule> result = new TreeMap<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            result.put(date, StaffDaySchedule.of(bookingsByDate.getOrDefault(date, List.of())));
+        }
+        return result;
+    }
+
+    /**
+     * Re-index an appointment after it was created or changed. Once the surrounding transaction
+     * commits, the entry is removed from the staff/day it previously occupied and, unless cancelled
+     * or a no-show, added to its current one. Nothing changes if the transaction rolls back.
+     */
+    public void reindex(Appointment appointment, Long previousStaffId, LocalDate previousDate) {
+        Long appointmentId = appointment.getId();
+        ScheduleKey currentKey = new ScheduleKey(appointment.getStaff().getId(), appointment.getAppointmentDate());
+        ScheduleKey previousKey = previousStaffId != null && previousDate != null
+                ? new ScheduleKey(previousStaffId, previousDate) : null;
+        // Built now, while the appointment's customer and services can still be loaded
+        BookedInterval interval = isBlocking(appointment.getStatus()) ? BookedInterval.from(appointment) : null;
+        afterCommit(() -> {
+            if (previousKey != null) {
+                removeFrom(previousKey, appointmentId);
+            }
+            removeFrom(currentKey, appointmentId);
+            StaffDaySchedule schedule = schedules.get(currentKey);
+            if (schedule != null && interval != null) {
+                schedule.add(interval);
+            }
+        });
+    }
+
+    /**
+     * Drop a deleted appointment from the index once the deletion commits
+     */
+    public void remove(Long appointmentId, Long staffId, LocalDate date) {
+        ScheduleKey key = new ScheduleKey(staffId, date);
+        afterCommit(() -> removeFrom(key, appointmentId));
+    }
+
+    // Drop schedules for past days and ones that have not been reloaded recently
+    @Scheduled(fixedRate = 900000) // 15 minutes in milliseconds
+    public void evictStaleSchedules() {
+        LocalDate today = LocalDate.now();
+        schedules.entrySet().removeIf(entry -> entry.getKey().date.isBefore(today) || entry.getValue().isExpired());
+    }
+
+    private void removeFrom(ScheduleKey key, Long appointmentId) {
+        StaffDaySchedule schedule = schedules.get(key);
+        if (schedule != null) {
+            schedule.remove(appointmentId);
+        }
+    }
+
+    // Keep a freshly loaded schedule unless a change committed while it was being read
+    private void cache(ScheduleKey key, StaffDaySchedule schedule, long loadedGeneration) {
+        schedules.put(key, schedule);
+        if (generation.get() != loadedGeneration) {
+            schedules.remove(key, schedule);
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generation.incrementAndGet();
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                generation.incrementAndGet();
+                change.run();
+            }
+        });
+    }
+
+    static boolean isBlocking(Appointment.Status status) {
+        return status != Appointment.Status.CANCELLED && status != Appointment.Status.NO_SHOW;
+    }
+
+    static int toMinute(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    /**
+     * Booked ranges of one staff member on one day, ordered by start minute
+     */
+    public static class StaffDaySchedule {
+
+        private static final Comparator<BookedInterval> ORDER = Comparator
+                .comparingInt((BookedInterval interval) -> interval.startMinute)
+                .thenComparingLong(interval -> interval.appointmentId);
+
+        private final TreeSet<BookedInterval> intervals = new TreeSet<>(ORDER);
+        private final long loadedAt = System.currentTimeMillis();
+        // Longest booking seen; bounds how far back an overlap lookup has to walk
+        private int longestMinutes;
+        private List<int[]> freeIntervals;
+        private int freeIntervalsOpen;
+        private int freeIntervalsClose;
+
+        static StaffDaySchedule of(List<Appointment> appointments) {
+            StaffDaySchedule schedule = new StaffDaySchedule();
+            for (Appointment appointment : appointments) {
+                schedule.add(BookedInterval.from(appointment));
+            }
+            return schedule;
+        }
+
+        /**
+         * True when no booking other than the excluded one overlaps [startMinute, endMinute)
+         */
+        public synchronized boolean isFree(int startMinute, int endMinute, Long excludeAppointmentId) {
+            BookedInterval probe = new BookedInterval(Long.MIN_VALUE, endMinute, endMinute, null, null);
+            for (BookedInterval interval : intervals.headSet(probe, false).descendingSet()) {
+                if (interval.startMinute + longestMinutes <= startMinute) {
+                    break;
+                }
+                if (interval.endMinute > startMinute && !interval.appointmentId.equals(excludeAppointmentId)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public synchronized List<BookedInterval> getBookings() {
+            return new ArrayList<>(intervals);
+        }
+
+        /**
+         * Free gaps between bookings inside opening hours as [start, end) minute pairs.
+         * Computed once per opening-hours window and reused until the schedule changes.
+         */
+        public synchronized List<int[]> getFreeIntervals(int openMinute, int closeMinute) {
+            if (freeIntervals != null && freeIntervalsOpen == openMinute && freeIntervalsClose == closeMinute) {
+                return freeIntervals;
+            }
+            List<int[]> gaps = new ArrayList<>();
+            int cursor = openMinute;
+            for (BookedInterval interval : intervals) {
+                if (interval.startMinute >= closeMinute) {
+                    break;
+                }
+                if (interval.startMinute > cursor) {
+                    gaps.add(new int[]{cursor, interval.startMinute});
+                }
+                cursor = Math.max(cursor, interval.endMinute);
+            }
+            if (cursor < closeMinute) {
+                gaps.add(new int[]{cursor, closeMinute});
+            }
+            freeIntervals = List.copyOf(gaps);
+            freeIntervalsOpen = openMinute;
+            freeIntervalsClose = closeMinute;
+            return freeIntervals;
+        }
+
+        synchronized void add(BookedInterval interval) {
+            intervals.add(interval);
+            longestMinutes = Math.max(longestMinutes, interval.endMinute - interval.startMinute);
+            freeIntervals = null;
+        }
+
+        synchronized void remove(Long appointmentId) {
+            intervals.removeIf(interval -> interval.appointmentId.equals(appointmentId));
+            freeIntervals = null;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - loadedAt > SCHEDULE_TTL_MS;
+        }
+    }
+
+    /**
+     * A single booked range together with the labels shown on the availability grid
+     */
+    public static class BookedInterval {
+
+        private final Long appointmentId;
+        private final int startMinute;
+        private final int endMinute;
+        private final String customerName;
+        private final String serviceNames;
+
+        BookedInterval(Long appointmentId, int startMinute, int endMinute, String customerName, String serviceNames) {
+            this.appointmentId = appointmentId;
+            this.startMinute = startMinute;
+            this.endMinute = endMinute;
+            this.customerName = customerName;
+            this.serviceNames = serviceNames;
+        }
+
+        static BookedInterval from(Appointment appointment) {
+            return new BookedInterval(
+                    appointment.getId(),
+                    toMinute(appointment.getStartTime()),
+                    toMinute(appointment.getEndTime()),
+                    appointment.getCustomer().getFullName(),
+                    appointment.getAppointmentServices().stream()
+                            .map(appService -> appService.getService().getName())
+                            .collect(Collectors.joining(", ")));
+        }
+
+        public Long getAppointmentId() {
+            return appointmentId;
+        }
+
+        public int getStartMinute() {
+            return startMinute;
+        }
+
+        public int getEndMinute() {
+            return endMinute;
+        }
+
+        public LocalTime getStartTime() {
+            return LocalTime.ofSecondOfDay(startMinute * 60L);
+        }
+
+        public LocalTime getEndTime() {
+            return LocalTime.ofSecondOfDay((endMinute % (24 * 60)) * 60L);
+        }
+
+        public String getCustomerName() {
+            return customerName;
+        }
+
+        public String getServiceNames() {
+            return serviceNames;
+        }
+    }
+
+    private static final class ScheduleKey {
+
+        private final Long staffId;
+        private final LocalDate date;
+
+        ScheduleKey(Long staffId, LocalDate date) {
+            this.staffId = staffId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ScheduleKey)) return false;
+            ScheduleKey other = (ScheduleKey) o;
+            return staffId.equals(other.staffId) && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(staffId, date);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.dto.HistoricalStockDTO;
+import com.hexalyte.salon.dto.StockHistoryDTO;
+import com.hexalyte.salon.model.Branch;
+import com.hexalyte.salon.model.Inventory;
+import com.hexalyte.salon.model.Product;
+import com.hexalyte.salon.model.StockLedgerEntry;
+import com.hexalyte.salon.repository.BranchRepository;
+import com.hexalyte.salon.repository.InventoryRepository;
+import com.hexalyte.salon.repository.ProductRepository;
+import com.hexalyte.salon.repository.StockLedgerRepository;
+import com.hexalyte.salon.repository.StockSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only stock ledger with periodic per-branch snapshots. Every inventory quantity change appends
+ * an entry in the same transaction; stock at any instant is the nearest earlier snapshot plus the
+ * entries after it. Snapshots are taken daily at midnight and, in between, once a branch has recorded
+ * enough movements since its last one.
+ * <p>
+ * Stock that predates the ledger is opened with one OPENING entry per row, dated at the row's
+ * last_updated (or the branch's latest snapshot, if later). Nothing is known about the stock before that
+ * instant, so point-in-time queries for earlier dates report those products as zero.
+ */
+@Service
+@Transactional
+public class StockLedgerService {
+
+    private static final String SNAPSHOT_SQL =
+        "INSERT IGNORE INTO stock_snapshot (branch_id, product_id, snapshot_at, quantity, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String ENTRY_SQL =
+        "INSERT INTO stock_ledger_entry (branch_id, product_id, movement_type, quantity_change, reference, user_id, occurred_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int SNAPSHOT_GRACE_MINUTES = 5; // Lets in-flight movements commit before a snapshot instant is summed
+    private static final int MAX_HISTORY_DAYS = 366;
+
+    @Value("${inventory.ledger.snapshot-every:1000}")
+    private long snapshotEvery;
+
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Append one quantity change; zero changes are not recorded
+     */
+    public void record(Long branchId, Long productId, StockLedgerEntry.MovementType movementType,
+                       BigDecimal quantityChange, String reference, Long userId) {
+        if (quantityChange.signum() != 0) {
+            stockLedgerRepository.save(new StockLedgerEntry(branchId, productId, movementType, quantityChange,
+                reference, userId, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Append one change per product as a single JDBC batch
+     */
+    public void recordBatch(Long branchId, Map<Long, BigDecimal> quantityChanges, StockLedgerEntry.MovementType movementType,
+                            String reference, Long userId, LocalDateTime occurredAt) {
+        List<Object[]> entries = new ArrayList<>();
+        quantityChanges.forEach((productId, quantityChange) -> {
+            if (quantityChange.signum() != 0) {
+                entries.add(new Object[] {branchId, productId, movementType.name(), quantityChange, reference, userId,
+                    Timestamp.valueOf(occurredAt)});
+            }
+        });
+        if (!entries.isEmpty()) {
+            jdbcTemplate.batchUpdate(ENTRY_SQL, entries);
+        }
+    }
+
+    // Stock that existed before the ledger gets an opening entry, so the ledger sums to the inventory
+    @EventListener(ApplicationReadyEvent.class)
+    public void openLedgerOnStartup() {
+        int opened = stockLedgerRepository.openUntrackedStock(LocalDateTime.now());
+        if (opened > 0) {
+            System.err.println("Stock ledger opened for " + opened + " inventory rows without ledger history");
+        }
+    }
+
+    /**
+     * Stock per product before the given instant
+     */
+    @Transactional(readOnly = true)
+    public HistoricalStockDTO getStockAsOf(Long branchId, LocalDateTime asOf) {
+        LocalDateTime snapshotAt = stockSnapshotRepository.findLatestSnapshotAt(branchId, asOf);
+        Map<Long, BigDecimal> stock = replay(branchId, snapshotAt, asOf);
+
+        HistoricalStockDTO result = new HistoricalStockDTO(branchId, asOf, snapshotAt);
+        Map<Long, Product> products = loadProducts(stock.keySet());
+        stock.forEach((productId, quantity) -> result.getLines().add(toLine(productId, quantity, products)));
+        return result;
+    }
+
+    /**
+     * Closing stock of a product for each day from fromDate to toDate, inclusive
+     */
+    @Transactional(readOnly = true)
+    public StockHistoryDTO getStockHistory(Long branchId, Long productId, LocalDate fromDate, LocalDate toDate) {
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("History end date cannot be before its start date");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_HISTORY_DAYS) {
+            throw new IllegalArgumentException("Stock history is limited to " + MAX_HISTORY_DAYS + " days");
+        }
+
+        LocalDateTime start = fromDate.atStartOfDay();
+        LocalDateTime snapshotAt = stockSnapshotRepository.findLatestSnapshotAt(branchId, start);
+        BigDecimal quantity = replay(branchId, snapshotAt, start).getOrDefault(productId, BigDecimal.ZERO);
+
+        Map<LocalDate, BigDecimal> dailyChanges = new HashMap<>();
+        for (Object[] row : stockLedgerRepository.sumDailyChanges(branchId, productId, start, toDate.plusDays(1).atStartOfDay())) {
+            dailyChanges.put(((java.sql.Date) row[0]).toLocalDate(), (BigDecimal) row[1]);
+        }
+
+        StockHistoryDTO history = new StockHistoryDTO(branchId, productId, fromDate, toDate);
+        history.setOpeningQuantity(quantity);
+        for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+            BigDecimal change = dailyChanges.getOrDefault(date, BigDecimal.ZERO);
+            quantity = quantity.add(change);
+            history.getPoints().add(new StockHistoryDTO.Point(date, change, quantity));
+        }
+        return history;
+    }
+
+    /**
+     * Products whose inventory quantity disagrees with the ledger
+     */
+    @Transactional(readOnly = true)
+    public HistoricalStockDTO reconcile(Long branchId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime snapshotAt = stockSnapshotRepository.findLatestSnapshotAt(branchId, now);
+        Map<Long, BigDecimal> ledger = replay(branchId, snapshotAt, now);
+        Map<Long, BigDecimal> inventory = inventoryRepository.findByBranchId(branchId).stream()
+            .collect(Collectors.toMap(Inventory::getProductId, Inventory::getQuantity));
+
+        Set<Long> productIds = new TreeSet<>(ledger.keySet());
+        productIds.addAll(inventory.keySet());
+        Map<Long, BigDecimal[]> mismatches = new TreeMap<>();
+        for (Long productId : productIds) {
+            BigDecimal ledgerQuantity = ledger.getOrDefault(productId, BigDecimal.ZERO);
+            BigDecimal inventoryQuantity = inventory.getOrDefault(productId, BigDecimal.ZERO);
+            if (ledgerQuantity.compareTo(inventoryQuantity) != 0) {
+                mismatches.put(productId, new BigDecimal[] {ledgerQuantity, inventoryQuantity});
+            }
+        }
+
+        HistoricalStockDTO result = new HistoricalStockDTO(branchId, now, snapshotAt);
+        Map<Long, Product> products = loadProducts(mismatches.keySet());
+        mismatches.forEach((productId, quantities) -> {
+            HistoricalStockDTO.Line line = toLine(productId, quantities[0], products);
+            line.setInventoryQuantity(quantities[1]);
+            result.getLines().add(line);
+        });
+        return result;
+    }
+
+    /**
+     * Snapshot every branch that is due: one without a snapshot at or after last midnight, or one that
+     * has recorded snapshot-every movements since its last snapshot. Returns the number of snapshots taken.
+     */
+    @Scheduled(cron = "0 5 * * * *") // Every hour at five past
+    public int takeDueSnapshots() {
+        LocalDateTime now = LocalDateTime.now();
+        stockLedgerRepository.openUntrackedStock(now);
+
+        LocalDateTime cutoff = now.minusMinutes(SNAPSHOT_GRACE_MINUTES).truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime midnight = cutoff.toLocalDate().atStartOfDay();
+        int taken = 0;
+        for (Branch branch : branchRepository.findAll()) {
+            Long branchId = branch.getId();
+            LocalDateTime last = stockSnapshotRepository.findLatestSnapshotAt(branchId, cutoff);
+            if (last == null || last.isBefore(midnight)) {
+                takeSnapshot(branchId, midnight);
+                taken++;
+            } else if (last.isBefore(cutoff) && stockLedgerRepository.countSince(branchId, last) >= snapshotEvery) {
+                takeSnapshot(branchId, cutoff);
+                taken++;
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Store the branch's stock before the given instant as a snapshot
+     */
+    public void takeSnapshot(Long branchId, LocalDateTime snapshotAt) {
+        Map<Long, BigDecimal> stock = replay(branchId, stockSnapshotRepository.findLatestSnapshotAt(branchId, snapshotAt), snapshotAt);
+        Timestamp at = Timestamp.valueOf(snapshotAt);
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        stock.forEach((productId, quantity) -> rows.add(new Object[] {branchId, productId, at, quantity, createdAt}));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(SNAPSHOT_SQL, rows);
+        }
+    }
+
+    // Snapshot quantities (none when snapshotAt is null) plus the entries in [snapshotAt, asOf)
+    private Map<Long, BigDecimal> replay(Long branchId, LocalDateTime snapshotAt, LocalDateTime asOf) {
+        Map<Long, BigDecimal> stock = new TreeMap<>();
+        if (snapshotAt != null) {
+            for (Object[] row : stockSnapshotRepository.findQuantities(branchId, snapshotAt)) {
+                stock.put((Long) row[0], (BigDecimal) row[1]);
+            }
+        }
+        for (Object[] row : stockLedgerRepository.sumChangesByProduct(branchId, snapshotAt, asOf)) {
+            stock.merge((Long) row[0], (BigDecimal) row[1], BigDecimal::add);
+        }
+        return stock;
+    }
+
+    private Map<Long, Product> loadProducts(Iterable<Long> productIds) {
+        return productRepository.findAllById(productIds).stream()
+            .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+    }
+
+    private static HistoricalStockDTO.Line toLine(Long productId, BigDecimal quantity, Map<Long, Product> products) {
+        HistoricalStockDTO.Line line = new HistoricalStockDTO.Line();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        Product product = products.get(productId);
+        if (product != null) {
+            line.setProductName(product.getName());
+            line.setProductCode(product.getCode());
+            line.setProductUom(product.getUom());
+        }
+        return line;
+    }
+
+}
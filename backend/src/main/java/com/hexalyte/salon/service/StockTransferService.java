@@ -0,0 +1,319 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.dto.StockTransferOrderDTO;
+import com.hexalyte.salon.dto.StockTransferOrderDTO.TransferLineDTO;
+import com.hexalyte.salon.model.Branch;
+import com.hexalyte.salon.model.StockLedgerEntry;
+import com.hexalyte.salon.repository.BranchRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Transfer orders: many (product, from branch, to branch, quantity) lines applied in one transaction.
+ * The existing inventory rows the order touches are locked by one query in (branch, product) order, and
+ * lines are checked against the locked quantities in order. Destination rows a passing line needs but
+ * that do not exist yet are then inserted, in key order, in the same transaction, so a failed or cancelled
+ * order leaves no empty rows behind. The trade-off is that two orders creating the same destination row
+ * at once can still deadlock inside InnoDB; the losing order is retried from the start. The stock changes,
+ * transaction rows and ledger entries of the lines that pass are each written as one JDBC batch.
+ */
+@Service
+@Transactional
+public class StockTransferService {
+
+    private static final String UPDATE_SQL =
+        "UPDATE inventory SET quantity = quantity + ?, last_updated = ? WHERE branch_id = ? AND product_id = ?";
+    private static final String INSERT_SQL =
+        "INSERT INTO inventory (branch_id, product_id, quantity, last_updated) VALUES (?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), last_updated = VALUES(last_updated)";
+    private static final String TRANSACTION_SQL =
+        "INSERT INTO inventory_transaction (branch_id, product_id, type, quantity, reference_number, remarks, created_by, created_at) " +
+        "VALUES (?, ?, 'TRANSFER', ?, ?, ?, ?, ?)";
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private BranchRepository branchRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private LowStockAlertService lowStockAlertService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate orderTransaction;
+
+    @PostConstruct
+    public void init() {
+        orderTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Apply the order's passing lines in one transaction and report every line's outcome, retrying the
+     * whole order when it loses a lock conflict
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StockTransferOrderDTO processTransferOrder(StockTransferOrderDTO order) {
+        if (order.getLines() == null || order.getLines().isEmpty()) {
+            throw new IllegalArgumentException("Transfer lines are required");
+        }
+        if (order.getCreatedBy() == null) {
+            throw new IllegalArgumentException("Created by is required");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return orderTransaction.execute(status -> applyOrder(order));
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                System.err.println("Transfer order " + order.getReferenceNumber() + " lost a lock conflict, retrying: " + e.getMessage());
+            }
+        }
+    }
+
+    private StockTransferOrderDTO applyOrder(StockTransferOrderDTO order) {
+        List<TransferLineDTO> lines = order.getLines();
+
+        Set<Long> branchIds = new TreeSet<>();
+        for (TransferLineDTO line : lines) {
+            if (line.getFromBranchId() != null) {
+                branchIds.add(line.getFromBranchId());
+            }
+            if (line.getToBranchId() != null) {
+                branchIds.add(line.getToBranchId());
+            }
+        }
+        Set<Long> knownBranches = branchRepository.findAllById(branchIds).stream()
+            .map(Branch::getId)
+            .collect(Collectors.toSet());
+
+        // Lock every existing row a well-formed line touches, then check the lines in order against what is left.
+        // Only existing rows are locked, so the locking read takes record locks and no gap locks.
+        Set<StockKey> keys = new TreeSet<>();
+        for (TransferLineDTO line : lines) {
+            if (shapeError(line, knownBranches) == null) {
+                keys.add(new StockKey(line.getFromBranchId(), line.getProductId()));
+                keys.add(new StockKey(line.getToBranchId(), line.getProductId()));
+            }
+        }
+        Map<StockKey, BigDecimal> locked = lockRows(existingKeys(keys));
+        Map<StockKey, BigDecimal> available = new HashMap<>(locked);
+
+        for (TransferLineDTO line : lines) {
+            String error = shapeError(line, knownBranches);
+            if (error == null) {
+                StockKey source = new StockKey(line.getFromBranchId(), line.getProductId());
+                StockKey destination = new StockKey(line.getToBranchId(), line.getProductId());
+                BigDecimal onHand = available.get(source);
+                if (onHand == null) {
+                    error = "Branch " + line.getFromBranchId() + " holds no stock of product " + line.getProductId();
+                } else if (onHand.compareTo(line.getQuantity()) < 0) {
+                    error = "Insufficient inventory quantity. Available: " + onHand + ", Required: " + line.getQuantity();
+                } else {
+                    available.put(source, onHand.subtract(line.getQuantity()));
+                    available.merge(destination, line.getQuantity(), BigDecimal::add);
+                }
+            }
+            line.setStatus(error == null ? TransferLineDTO.LineStatus.APPLIED : TransferLineDTO.LineStatus.FAILED);
+            line.setMessage(error);
+        }
+
+        int failed = (int) lines.stream().filter(line -> line.getStatus() == TransferLineDTO.LineStatus.FAILED).count();
+        if (failed > 0 && order.isAllOrNothing()) {
+            for (TransferLineDTO line : lines) {
+                if (line.getStatus() == TransferLineDTO.LineStatus.APPLIED) {
+                    line.setStatus(TransferLineDTO.LineStatus.CANCELLED);
+                    line.setMessage("Order cancelled: " + failed + " line(s) failed");
+                }
+            }
+            order.setLinesApplied(0);
+            order.setLinesFailed(failed);
+            return order;
+        }
+
+        apply(order, locked, available);
+        order.setLinesApplied(lines.size() - failed);
+        order.setLinesFailed(failed);
+        return order;
+    }
+
+    // Net change per existing row as one batch and the new destination rows as another, then the transaction
+    // rows, the ledger entries and the low-stock check
+    private void apply(StockTransferOrderDTO order, Map<StockKey, BigDecimal> locked, Map<StockKey, BigDecimal> available) {
+        LocalDateTime occurredAt = LocalDateTime.now();
+        Timestamp now = Timestamp.valueOf(occurredAt);
+
+        Map<StockKey, BigDecimal> changes = new TreeMap<>();
+        available.forEach((key, quantity) -> {
+            BigDecimal change = quantity.subtract(locked.getOrDefault(key, BigDecimal.ZERO));
+            if (change.signum() != 0) {
+                changes.put(key, change);
+            }
+        });
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        Set<StockKey> created = new TreeSet<>();
+        changes.forEach((key, change) -> {
+            if (locked.containsKey(key)) {
+                updates.add(new Object[] {change, now, key.branchId, key.productId});
+            } else {
+                inserts.add(new Object[] {key.branchId, key.productId, change, now});
+                created.add(key);
+            }
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+        // Quantities before the change: locked ones as read, new rows as found after the insert, in case
+        // another order created the same row first
+        Map<StockKey, BigDecimal> before = new HashMap<>(locked);
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            lockRows(created).forEach((key, quantity) -> before.put(key, quantity.subtract(changes.get(key))));
+        }
+
+        String remarks = order.getRemarks() != null ? " - " + order.getRemarks() : "";
+        List<Object[]> transactions = new ArrayList<>();
+        for (TransferLineDTO line : order.getLines()) {
+            if (line.getStatus() == TransferLineDTO.LineStatus.APPLIED) {
+                transactions.add(new Object[] {line.getFromBranchId(), line.getProductId(), line.getQuantity().negate(),
+                    order.getReferenceNumber(), "Transfer to branch " + line.getToBranchId() + remarks, order.getCreatedBy(), now});
+                transactions.add(new Object[] {line.getToBranchId(), line.getProductId(), line.getQuantity(),
+                    order.getReferenceNumber(), "Transfer from branch " + line.getFromBranchId() + remarks, order.getCreatedBy(), now});
+            }
+        }
+        jdbcTemplate.batchUpdate(TRANSACTION_SQL, transactions);
+
+        Map<Long, Map<Long, BigDecimal>> changesByBranch = new TreeMap<>();
+        changes.forEach((key, change) ->
+            changesByBranch.computeIfAbsent(key.branchId, branchId -> new TreeMap<>()).put(key.productId, change));
+        String reference = order.getReferenceNumber() != null ? "Transfer order " + order.getReferenceNumber() : "Transfer order";
+        changesByBranch.forEach((branchId, branchChanges) -> stockLedgerService.recordBatch(branchId, branchChanges,
+            StockLedgerEntry.MovementType.TRANSFER, reference, order.getCreatedBy(), occurredAt));
+
+        changes.keySet().forEach(key -> lowStockAlertService.onStockChange(key.branchId, key.productId,
+            before.get(key), before.get(key).add(changes.get(key))));
+    }
+
+    // Which of the keys have an inventory row, by a plain read that takes no locks
+    private Set<StockKey> existingKeys(Set<StockKey> keys) {
+        Set<StockKey> existing = new TreeSet<>();
+        if (!keys.isEmpty()) {
+            jdbcTemplate.query("SELECT branch_id, product_id FROM inventory WHERE (branch_id, product_id) IN (" +
+                    placeholders(keys) + ")",
+                rs -> {
+                    existing.add(new StockKey(rs.getLong(1), rs.getLong(2)));
+                },
+                keyArgs(keys));
+        }
+        return existing;
+    }
+
+    // Current quantity of each existing row, read with FOR UPDATE in (branch, product) order
+    private Map<StockKey, BigDecimal> lockRows(Set<StockKey> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<StockKey, BigDecimal> quantities = new HashMap<>();
+        jdbcTemplate.query("SELECT branch_id, product_id, quantity FROM inventory WHERE (branch_id, product_id) IN (" +
+                placeholders(keys) + ") ORDER BY branch_id, product_id FOR UPDATE",
+            rs -> {
+                quantities.put(new StockKey(rs.getLong(1), rs.getLong(2)), rs.getBigDecimal(3));
+            },
+            keyArgs(keys));
+        return quantities;
+    }
+
+    private static String placeholders(Set<StockKey> keys) {
+        return String.join(", ", Collections.nCopies(keys.size(), "(?, ?)"));
+    }
+
+    private static Object[] keyArgs(Set<StockKey> keys) {
+        List<Object> args = new ArrayList<>();
+        for (StockKey key : keys) {
+            args.add(key.branchId);
+            args.add(key.productId);
+        }
+        return args.toArray();
+    }
+
+    private static String shapeError(TransferLineDTO line, Set<Long> knownBranches) {
+        if (line.getProductId() == null || line.getFromBranchId() == null || line.getToBranchId() == null) {
+            return "Product, source branch and destination branch are required";
+        }
+        if (line.getQuantity() == null || line.getQuantity().signum() <= 0) {
+            return "Quantity must be greater than 0";
+        }
+        if (line.getFromBranchId().equals(line.getToBranchId())) {
+            return "Source and destination branch must differ";
+        }
+        if (!knownBranches.contains(line.getFromBranchId())) {
+            return "Branch not found with id: " + line.getFromBranchId();
+        }
+        if (!knownBranches.contains(line.getToBranchId())) {
+            return "Branch not found with id: " + line.getToBranchId();
+        }
+        return null;
+    }
+
+    // Inventory row identity, ordered by branch then product to fix the lock order
+    private static final class StockKey implements Comparable<StockKey> {
+        private final Long branchId;
+        private final Long productId;
+
+        StockKey(Long branchId, Long productId) {
+            this.branchId = branchId;
+            this.productId = productId;
+        }
+
+        @Override
+        public int compareTo(StockKey other) {
+            int byBranch = branchId.compareTo(other.branchId);
+            return byBranch != 0 ? byBranch : productId.compareTo(other.productId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StockKey)) return false;
+            StockKey that = (StockKey) o;
+            return branchId.equals(that.branchId) && productId.equals(that.productId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(branchId, productId);
+        }
+    }
+}
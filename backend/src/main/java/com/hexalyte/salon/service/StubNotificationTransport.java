@@ -0,0 +1,41 @@
+package com.hexalyte.salon.service;
+
+import com.hexalyte.salon.model.NotificationOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Local transport for tests and development (notification.transport=stub).
+ * Accepts every channel and keeps delivered messages in memory instead of contacting SMTP or SMS providers.
+ * The bean only exists while the stub is selected, so the diagnostic line per message never appears with a
+ * real transport.
+ */
+@Service
+@ConditionalOnProperty(name = "notification.transport", havingValue = "stub")
+public class StubNotificationTransport implements NotificationTransport {
+
+    private final List<NotificationOutbox> deliveredMessages = new CopyOnWriteArrayList<>();
+
+    @Override
+    public boolean supports(NotificationOutbox.Channel channel) {
+        return true;
+    }
+
+    @Override
+    public void send(NotificationOutbox message) {
+        deliveredMessages.add(message);
+        System.err.println("Stub notification transport: " + message.getChannel() + " to " + message.getRecipient() + ": " + message.getBody());
+    }
+
+    public List<NotificationOutbox> getDeliveredMessages() {
+        return new ArrayList<>(deliveredMessages);
+    }
+
+    public void clear() {
+        deliveredMessages.clear();
+    }
+}
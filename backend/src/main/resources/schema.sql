@@ -157,23 +157,87 @@ CREATE TABLE IF NOT EXISTS appointment_service (
     FOREIGN KEY (service_id) REFERENCES services(id) ON DELETE CASCADE
 );
 
+-- Pooled id blocks for entities inserted in JDBC batches (see @TableGenerator on Appointment).
+-- Seeded one allocation block (50) past the current maximum id.
+CREATE TABLE IF NOT EXISTS id_generator (
+    sequence_name VARCHAR(100) PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+INSERT IGNORE INTO id_generator (sequence_name, next_val)
+SELECT 'appointments', COALESCE(MAX(id), 0) + 51 FROM appointments;
+INSERT IGNORE INTO id_generator (sequence_name, next_val)
+SELECT 'appointment_service', COALESCE(MAX(id), 0) + 51 FROM appointment_service;
+
+-- Appointment Reminder queue (one row per reminder; fired by the in-memory timing wheel)
+CREATE TABLE IF NOT EXISTS appointment_reminder (
+    id BIGINT PRIMARY KEY,
+    appointment_id BIGINT NOT NULL,
+    reminder_type ENUM('DAY_BEFORE','TWO_HOURS','THIRTY_MINUTES') NOT NULL,
+    due_at DATETIME NOT NULL,
+    status ENUM('PENDING','SENT','CANCELLED','EXPIRED') NOT NULL DEFAULT 'PENDING',
+    sent_at DATETIME NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (appointment_id) REFERENCES appointments(id) ON DELETE CASCADE,
+    INDEX idx_reminder_status_due (status, due_at),
+    INDEX idx_reminder_appointment_status (appointment_id, status)
+);
+
+INSERT IGNORE INTO id_generator (sequence_name, next_val) VALUES ('appointment_reminder', 1);
+
+-- Notification outbox (written in the business transaction, drained asynchronously per channel)
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT PRIMARY KEY,
+    channel ENUM('EMAIL','SMS') NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NULL,
+    body TEXT NOT NULL,
+    status ENUM('PENDING','SENDING','SENT','FAILED') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME NOT NULL,
+    claimed_at DATETIME NULL,
+    sent_at DATETIME NULL,
+    last_error VARCHAR(500) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_outbox_dispatch (channel, status, next_attempt_at),
+    INDEX idx_outbox_status_sent (status, sent_at)
+);
+
+INSERT IGNORE INTO id_generator (sequence_name, next_val) VALUES ('notification_outbox', 1);
+
 -- Commission table
+-- period_month mirrors calculated_on as 'YYYY-MM' so per-staff monthly totals are served from an index.
+-- Existing databases: add the column, backfill with DATE_FORMAT(calculated_on, '%Y-%m') and create the indexes below.
 CREATE TABLE IF NOT EXISTS commission (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    commission_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    branch_id BIGINT NOT NULL,
     staff_id BIGINT NOT NULL,
     appointment_id BIGINT NOT NULL,
     service_id BIGINT NOT NULL,
-    branch_id BIGINT NOT NULL,
-    amount DECIMAL(10,2) NOT NULL,
-    commission_rate DECIMAL(5,2) NOT NULL,
-    commission_date DATE NOT NULL,
-    status ENUM('PENDING', 'APPROVED', 'PAID') DEFAULT 'PENDING',
+    commission_type ENUM('PERCENT', 'FIXED', 'TIERED', 'SHARED') NOT NULL DEFAULT 'PERCENT',
+    rate DECIMAL(10,2), -- percentage, or the fixed amount for FIXED
+    amount DECIMAL(10,2),
+    calculated_on DATETIME,
+    period_month CHAR(7) NOT NULL,
+    approved_by BIGINT,
+    approved_at DATETIME,
+    is_manual BOOLEAN NOT NULL DEFAULT FALSE,
+    status ENUM('PENDING', 'APPROVED', 'LOCKED', 'REVERSED') NOT NULL DEFAULT 'PENDING',
+    calculation_rule TEXT,
+    commission_rule_id BIGINT,
+    event_sequence INT NOT NULL DEFAULT 0,
+    service_price DECIMAL(10,2),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (staff_id) REFERENCES staff(id) ON DELETE CASCADE,
     FOREIGN KEY (appointment_id) REFERENCES appointments(id) ON DELETE CASCADE,
     FOREIGN KEY (service_id) REFERENCES services(id) ON DELETE CASCADE,
-    FOREIGN KEY (branch_id) REFERENCES branch(branch_id) ON DELETE CASCADE
+    FOREIGN KEY (branch_id) REFERENCES branch(branch_id) ON DELETE CASCADE,
+    FOREIGN KEY (approved_by) REFERENCES users(id),
+    INDEX idx_commission_staff_branch_period (staff_id, branch_id, period_month, status, amount),
+    INDEX idx_commission_branch_calculated (branch_id, calculated_on, status),
+    INDEX idx_commission_branch_period_staff (branch_id, period_month, staff_id, status, amount),
+    INDEX idx_commission_calculated_status (calculated_on, status)
 );
 
 -- Enhanced Billing table
@@ -200,7 +264,58 @@ CREATE TABLE IF NOT EXISTS billing (
     FOREIGN KEY (branch_id) REFERENCES branch(branch_id) ON DELETE CASCADE,
     FOREIGN KEY (appointment_id) REFERENCES appointments(id) ON DELETE CASCADE,
     FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE CASCADE,
-    FOREIGN KEY (created_by) REFERENCES users(id) ON DELETE SET NULL
+    FOREIGN KEY (created_by) REFERENCES users(id) ON DELETE SET NULL,
+    -- Bill search: equality filters first, then the (bill_date, bill_id) keyset order
+    INDEX idx_billing_date_id (bill_date, bill_id),
+    INDEX idx_billing_branch_date_id (branch_id, bill_date, bill_id),
+    INDEX idx_billing_branch_status_date_id (branch_id, status, bill_date, bill_id),
+    INDEX idx_billing_branch_method_date_id (branch_id, payment_method, bill_date, bill_id),
+    INDEX idx_billing_customer_date_id (customer_id, bill_date, bill_id)
+);
+
+-- Bill number sequence (one counter row per branch and month, locked while a number is taken)
+CREATE TABLE IF NOT EXISTS bill_number_sequence (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    branch_id BIGINT NOT NULL,
+    period CHAR(7) NOT NULL,
+    next_value BIGINT NOT NULL DEFAULT 1,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_bill_number_sequence (branch_id, period),
+    FOREIGN KEY (branch_id) REFERENCES branch(branch_id)
+);
+
+-- Billing dashboard rollups (maintained incrementally by bill generation, payment and refund)
+CREATE TABLE IF NOT EXISTS billing_rollup (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    branch_id BIGINT NOT NULL,
+    granularity ENUM('DAY','MONTH','ALL') NOT NULL,
+    period_start DATE NOT NULL,
+    bill_count INT NOT NULL DEFAULT 0,
+    paid_bills INT NOT NULL DEFAULT 0,
+    partial_bills INT NOT NULL DEFAULT 0,
+    unpaid_bills INT NOT NULL DEFAULT 0,
+    refunded_bills INT NOT NULL DEFAULT 0,
+    cancelled_bills INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    tax_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    discount_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    refund_count INT NOT NULL DEFAULT 0,
+    refund_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_billing_rollup (branch_id, granularity, period_start),
+    FOREIGN KEY (branch_id) REFERENCES branch(branch_id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS billing_payment_rollup (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    branch_id BIGINT NOT NULL,
+    rollup_date DATE NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    bill_count INT NOT NULL DEFAULT 0,
+    amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_billing_payment_rollup (branch_id, rollup_date, payment_method),
+    FOREIGN KEY (branch_id) REFERENCES branch(branch_id) ON DELETE CASCADE
 );
 
 -- Billing Item table
@@ -345,6 +460,36 @@ CREATE TABLE IF NOT EXISTS low_stock_alert (
     FOREIGN KEY (resolved_by) REFERENCES users(id) ON DELETE SET NULL
 );
 
+-- Stock ledger: one append-only row per inventory quantity change; stock at any instant is the sum of
+-- the changes before it
+CREATE TABLE IF NOT EXISTS stock_ledger_entry (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    branch_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    movement_type ENUM('OPENING','STOCK_IN','STOCK_OUT','COUNT','USAGE','TRANSFER') NOT NULL,
+    quantity_change DECIMAL(10,2) NOT NULL,
+    reference VARCHAR(255),
+    user_id BIGINT,
+    occurred_at DATETIME(6) NOT NULL,
+    INDEX idx_stock_ledger_branch_time (branch_id, occurred_at),
+    INDEX idx_stock_ledger_branch_product_time (branch_id, product_id, occurred_at),
+    FOREIGN KEY (branch_id) REFERENCES branch(branch_id) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES product(product_id) ON DELETE CASCADE
+);
+
+-- Per-branch stock snapshots: the ledger summed up to (excluding) snapshot_at, one row per product with history
+CREATE TABLE IF NOT EXISTS stock_snapshot (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    branch_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    snapshot_at DATETIME(6) NOT NULL,
+    quantity DECIMAL(12,2) NOT NULL,
+    created_at DATETIME NOT NULL,
+    UNIQUE KEY uk_stock_snapshot (branch_id, snapshot_at, product_id),
+    FOREIGN KEY (branch_id) REFERENCES branch(branch_id) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES product(product_id) ON DELETE CASCADE
+);
+
 -- Attendance table (Advanced Version)
 CREATE TABLE IF NOT EXISTS attendance (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -382,6 +527,79 @@ CREATE TABLE IF NOT EXISTS payroll (
     UNIQUE KEY unique_staff_month (staff_id, month_year)
 );
 
+-- Commission Summary table (kept current by signed deltas, reconciled nightly)
+CREATE TABLE IF NOT EXISTS commission_summary (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    staff_id BIGINT NOT NULL,
+    branch_id BIGINT NOT NULL,
+    month VARCHAR(7) NOT NULL, -- Format: YYYY-MM
+    total_services INT DEFAULT 0,
+    total_commission DECIMAL(10,2) DEFAULT 0.00,
+    status ENUM('PENDING', 'APPROVED', 'LOCKED') NOT NULL DEFAULT 'PENDING',
+    generated_at DATETIME,
+    approved_by BIGINT,
+    approved_at DATETIME,
+    locked_at DATETIME,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (staff_id) REFERENCES staff(id) ON DELETE CASCADE,
+    FOREIGN KEY (branch_id) REFERENCES branch(branch_id) ON DELETE CASCADE,
+    UNIQUE KEY uk_commission_summary (staff_id, branch_id, month),
+    INDEX idx_commission_summary_month_status (month, status)
+);
+
+-- Commission Event table (append-only stream per commission; amount and status are the state after each event)
+CREATE TABLE IF NOT EXISTS commission_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    commission_id BIGINT NOT NULL,
+    sequence_no INT NOT NULL,
+    event_type ENUM('CALCULATED', 'RECALCULATED', 'ADJUSTED', 'APPROVED', 'LOCKED', 'REVERSED') NOT NULL,
+    staff_id BIGINT NOT NULL,
+    branch_id BIGINT NOT NULL,
+    period_month CHAR(7) NOT NULL,
+    amount DECIMAL(10,2),
+    status ENUM('PENDING', 'APPROVED', 'LOCKED', 'REVERSED') NOT NULL,
+    user_id BIGINT,
+    reason TEXT,
+    occurred_at DATETIME NOT NULL,
+    UNIQUE KEY uk_commission_event_sequence (commission_id, sequence_no),
+    INDEX idx_commission_event_period_staff (period_month, staff_id),
+    FOREIGN KEY (commission_id) REFERENCES commission(commission_id) ON DELETE CASCADE
+);
+
+-- Commission Rule table (every non-null criterion must match, the most specific rule wins)
+CREATE TABLE IF NOT EXISTS commission_rule (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    service_id BIGINT,
+    branch_id BIGINT,
+    staff_id BIGINT,
+    staff_tier VARCHAR(100),
+    valid_from DATE,
+    valid_to DATE,
+    commission_type ENUM('PERCENT', 'FIXED', 'TIERED', 'SHARED') NOT NULL DEFAULT 'PERCENT',
+    rate DECIMAL(10,2) NOT NULL,
+    priority INT NOT NULL DEFAULT 0,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at DATETIME,
+    updated_at DATETIME,
+    FOREIGN KEY (service_id) REFERENCES services(id) ON DELETE CASCADE,
+    FOREIGN KEY (branch_id) REFERENCES branch(branch_id) ON DELETE CASCADE,
+    FOREIGN KEY (staff_id) REFERENCES staff(id) ON DELETE CASCADE,
+    INDEX idx_commission_rule_active (active)
+);
+
+-- Commission Period Snapshot table (one frozen JSON payload per fully locked month)
+CREATE TABLE IF NOT EXISTS commission_period_snapshot (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    month VARCHAR(7) NOT NULL, -- Format: YYYY-MM
+    total_services BIGINT NOT NULL DEFAULT 0,
+    total_commission DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    payload MEDIUMTEXT NOT NULL,
+    created_at DATETIME NOT NULL,
+    UNIQUE KEY uk_commission_period_snapshot_month (month)
+);
+
 -- Staff Commission Summary table
 CREATE TABLE IF NOT EXISTS staff_commission_summary (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -0,0 +1,184 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.Commission;
+import com.hexalyte.salon.model.MonthPeriod;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Opt-in benchmark of the per-staff monthly commission total and count: the stored period_month filters
+ * against the YEAR()/MONTH() filters they replaced, over the same seeded rows and the schema.sql index.
+ * Both forms must return the same figures for every probe; the median and p95 latency of each are logged
+ * for comparison only, as H2 says little about MySQL index behaviour. Run it with
+ * {@code mvn test -Dcommission.benchmark=true -Dtest=CommissionMonthQueryBenchmarkTest}; the row count
+ * defaults to 200,000 and can be changed with -Dcommission.benchmark.rows=N.
+ */
+@RepositoryTest
+@EnabledIfSystemProperty(named = "commission.benchmark", matches = "true")
+class CommissionMonthQueryBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CommissionMonthQueryBenchmarkTest.class);
+
+    private static final int ROWS = Integer.getInteger("commission.benchmark.rows", 200_000);
+    private static final int STAFF = 50;
+    private static final int BRANCHES = 5;
+    private static final int MONTHS = 24;
+    private static final int WARMUP_PROBES = 50;
+    private static final int PROBES = 300;
+    private static final MonthPeriod FIRST_MONTH = MonthPeriod.of(2024, 1);
+
+    // The queries as they were before the stored period_month
+    private static final String OLD_TOTAL_JPQL = "SELECT COALESCE(SUM(c.amount), 0) FROM Commission c WHERE " +
+        "c.staff.id = :staffId AND c.branch.id = :branchId AND YEAR(c.calculatedOn) = :year AND " +
+        "MONTH(c.calculatedOn) = :month AND c.status != 'REVERSED'";
+    private static final String OLD_COUNT_JPQL = "SELECT COUNT(c) FROM Commission c WHERE " +
+        "c.staff.id = :staffId AND c.branch.id = :branchId AND YEAR(c.calculatedOn) = :year AND " +
+        "MONTH(c.calculatedOn) = :month AND c.status != 'REVERSED'";
+
+    @Autowired
+    private CommissionRepository commissionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM commission", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE INDEX idx_commission_staff_branch_period " +
+            "ON commission (staff_id, branch_id, period_month, status, amount)");
+
+        Random random = new Random(42);
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            long staffId = i % STAFF + 1;
+            LocalDateTime calculatedOn = FIRST_MONTH.getStart()
+                .plusMonths(random.nextInt(MONTHS))
+                .plusDays(random.nextInt(28))
+                .plusMinutes(random.nextInt(24 * 60));
+            String status = random.nextInt(10) == 0 ? "REVERSED" : "APPROVED";
+            batch.add(new Object[] {branchOf(staffId), staffId, (long) i + 1, (long) random.nextInt(20) + 1,
+                BigDecimal.valueOf(random.nextInt(50_000), 2), Timestamp.valueOf(calculatedOn),
+                MonthPeriod.of(calculatedOn).getKey(), status, createdAt});
+            if (batch.size() == 5_000) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+    }
+
+    @Test
+    void periodMonthQueriesMatchDateFunctionQueries() {
+        Random random = new Random(7);
+        long[][] probes = new long[WARMUP_PROBES + PROBES][];
+        for (int i = 0; i < probes.length; i++) {
+            long staffId = random.nextInt(STAFF) + 1;
+            probes[i] = new long[] {staffId, branchOf(staffId), random.nextInt(MONTHS)};
+        }
+
+        long[] oldNanos = new long[PROBES];
+        long[] newNanos = new long[PROBES];
+        for (int i = 0; i < probes.length; i++) {
+            Long staffId = probes[i][0];
+            Long branchId = probes[i][1];
+            MonthPeriod month = MonthPeriod.of(FIRST_MONTH.getStart().plusMonths(probes[i][2]));
+            int year = month.getStart().getYear();
+            int monthValue = month.getStart().getMonthValue();
+
+            // Alternate which form runs first so caching favours neither
+            Object[] oldResult;
+            Object[] newResult;
+            long oldTime;
+            long newTime;
+            if (i % 2 == 0) {
+                long start = System.nanoTime();
+                oldResult = oldQueries(staffId, branchId, year, monthValue);
+                oldTime = System.nanoTime() - start;
+                start = System.nanoTime();
+                newResult = newQueries(staffId, branchId, month.getKey());
+                newTime = System.nanoTime() - start;
+            } else {
+                long start = System.nanoTime();
+                newResult = newQueries(staffId, branchId, month.getKey());
+                newTime = System.nanoTime() - start;
+                start = System.nanoTime();
+                oldResult = oldQueries(staffId, branchId, year, monthValue);
+                oldTime = System.nanoTime() - start;
+            }
+
+            assertEquals(0, ((BigDecimal) oldResult[0]).compareTo((BigDecimal) newResult[0]),
+                "Total differs for staff " + staffId + " in " + month);
+            assertEquals(oldResult[1], newResult[1], "Count differs for staff " + staffId + " in " + month);
+            if (i >= WARMUP_PROBES) {
+                oldNanos[i - WARMUP_PROBES] = oldTime;
+                newNanos[i - WARMUP_PROBES] = newTime;
+            }
+        }
+
+        log.info("Commission month queries over {} rows: YEAR()/MONTH() median {} us (p95 {} us), " +
+                "period_month median {} us (p95 {} us)", ROWS, median(oldNanos) / 1000, percentile(oldNanos, 95) / 1000,
+            median(newNanos) / 1000, percentile(newNanos, 95) / 1000);
+    }
+
+    private Object[] oldQueries(Long staffId, Long branchId, int year, int month) {
+        return new Object[] {
+            entityManager.createQuery(OLD_TOTAL_JPQL, BigDecimal.class)
+                .setParameter("staffId", staffId).setParameter("branchId", branchId)
+                .setParameter("year", year).setParameter("month", month)
+                .getSingleResult(),
+            entityManager.createQuery(OLD_COUNT_JPQL, Long.class)
+                .setParameter("staffId", staffId).setParameter("branchId", branchId)
+                .setParameter("year", year).setParameter("month", month)
+                .getSingleResult()
+        };
+    }
+
+    private Object[] newQueries(Long staffId, Long branchId, String month) {
+        return new Object[] {
+            commissionRepository.calculateTotalCommissionForStaffInMonth(staffId, branchId, month),
+            commissionRepository.countServicesForStaffInMonth(staffId, branchId, month)
+        };
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO commission (branch_id, staff_id, appointment_id, service_id, " +
+            "commission_type, amount, calculated_on, period_month, is_manual, status, event_sequence, created_at) " +
+            "VALUES (?, ?, ?, ?, '" + Commission.CommissionType.PERCENT.name() + "', ?, ?, ?, FALSE, ?, 1, ?)", rows);
+    }
+
+    private static long branchOf(long staffId) {
+        return staffId % BRANCHES + 1;
+    }
+
+    private static long median(long[] nanos) {
+        return percentile(nanos, 50);
+    }
+
+    private static long percentile(long[] nanos, int percent) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
@@ -0,0 +1,127 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.Inventory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads deducting and restocking one SKU at once, each call in its own transaction. The conditional
+ * UPDATEs must never oversell: the final quantity equals the start plus every restock less every
+ * successful deduction, and never drops below zero.
+ */
+@RepositoryTest
+class InventoryRepositoryConcurrencyTest {
+
+    private static final Long BRANCH_ID = 1L;
+    private static final int THREADS = 16;
+    private static final int CALLS_PER_THREAD = 50;
+    private static final BigDecimal START = new BigDecimal("100.00");
+    private static final BigDecimal DEDUCTION = new BigDecimal("3.00");
+    private static final BigDecimal RESTOCK = new BigDecimal("2.00");
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentDeductionsNeverOversell() throws Exception {
+        Long productId = 101L;
+        inventoryRepository.save(new Inventory(BRANCH_ID, productId, START));
+
+        AtomicInteger deducted = new AtomicInteger();
+        runConcurrently(thread -> {
+            if (deduct(productId)) {
+                deducted.incrementAndGet();
+            }
+        });
+
+        BigDecimal finalQuantity = inventoryRepository.findQuantity(BRANCH_ID, productId).orElseThrow();
+        assertTrue(finalQuantity.signum() >= 0, "Stock went negative: " + finalQuantity);
+        assertEquals(0, START.subtract(DEDUCTION.multiply(BigDecimal.valueOf(deducted.get()))).compareTo(finalQuantity),
+            "Final quantity " + finalQuantity + " after " + deducted.get() + " deductions");
+        // 800 attempts against 100 units: exactly floor(100 / 3) can succeed
+        assertEquals(33, deducted.get());
+    }
+
+    @Test
+    void deductionsRacingRestocksKeepEveryChange() throws Exception {
+        Long productId = 102L;
+        inventoryRepository.save(new Inventory(BRANCH_ID, productId, START));
+
+        AtomicInteger deducted = new AtomicInteger();
+        AtomicInteger restocked = new AtomicInteger();
+        runConcurrently(thread -> {
+            if (thread % 4 == 0) {
+                Integer updated = new TransactionTemplate(transactionManager).execute(status ->
+                    inventoryRepository.addQuantity(BRANCH_ID, productId, RESTOCK, LocalDateTime.now()));
+                if (updated != null && updated == 1) {
+                    restocked.incrementAndGet();
+                }
+            } else if (deduct(productId)) {
+                deducted.incrementAndGet();
+            }
+        });
+
+        BigDecimal finalQuantity = inventoryRepository.findQuantity(BRANCH_ID, productId).orElseThrow();
+        BigDecimal expected = START
+            .add(RESTOCK.multiply(BigDecimal.valueOf(restocked.get())))
+            .subtract(DEDUCTION.multiply(BigDecimal.valueOf(deducted.get())));
+        assertTrue(finalQuantity.signum() >= 0, "Stock went negative: " + finalQuantity);
+        assertEquals(THREADS / 4 * CALLS_PER_THREAD, restocked.get());
+        assertEquals(0, expected.compareTo(finalQuantity),
+            "Final quantity " + finalQuantity + " after " + restocked.get() + " restocks and " + deducted.get() + " deductions");
+    }
+
+    private boolean deduct(Long productId) {
+        Integer updated = new TransactionTemplate(transactionManager).execute(status ->
+            inventoryRepository.deductIfAvailable(BRANCH_ID, productId, DEDUCTION, LocalDateTime.now()));
+        return updated != null && updated == 1;
+    }
+
+    // Release all threads at once, each making CALLS_PER_THREAD calls, and rethrow any failure
+    private void runConcurrently(ThreadCall call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < CALLS_PER_THREAD; n++) {
+                        call.run(thread);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadCall {
+        void run(int thread);
+    }
+}
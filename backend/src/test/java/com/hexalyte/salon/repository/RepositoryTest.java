@@ -0,0 +1,37 @@
+package com.hexalyte.salon.repository;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Repository test against an in-memory H2 database in MySQL mode, with tables generated from the entities
+ * and no foreign keys. Only the repositories in {@link RepositoryTestConfig} are created. Test methods run
+ * outside a transaction so they can drive concurrent ones; all such tests share one context and database.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:repository_test;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000;NON_KEYWORDS=MONTH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.hbm2ddl.default_constraint_mode=NO_CONSTRAINT",
+    "spring.jpa.show-sql=false",
+    "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = RepositoryTestConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public @interface RepositoryTest {
+}
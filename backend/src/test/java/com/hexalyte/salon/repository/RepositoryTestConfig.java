@@ -0,0 +1,23 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.model.Inventory;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Entities and the repositories {@link RepositoryTest}s use. Repositories are listed one by one: a full
+ * scan would fail on queries that only validate against MySQL.
+ */
+@Configuration
+@EntityScan(basePackageClasses = Inventory.class)
+@EnableJpaRepositories(basePackageClasses = InventoryRepository.class, includeFilters =
+    @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
+        InventoryRepository.class,
+        CommissionRepository.class,
+        BranchRepository.class
+    }))
+public class RepositoryTestConfig {
+}
@@ -0,0 +1,167 @@
+package com.hexalyte.salon.repository;
+
+import com.hexalyte.salon.dto.StockTransferOrderDTO;
+import com.hexalyte.salon.dto.StockTransferOrderDTO.TransferLineDTO;
+import com.hexalyte.salon.service.LowStockAlertService;
+import com.hexalyte.salon.service.StockLedgerService;
+import com.hexalyte.salon.service.StockTransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Transfer orders against a real schema: per-line outcomes, all-or-nothing cancellation, several lines
+ * drawing on one source, and destination rows created only for lines that are applied.
+ */
+@RepositoryTest
+@Import(StockTransferService.class)
+class StockTransferServiceTest {
+
+    private static final Long MAIN = 1L;
+    private static final Long NORTH = 2L;
+    private static final Long SOUTH = 3L;
+    private static final Long SHAMPOO = 201L;
+    private static final Long CONDITIONER = 202L;
+
+    @Autowired
+    private StockTransferService stockTransferService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private StockLedgerService stockLedgerService;
+
+    @MockBean
+    private LowStockAlertService lowStockAlertService;
+
+    @BeforeEach
+    void seed() {
+        // schema.sql's unique key, which the entity does not declare
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS unique_branch_product ON inventory (branch_id, product_id)");
+        jdbcTemplate.update("DELETE FROM inventory_transaction");
+        jdbcTemplate.update("DELETE FROM inventory");
+        jdbcTemplate.update("DELETE FROM branch");
+        for (Long branchId : Arrays.asList(MAIN, NORTH, SOUTH)) {
+            jdbcTemplate.update("INSERT INTO branch (branch_id, branch_code, branch_name, status, created_at) " +
+                "VALUES (?, ?, ?, 'ACTIVE', CURRENT_TIMESTAMP)", branchId, "B" + branchId, "Branch " + branchId);
+        }
+        stock(MAIN, SHAMPOO, "10.00");
+        stock(MAIN, CONDITIONER, "4.00");
+        stock(NORTH, SHAMPOO, "1.00");
+    }
+
+    @Test
+    void failedLinesAreReportedAndTheRestApplied() {
+        StockTransferOrderDTO result = stockTransferService.processTransferOrder(order(false,
+            line(SHAMPOO, MAIN, NORTH, "3.00"),
+            line(CONDITIONER, MAIN, NORTH, "9.00"),
+            line(CONDITIONER, NORTH, SOUTH, "1.00"),
+            line(SHAMPOO, MAIN, MAIN, "1.00")));
+
+        assertEquals(1, result.getLinesApplied());
+        assertEquals(3, result.getLinesFailed());
+        List<TransferLineDTO> lines = result.getLines();
+        assertEquals(TransferLineDTO.LineStatus.APPLIED, lines.get(0).getStatus());
+        assertNull(lines.get(0).getMessage());
+        assertEquals("Insufficient inventory quantity. Available: 4.00, Required: 9.00", lines.get(1).getMessage());
+        assertEquals("Branch 2 holds no stock of product 202", lines.get(2).getMessage());
+        assertEquals("Source and destination branch must differ", lines.get(3).getMessage());
+
+        assertQuantity("7.00", MAIN, SHAMPOO);
+        assertQuantity("4.00", MAIN, CONDITIONER);
+        assertQuantity("4.00", NORTH, SHAMPOO);
+        assertEquals(2, count("SELECT COUNT(*) FROM inventory_transaction WHERE type = 'TRANSFER'"));
+        // The failed conditioner line left no empty row at North
+        assertEquals(3, count("SELECT COUNT(*) FROM inventory"));
+    }
+
+    @Test
+    void allOrNothingCancelsEveryLineAndWritesNothing() {
+        StockTransferOrderDTO result = stockTransferService.processTransferOrder(order(true,
+            line(SHAMPOO, MAIN, SOUTH, "2.00"),
+            line(CONDITIONER, MAIN, SOUTH, "5.00")));
+
+        assertEquals(0, result.getLinesApplied());
+        assertEquals(1, result.getLinesFailed());
+        assertEquals(TransferLineDTO.LineStatus.CANCELLED, result.getLines().get(0).getStatus());
+        assertEquals("Order cancelled: 1 line(s) failed", result.getLines().get(0).getMessage());
+        assertEquals(TransferLineDTO.LineStatus.FAILED, result.getLines().get(1).getStatus());
+
+        assertQuantity("10.00", MAIN, SHAMPOO);
+        assertQuantity("4.00", MAIN, CONDITIONER);
+        assertEquals(0, count("SELECT COUNT(*) FROM inventory WHERE branch_id = " + SOUTH));
+        assertEquals(0, count("SELECT COUNT(*) FROM inventory_transaction"));
+    }
+
+    @Test
+    void linesSharingASourceDrawOnWhatIsLeft() {
+        StockTransferOrderDTO result = stockTransferService.processTransferOrder(order(false,
+            line(SHAMPOO, MAIN, NORTH, "6.00"),
+            line(SHAMPOO, MAIN, SOUTH, "3.00"),
+            line(SHAMPOO, MAIN, SOUTH, "2.00")));
+
+        assertEquals(2, result.getLinesApplied());
+        assertEquals(1, result.getLinesFailed());
+        assertEquals("Insufficient inventory quantity. Available: 1.00, Required: 2.00",
+            result.getLines().get(2).getMessage());
+
+        assertQuantity("1.00", MAIN, SHAMPOO);
+        assertQuantity("7.00", NORTH, SHAMPOO);
+        // South had no shampoo row: it is created by the applied line with the transferred quantity
+        assertQuantity("3.00", SOUTH, SHAMPOO);
+        assertEquals(4, count("SELECT COUNT(*) FROM inventory_transaction"));
+    }
+
+    @Test
+    void stockMovedToANewRowCanBeMovedOnInTheSameOrder() {
+        StockTransferOrderDTO result = stockTransferService.processTransferOrder(order(false,
+            line(CONDITIONER, MAIN, SOUTH, "4.00"),
+            line(CONDITIONER, SOUTH, NORTH, "1.00")));
+
+        // The second line draws on what the first moved in; South's new row holds the net of both
+        assertEquals(2, result.getLinesApplied());
+        assertQuantity("0.00", MAIN, CONDITIONER);
+        assertQuantity("3.00", SOUTH, CONDITIONER);
+        assertQuantity("1.00", NORTH, CONDITIONER);
+    }
+
+    private void stock(Long branchId, Long productId, String quantity) {
+        jdbcTemplate.update("INSERT INTO inventory (branch_id, product_id, quantity, last_updated) VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+            branchId, productId, new BigDecimal(quantity));
+    }
+
+    private void assertQuantity(String expected, Long branchId, Long productId) {
+        BigDecimal quantity = jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE branch_id = ? AND product_id = ?",
+            BigDecimal.class, branchId, productId);
+        assertEquals(0, new BigDecimal(expected).compareTo(quantity),
+            "Branch " + branchId + " product " + productId + " holds " + quantity);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private static StockTransferOrderDTO order(boolean allOrNothing, TransferLineDTO... lines) {
+        StockTransferOrderDTO order = new StockTransferOrderDTO();
+        order.setReferenceNumber("TO-1");
+        order.setCreatedBy(1L);
+        order.setAllOrNothing(allOrNothing);
+        order.setLines(Arrays.asList(lines));
+        return order;
+    }
+
+    private static TransferLineDTO line(Long productId, Long fromBranchId, Long toBranchId, String quantity) {
+        return new TransferLineDTO(productId, fromBranchId, toBranchId, new BigDecimal(quantity));
+    }
+}